@@ -28,6 +28,7 @@ import org.biojava.nbio.core.alignment.template.SequencePair;
 import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
 import org.biojava.nbio.core.alignment.template.Profile;
 import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.alignment.routines.MyersMiller;
 import org.biojava.nbio.alignment.template.*;
 import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
@@ -68,9 +69,9 @@ public class Alignments {
 	 */
 	public static enum PairwiseSequenceAlignerType {
 		GLOBAL,              // Needleman-Wunsch/Gotoh
-		GLOBAL_LINEAR_SPACE, // Guan-Uberbacher
+		GLOBAL_LINEAR_SPACE, // Myers-Miller
 		LOCAL,               // Smith-Waterman/Gotoh
-		LOCAL_LINEAR_SPACE   // Smith-Waterman/Gotoh with smart traceback at each maximum
+		LOCAL_LINEAR_SPACE   // Myers-Miller on the region of a Smith-Waterman/Gotoh maximum
 	}
 
 	/**
@@ -166,6 +167,7 @@ public class Alignments {
 
 		}
 		ProfileProfileAlignerType pa = ProfileProfileAlignerType.GLOBAL;
+		AllPairsCalculator calculator = null;
 		for (Object o : settings) {
 			if (o instanceof PairwiseSequenceScorerType) {
 				ps = (PairwiseSequenceScorerType) o;
@@ -181,16 +183,15 @@ public class Alignments {
 				subMatrix = temp;
 			} else if (o instanceof ProfileProfileAlignerType) {
 				pa = (ProfileProfileAlignerType) o;
+			} else if (o instanceof AllPairsCalculator) {
+				calculator = (AllPairsCalculator) o;
 			}
 		}
 
 		// stage 1: pairwise similarity calculation
-		List<PairwiseSequenceScorer<S, C>> scorers = getAllPairsScorers(sequences, ps, gapPenalty, subMatrix);
-		runPairwiseScorers(scorers);
-
 		// stage 2: hierarchical clustering into a guide tree
-		GuideTree<S, C> tree = new GuideTree<S, C>(sequences, scorers);
-		scorers = null;
+		GuideTree<S, C> tree = new GuideTree<S, C>(sequences, ps, gapPenalty, subMatrix,
+				(calculator == null) ? new AllPairsCalculator() : calculator);
 
 		// stage 3: progressive alignment
 		Profile<S, C> msa = getProgressiveAlignment(tree, pa, gapPenalty, subMatrix);
@@ -267,8 +268,7 @@ public class Alignments {
 
 	/**
 	 * Factory method which computes a sequence pair score for all {@link Sequence} pairs in the given {@link List}.
-	 * This method runs the scorings in parallel by submitting all of the scorings to the shared thread pool of the
-	 * {@link ConcurrencyTools} utility.
+	 * This method runs the scorings in parallel in the common {@link java.util.concurrent.ForkJoinPool}.
 	 *
 	 * @param <S> each {@link Sequence} of a pair is of type S
 	 * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
@@ -280,7 +280,28 @@ public class Alignments {
 	 */
 	public static <S extends Sequence<C>, C extends Compound> double[] getAllPairsScores( List<S> sequences,
 			PairwiseSequenceScorerType type, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
-		return runPairwiseScorers(getAllPairsScorers(sequences, type, gapPenalty, subMatrix));
+		return getAllPairsScores(sequences, type, gapPenalty, subMatrix, new AllPairsCalculator());
+	}
+
+	/**
+	 * Factory method which computes a sequence pair score for all {@link Sequence} pairs in the given {@link List}.
+	 * This method runs the scorings in parallel with the given {@link AllPairsCalculator}, which sets the thread pool,
+	 * reports progress and can be cancelled.  Each scorer is discarded once its score is stored.
+	 *
+	 * @param <S> each {@link Sequence} of a pair is of type S
+	 * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+	 * @param sequences the {@link List} of {@link Sequence}s to align
+	 * @param type chosen type from list of pairwise sequence scoring routines
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @param calculator runs the scorings
+	 * @return list of sequence pair scores, in the order of {@link #getAllPairsScorers}
+	 */
+	public static <S extends Sequence<C>, C extends Compound> double[] getAllPairsScores(final List<S> sequences,
+			final PairwiseSequenceScorerType type, final GapPenalty gapPenalty, final SubstitutionMatrix<C> subMatrix,
+			AllPairsCalculator calculator) {
+		return calculator.calculate(sequences.size(), (i, j) ->
+				getPairwiseScorer(sequences.get(i), sequences.get(j), type, gapPenalty, subMatrix).getScore());
 	}
 
 	/**
@@ -330,10 +351,9 @@ public class Alignments {
 		case LOCAL:
 			return new SmithWaterman<S, C>(query, target, gapPenalty, subMatrix);
 		case GLOBAL_LINEAR_SPACE:
+			return new MyersMiller<S, C>(query, target, gapPenalty, subMatrix);
 		case LOCAL_LINEAR_SPACE:
-			// TODO other alignment options (Myers-Miller, Thompson)
-			throw new UnsupportedOperationException(Alignments.class.getSimpleName() + " does not yet support " +
-					type + " alignment");
+			return new MyersMiller<S, C>(query, target, gapPenalty, subMatrix, true);
 		}
 	}
 
@@ -608,8 +628,8 @@ public class Alignments {
 	}
 
 	/**
-	 * Factory method to run a list of scorers concurrently.  This method runs the scorers in parallel by submitting
-	 * all of the scoring tasks to the shared thread pool of the {@link ConcurrencyTools} utility.
+	 * Factory method to run a list of scorers concurrently.  This method runs the scorers in parallel in the common
+	 * {@link java.util.concurrent.ForkJoinPool}.
 	 *
 	 * @param <S> each {@link Sequence} of an alignment pair is of type S
 	 * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
@@ -617,19 +637,8 @@ public class Alignments {
 	 * @return list of score results from running scorers
 	 */
 	public static <S extends Sequence<C>, C extends Compound> double[] runPairwiseScorers(
-			List<PairwiseSequenceScorer<S, C>> scorers) {
-		int n = 1, all = scorers.size();
-		List<Future<Double>> futures = new ArrayList<Future<Double>>();
-		for (PairwiseSequenceScorer<S, C> scorer : scorers) {
-			futures.add(ConcurrencyTools.submit(new CallablePairwiseSequenceScorer<S, C>(scorer),
-					String.format("Scoring pair %d of %d", n++, all)));
-		}
-		List<Double> results = getListFromFutures(futures);
-		double[] scores = new double[results.size()];
-		for (int i = 0; i < scores.length; i++) {
-			scores[i] = results.get(i);
-		}
-		return scores;
+			final List<PairwiseSequenceScorer<S, C>> scorers) {
+		return new AllPairsCalculator().calculate(scorers.size(), n -> scorers.get(n).getScore());
 	}
 
 	/**
@@ -0,0 +1,301 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Computes a value for every pair of a list of items in a {@link ForkJoinPool}, storing the results in a primitive
+ * array.  The range of pairs is split recursively into chunks, so that idle threads steal work from busy ones, and no
+ * task or result object is kept per pair.
+ * <p>
+ * Pairs (i, j) with i &lt; j are numbered row by row: (0, 1), (0, 2), ..., (0, n - 1), (1, 2), ..., which is the order
+ * of {@link Alignments#getAllPairsScorers}.  A {@link ProgressListener} is told how many pairs are done after each
+ * chunk, and {@link #cancel()} stops the calculation from any thread.
+ *
+ * @since 5.0.0
+ */
+public class AllPairsCalculator {
+
+	/**
+	 * Computes the value of a pair of items.
+	 */
+	@FunctionalInterface
+	public interface PairFunction {
+
+		/**
+		 * Returns the value of a pair.
+		 *
+		 * @param i index of the first item
+		 * @param j index of the second item, greater than i
+		 * @return the value of the pair
+		 */
+		double apply(int i, int j);
+
+	}
+
+	/**
+	 * Receives the progress of a calculation.  It is called from the worker threads, so it must be thread-safe.
+	 */
+	@FunctionalInterface
+	public interface ProgressListener {
+
+		/**
+		 * Reports the progress of a calculation.
+		 *
+		 * @param done the number of values computed so far
+		 * @param total the number of values to compute
+		 */
+		void progress(long done, long total);
+
+	}
+
+	private static final int DEFAULT_CHUNK_SIZE = 16;
+
+	private final ForkJoinPool pool;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private ProgressListener progressListener;
+	private volatile boolean cancelled;
+
+	/**
+	 * Creates a calculator which runs in the common {@link ForkJoinPool}.
+	 */
+	public AllPairsCalculator() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a calculator which runs in the given pool.
+	 *
+	 * @param pool the pool to run the calculations in
+	 */
+	public AllPairsCalculator(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns the number of pairs of the given number of items.
+	 *
+	 * @param size the number of items
+	 * @return the number of pairs
+	 */
+	public static long getPairCount(int size) {
+		return (long) size * (size - 1) / 2;
+	}
+
+	/**
+	 * Returns the index of a pair in the results.
+	 *
+	 * @param i index of the first item
+	 * @param j index of the second item, greater than i
+	 * @param size the number of items
+	 * @return the index of the pair
+	 */
+	public static long getPairIndex(int i, int j, int size) {
+		return (long) i * size - (long) i * (i + 1) / 2 + (j - i - 1);
+	}
+
+	/**
+	 * Returns the number of values computed by a thread before it looks for more work.
+	 *
+	 * @return the chunk size
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the number of values computed by a thread before it looks for more work.  Larger chunks lower the overhead
+	 * for cheap functions, smaller ones balance the load better for expensive ones.
+	 *
+	 * @param chunkSize the chunk size
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+	/**
+	 * Returns the listener of the progress of calculations.
+	 *
+	 * @return the progress listener, or null
+	 */
+	public ProgressListener getProgressListener() {
+		return progressListener;
+	}
+
+	/**
+	 * Sets the listener of the progress of calculations.
+	 *
+	 * @param progressListener the progress listener, or null
+	 */
+	public void setProgressListener(ProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Stops the running calculation and all later ones, which then throw a {@link CancellationException}.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Returns whether {@link #cancel()} has been called.
+	 *
+	 * @return true if the calculator has been cancelled
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Computes the value of every pair of the given number of items.
+	 *
+	 * @param size the number of items
+	 * @param function the value of a pair
+	 * @return the values, in the order of {@link #getPairIndex(int, int, int)}
+	 * @throws CancellationException if the calculator has been cancelled
+	 */
+	public double[] calculate(int size, PairFunction function) {
+		long count = getPairCount(size);
+		if (count > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Too many pairs for an array: " + count);
+		}
+		double[] results = new double[(int) count];
+		calculate(size, function, results);
+		return results;
+	}
+
+	/**
+	 * Computes the value of every pair of the given number of items into the given array.
+	 *
+	 * @param size the number of items
+	 * @param function the value of a pair
+	 * @param results the values, in the order of {@link #getPairIndex(int, int, int)}
+	 * @throws CancellationException if the calculator has been cancelled
+	 */
+	public void calculate(final int size, final PairFunction function, final double[] results) {
+		if (results.length < getPairCount(size)) {
+			throw new IllegalArgumentException("Results need " + getPairCount(size) + " elements");
+		}
+		run((int) getPairCount(size), (from, to) -> {
+			// find the first pair of the chunk, then walk along the rows
+			int i = getRow(from, size), j = from - (int) getPairIndex(i, i + 1, size) + i + 1;
+			for (int n = from; n < to; n++) {
+				results[n] = function.apply(i, j);
+				if (++j == size) {
+					i++;
+					j = i + 1;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes a value for each of the given number of items.
+	 *
+	 * @param count the number of items
+	 * @param function the value of an item
+	 * @return the values
+	 * @throws CancellationException if the calculator has been cancelled
+	 */
+	public double[] calculate(int count, final IntToDoubleFunction function) {
+		final double[] results = new double[count];
+		run(count, (from, to) -> {
+			for (int n = from; n < to; n++) {
+				results[n] = function.applyAsDouble(n);
+			}
+		});
+		return results;
+	}
+
+	// returns the first item of the pair with the given index
+	private static int getRow(int index, int size) {
+		// solves index = i * size - i * (i + 1) / 2 for i, then corrects rounding errors
+		double b = 2.0 * size - 1;
+		int i = (int) Math.max(0, Math.floor((b - Math.sqrt(b * b - 8.0 * index)) / 2));
+		while (i > 0 && getPairIndex(i, i + 1, size) > index) {
+			i--;
+		}
+		while (i + 1 < size && getPairIndex(i + 1, i + 2, size) <= index) {
+			i++;
+		}
+		return i;
+	}
+
+	private void run(int count, Chunk chunk) {
+		if (cancelled) {
+			throw new CancellationException();
+		}
+		pool.invoke(new ChunkTask(chunk, 0, count, count, new AtomicLong()));
+		if (cancelled) {
+			throw new CancellationException();
+		}
+	}
+
+	// computes the values of a range of indices
+	@FunctionalInterface
+	private interface Chunk {
+		void run(int from, int to);
+	}
+
+	private class ChunkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Chunk chunk;
+		private final int from, to, total;
+		private final AtomicLong done;
+
+		private ChunkTask(Chunk chunk, int from, int to, int total, AtomicLong done) {
+			this.chunk = chunk;
+			this.from = from;
+			this.to = to;
+			this.total = total;
+			this.done = done;
+		}
+
+		@Override
+		protected void compute() {
+			if (cancelled) {
+				return;
+			}
+			if (to - from > chunkSize) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new ChunkTask(chunk, from, mid, total, done), new ChunkTask(chunk, mid, to, total, done));
+			} else {
+				chunk.run(from, to);
+				long d = done.addAndGet(to - from);
+				ProgressListener listener = progressListener;
+				if (listener != null) {
+					listener.progress(d, total);
+				}
+			}
+		}
+
+	}
+
+}
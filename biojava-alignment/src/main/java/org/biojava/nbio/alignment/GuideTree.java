@@ -23,9 +23,12 @@
 
 package org.biojava.nbio.alignment;
 
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceScorerType;
 import org.biojava.nbio.core.alignment.SimpleProfile;
+import org.biojava.nbio.alignment.template.GapPenalty;
 import org.biojava.nbio.alignment.template.GuideTreeNode;
 import org.biojava.nbio.alignment.template.PairwiseSequenceScorer;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
 import org.biojava.nbio.core.alignment.template.Profile;
 import org.biojava.nbio.core.alignment.template.ProfilePair;
 import org.biojava.nbio.core.sequence.AccessionID;
@@ -55,7 +58,7 @@ import java.util.concurrent.Future;
 public class GuideTree<S extends Sequence<C>, C extends Compound> implements Iterable<GuideTreeNode<S, C>> {
 
 	private List<S> sequences;
-	private List<PairwiseSequenceScorer<S, C>> scorers;
+	private double[] scores, maxScores;
 	private BasicSymmetricalDistanceMatrix distances;
 	private String newick;
 	private Node root;
@@ -68,15 +71,54 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
 	 */
 	public GuideTree(List<S> sequences, List<PairwiseSequenceScorer<S, C>> scorers) {
 		this.sequences = Collections.unmodifiableList(sequences);
-		this.scorers = Collections.unmodifiableList(scorers);
+		scores = new double[scorers.size()];
+		maxScores = new double[scorers.size()];
+		double[] dist = new double[scorers.size()];
+		for (int n = 0; n < scorers.size(); n++) {
+			PairwiseSequenceScorer<S, C> scorer = scorers.get(n);
+			dist[n] = scorer.getDistance();
+			scores[n] = scorer.getScore();
+			maxScores[n] = scorer.getMaxScore();
+		}
+		buildTree(dist);
+	}
+
+	/**
+	 * Creates a guide tree for use during progressive multiple sequence alignment.  The sequence pairs are scored in
+	 * parallel by the given calculator, and only their scores are kept.
+	 *
+	 * @param sequences the {@link List} of {@link Sequence}s to align
+	 * @param type chosen type from list of pairwise sequence scoring routines
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @param calculator runs the scorings
+	 */
+	public GuideTree(List<S> sequences, final PairwiseSequenceScorerType type, final GapPenalty gapPenalty,
+			final SubstitutionMatrix<C> subMatrix, AllPairsCalculator calculator) {
+		this.sequences = Collections.unmodifiableList(sequences);
+		final int size = sequences.size();
+		scores = new double[(int) AllPairsCalculator.getPairCount(size)];
+		maxScores = new double[scores.length];
+		double[] dist = new double[scores.length];
+		calculator.calculate(size, (i, j) -> {
+			PairwiseSequenceScorer<S, C> scorer = Alignments.getPairwiseScorer(this.sequences.get(i),
+					this.sequences.get(j), type, gapPenalty, subMatrix);
+			int n = (int) AllPairsCalculator.getPairIndex(i, j, size);
+			scores[n] = scorer.getScore();
+			maxScores[n] = scorer.getMaxScore();
+			return scorer.getDistance();
+		}, dist);
+		buildTree(dist);
+	}
+
+	private void buildTree(double[] dist) {
 		distances = new BasicSymmetricalDistanceMatrix(sequences.size());
 		for (int i = 0, n = 0; i < sequences.size(); i++) {
 			AccessionID id = sequences.get(i).getAccession();
 			String str = (id == null) ? Integer.toString(i + 1) : id.getID();
 			distances.setIdentifier(i, str);
 			for (int j = i+1; j < sequences.size(); j++) {
-				double dist = scorers.get(n++).getDistance();
-				distances.setValue(i, j, dist);
+				distances.setValue(i, j, dist[n++]);
 			}
 		}
 		BasicSymmetricalDistanceMatrix distclone = ForesterWrapper.cloneDM(distances);
@@ -91,12 +133,7 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
 	 * @return list of sequence pair scores
 	 */
 	public double[] getAllPairsScores() {
-		double[] scores = new double[scorers.size()];
-		int n = 0;
-		for (PairwiseSequenceScorer<S, C> scorer : scorers) {
-			scores[n++] = scorer.getScore();
-		}
-		return scores;
+		return scores.clone();
 	}
 
 	/**
@@ -131,9 +168,9 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
 	public double[][] getScoreMatrix() {
 		double[][] matrix = new double[sequences.size()][sequences.size()];
 		for (int i = 0, n = 0; i < matrix.length; i++) {
-			matrix[i][i] = scorers.get(i).getMaxScore();
+			matrix[i][i] = maxScores[i];
 			for (int j = i+1; j < matrix.length; j++) {
-				matrix[i][j] = matrix[j][i] = scorers.get(n++).getScore();
+				matrix[i][j] = matrix[j][i] = scores[n++];
 			}
 		}
 		return matrix;
@@ -60,4 +60,12 @@ public class NeedlemanWunsch<S extends Sequence<C>, C extends Compound> extends
 	public NeedlemanWunsch(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
 		super(query, target, gapPenalty, subMatrix);
 	}
+
+	// method for AbstractPairwiseSequenceAligner
+
+	@Override
+	protected boolean isScoringKernelSupported() {
+		return anchors.isEmpty();
+	}
+
 }
@@ -73,4 +73,11 @@ public class SmithWaterman<S extends Sequence<C>, C extends Compound> extends Ab
 				getQuery().getLength() - xyMax[0], sy, xyStart[1], getTarget().getLength() - xyMax[1]);
 	}
 
+	// method for AbstractPairwiseSequenceAligner
+
+	@Override
+	protected boolean isScoringKernelSupported() {
+		return true;
+	}
+
 }
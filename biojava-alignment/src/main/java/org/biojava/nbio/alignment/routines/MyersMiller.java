@@ -0,0 +1,488 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.template.AbstractPairwiseSequenceAligner;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.SimpleSequencePair;
+import org.biojava.nbio.core.alignment.template.AlignedSequence;
+import org.biojava.nbio.core.alignment.template.AlignedSequence.Step;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Myers and Miller defined a divide and conquer algorithm for optimal pairwise sequence alignments with affine gap
+ * penalties in linear space.  Each subproblem is split at its middle query row: a forward pass computes the best
+ * scores from the start of the subproblem to every cell of that row, a backward pass the best scores from every cell
+ * of that row to the end, and the cell and gap state where their sum is highest lies on an optimal path.  Both halves
+ * are then solved recursively until they are small enough for a traceback matrix.  The space requirement is linear
+ * (a multiple of target sequence length) for a modest (a multiple < 2) increase in time.
+ * <p>
+ * The recurrences are those of {@link AlignerHelper}, so the scores are identical to the ones of
+ * {@link org.biojava.nbio.alignment.NeedlemanWunsch} and {@link org.biojava.nbio.alignment.SmithWaterman} for the
+ * same {@link GapPenalty} and {@link SubstitutionMatrix}.  Local alignments first find the end of an optimal region
+ * with a score-only pass, then its start with a backward pass, and then align that region globally.
+ * <p>
+ * The forward and backward passes of large subproblems, and the two halves of each split, run in parallel in the
+ * common {@link ForkJoinPool} unless {@link #setParallel(boolean)} is turned off.  No score matrix is kept, so
+ * {@link #getScoreMatrix()} returns null.
+ *
+ * @param <S> each {@link Sequence} of the alignment pair is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ * @since 5.0.0
+ */
+public class MyersMiller<S extends Sequence<C>, C extends Compound> extends AbstractPairwiseSequenceAligner<S, C> {
+
+	// gap states of a cell, as in the score vectors of AlignerHelper
+	private static final byte SUB = 0, DEL = 1, INS = 2, ANY = -1;
+
+	// score of the states that cannot be reached
+	private static final int NONE = Integer.MIN_VALUE / 4;
+
+	// subproblems up to this size are solved with a traceback matrix
+	private static final long BASE_CELLS = 1 << 14;
+
+	// subproblems from this size on are split between threads
+	private static final long PARALLEL_CELLS = 1 << 18;
+
+	private boolean parallel = true;
+
+	/**
+	 * Before running a pairwise global sequence alignment, data must be sent in via calls to
+	 * {@link #setQuery(Sequence)}, {@link #setTarget(Sequence)}, {@link #setGapPenalty(GapPenalty)}, and
+	 * {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
+	 */
+	public MyersMiller() {
+	}
+
+	/**
+	 * Prepares for a pairwise global sequence alignment.
+	 *
+	 * @param query the first {@link Sequence} of the pair to align
+	 * @param target the second {@link Sequence} of the pair to align
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 */
+	public MyersMiller(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+		super(query, target, gapPenalty, subMatrix);
+	}
+
+	/**
+	 * Prepares for a pairwise sequence alignment.
+	 *
+	 * @param query the first {@link Sequence} of the pair to align
+	 * @param target the second {@link Sequence} of the pair to align
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @param local if true, find a region of similarity rather than aligning every compound
+	 */
+	public MyersMiller(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix, boolean local) {
+		super(query, target, gapPenalty, subMatrix, local);
+	}
+
+	/**
+	 * Returns whether large subproblems are solved in parallel.
+	 *
+	 * @return true if large subproblems are solved in parallel
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Sets whether large subproblems are solved in parallel.
+	 *
+	 * @param parallel if true, large subproblems are solved in the common {@link ForkJoinPool}
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+		reset();
+	}
+
+	// methods for AbstractMatrixAligner
+
+	@Override
+	protected void align() {
+		if (!isReady()) {
+			return;
+		}
+
+		long timeStart = System.nanoTime();
+
+		ScoringKernel<C> kernel = ScoringKernel.getKernel(getSubstitutionMatrix(), getQuery().getCompoundSet());
+		final Solver solver = new Solver(kernel, kernel.encode(getQuery()), kernel.encode(getTarget()),
+				getGapPenalty(), parallel);
+		final int[] start, end;
+		final byte last;
+		if (!isLocal()) {
+			start = new int[] { 0, 0 };
+			end = new int[] { getQuery().getLength(), getTarget().getLength() };
+			last = ANY;
+		} else {
+			int[] max = solver.findLocalEnd();
+			end = new int[] { max[0], max[1] };
+			start = (max[2] > 0) ? solver.findLocalStart(max[0], max[1], max[2]) : end;
+			last = SUB;
+		}
+
+		Path path;
+		if (start == end) {
+			path = new Path(new byte[0], 0);
+		} else if (parallel) {
+			path = ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(
+					() -> solver.solve(start[0], start[1], SUB, end[0], end[1], last)));
+		} else {
+			path = solver.solve(start[0], start[1], SUB, end[0], end[1], last);
+		}
+
+		xyStart = start;
+		xyMax = end;
+		score = path.score;
+		List<Step> sx = new ArrayList<Step>(path.steps.length), sy = new ArrayList<Step>(path.steps.length);
+		for (byte step : path.steps) {
+			sx.add(step == INS ? Step.GAP : Step.COMPOUND);
+			sy.add(step == DEL ? Step.GAP : Step.COMPOUND);
+		}
+		setProfile(sx, sy);
+
+		time = System.nanoTime() - timeStart;
+	}
+
+	@Override
+	protected void setProfile(List<Step> sx, List<Step> sy) {
+		profile = pair = new SimpleSequencePair<S, C>(getQuery(), getTarget(), sx, xyStart[0],
+				getQuery().getLength() - xyMax[0], sy, xyStart[1], getTarget().getLength() - xyMax[1]);
+	}
+
+	// method for AbstractPairwiseSequenceAligner
+
+	@Override
+	protected boolean isScoringKernelSupported() {
+		return true;
+	}
+
+	// gap states of an optimal path, with its score
+	private static final class Path {
+
+		private final byte[] steps;
+		private final int score;
+
+		private Path(byte[] steps, int score) {
+			this.steps = steps;
+			this.score = score;
+		}
+
+		private Path append(Path next) {
+			byte[] both = Arrays.copyOf(steps, steps.length + next.steps.length);
+			System.arraycopy(next.steps, 0, both, steps.length, next.steps.length);
+			return new Path(both, score + next.score);
+		}
+
+	}
+
+	/*
+	 * Dynamic programming over the encoded sequences.  A subproblem goes from cell (i0, j0) in gap state s0 to cell
+	 * (i1, j1) in gap state e, where cell (i, j) follows query compound i and target compound j.  Rows are indexed by
+	 * state and then by the column relative to j0.  Gaps in the query may not directly follow gaps in the target or
+	 * vice versa, unless the gap penalty is linear.
+	 */
+	private static final class Solver {
+
+		private final ScoringKernel<?> kernel;
+		private final byte[] query, target;
+		private final int open, extend;
+		private final boolean linear, parallel;
+
+		private Solver(ScoringKernel<?> kernel, byte[] query, byte[] target, GapPenalty gapPenalty, boolean parallel) {
+			this.kernel = kernel;
+			this.query = query;
+			this.target = target;
+			this.linear = (gapPenalty.getType() == GapPenalty.Type.LINEAR);
+			this.extend = gapPenalty.getExtensionPenalty();
+			this.open = (linear ? 0 : gapPenalty.getOpenPenalty()) + extend;
+			this.parallel = parallel;
+		}
+
+		// returns the query index, target index and score of the first maximum of a local alignment
+		private int[] findLocalEnd() {
+			int w = target.length + 1;
+			int[][] prev = new int[3][w], row = new int[3][w];
+			int max = 0, xMax = 0, yMax = 0;
+			for (int i = 1; i <= query.length; i++) {
+				int[][] swap = prev;
+				prev = row;
+				row = swap;
+				int[] pm = prev[SUB], pd = prev[DEL], pi = prev[INS], m = row[SUB], d = row[DEL], ins = row[INS];
+				byte q = query[i - 1];
+				for (int k = 1; k < w; k++) {
+					m[k] = Math.max(0, max(pd[k - 1], pm[k - 1], pi[k - 1]) +
+							kernel.getSubstitutionScore(q, target[k - 1]));
+					d[k] = Math.max(0, Math.max(pd[k] + extend, pm[k] + open));
+					ins[k] = Math.max(0, Math.max(m[k - 1] + open, ins[k - 1] + extend));
+					if (linear) {
+						d[k] = Math.max(d[k], pi[k] + extend);
+						ins[k] = Math.max(ins[k], d[k - 1] + extend);
+					}
+					if (m[k] > max) {
+						max = m[k];
+						xMax = i;
+						yMax = k;
+					}
+				}
+			}
+			return new int[] { xMax, yMax, max };
+		}
+
+		// returns the last cell from which the local alignment ending at (i1, j1) reaches the given score
+		private int[] findLocalStart(int i1, int j1, int max) {
+			int[][] next = new int[3][j1 + 1], row = new int[3][j1 + 1];
+			setLastBackwardRow(SUB, row);
+			for (int i = i1; i >= 0; i--) {
+				if (i < i1) {
+					int[][] swap = next;
+					next = row;
+					row = swap;
+					setBackwardRow(i, 0, next, row);
+				}
+				for (int k = j1; k >= 0; k--) {
+					if (row[SUB][k] == max) {
+						return new int[] { i, k };
+					}
+				}
+			}
+			throw new IllegalStateException("No start for a local alignment score of " + max);
+		}
+
+		private Path solve(int i0, int j0, byte s0, int i1, int j1, byte e) {
+			long cells = (long) (i1 - i0 + 1) * (j1 - j0 + 1);
+			if (i1 - i0 <= 1 || cells <= BASE_CELLS) {
+				return align(i0, j0, s0, i1, j1, e);
+			}
+
+			int mid = (i0 + i1) >>> 1;
+			boolean fork = parallel && cells >= PARALLEL_CELLS && ForkJoinTask.inForkJoinPool();
+			int[][] forward, backward;
+			if (fork) {
+				ForkJoinTask<int[][]> task = ForkJoinTask.adapt(() -> forward(i0, j0, s0, mid, j1)).fork();
+				backward = backward(mid, j0, i1, j1, e);
+				forward = task.join();
+			} else {
+				forward = forward(i0, j0, s0, mid, j1);
+				backward = backward(mid, j0, i1, j1, e);
+			}
+
+			// find the middle cell and state of an optimal path
+			int max = Integer.MIN_VALUE, kMax = 0;
+			byte sMax = SUB;
+			for (int k = 0; k <= j1 - j0; k++) {
+				for (byte s = SUB; s <= INS; s++) {
+					int sum = forward[s][k] + backward[s][k];
+					if (sum > max) {
+						max = sum;
+						kMax = k;
+						sMax = s;
+					}
+				}
+			}
+			int j = j0 + kMax;
+			byte s = sMax;
+
+			Path first, second;
+			if (fork) {
+				ForkJoinTask<Path> task = ForkJoinTask.adapt(() -> solve(i0, j0, s0, mid, j, s)).fork();
+				second = solve(mid, j, s, i1, j1, e);
+				first = task.join();
+			} else {
+				first = solve(i0, j0, s0, mid, j, s);
+				second = solve(mid, j, s, i1, j1, e);
+			}
+			return first.append(second);
+		}
+
+		// best scores from (i0, j0) in state s0 to each cell of row i1
+		private int[][] forward(int i0, int j0, byte s0, int i1, int j1) {
+			int[][] prev = new int[3][j1 - j0 + 1], row = new int[3][j1 - j0 + 1];
+			setFirstForwardRow(s0, row);
+			for (int i = i0 + 1; i <= i1; i++) {
+				int[][] swap = prev;
+				prev = row;
+				row = swap;
+				setForwardRow(i, j0, prev, row);
+			}
+			return row;
+		}
+
+		private void setFirstForwardRow(byte s0, int[][] row) {
+			int[] m = row[SUB], d = row[DEL], ins = row[INS];
+			Arrays.fill(m, NONE);
+			Arrays.fill(d, NONE);
+			m[0] = (s0 == SUB) ? 0 : NONE;
+			d[0] = (s0 == DEL) ? 0 : NONE;
+			ins[0] = (s0 == INS) ? 0 : NONE;
+			for (int k = 1; k < ins.length; k++) {
+				ins[k] = Math.max(m[k - 1] + open, ins[k - 1] + extend);
+				if (linear) {
+					ins[k] = Math.max(ins[k], d[k - 1] + extend);
+				}
+			}
+		}
+
+		private void setForwardRow(int i, int j0, int[][] prev, int[][] row) {
+			int[] pm = prev[SUB], pd = prev[DEL], pi = prev[INS], m = row[SUB], d = row[DEL], ins = row[INS];
+			byte q = query[i - 1];
+			m[0] = ins[0] = NONE;
+			d[0] = Math.max(pd[0] + extend, pm[0] + open);
+			if (linear) {
+				d[0] = Math.max(d[0], pi[0] + extend);
+			}
+			for (int k = 1; k < m.length; k++) {
+				m[k] = max(pd[k - 1], pm[k - 1], pi[k - 1]) + kernel.getSubstitutionScore(q, target[j0 + k - 1]);
+				d[k] = Math.max(pd[k] + extend, pm[k] + open);
+				ins[k] = Math.max(m[k - 1] + open, ins[k - 1] + extend);
+				if (linear) {
+					d[k] = Math.max(d[k], pi[k] + extend);
+					ins[k] = Math.max(ins[k], d[k - 1] + extend);
+				}
+			}
+		}
+
+		// best scores from each cell of row i0, in each state, to (i1, j1) in state e
+		private int[][] backward(int i0, int j0, int i1, int j1, byte e) {
+			int[][] next = new int[3][j1 - j0 + 1], row = new int[3][j1 - j0 + 1];
+			setLastBackwardRow(e, row);
+			for (int i = i1 - 1; i >= i0; i--) {
+				int[][] swap = next;
+				next = row;
+				row = swap;
+				setBackwardRow(i, j0, next, row);
+			}
+			return row;
+		}
+
+		private void setLastBackwardRow(byte e, int[][] row) {
+			int[] m = row[SUB], d = row[DEL], ins = row[INS];
+			int last = m.length - 1;
+			m[last] = (e == ANY || e == SUB) ? 0 : NONE;
+			d[last] = (e == ANY || e == DEL) ? 0 : NONE;
+			ins[last] = (e == ANY || e == INS) ? 0 : NONE;
+			for (int k = last - 1; k >= 0; k--) {
+				m[k] = ins[k + 1] + open;
+				d[k] = linear ? ins[k + 1] + extend : NONE;
+				ins[k] = ins[k + 1] + extend;
+			}
+		}
+
+		private void setBackwardRow(int i, int j0, int[][] next, int[][] row) {
+			int[] nm = next[SUB], nd = next[DEL], m = row[SUB], d = row[DEL], ins = row[INS];
+			byte q = query[i];
+			int last = m.length - 1;
+			m[last] = nd[last] + open;
+			d[last] = nd[last] + extend;
+			ins[last] = linear ? nd[last] + extend : NONE;
+			for (int k = last - 1; k >= 0; k--) {
+				int sub = nm[k + 1] + kernel.getSubstitutionScore(q, target[j0 + k]);
+				m[k] = max(sub, nd[k] + open, ins[k + 1] + open);
+				d[k] = Math.max(sub, nd[k] + extend);
+				ins[k] = Math.max(sub, ins[k + 1] + extend);
+				if (linear) {
+					d[k] = Math.max(d[k], ins[k + 1] + extend);
+					ins[k] = Math.max(ins[k], nd[k] + extend);
+				}
+			}
+		}
+
+		// solves a small subproblem with a traceback matrix, breaking ties as AlignerHelper does
+		private Path align(int i0, int j0, byte s0, int i1, int j1, byte e) {
+			int h = i1 - i0 + 1, w = j1 - j0 + 1;
+			int[][][] scores = new int[h][3][w];
+			byte[][][] traceback = new byte[h][3][w];
+
+			setFirstForwardRow(s0, scores[0]);
+			for (int k = 1; k < w; k++) {
+				traceback[0][INS][k] = getInsertionSource(scores[0], k);
+			}
+			for (int x = 1; x < h; x++) {
+				setForwardRow(i0 + x, j0, scores[x - 1], scores[x]);
+				for (int k = 0; k < w; k++) {
+					traceback[x][SUB][k] = getSubstitutionSource(scores[x - 1], k);
+					traceback[x][DEL][k] = getDeletionSource(scores[x - 1], k);
+					traceback[x][INS][k] = getInsertionSource(scores[x], k);
+				}
+			}
+
+			int x = h - 1, k = w - 1;
+			int[] m = scores[x][SUB], d = scores[x][DEL], ins = scores[x][INS];
+			byte s = (e != ANY) ? e : (d[k] > m[k] && d[k] > ins[k]) ? DEL : (m[k] > ins[k]) ? SUB : INS;
+			int score = scores[x][s][k];
+			byte[] steps = new byte[h + w - 2];
+			int n = steps.length;
+			while (x > 0 || k > 0) {
+				steps[--n] = s;
+				byte source = traceback[x][s][k];
+				if (s != INS) {
+					x--;
+				}
+				if (s != DEL) {
+					k--;
+				}
+				s = source;
+			}
+			assert s == s0;
+			return new Path(Arrays.copyOfRange(steps, n, steps.length), score);
+		}
+
+		private byte getSubstitutionSource(int[][] prev, int k) {
+			if (k == 0) {
+				return SUB;
+			}
+			int pm = prev[SUB][k - 1], pd = prev[DEL][k - 1], pi = prev[INS][k - 1];
+			return (pd >= pm && pd >= pi) ? DEL : (pm >= pi) ? SUB : INS;
+		}
+
+		private byte getDeletionSource(int[][] prev, int k) {
+			int pm = prev[SUB][k] + open, pd = prev[DEL][k] + extend, pi = linear ? prev[INS][k] + extend : NONE;
+			return (pd >= pm && pd >= pi) ? DEL : (pm >= pi) ? SUB : INS;
+		}
+
+		private byte getInsertionSource(int[][] row, int k) {
+			if (k == 0) {
+				return INS;
+			}
+			int pm = row[SUB][k - 1] + open, pi = row[INS][k - 1] + extend,
+					pd = linear ? row[DEL][k - 1] + extend : NONE;
+			return (pm >= pi && pm >= pd) ? SUB : (pi >= pd) ? INS : DEL;
+		}
+
+		private static int max(int a, int b, int c) {
+			return Math.max(Math.max(a, b), c);
+		}
+
+	}
+
+}
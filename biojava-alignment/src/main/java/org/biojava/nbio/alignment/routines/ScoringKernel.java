@@ -0,0 +1,397 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Score-only pairwise alignment over primitive arrays. Sequences are encoded as <code>byte[]</code> indices into a
+ * flattened copy of a {@link SubstitutionMatrix}, and the dynamic programming keeps only two rows of
+ * <code>int</code>s, so that no {@link Compound} lookups, traceback pointers or score matrices are needed.
+ * <p>
+ * The recurrences are exactly those of {@link AlignerHelper}, so the scores are identical to the ones of
+ * {@link org.biojava.nbio.alignment.NeedlemanWunsch} and {@link org.biojava.nbio.alignment.SmithWaterman} for the
+ * same {@link GapPenalty} and {@link SubstitutionMatrix}. The inner loop reads the substitution scores from a
+ * profile of the target (one contiguous row per compound of the alphabet), as in the striped aligners; without
+ * vector instructions in Java the cells are still computed row by row.
+ * <p>
+ * The banded variants only compute the cells within the given distance of the diagonal from the start to the end of
+ * the dynamic programming matrix. They are faster for similar sequences of similar length, and give the same score
+ * as the full computation whenever the optimal alignment lies inside the band.
+ * <p>
+ * Kernels are immutable and can be shared between threads.
+ *
+ * @param <C> each element of an aligned {@link Sequence} is a {@link Compound} of type C
+ * @since 5.0.0
+ */
+public class ScoringKernel<C extends Compound> {
+
+	// kernels are cached per matrix; the kernel does not refer to the matrix, so entries can be collected
+	private static final Map<SubstitutionMatrix<?>, ScoringKernel<?>> kernels =
+			Collections.synchronizedMap(new WeakHashMap<SubstitutionMatrix<?>, ScoringKernel<?>>());
+
+	// score of the cells outside of a band in global alignments
+	private static final int OUTSIDE = Integer.MIN_VALUE / 4;
+
+	private final CompoundSet<C> compoundSet;
+	private final Map<C, Integer> indices;
+	private final int size;
+	private final int[] matrix;
+
+	/**
+	 * Flattens the given substitution matrix for the compounds of the matrix and the given compound set.
+	 *
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @param compoundSet the compound set of the sequences to align
+	 * @throws IllegalArgumentException if there are more than 256 compounds
+	 */
+	public ScoringKernel(SubstitutionMatrix<C> subMatrix, CompoundSet<C> compoundSet) {
+		this.compoundSet = compoundSet;
+		Set<C> alphabet = new LinkedHashSet<C>();
+		if (subMatrix.getCompoundSet() != null) {
+			alphabet.addAll(subMatrix.getCompoundSet().getAllCompounds());
+		}
+		alphabet.addAll(compoundSet.getAllCompounds());
+		if (alphabet.size() > 256) {
+			throw new IllegalArgumentException("Too many compounds for a byte encoding: " + alphabet.size());
+		}
+
+		indices = new HashMap<C, Integer>();
+		for (C c : alphabet) {
+			indices.put(c, indices.size());
+		}
+		size = indices.size();
+		matrix = new int[size * size];
+		for (Map.Entry<C, Integer> from : indices.entrySet()) {
+			for (Map.Entry<C, Integer> to : indices.entrySet()) {
+				matrix[from.getValue() * size + to.getValue()] = subMatrix.getValue(from.getKey(), to.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Returns a shared kernel for the given substitution matrix and compound set.
+	 *
+	 * @param <C> each element of an aligned {@link Sequence} is a {@link Compound} of type C
+	 * @param subMatrix the set of substitution scores used during alignment
+	 * @param compoundSet the compound set of the sequences to align
+	 * @return the kernel
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C extends Compound> ScoringKernel<C> getKernel(SubstitutionMatrix<C> subMatrix,
+			CompoundSet<C> compoundSet) {
+		ScoringKernel<C> kernel = (ScoringKernel<C>) kernels.get(subMatrix);
+		if (kernel == null || !kernel.compoundSet.equals(compoundSet)) {
+			kernel = new ScoringKernel<C>(subMatrix, compoundSet);
+			kernels.put(subMatrix, kernel);
+		}
+		return kernel;
+	}
+
+	/**
+	 * Returns the number of compounds in the encoding.
+	 *
+	 * @return the alphabet size
+	 */
+	public int getAlphabetSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the substitution score of two encoded compounds.
+	 *
+	 * @param from encoded compound of the query
+	 * @param to encoded compound of the target
+	 * @return the substitution score
+	 */
+	public int getSubstitutionScore(byte from, byte to) {
+		return matrix[(from & 0xFF) * size + (to & 0xFF)];
+	}
+
+	/**
+	 * Encodes a sequence as indices into the flattened substitution matrix.
+	 *
+	 * @param sequence the sequence
+	 * @return one index per compound
+	 * @throws IllegalArgumentException if the sequence contains a compound unknown to this kernel
+	 */
+	public byte[] encode(Sequence<C> sequence) {
+		List<C> compounds = sequence.getAsList();
+		byte[] encoded = new byte[compounds.size()];
+		for (int i = 0; i < encoded.length; i++) {
+			Integer index = indices.get(compounds.get(i));
+			if (index == null) {
+				throw new IllegalArgumentException("Compound " + compounds.get(i) + " is not in the alphabet");
+			}
+			encoded[i] = (byte) index.intValue();
+		}
+		return encoded;
+	}
+
+	/**
+	 * Returns the score of an optimal global alignment, as computed by
+	 * {@link org.biojava.nbio.alignment.NeedlemanWunsch}.
+	 *
+	 * @param query the encoded query
+	 * @param target the encoded target
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @return the alignment score
+	 */
+	public int scoreGlobal(byte[] query, byte[] target, GapPenalty gapPenalty) {
+		return scoreGlobal(query, target, gapPenalty, -1);
+	}
+
+	/**
+	 * Returns the score of an optimal global alignment restricted to a band around the diagonal.
+	 *
+	 * @param query the encoded query
+	 * @param target the encoded target
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param band the number of cells on each side of the diagonal to compute, or a negative number for all
+	 * @return the alignment score
+	 */
+	public int scoreGlobal(byte[] query, byte[] target, GapPenalty gapPenalty, int band) {
+		if (gapPenalty.getType() == GapPenalty.Type.LINEAR) {
+			return scoreLinear(query, target, gapPenalty.getExtensionPenalty(), false, band);
+		}
+		return scoreAffine(query, target, gapPenalty.getOpenPenalty(), gapPenalty.getExtensionPenalty(), false,
+				band);
+	}
+
+	/**
+	 * Returns the score of an optimal local alignment, as computed by
+	 * {@link org.biojava.nbio.alignment.SmithWaterman}.
+	 *
+	 * @param query the encoded query
+	 * @param target the encoded target
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @return the alignment score
+	 */
+	public int scoreLocal(byte[] query, byte[] target, GapPenalty gapPenalty) {
+		return scoreLocal(query, target, gapPenalty, -1);
+	}
+
+	/**
+	 * Returns the score of an optimal local alignment restricted to a band around the diagonal.
+	 *
+	 * @param query the encoded query
+	 * @param target the encoded target
+	 * @param gapPenalty the gap penalties used during alignment
+	 * @param band the number of cells on each side of the diagonal to compute, or a negative number for all
+	 * @return the alignment score
+	 */
+	public int scoreLocal(byte[] query, byte[] target, GapPenalty gapPenalty, int band) {
+		if (gapPenalty.getType() == GapPenalty.Type.LINEAR) {
+			return scoreLinear(query, target, gapPenalty.getExtensionPenalty(), true, band);
+		}
+		return scoreAffine(query, target, gapPenalty.getOpenPenalty(), gapPenalty.getExtensionPenalty(), true,
+				band);
+	}
+
+	// helper methods
+
+	/**
+	 * Builds the substitution scores of every compound of the alphabet against the target. Rows are built on first
+	 * use, index 0 of each row is unused so that the row lines up with the dynamic programming columns.
+	 */
+	private int[] getProfileRow(int[][] profile, byte[] target, byte compound) {
+		int c = compound & 0xFF;
+		int[] row = profile[c];
+		if (row == null) {
+			row = profile[c] = new int[target.length + 1];
+			int offset = c * size;
+			for (int y = 0; y < target.length; y++) {
+				row[y + 1] = matrix[offset + (target[y] & 0xFF)];
+			}
+		}
+		return row;
+	}
+
+	// first column of the band in row x, or 1 if not banded
+	private static int bandStart(int x, int n, int m, int band) {
+		if (band < 0) {
+			return 1;
+		}
+		return Math.max(1, (int) ((long) x * m / Math.max(n, 1)) - band);
+	}
+
+	// last column of the band in row x, or m if not banded
+	private static int bandEnd(int x, int n, int m, int band) {
+		if (band < 0) {
+			return m;
+		}
+		return (int) Math.min(m, ((long) x * m + n - 1) / Math.max(n, 1) + band);
+	}
+
+	/**
+	 * Affine (and constant) gap penalties: substitution, deletion and insertion scores as in
+	 * {@link AlignerHelper#setScorePoint(int, int, int, int, int, int[][][])}.
+	 */
+	private int scoreAffine(byte[] query, byte[] target, int gop, int gep, boolean local, int band) {
+		int n = query.length, m = target.length;
+		int min = local ? 0 : Integer.MIN_VALUE - gop - gep;
+		// cells outside of the band; low enough to never win, high enough to never overflow
+		int outside = local ? 0 : OUTSIDE;
+		int[] sub = new int[m + 1], del = new int[m + 1], ins = new int[m + 1];
+		int[] lastSub = new int[m + 1], lastDel = new int[m + 1], lastIns = new int[m + 1];
+		if (band >= 0 && !local) {
+			for (int[] a : new int[][] { sub, del, ins, lastSub, lastDel, lastIns }) {
+				Arrays.fill(a, outside);
+			}
+		}
+		int[][] profile = new int[size][];
+		int score = 0;
+
+		// first row
+		if (!local) {
+			sub[0] = 0;
+			del[0] = ins[0] = gop;
+			int end = bandEnd(0, n, m, band);
+			for (int y = 1; y <= m; y++) {
+				sub[y] = del[y] = min;
+				ins[y] = y <= end ? ins[y - 1] + gep : outside;
+			}
+		}
+
+		for (int x = 1; x <= n; x++) {
+			int[] t = lastSub; lastSub = sub; sub = t;
+			t = lastDel; lastDel = del; del = t;
+			t = lastIns; lastIns = ins; ins = t;
+
+			int[] subs = getProfileRow(profile, target, query[x - 1]);
+			int start = bandStart(x, n, m, band), end = bandEnd(x, n, m, band);
+
+			// first column; when banded, the cell left of the band is left over from an earlier row
+			if (local) {
+				sub[0] = del[0] = ins[0] = 0;
+			} else if (start == 1) {
+				sub[0] = ins[0] = min;
+				del[0] = lastDel[0] + gep;
+			}
+			if (start > 1) {
+				sub[start - 1] = del[start - 1] = ins[start - 1] = outside;
+			}
+
+			for (int y = start; y <= end; y++) {
+				// substitution
+				int s = lastSub[y - 1], d = lastDel[y - 1], i = lastIns[y - 1];
+				int sc = ((d >= s && d >= i) ? d : (s >= i ? s : i)) + subs[y];
+
+				// deletion
+				int dc = (lastDel[y] >= lastSub[y] + gop) ? lastDel[y] + gep : lastSub[y] + gop + gep;
+
+				// insertion
+				int ic = (sub[y - 1] + gop >= ins[y - 1]) ? sub[y - 1] + gop + gep : ins[y - 1] + gep;
+
+				if (local) {
+					if (sc <= 0) {
+						sc = 0;
+					} else if (sc > score) {
+						score = sc;
+					}
+					if (dc <= 0) {
+						dc = 0;
+					}
+					if (ic <= 0) {
+						ic = 0;
+					}
+				}
+				sub[y] = sc;
+				del[y] = dc;
+				ins[y] = ic;
+			}
+		}
+
+		if (local) {
+			return score;
+		}
+		return Math.max(sub[m], Math.max(del[m], ins[m]));
+	}
+
+	/**
+	 * Linear gap penalties, as in {@link AlignerHelper#setScorePoint(int, int, int, int, int[][][])}.
+	 */
+	private int scoreLinear(byte[] query, byte[] target, int gep, boolean local, int band) {
+		int n = query.length, m = target.length;
+		int outside = local ? 0 : OUTSIDE;
+		int[] row = new int[m + 1], last = new int[m + 1];
+		if (band >= 0 && !local) {
+			Arrays.fill(row, outside);
+			Arrays.fill(last, outside);
+		}
+		int[][] profile = new int[size][];
+		int score = 0;
+
+		// first row
+		if (!local) {
+			row[0] = 0;
+			int end = bandEnd(0, n, m, band);
+			for (int y = 1; y <= end; y++) {
+				row[y] = row[y - 1] + gep;
+			}
+		}
+
+		for (int x = 1; x <= n; x++) {
+			int[] t = last; last = row; row = t;
+
+			int[] subs = getProfileRow(profile, target, query[x - 1]);
+			int start = bandStart(x, n, m, band), end = bandEnd(x, n, m, band);
+
+			if (local) {
+				row[0] = 0;
+			} else if (start == 1) {
+				row[0] = last[0] + gep;
+			}
+			if (start > 1) {
+				row[start - 1] = outside;
+			}
+
+			for (int y = start; y <= end; y++) {
+				int d = last[y] + gep, i = row[y - 1] + gep, s = last[y - 1] + subs[y];
+				int c = (d >= s && d >= i) ? d : (s >= i ? s : i);
+				if (local) {
+					if (c <= 0) {
+						c = 0;
+					} else if (c > score) {
+						score = c;
+					}
+				}
+				row[y] = c;
+			}
+		}
+
+		return local ? score : row[m];
+	}
+}
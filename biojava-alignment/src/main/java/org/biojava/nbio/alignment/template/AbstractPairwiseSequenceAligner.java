@@ -23,6 +23,7 @@
 
 package org.biojava.nbio.alignment.template;
 
+import org.biojava.nbio.alignment.routines.ScoringKernel;
 import org.biojava.nbio.core.alignment.template.SequencePair;
 import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
 import org.biojava.nbio.core.sequence.template.Compound;
@@ -47,6 +48,7 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
 
 	// additional output field
 	protected SequencePair<S, C> pair;
+	private boolean scored;
 
 	/**
 	 * Before running a pairwise global sequence alignment, data must be sent in via calls to
@@ -116,6 +118,38 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
 		return pair;
 	}
 
+	// methods for Scorer
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the aligner supports it, the score is computed by a {@link ScoringKernel} and the alignment itself is only
+	 * built when it is requested.
+	 */
+	@Override
+	public double getScore() {
+		if (profile == null && computeScore()) {
+			return score;
+		}
+		return super.getScore();
+	}
+
+	@Override
+	public double getMaxScore() {
+		if (profile == null && isReady() && isScoringKernelSupported()) {
+			return max;
+		}
+		return super.getMaxScore();
+	}
+
+	@Override
+	public double getMinScore() {
+		if (profile == null && isReady() && isScoringKernelSupported()) {
+			return min;
+		}
+		return super.getMinScore();
+	}
+
 	// methods for PairwiseSequenceScorer
 
 	@Override
@@ -166,6 +200,7 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
 	protected void reset() {
 		super.reset();
 		pair = null;
+		scored = false;
 		if (query != null && target != null && getGapPenalty() != null && getSubstitutionMatrix() != null &&
 				query.getCompoundSet().equals(target.getCompoundSet())) {
 			int maxq = 0, maxt = 0;
@@ -181,4 +216,37 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
 		}
 	}
 
+	/**
+	 * Returns whether the score of this aligner is the one computed by {@link ScoringKernel}, so that it can be
+	 * found without the traceback. This is the case for the plain global and local recurrences of
+	 * {@link org.biojava.nbio.alignment.routines.AlignerHelper} without anchors.
+	 *
+	 * @return true if {@link #getScore()} may use a {@link ScoringKernel}
+	 */
+	protected boolean isScoringKernelSupported() {
+		return false;
+	}
+
+	// sets score with a ScoringKernel; returns false if the kernel cannot be used
+	private boolean computeScore() {
+		if (scored) {
+			return true;
+		}
+		if (!isReady() || !isScoringKernelSupported()) {
+			return false;
+		}
+		long timeStart = System.nanoTime();
+		try {
+			ScoringKernel<C> kernel = ScoringKernel.getKernel(getSubstitutionMatrix(), query.getCompoundSet());
+			byte[] q = kernel.encode(query), t = kernel.encode(target);
+			score = isLocal() ? kernel.scoreLocal(q, t, getGapPenalty()) : kernel.scoreGlobal(q, t, getGapPenalty());
+		} catch (IllegalArgumentException e) {
+			// compounds outside of the matrix and the compound set
+			return false;
+		}
+		time = System.nanoTime() - timeStart;
+		scored = true;
+		return true;
+	}
+
 }
@@ -22,6 +22,9 @@ package org.biojava.nbio.phylo;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.biojava.nbio.alignment.AllPairsCalculator;
 import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
 import org.biojava.nbio.core.sequence.MultipleSequenceAlignment;
 import org.biojava.nbio.core.sequence.template.Compound;
@@ -154,29 +157,25 @@ public class DistanceMatrixCalculator {
 
 		logger.info("{}:{}", "Determing Distances", 0);
 		int n = msa.getSize();
-		String[] sequenceString = new String[n];
+		final String[] sequenceString = new String[n];
 		for (int i = 0; i < n; i++) {
 			sequenceString[i] = msa.getAlignedSequence(i + 1)
 					.getSequenceAsString();
 		}
 
 		DistanceMatrix distance = new BasicSymmetricalDistanceMatrix(n);
-		int totalloopcount = (n / 2) * (n + 1);
+		double[] pid = getCalculator().calculate(n, (i, j) ->
+				100 - Comparison.PID(sequenceString[i], sequenceString[j]));
 
-		int loopcount = 0;
-		for (int i = 0; i < (n - 1); i++) {
-			logger.info("{}:{}", "Determining Distances", (loopcount * 100)
-					/ totalloopcount);
+		for (int i = 0, p = 0; i < (n - 1); i++) {
 			distance.setIdentifier(i, msa.getAlignedSequence(i + 1)
 					.getAccession().getID());
 
 			for (int j = i; j < n; j++) {
-				loopcount++;
 				if (j == i) {
 					distance.setValue(i, j, 0);
 				} else {
-					distance.setValue(i, j, 100 - Comparison.PID(
-							sequenceString[i], sequenceString[j]));
+					distance.setValue(i, j, pid[p++]);
 					distance.setValue(j, i, distance.getValue(i, j));
 				}
 			}
@@ -219,39 +218,19 @@ public class DistanceMatrixCalculator {
 
 		int n = msa.getSize();
 		DistanceMatrix DM = new BasicSymmetricalDistanceMatrix(n);
-		int totalloopcount = (n / 2) * (n + 1);
-		int end = msa.getLength();
+		final String[] sequenceString = getSequenceStrings(msa);
+		final List<C> seqs = msa.getAlignedSequences();
 
-		String[] sequenceString = new String[n];
-		for (int i = 0; i < n; i++) {
-			sequenceString[i] = msa.getAlignedSequence(i + 1)
-					.getSequenceAsString();
-		}
-		List<C> seqs = msa.getAlignedSequences();
+		// Obtain the similarity scores
+		double[] scores = getCalculator().calculate(n, (i, j) ->
+				getSimilarityScore(sequenceString, seqs, M, i, j));
 
-		int loopcount = 0;
-		for (int i = 0; i < (n - 1); i++) {
-			logger.info("{}:{}", "Determining Distances", (loopcount * 100)
-					/ totalloopcount);
-
-			// Obtain the similarity scores
+		for (int i = 0, p = 0; i < (n - 1); i++) {
 			for (int j = i; j < n; j++) {
-
-				double score = 0;
-				loopcount++;
-
-				for (int k = 0; k < end; k++) {
-					if (Comparison.isGap(sequenceString[i].charAt(k))
-							|| Comparison.isGap(sequenceString[j].charAt(k)))
-						continue;
-					score += M.getValue(seqs.get(i).getCompoundAt(k + 1), seqs
-							.get(j).getCompoundAt(k + 1));
-				}
-
 				if (i == j)
 					DM.setValue(i, j, 0.0);
 				else {
-					double dS = (M.getMaxValue() - score / msa.getLength())
+					double dS = (M.getMaxValue() - scores[p++] / msa.getLength())
 							/ (M.getMaxValue() - M.getMinValue());
 
 					DM.setValue(i, j, dS);
@@ -295,37 +274,21 @@ public class DistanceMatrixCalculator {
 		logger.info("{}:{}", "Determing Distances", 0);
 
 		int n = msa.getSize();
-		String[] sequenceString = new String[n];
-		for (int i = 0; i < n; i++) {
-			sequenceString[i] = msa.getAlignedSequence(i + 1)
-					.getSequenceAsString();
-		}
-		List<C> seqs = msa.getAlignedSequences();
-
 		DistanceMatrix DM = new BasicSymmetricalDistanceMatrix(n);
-		int totalloopcount = (n / 2) * (n + 1);
-
-		double maxscore = 0;
-		int end = msa.getLength();
-		int loopcount = 0;
+		final String[] sequenceString = getSequenceStrings(msa);
+		final List<C> seqs = msa.getAlignedSequences();
+		AllPairsCalculator calculator = getCalculator();
 
-		for (int i = 0; i < (n - 1); i++) {
-			logger.info("{}:{}", "Determining Distances", (loopcount * 100)
-					/ totalloopcount);
+		// Obtain the similarity scores
+		double[] selfScores = calculator.calculate(n, i ->
+				getSimilarityScore(sequenceString, seqs, M, i, i));
+		double[] scores = calculator.calculate(n, (i, j) ->
+				getSimilarityScore(sequenceString, seqs, M, i, j));
 
-			// Obtain the similarity scores
+		double maxscore = 0;
+		for (int i = 0, p = 0; i < (n - 1); i++) {
 			for (int j = i; j < n; j++) {
-
-				double score = 0;
-				loopcount++;
-
-				for (int k = 0; k < end; k++) {
-					if (Comparison.isGap(sequenceString[i].charAt(k))
-							|| Comparison.isGap(sequenceString[j].charAt(k)))
-						continue;
-					score += M.getValue(seqs.get(i).getCompoundAt(k + 1), seqs
-							.get(j).getCompoundAt(k + 1));
-				}
+				double score = (i == j) ? selfScores[i] : scores[p++];
 
 				if (i != j){
 					score = Math.max(score, 0.0);
@@ -356,6 +319,44 @@ public class DistanceMatrixCalculator {
 		return DM;
 	}
 
+	// sum of the substitution scores of two aligned sequences, ignoring the gapped positions
+	private static <C extends Sequence<D>, D extends Compound> double getSimilarityScore(
+			String[] sequenceString, List<C> seqs, SubstitutionMatrix<D> M,
+			int i, int j) {
+		double score = 0;
+		for (int k = 0; k < sequenceString[i].length(); k++) {
+			if (Comparison.isGap(sequenceString[i].charAt(k))
+					|| Comparison.isGap(sequenceString[j].charAt(k)))
+				continue;
+			score += M.getValue(seqs.get(i).getCompoundAt(k + 1), seqs
+					.get(j).getCompoundAt(k + 1));
+		}
+		return score;
+	}
+
+	private static <C extends Sequence<D>, D extends Compound> String[] getSequenceStrings(
+			MultipleSequenceAlignment<C, D> msa) {
+		String[] sequenceString = new String[msa.getSize()];
+		for (int i = 0; i < sequenceString.length; i++) {
+			sequenceString[i] = msa.getAlignedSequence(i + 1)
+					.getSequenceAsString();
+		}
+		return sequenceString;
+	}
+
+	// runs the pairwise calculations in parallel, logging the progress every 10%
+	private static AllPairsCalculator getCalculator() {
+		AllPairsCalculator calculator = new AllPairsCalculator();
+		final AtomicInteger logged = new AtomicInteger();
+		calculator.setProgressListener((done, total) -> {
+			int percent = (int) (done * 100 / total), last = logged.get();
+			if (percent >= last + 10 && logged.compareAndSet(last, percent)) {
+				logger.info("{}:{}", "Determining Distances", percent);
+			}
+		});
+		return calculator;
+	}
+
 	/**
 	 * The PAM (Point Accepted Mutations) distance is a measure of evolutionary
 	 * distance in protein sequences. The PAM unit represents an average
@@ -0,0 +1,95 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment;
+
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceScorerType;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class AllPairsCalculatorTest {
+
+	@Test
+	public void testPairOrder() {
+		AllPairsCalculator calculator = new AllPairsCalculator(new ForkJoinPool(3));
+		for (int chunkSize : new int[] { 1, 7, 1000 }) {
+			calculator.setChunkSize(chunkSize);
+			for (int size = 0; size < 40; size++) {
+				final int n = size;
+				double[] results = calculator.calculate(size, (i, j) -> i * n + j);
+				assertEquals(AllPairsCalculator.getPairCount(size), results.length);
+				int k = 0;
+				for (int i = 0; i < size; i++) {
+					for (int j = i + 1; j < size; j++) {
+						assertEquals(k, AllPairsCalculator.getPairIndex(i, j, size));
+						assertEquals(i * n + j, results[k++], 0.0);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testProgressAndCancel() {
+		final AllPairsCalculator calculator = new AllPairsCalculator();
+		final AtomicLong done = new AtomicLong();
+		calculator.setProgressListener((d, total) -> {
+			assertEquals(4950, total);
+			done.accumulateAndGet(d, Math::max);
+		});
+		calculator.calculate(100, (i, j) -> 0);
+		assertEquals(4950, done.get());
+
+		calculator.setProgressListener((d, total) -> calculator.cancel());
+		try {
+			calculator.calculate(100, (i, j) -> 0);
+			fail("Expected a CancellationException");
+		} catch (CancellationException e) {
+			assertTrue(calculator.isCancelled());
+		}
+	}
+
+	@Test
+	public void testAllPairsScores() throws CompoundNotFoundException {
+		List<ProteinSequence> proteins = new ArrayList<ProteinSequence>();
+		for (String s : new String[] { "ARNDCEQGHILKMFPSTWYV", "ARNDCEQGHIKMFPSTWYVV", "HILKMFPST", "ANDR",
+				"WYVARNDCEQ" }) {
+			proteins.add(new ProteinSequence(s));
+		}
+		SimpleGapPenalty gaps = new SimpleGapPenalty(10, 1);
+		for (PairwiseSequenceScorerType type : new PairwiseSequenceScorerType[] { PairwiseSequenceScorerType.GLOBAL,
+				PairwiseSequenceScorerType.GLOBAL_IDENTITIES, PairwiseSequenceScorerType.LOCAL_SIMILARITIES }) {
+			assertArrayEquals(Alignments.runPairwiseScorers(Alignments.getAllPairsScorers(proteins, type, gaps,
+					SubstitutionMatrixHelper.getBlosum62())), Alignments.getAllPairsScores(proteins, type, gaps,
+					SubstitutionMatrixHelper.getBlosum62(), new AllPairsCalculator()), 0.0);
+		}
+	}
+}
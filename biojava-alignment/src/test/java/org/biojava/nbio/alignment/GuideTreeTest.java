@@ -67,6 +67,16 @@ public class GuideTreeTest {
 		assertArrayEquals(tree.getAllPairsScores(), new double[] {4, 0, 3, 0, 3, 0}, 0.00001);
 	}
 
+	@Test
+	public void testAllPairsCalculator() {
+		GuideTree<ProteinSequence, AminoAcidCompound> parallel = new GuideTree<ProteinSequence, AminoAcidCompound>(
+				proteins, PairwiseSequenceScorerType.GLOBAL_IDENTITIES, gaps, blosum62, new AllPairsCalculator());
+		assertArrayEquals(tree.getAllPairsScores(), parallel.getAllPairsScores(), 0.00001);
+		assertArrayEquals(tree.getDistanceMatrix(), parallel.getDistanceMatrix());
+		assertArrayEquals(tree.getScoreMatrix(), parallel.getScoreMatrix());
+		assertEquals(tree.toString(), parallel.toString());
+	}
+
 	@Test
 	public void testGetDistanceMatrix() {
 		assertArrayEquals(tree.getDistanceMatrix(), new double[][] {
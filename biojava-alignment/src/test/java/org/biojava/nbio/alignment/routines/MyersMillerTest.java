@@ -0,0 +1,153 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.Alignments;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.NeedlemanWunsch;
+import org.biojava.nbio.alignment.SimpleGapPenalty;
+import org.biojava.nbio.alignment.SmithWaterman;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.AlignedSequence;
+import org.biojava.nbio.core.alignment.template.SequencePair;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.biojava.nbio.alignment.routines.RandomSequences.AMINO_ACIDS;
+import static org.biojava.nbio.alignment.routines.RandomSequences.mutate;
+import static org.biojava.nbio.alignment.routines.RandomSequences.randomSequence;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MyersMillerTest {
+
+	private final Random random = new Random(42);
+	private final SubstitutionMatrix<AminoAcidCompound> blosum62 = SubstitutionMatrixHelper.getBlosum62();
+
+	@Test
+	public void testGlobal() throws CompoundNotFoundException {
+		GapPenalty[] gaps = { new SimpleGapPenalty(10, 1), new SimpleGapPenalty(0, 4), new SimpleGapPenalty(5, 5),
+				new SimpleGapPenalty(8, 0) };
+		for (GapPenalty gap : gaps) {
+			for (int i = 0; i < 10; i++) {
+				// large enough to be split several times
+				ProteinSequence query = new ProteinSequence(randomSequence(random, AMINO_ACIDS, 1 + random.nextInt(600)));
+				ProteinSequence target = new ProteinSequence(mutate(random, query.getSequenceAsString(), AMINO_ACIDS));
+				NeedlemanWunsch<ProteinSequence, AminoAcidCompound> nw =
+						new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62);
+				MyersMiller<ProteinSequence, AminoAcidCompound> mm =
+						new MyersMiller<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62);
+				SequencePair<ProteinSequence, AminoAcidCompound> pair = mm.getPair();
+				assertEquals(nw.getPair().getLength() > 0, pair.getLength() > 0);
+				assertEquals(nw.getScore(), mm.getScore(), 0.0);
+				assertEquals(mm.getScore(), rescore(pair, gap), 0.0);
+				assertEquals(query.getSequenceAsString(), pair.getQuery().toString().replace("-", ""));
+				assertEquals(target.getSequenceAsString(), pair.getTarget().toString().replace("-", ""));
+			}
+		}
+	}
+
+	@Test
+	public void testLocal() throws CompoundNotFoundException {
+		GapPenalty[] gaps = { new SimpleGapPenalty(10, 1), new SimpleGapPenalty(0, 4) };
+		for (GapPenalty gap : gaps) {
+			for (int i = 0; i < 10; i++) {
+				// a similar region within unrelated flanks
+				String core = randomSequence(random, AMINO_ACIDS, 50 + random.nextInt(300));
+				ProteinSequence query = new ProteinSequence(randomSequence(random, AMINO_ACIDS, random.nextInt(200)) +
+						core + randomSequence(random, AMINO_ACIDS, random.nextInt(200)));
+				ProteinSequence target = new ProteinSequence(randomSequence(random, AMINO_ACIDS, random.nextInt(200)) +
+						mutate(random, core, AMINO_ACIDS) + randomSequence(random, AMINO_ACIDS, random.nextInt(200)));
+				SmithWaterman<ProteinSequence, AminoAcidCompound> sw =
+						new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62);
+				MyersMiller<ProteinSequence, AminoAcidCompound> mm =
+						new MyersMiller<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62, true);
+				SequencePair<ProteinSequence, AminoAcidCompound> pair = mm.getPair();
+				assertEquals(sw.getScore(), mm.getScore(), 0.0);
+				assertEquals(mm.getScore(), rescore(pair, gap), 0.0);
+				// the alignment ends where Smith-Waterman finds the maximum, but may start later on ties
+				assertEquals(getLastIndex(sw.getPair().getQuery()), getLastIndex(pair.getQuery()));
+				assertEquals(getLastIndex(sw.getPair().getTarget()), getLastIndex(pair.getTarget()));
+			}
+		}
+	}
+
+	@Test
+	public void testParallel() throws CompoundNotFoundException {
+		ProteinSequence query = new ProteinSequence(randomSequence(random, AMINO_ACIDS, 2000));
+		ProteinSequence target = new ProteinSequence(mutate(random, query.getSequenceAsString(), AMINO_ACIDS));
+		GapPenalty gap = new SimpleGapPenalty(10, 1);
+		MyersMiller<ProteinSequence, AminoAcidCompound> parallel =
+				new MyersMiller<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62);
+		MyersMiller<ProteinSequence, AminoAcidCompound> serial =
+				new MyersMiller<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62);
+		serial.setParallel(false);
+		assertEquals(serial.getPair().toString(), parallel.getPair().toString());
+		assertEquals(new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62).getScore(),
+				parallel.getScore(), 0.0);
+		assertNull(parallel.getScoreMatrix());
+	}
+
+	@Test
+	public void testAlignerType() throws CompoundNotFoundException {
+		ProteinSequence query = new ProteinSequence("ARNDCEQGHILKMFPSTWYV");
+		ProteinSequence target = new ProteinSequence("ARNDCEQGHIKMFPSTWYVV");
+		GapPenalty gap = new SimpleGapPenalty(10, 1);
+		assertTrue(Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.GLOBAL_LINEAR_SPACE, gap,
+				blosum62) instanceof MyersMiller);
+		assertEquals(new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62).getScore(),
+				Alignments.getPairwiseAligner(query, target, PairwiseSequenceAlignerType.LOCAL_LINEAR_SPACE, gap,
+				blosum62).getScore(), 0.0);
+	}
+
+	private static int getLastIndex(AlignedSequence<ProteinSequence, AminoAcidCompound> aligned) {
+		return aligned.getSequenceIndexAt(aligned.getEnd().getPosition());
+	}
+
+	// sums the substitution scores and gap penalties of the aligned columns
+	private int rescore(SequencePair<ProteinSequence, AminoAcidCompound> pair, GapPenalty gap) {
+		AlignedSequence<ProteinSequence, AminoAcidCompound> query = pair.getQuery(), target = pair.getTarget();
+		int score = 0;
+		boolean queryGap = false, targetGap = false;
+		int start = Math.min(query.getStart().getPosition(), target.getStart().getPosition());
+		int end = Math.max(query.getEnd().getPosition(), target.getEnd().getPosition());
+		for (int i = start; i <= end; i++) {
+			if (query.isGap(i)) {
+				score += (queryGap ? 0 : gap.getOpenPenalty()) + gap.getExtensionPenalty();
+			} else if (target.isGap(i)) {
+				score += (targetGap ? 0 : gap.getOpenPenalty()) + gap.getExtensionPenalty();
+			} else {
+				score += blosum62.getValue(query.getCompoundAt(i), target.getCompoundAt(i));
+			}
+			queryGap = query.isGap(i);
+			targetGap = target.isGap(i);
+		}
+		return score;
+	}
+}
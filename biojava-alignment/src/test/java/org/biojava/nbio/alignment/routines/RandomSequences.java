@@ -0,0 +1,61 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.routines;
+
+import java.util.Random;
+
+/**
+ * Random sequences and mutated copies of them for the alignment tests.
+ */
+final class RandomSequences {
+
+	static final String AMINO_ACIDS = "ARNDCQEGHILKMFPSTWYV";
+
+	private RandomSequences() {
+	}
+
+	static String randomSequence(Random random, String alphabet, int length) {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			s.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return s.toString();
+	}
+
+	// substitutions, insertions and deletions at about 10% of the positions
+	static String mutate(Random random, String s, String alphabet) {
+		StringBuilder m = new StringBuilder();
+		for (int i = 0; i < s.length(); i++) {
+			int r = random.nextInt(30);
+			if (r == 0) {
+				continue;
+			} else if (r == 1) {
+				m.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			m.append(r == 2 ? alphabet.charAt(random.nextInt(alphabet.length())) : s.charAt(i));
+		}
+		if (m.length() == 0) {
+			m.append(alphabet.charAt(0));
+		}
+		return m.toString();
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.nbio.alignment.routines;
+
+import org.biojava.nbio.alignment.NeedlemanWunsch;
+import org.biojava.nbio.alignment.SimpleGapPenalty;
+import org.biojava.nbio.alignment.SmithWaterman;
+import org.biojava.nbio.alignment.template.AbstractPairwiseSequenceAligner;
+import org.biojava.nbio.alignment.template.GapPenalty;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SubstitutionMatrix;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.biojava.nbio.alignment.routines.RandomSequences.AMINO_ACIDS;
+import static org.biojava.nbio.alignment.routines.RandomSequences.mutate;
+import static org.biojava.nbio.alignment.routines.RandomSequences.randomSequence;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScoringKernelTest {
+
+	private final Random random = new Random(42);
+
+	@Test
+	public void testProteinScores() throws CompoundNotFoundException {
+		SubstitutionMatrix<AminoAcidCompound> blosum62 = SubstitutionMatrixHelper.getBlosum62();
+		GapPenalty[] gaps = { new SimpleGapPenalty(10, 1), new SimpleGapPenalty(0, 4), new SimpleGapPenalty(5, 5),
+				new SimpleGapPenalty(8, 0) };
+		for (GapPenalty gap : gaps) {
+			for (int i = 0; i < 20; i++) {
+				String q = randomSequence(random, AMINO_ACIDS, 1 + random.nextInt(60));
+				String t = mutate(random, q, AMINO_ACIDS);
+				ProteinSequence query = new ProteinSequence(q), target = new ProteinSequence(t);
+				assertSameScores(new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62),
+						new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62));
+				assertSameScores(new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62),
+						new SmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gap, blosum62));
+			}
+		}
+	}
+
+	@Test
+	public void testDnaScores() throws CompoundNotFoundException {
+		SubstitutionMatrix<NucleotideCompound> nuc = SubstitutionMatrixHelper.getNuc4_4();
+		GapPenalty gap = new SimpleGapPenalty(10, 1);
+		for (int i = 0; i < 20; i++) {
+			String q = randomSequence(random, "ACGTN", 1 + random.nextInt(100));
+			String t = mutate(random, q, "ACGT");
+			DNASequence query = new DNASequence(q), target = new DNASequence(t);
+			assertSameScores(new NeedlemanWunsch<DNASequence, NucleotideCompound>(query, target, gap, nuc),
+					new NeedlemanWunsch<DNASequence, NucleotideCompound>(query, target, gap, nuc));
+			assertSameScores(new SmithWaterman<DNASequence, NucleotideCompound>(query, target, gap, nuc),
+					new SmithWaterman<DNASequence, NucleotideCompound>(query, target, gap, nuc));
+		}
+	}
+
+	@Test
+	public void testBanded() throws CompoundNotFoundException {
+		SubstitutionMatrix<AminoAcidCompound> blosum62 = SubstitutionMatrixHelper.getBlosum62();
+		ProteinSequence query = new ProteinSequence(randomSequence(random, AMINO_ACIDS, 200));
+		ProteinSequence target = new ProteinSequence(mutate(random, query.getSequenceAsString(), AMINO_ACIDS));
+		ScoringKernel<AminoAcidCompound> kernel = ScoringKernel.getKernel(blosum62, query.getCompoundSet());
+		byte[] q = kernel.encode(query), t = kernel.encode(target);
+
+		for (GapPenalty gap : new GapPenalty[] { new SimpleGapPenalty(10, 1), new SimpleGapPenalty(0, 4) }) {
+			int global = kernel.scoreGlobal(q, t, gap), local = kernel.scoreLocal(q, t, gap);
+			// a band covering the whole matrix
+			assertEquals(global, kernel.scoreGlobal(q, t, gap, 400));
+			assertEquals(local, kernel.scoreLocal(q, t, gap, 400));
+			// a few mutations stay close to the diagonal
+			assertEquals(global, kernel.scoreGlobal(q, t, gap, 20));
+			assertEquals(local, kernel.scoreLocal(q, t, gap, 20));
+			// a narrower band can only miss better paths
+			assertTrue(kernel.scoreGlobal(q, t, gap, 0) <= global);
+			assertTrue(kernel.scoreLocal(q, t, gap, 0) <= local);
+		}
+	}
+
+	private static <S extends Sequence<C>, C extends Compound> void assertSameScores(
+			AbstractPairwiseSequenceAligner<S, C> full, AbstractPairwiseSequenceAligner<S, C> scoreOnly) {
+		// the first one builds the alignment, the second only computes the score
+		full.getPair();
+		assertEquals(full.getScore(), scoreOnly.getScore(), 0.0);
+		assertEquals(full.getMaxScore(), scoreOnly.getMaxScore(), 0.0);
+		assertEquals(full.getMinScore(), scoreOnly.getMinScore(), 0.0);
+		assertEquals(full.getSimilarity(), scoreOnly.getSimilarity(), 0.0);
+		// requesting the alignment afterwards gives the same result
+		assertEquals(full.getPair().toString(), scoreOnly.getPair().toString());
+	}
+}
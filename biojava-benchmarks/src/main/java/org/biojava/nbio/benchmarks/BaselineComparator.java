@@ -0,0 +1,175 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH result files written with <code>-rf json</code>, e.g. the
+ * <code>baseline.json</code> of this module with the results of a new
+ * build. Benchmarks are matched by name and parameters. The average time and,
+ * if the runs used <code>-prof gc</code>, the normalised allocation rate
+ * (bytes per operation) are compared.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp benchmarks.jar org.biojava.nbio.benchmarks.BaselineComparator baseline.json current.json [threshold]
+ * </pre>
+ * The threshold is the relative slow-down above which a benchmark is
+ * reported as a regression, 0.1 (10%) by default. The exit status is 1 if
+ * any benchmark regressed.
+ *
+ * @since 5.0.0
+ */
+public class BaselineComparator {
+
+	/** Default relative slow-down reported as a regression */
+	public static final double DEFAULT_THRESHOLD = 0.1;
+
+	private static final String ALLOCATION_METRIC = "·gc.alloc.rate.norm";
+
+	/**
+	 * A single benchmark result.
+	 */
+	public static class Score {
+		private final double score;
+		private final double error;
+		private final String unit;
+		private final double allocated;
+
+		public Score(double score, double error, String unit, double allocated) {
+			this.score = score;
+			this.error = error;
+			this.unit = unit;
+			this.allocated = allocated;
+		}
+
+		public double getScore() {
+			return score;
+		}
+
+		public double getError() {
+			return error;
+		}
+
+		public String getUnit() {
+			return unit;
+		}
+
+		/**
+		 * @return bytes allocated per operation, or NaN if the run was not
+		 * profiled with <code>-prof gc</code>
+		 */
+		public double getAllocated() {
+			return allocated;
+		}
+	}
+
+	private final double threshold;
+
+	public BaselineComparator(double threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Reads a JMH JSON result file.
+	 * @param file the result file
+	 * @return the scores, keyed by benchmark name and parameters
+	 * @throws IOException if the file cannot be read
+	 */
+	public static Map<String, Score> read(File file) throws IOException {
+		Map<String, Score> scores = new LinkedHashMap<String, Score>();
+		JsonNode root = new ObjectMapper().readTree(file);
+		for (JsonNode result : root) {
+			StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+			JsonNode params = result.path("params");
+			Iterator<Map.Entry<String, JsonNode>> it = params.fields();
+			while (it.hasNext()) {
+				Map.Entry<String, JsonNode> param = it.next();
+				key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+			}
+			JsonNode primary = result.path("primaryMetric");
+			JsonNode allocation = result.path("secondaryMetrics").path(ALLOCATION_METRIC);
+			scores.put(key.toString(), new Score(
+					primary.path("score").asDouble(),
+					primary.path("scoreError").asDouble(),
+					primary.path("scoreUnit").asText(),
+					allocation.isMissingNode() ? Double.NaN : allocation.path("score").asDouble()));
+		}
+		return scores;
+	}
+
+	/**
+	 * Prints a comparison table of the benchmarks present in both files.
+	 * @param baseline the reference scores
+	 * @param current the new scores
+	 * @return the keys of the benchmarks that regressed
+	 */
+	public List<String> compare(Map<String, Score> baseline, Map<String, Score> current) {
+		List<String> regressions = new ArrayList<String>();
+		System.out.println(String.format("%-80s %12s %12s %8s %14s", "Benchmark", "Baseline", "Current", "Change", "Alloc change"));
+		for (Map.Entry<String, Score> entry : current.entrySet()) {
+			Score before = baseline.get(entry.getKey());
+			if (before == null) {
+				System.out.println(String.format("%-80s %12s %12.3f", entry.getKey(), "-", entry.getValue().getScore()));
+				continue;
+			}
+			Score after = entry.getValue();
+			double change = (after.getScore() - before.getScore()) / before.getScore();
+			double allocChange = (after.getAllocated() - before.getAllocated()) / before.getAllocated();
+			// only count slow-downs which are larger than the measurement errors
+			boolean regressed = change > threshold
+					&& after.getScore() - after.getError() > before.getScore() + before.getError();
+			if (regressed) {
+				regressions.add(entry.getKey());
+			}
+			System.out.println(String.format("%-80s %12.3f %12.3f %+7.1f%% %+13.1f%%%s",
+					entry.getKey(), before.getScore(), after.getScore(), 100 * change,
+					100 * allocChange, regressed ? "  REGRESSION" : ""));
+		}
+		return regressions;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: BaselineComparator baseline.json current.json [threshold]");
+			System.exit(2);
+		}
+		double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+		BaselineComparator comparator = new BaselineComparator(threshold);
+		List<String> regressions = comparator.compare(read(new File(args[0])), read(new File(args[1])));
+		if (!regressions.isEmpty()) {
+			System.out.println(regressions.size() + " benchmark(s) slower than the baseline by more than "
+					+ Math.round(100 * threshold) + "%");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.io.FileParsingParameters;
+import org.biojava.nbio.structure.io.PDBFileParser;
+import org.biojava.nbio.structure.io.mmcif.ChemCompGroupFactory;
+import org.biojava.nbio.structure.io.mmcif.ReducedChemCompProvider;
+
+/**
+ * Access to the inputs bundled with the benchmarks. The files are copied
+ * from the test resources of the other modules at build time (see the pom).
+ * <p>
+ * All structure benchmarks use the {@link ReducedChemCompProvider} so that
+ * no run depends on the network or on the state of a local chemical
+ * component cache.
+ *
+ * @since 5.0.0
+ */
+public class BenchmarkResources {
+
+	private static final String BASE = "/org/biojava/nbio/benchmarks/";
+
+	/**
+	 * The bundled structures, available in both PDB and mmCIF format.
+	 */
+	public enum StructureSize {
+		/** 4a10 truncated to 125 atoms */
+		SMALL("4a10_short"),
+		/** haemoglobin 4hhb, 4779 atoms */
+		MEDIUM("4hhb"),
+		/**
+		 * 3ddo without SEQRES records, about 11000 atoms. There is no
+		 * original mmCIF file for it in the test resources, the one used is
+		 * BioJava's own mmCIF output.
+		 */
+		LARGE("3ddo_raw_noseqres");
+
+		private final String name;
+
+		private StructureSize(String name) {
+			this.name = name;
+		}
+
+		public String getPdbResource() {
+			return "structures/" + name + ".pdb.gz";
+		}
+
+		public String getCifResource() {
+			return "structures/" + name + ".cif.gz";
+		}
+	}
+
+	/** Protein family PF00104, several hundred sequences */
+	public static final String PROTEIN_FASTA = "sequences/PF00104_small.fasta";
+	/** The BRCA2 coding sequence, about 10 kb */
+	public static final String DNA_FASTA = "sequences/BRCA2-cds.fasta";
+	/** The BRCA2 peptide */
+	public static final String PEPTIDE_FASTA = "sequences/BRCA2-peptide.fasta";
+	/** A Sanger FASTQ file */
+	public static final String FASTQ = "sequences/test1_sanger.fastq";
+
+	static {
+		ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
+	}
+
+	private BenchmarkResources() { }
+
+	/**
+	 * Reads a bundled resource fully into memory, decompressing it if its
+	 * name ends with <code>.gz</code>. Benchmarks parse from the returned
+	 * array so that disk I/O is not measured.
+	 * @param name the resource name, relative to the benchmark package
+	 * @return the (uncompressed) content
+	 * @throws IOException if the resource cannot be read
+	 */
+	public static byte[] getBytes(String name) throws IOException {
+		InputStream in = BenchmarkResources.class.getResourceAsStream(BASE + name);
+		if (in == null) {
+			throw new IOException("Could not find benchmark resource " + name);
+		}
+		if (name.endsWith(".gz")) {
+			in = new GZIPInputStream(in);
+		}
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[8192];
+			int n;
+			while ((n = in.read(buf)) != -1) {
+				out.write(buf, 0, n);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Parsing parameters shared by the benchmarks: no SEQRES alignment, so
+	 * that timings do not depend on sequence alignment.
+	 * @return new parameters
+	 */
+	public static FileParsingParameters getParsingParameters() {
+		FileParsingParameters params = new FileParsingParameters();
+		params.setAlignSeqRes(false);
+		return params;
+	}
+
+	/**
+	 * Parses one of the bundled structures from its PDB file.
+	 * @param size the structure
+	 * @return the parsed structure
+	 * @throws IOException if the resource cannot be read
+	 */
+	public static Structure getStructure(StructureSize size) throws IOException {
+		PDBFileParser parser = new PDBFileParser();
+		parser.setFileParsingParameters(getParsingParameters());
+		return parser.parsePDBFile(new ByteArrayInputStream(getBytes(size.getPdbResource())));
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.biojava.nbio.alignment.Alignments;
+import org.biojava.nbio.alignment.Alignments.PairwiseSequenceAlignerType;
+import org.biojava.nbio.alignment.SimpleGapPenalty;
+import org.biojava.nbio.core.alignment.matrices.SubstitutionMatrixHelper;
+import org.biojava.nbio.core.alignment.template.SequencePair;
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.io.FastaReaderHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pairwise sequence alignment with the Needleman-Wunsch ({@code GLOBAL})
+ * and Smith-Waterman ({@code LOCAL}) aligners: two members of the PF00104
+ * family, and two overlapping 1.5 kb windows of the BRCA2 coding sequence.
+ *
+ * @since 5.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SequenceAlignmentBenchmark {
+
+	@Param({"GLOBAL", "LOCAL"})
+	public PairwiseSequenceAlignerType type;
+
+	private ProteinSequence protein1;
+	private ProteinSequence protein2;
+	private DNASequence dna1;
+	private DNASequence dna2;
+
+	@Setup
+	public void setup() throws IOException, CompoundNotFoundException {
+		Iterator<ProteinSequence> proteins = FastaReaderHelper.readFastaProteinSequence(
+				new ByteArrayInputStream(BenchmarkResources.getBytes(BenchmarkResources.PROTEIN_FASTA)))
+				.values().iterator();
+		protein1 = proteins.next();
+		protein2 = proteins.next();
+
+		DNASequence brca2 = FastaReaderHelper.readFastaDNASequence(
+				new ByteArrayInputStream(BenchmarkResources.getBytes(BenchmarkResources.DNA_FASTA)))
+				.values().iterator().next();
+		dna1 = new DNASequence(brca2.getSequenceAsString().substring(0, 1500));
+		dna2 = new DNASequence(brca2.getSequenceAsString().substring(500, 2000));
+	}
+
+	@Benchmark
+	public SequencePair<ProteinSequence, AminoAcidCompound> protein() {
+		return Alignments.getPairwiseAlignment(protein1, protein2, type,
+				new SimpleGapPenalty(), SubstitutionMatrixHelper.getBlosum62());
+	}
+
+	/**
+	 * The score alone, without traceback.
+	 */
+	@Benchmark
+	public double proteinScore() {
+		return Alignments.getPairwiseAligner(protein1, protein2, type,
+				new SimpleGapPenalty(), SubstitutionMatrixHelper.getBlosum62()).getScore();
+	}
+
+	@Benchmark
+	public SequencePair<DNASequence, NucleotideCompound> dna() {
+		return Alignments.getPairwiseAlignment(dna1, dna2, type,
+				new SimpleGapPenalty(), SubstitutionMatrixHelper.getNuc4_4());
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.ProteinSequence;
+import org.biojava.nbio.core.sequence.io.FastaReaderHelper;
+import org.biojava.nbio.sequencing.io.fastq.Fastq;
+import org.biojava.nbio.sequencing.io.fastq.FastqReader;
+import org.biojava.nbio.sequencing.io.fastq.SangerFastqReader;
+import org.biojava.nbio.sequencing.io.fastq.StreamListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading of protein and DNA FASTA files and of a Sanger FASTQ file from
+ * memory.
+ *
+ * @since 5.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SequenceParsingBenchmark {
+
+	private byte[] proteinFasta;
+	private byte[] dnaFasta;
+	private byte[] fastq;
+
+	@Setup
+	public void setup() throws IOException {
+		proteinFasta = BenchmarkResources.getBytes(BenchmarkResources.PROTEIN_FASTA);
+		dnaFasta = BenchmarkResources.getBytes(BenchmarkResources.DNA_FASTA);
+		fastq = BenchmarkResources.getBytes(BenchmarkResources.FASTQ);
+	}
+
+	@Benchmark
+	public LinkedHashMap<String, ProteinSequence> fastaProtein() throws IOException {
+		return FastaReaderHelper.readFastaProteinSequence(new ByteArrayInputStream(proteinFasta));
+	}
+
+	@Benchmark
+	public LinkedHashMap<String, DNASequence> fastaDna() throws IOException {
+		return FastaReaderHelper.readFastaDNASequence(new ByteArrayInputStream(dnaFasta));
+	}
+
+	@Benchmark
+	public void fastqStream(final Blackhole blackhole) throws IOException {
+		FastqReader reader = new SangerFastqReader();
+		reader.stream(new InputStreamReader(new ByteArrayInputStream(fastq)), new StreamListener() {
+			@Override
+			public void fastq(Fastq fastq) {
+				blackhole.consume(fastq);
+			}
+		});
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.biojava.nbio.benchmarks.BenchmarkResources.StructureSize;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.asa.AsaCalculator;
+import org.biojava.nbio.structure.secstruc.SecStrucCalc;
+import org.biojava.nbio.structure.secstruc.SecStrucState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-structure algorithms: accessible surface area and DSSP secondary
+ * structure assignment.
+ *
+ * @since 5.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StructureAlgorithmsBenchmark {
+
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public StructureSize size;
+
+	/**
+	 * Threads used by the ASA calculation; 1 measures the single
+	 * threaded cost.
+	 */
+	@Param({"1"})
+	public int threads;
+
+	private Structure structure;
+
+	@Setup
+	public void setup() throws IOException {
+		structure = BenchmarkResources.getStructure(size);
+	}
+
+	@Benchmark
+	public double[] asaCalculator() {
+		AsaCalculator asa = new AsaCalculator(structure,
+				AsaCalculator.DEFAULT_PROBE_SIZE, AsaCalculator.DEFAULT_N_SPHERE_POINTS,
+				threads, false);
+		return asa.calculateAsas();
+	}
+
+	@Benchmark
+	public List<SecStrucState> secStrucCalc() throws StructureException {
+		// do not assign, the structure is shared between invocations
+		return new SecStrucCalc().calculate(structure, false);
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.biojava.nbio.benchmarks.BenchmarkResources.StructureSize;
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.align.ce.CeMain;
+import org.biojava.nbio.structure.align.fatcat.FatCatFlexible;
+import org.biojava.nbio.structure.align.fatcat.FatCatRigid;
+import org.biojava.nbio.structure.align.model.AFPChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pairwise structure alignment of the alpha and beta chains of
+ * haemoglobin (4hhb.A vs 4hhb.B) with CE and FATCAT.
+ *
+ * @since 5.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StructureAlignmentBenchmark {
+
+	private Atom[] ca1;
+	private Atom[] ca2;
+
+	@Setup
+	public void setup() throws IOException {
+		Structure s = BenchmarkResources.getStructure(StructureSize.MEDIUM);
+		ca1 = StructureTools.getAtomCAArray(s.getPolyChainByPDB("A"));
+		ca2 = StructureTools.getAtomCAArray(s.getPolyChainByPDB("B"));
+	}
+
+	@Benchmark
+	public AFPChain ceMain() throws StructureException {
+		// the aligners keep state, use a new one for every alignment
+		return new CeMain().align(ca1, ca2);
+	}
+
+	@Benchmark
+	public AFPChain fatCatRigid() throws StructureException {
+		return new FatCatRigid().align(ca1, ca2);
+	}
+
+	@Benchmark
+	public AFPChain fatCatFlexible() throws StructureException {
+		return new FatCatFlexible().align(ca1, ca2);
+	}
+}
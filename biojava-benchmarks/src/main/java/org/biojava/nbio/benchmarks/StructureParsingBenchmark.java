@@ -0,0 +1,133 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.biojava.nbio.benchmarks.BenchmarkResources.StructureSize;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.io.PDBFileParser;
+import org.biojava.nbio.structure.io.mmcif.SimpleMMcifConsumer;
+import org.biojava.nbio.structure.io.mmcif.SimpleMMcifParser;
+import org.biojava.nbio.structure.io.mmtf.MmtfActions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of the bundled structures from PDB, mmCIF and MMTF. The input
+ * is held uncompressed in memory, so only the parsers are measured.
+ *
+ * @since 5.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StructureParsingBenchmark {
+
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public StructureSize size;
+
+	private byte[] pdb;
+	private byte[] cif;
+	private byte[] mmtf;
+
+	@Setup
+	public void setup() throws IOException {
+		pdb = BenchmarkResources.getBytes(size.getPdbResource());
+		cif = BenchmarkResources.getBytes(size.getCifResource());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MmtfActions.writeToOutputStream(BenchmarkResources.getStructure(size), out);
+		mmtf = out.toByteArray();
+	}
+
+	@Benchmark
+	public Structure pdbFileParser() throws IOException {
+		PDBFileParser parser = new PDBFileParser();
+		parser.setFileParsingParameters(BenchmarkResources.getParsingParameters());
+		return parser.parsePDBFile(new ByteArrayInputStream(pdb));
+	}
+
+	/**
+	 * The line based mmCIF parser.
+	 */
+	@Benchmark
+	public Structure mmcifLines() throws IOException {
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		SimpleMMcifConsumer consumer = newConsumer(parser);
+		parser.parse(new BufferedReader(new InputStreamReader(new ByteArrayInputStream(cif))));
+		return consumer.getStructure();
+	}
+
+	/**
+	 * The byte level mmCIF parser.
+	 */
+	@Benchmark
+	public Structure mmcifBuffer() throws IOException {
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		SimpleMMcifConsumer consumer = newConsumer(parser);
+		parser.parse(ByteBuffer.wrap(cif));
+		return consumer.getStructure();
+	}
+
+	/**
+	 * The byte level mmCIF parser, reading coordinates only.
+	 */
+	@Benchmark
+	public Structure mmcifAtomSiteOnly() throws IOException {
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		parser.addRequiredCategory("atom_site");
+		SimpleMMcifConsumer consumer = newConsumer(parser);
+		parser.parse(ByteBuffer.wrap(cif));
+		return consumer.getStructure();
+	}
+
+	@Benchmark
+	public Structure mmtfStructureReader() {
+		return MmtfActions.readFromInputStream(new ByteArrayInputStream(mmtf),
+				BenchmarkResources.getParsingParameters());
+	}
+
+	private static SimpleMMcifConsumer newConsumer(SimpleMMcifParser parser) {
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer();
+		consumer.setFileParsingParameters(BenchmarkResources.getParsingParameters());
+		parser.addMMcifConsumer(consumer);
+		return consumer;
+	}
+}
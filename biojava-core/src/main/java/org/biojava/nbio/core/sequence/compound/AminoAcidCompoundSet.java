@@ -22,6 +22,7 @@
 
 package org.biojava.nbio.core.sequence.compound;
 
+import org.biojava.nbio.core.sequence.template.CompoundLookupTable;
 import org.biojava.nbio.core.sequence.template.CompoundSet;
 import org.biojava.nbio.core.sequence.template.Sequence;
 
@@ -50,6 +51,8 @@ public class AminoAcidCompoundSet implements CompoundSet<AminoAcidCompound>, Ser
 	private final Map<AminoAcidCompound, Set<AminoAcidCompound>> equivalentsCache =
 			new HashMap<AminoAcidCompound, Set<AminoAcidCompound>>();
 
+	private transient volatile CompoundLookupTable<AminoAcidCompound> lookupTable;
+
 	public AminoAcidCompoundSet() {
 		aminoAcidCompoundCache.put("A", new AminoAcidCompound(this, "A", "Ala", "Alanine", 71.0788f));
 		aminoAcidCompoundCache.put("R", new AminoAcidCompound(this, "R", "Arg", "Arginine", 156.1875f));
@@ -95,6 +98,7 @@ public class AminoAcidCompoundSet implements CompoundSet<AminoAcidCompound>, Ser
 			String threeLtr = aa.getLongName().toUpperCase();
 			aminoAcidCompoundCache3Letter.put(threeLtr, aa);
 		}
+		initEquivalents();
 	}
 
 	@Override
@@ -127,6 +131,21 @@ public class AminoAcidCompoundSet implements CompoundSet<AminoAcidCompound>, Ser
 		return true;
 	}
 
+	/**
+	 * Returns the compounds of this set as arrays indexed by character and by ordinal.
+	 *
+	 * @return an immutable table, which can be shared between threads
+	 * @since 5.0.0
+	 */
+	public CompoundLookupTable<AminoAcidCompound> getLookupTable() {
+		CompoundLookupTable<AminoAcidCompound> table = lookupTable;
+		if (table == null) {
+			table = new CompoundLookupTable<AminoAcidCompound>(this);
+			lookupTable = table;
+		}
+		return table;
+	}
+
 	private final static AminoAcidCompoundSet aminoAcidCompoundSet = new AminoAcidCompoundSet();
 
 	public static AminoAcidCompoundSet getAminoAcidCompoundSet() {
@@ -141,32 +160,34 @@ public class AminoAcidCompoundSet implements CompoundSet<AminoAcidCompound>, Ser
 
 	@Override
 	public Set<AminoAcidCompound> getEquivalentCompounds(AminoAcidCompound compound) {
-		if (equivalentsCache.isEmpty()) {
-			// most compounds are equivalent to themselves alone
-			for (AminoAcidCompound c : aminoAcidCompoundCache.values()) {
-				equivalentsCache.put(c, Collections.singleton(c));
-			}
-			// ambiguous Asparagine or Aspartic acid
-			addAmbiguousEquivalents("N", "D", "B");
-			// ambiguous Glutamine or Glutamic acid
-			addAmbiguousEquivalents("E", "Q", "Z");
-			// ambiguous Leucine or Isoleucine
-			addAmbiguousEquivalents("I", "L", "J");
-			// ambiguous gaps
-			AminoAcidCompound gap1, gap2, gap3;
-			Set<AminoAcidCompound> gaps = new HashSet<AminoAcidCompound>();
-			gaps.add(gap1 = aminoAcidCompoundCache.get("-"));
-			gaps.add(gap2 = aminoAcidCompoundCache.get("."));
-			gaps.add(gap3 = aminoAcidCompoundCache.get("_"));
-			equivalentsCache.put(gap1, gaps);
-			equivalentsCache.put(gap2, gaps);
-			equivalentsCache.put(gap3, gaps);
-			// X is never equivalent, even to itself
-			equivalentsCache.put(aminoAcidCompoundCache.get("X"), new HashSet<AminoAcidCompound>());
-		}
 		return equivalentsCache.get(compound);
 	}
 
+	// filled by the constructor, so that the compound set is never modified once it is shared between threads
+	private void initEquivalents() {
+		// most compounds are equivalent to themselves alone
+		for (AminoAcidCompound c : aminoAcidCompoundCache.values()) {
+			equivalentsCache.put(c, Collections.singleton(c));
+		}
+		// ambiguous Asparagine or Aspartic acid
+		addAmbiguousEquivalents("N", "D", "B");
+		// ambiguous Glutamine or Glutamic acid
+		addAmbiguousEquivalents("E", "Q", "Z");
+		// ambiguous Leucine or Isoleucine
+		addAmbiguousEquivalents("I", "L", "J");
+		// ambiguous gaps
+		AminoAcidCompound gap1, gap2, gap3;
+		Set<AminoAcidCompound> gaps = new HashSet<AminoAcidCompound>();
+		gaps.add(gap1 = aminoAcidCompoundCache.get("-"));
+		gaps.add(gap2 = aminoAcidCompoundCache.get("."));
+		gaps.add(gap3 = aminoAcidCompoundCache.get("_"));
+		equivalentsCache.put(gap1, gaps);
+		equivalentsCache.put(gap2, gaps);
+		equivalentsCache.put(gap3, gaps);
+		// X is never equivalent, even to itself
+		equivalentsCache.put(aminoAcidCompoundCache.get("X"), new HashSet<AminoAcidCompound>());
+	}
+
 	// helper method to initialize the equivalent sets for 2 amino acid compounds and their ambiguity compound
 	private void addAmbiguousEquivalents(String one, String two, String either) {
 		Set<AminoAcidCompound> equivalents;
@@ -27,6 +27,7 @@ import org.biojava.nbio.core.sequence.DNASequence;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
 import org.biojava.nbio.core.sequence.loader.ArrayListProxySequenceReader;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
 import org.biojava.nbio.core.sequence.template.AbstractSequence;
 import org.biojava.nbio.core.sequence.template.CompoundSet;
 import org.biojava.nbio.core.sequence.template.ProxySequenceReader;
@@ -43,13 +44,25 @@ public class DNASequenceCreator implements
 		SequenceCreatorInterface<NucleotideCompound> {
 
 	private final CompoundSet<NucleotideCompound> compoundSet;
+	private final boolean byteStorage;
 
 	/**
 	 *
 	 * @param compoundSet
 	 */
 	public DNASequenceCreator(CompoundSet<NucleotideCompound> compoundSet) {
+		this(compoundSet, false);
+	}
+
+	/**
+	 * @param compoundSet
+	 * @param byteStorage true to store the sequences created from Strings in
+	 * a {@link ByteArraySequenceReader}, which takes a byte per compound
+	 * @since 5.0.0
+	 */
+	public DNASequenceCreator(CompoundSet<NucleotideCompound> compoundSet, boolean byteStorage) {
 		this.compoundSet = compoundSet;
+		this.byteStorage = byteStorage;
 	}
 
 /**
@@ -61,6 +74,9 @@ public class DNASequenceCreator implements
 	@Override
 public AbstractSequence<NucleotideCompound> getSequence(String sequence,
 			long index) throws CompoundNotFoundException {
+		if (byteStorage) {
+			return new DNASequence(new ByteArraySequenceReader<NucleotideCompound>(sequence, compoundSet), compoundSet);
+		}
 		return new DNASequence(sequence, compoundSet);
 	}
 /**
@@ -83,6 +99,9 @@ public AbstractSequence<NucleotideCompound> getSequence(
 	@Override
 public AbstractSequence<NucleotideCompound> getSequence(
 			List<NucleotideCompound> list) {
+		if (byteStorage) {
+			return new DNASequence(new ByteArraySequenceReader<NucleotideCompound>(list, compoundSet), compoundSet);
+		}
 		ArrayListProxySequenceReader<NucleotideCompound> store = new ArrayListProxySequenceReader<NucleotideCompound>();
 		store.setCompoundSet(compoundSet);
 		store.setContents(list);
@@ -27,14 +27,21 @@ import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
 import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
 import org.biojava.nbio.core.sequence.io.template.SequenceHeaderParserInterface;
+import org.biojava.nbio.core.sequence.io.util.ByteLineScanner;
+import org.biojava.nbio.core.sequence.io.util.RecordIterator;
 import org.biojava.nbio.core.sequence.template.Compound;
 import org.biojava.nbio.core.sequence.template.Sequence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.stream.Stream;
 
 /**
  * Use FastaReaderHelper as an example of how to use this class where FastaReaderHelper should be the
@@ -50,6 +57,8 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
 	BufferedReaderBytesRead br;
 	InputStreamReader isr;
 	FileInputStream fi = null;
+	InputStream is;
+	RecordIterator<FastaRecord, S> iterator;
 	long fileIndex = 0;
 	long sequenceIndex = 0;
 	String line = "";
@@ -66,6 +75,7 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
 	public FastaReader(InputStream is, SequenceHeaderParserInterface<S,C> headerParser,
 					   SequenceCreatorInterface<C> sequenceCreator) {
 		this.headerParser = headerParser;
+		this.is = is;
 		isr = new InputStreamReader(is);
 		this.br = new BufferedReaderBytesRead(isr);
 		this.sequenceCreator = sequenceCreator;
@@ -88,6 +98,7 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
 					   SequenceCreatorInterface<C> sequenceCreator) throws FileNotFoundException {
 		this.headerParser = headerParser;
 		fi = new FileInputStream(file);
+		is = fi;
 		isr = new InputStreamReader(fi);
 		this.br = new BufferedReaderBytesRead(isr);
 		this.sequenceCreator = sequenceCreator;
@@ -227,7 +238,68 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
 		return sequences;
 	}
 
+	/**
+	 * Returns the records of the File or InputStream one at a time, so that
+	 * memory does not depend on the size of the file.  The file is scanned
+	 * as bytes rather than through {@link #process(int)}; do not mix the two.
+	 * Sequences with unrecognised compounds are skipped, as in
+	 * {@link #process(int)}.
+	 * @see #iterator(boolean)
+	 * @return the sequences, in the order of the file
+	 * @since 5.0.0
+	 */
+	public Iterator<S> iterator() {
+		return iterator(false);
+	}
+
+	/**
+	 * Returns the records of the File or InputStream one at a time.  In
+	 * parallel mode the calling thread splits the records and the
+	 * {@link org.biojava.nbio.core.util.ConcurrencyTools} thread pool creates
+	 * the sequences, so the header parser and sequence creator must be
+	 * thread safe.  The order of the file is kept in both modes.
+	 * @param parallel true to create the sequences in parallel
+	 * @return the sequences, in the order of the file
+	 * @since 5.0.0
+	 */
+	public Iterator<S> iterator(boolean parallel) {
+		if (iterator != null) {
+			throw new IllegalStateException("The records of this reader are already being iterated");
+		}
+		iterator = new FastaRecordIterator(parallel);
+		return iterator;
+	}
+
+	/**
+	 * Returns a Stream of the records of the File or InputStream, which
+	 * closes this reader when it is closed.
+	 * @see #iterator(boolean)
+	 * @param parallel true to create the sequences in parallel
+	 * @return the sequences, in the order of the file
+	 * @since 5.0.0
+	 */
+	public Stream<S> stream(boolean parallel) {
+		return ((FastaRecordIterator) iterator(parallel)).toStream(() -> {
+			try {
+				close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * @see #stream(boolean)
+	 * @since 5.0.0
+	 */
+	public Stream<S> stream() {
+		return stream(false);
+	}
+
 	public void close() throws IOException {
+		if (iterator != null) {
+			iterator.cancel();
+		}
 		br.close();
 		isr.close();
 		//If stream was created from File object then we need to close it
@@ -237,6 +309,106 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
 		this.line=this.header = null;
 	}
 
+	private static class FastaRecord {
+
+		private final String header, sequence;
+		private final long index;
+
+		private FastaRecord(String header, String sequence, long index) {
+			this.header = header;
+			this.sequence = sequence;
+			this.index = index;
+		}
+
+	}
+
+	private class FastaRecordIterator extends RecordIterator<FastaRecord, S> {
+
+		private final ByteLineScanner scanner = new ByteLineScanner(is);
+		private byte[] residues = new byte[1024];
+		private String header;
+		private boolean started;
+
+		private FastaRecordIterator(boolean parallel) {
+			super(parallel);
+		}
+
+		@Override
+		protected FastaRecord nextRecord() throws IOException {
+			int length = 0;
+			long index = -1;
+			while (true) {
+				boolean more = started || scanner.nextLine();
+				started = false;
+				if (!more) {
+					if (header == null && length == 0) {
+						return null;
+					}
+					return getRecord(length, index);
+				}
+				byte[] buffer = scanner.getBuffer();
+				int start = scanner.getStart(), end = scanner.getEnd();
+				while (start < end && (buffer[start] & 0xff) <= ' ') {
+					start++;
+				}
+				if (start == end || buffer[start] == ';') {
+					continue;
+				}
+				if (buffer[start] == '>') {
+					if (length > 0) {
+						// this line starts the following record
+						started = true;
+						return getRecord(length, index);
+					}
+					while (end > start && (buffer[end - 1] & 0xff) <= ' ') {
+						end--;
+					}
+					header = new String(buffer, start + 1, end - start - 1, Charset.defaultCharset());
+					continue;
+				}
+				if (length == 0) {
+					index = scanner.getLineOffset();
+				}
+				if (residues.length < length + end - start) {
+					residues = Arrays.copyOf(residues, Math.max(2 * residues.length, length + end - start));
+				}
+				for (int i = start; i < end; i++) {
+					if ((buffer[i] & 0xff) > ' ') {
+						residues[length++] = buffer[i];
+					}
+				}
+			}
+		}
+
+		private FastaRecord getRecord(int length, long index) {
+			FastaRecord record = new FastaRecord(header == null ? "" : header,
+					new String(residues, 0, length, StandardCharsets.ISO_8859_1), index);
+			header = null;
+			return record;
+		}
+
+		@Override
+		protected S build(FastaRecord record) {
+			if (record.sequence.isEmpty()) {
+				logger.warn("Can't parse sequence {}. Got sequence of length 0!", record.index);
+				logger.warn("header: {}", record.header);
+			}
+			try {
+				@SuppressWarnings("unchecked")
+				S sequence = (S)sequenceCreator.getSequence(record.sequence, record.index);
+				headerParser.parseHeader(record.header, sequence);
+				return sequence;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (CompoundNotFoundException e) {
+				logger.warn("Sequence with header '{}' has unrecognised compounds ({}), it will be ignored",
+						record.header, e.getMessage());
+				return null;
+			}
+		}
+
+	}
+
 	public static void main(String[] args) {
 		try {
 			String inputFile = "/PF00104_small.fasta";
@@ -38,13 +38,20 @@ import org.biojava.nbio.core.sequence.features.AbstractFeature;
 import org.biojava.nbio.core.sequence.features.DBReferenceInfo;
 import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
 import org.biojava.nbio.core.sequence.io.template.SequenceHeaderParserInterface;
+import org.biojava.nbio.core.sequence.io.util.ByteLineScanner;
+import org.biojava.nbio.core.sequence.io.util.RecordIterator;
 import org.biojava.nbio.core.sequence.template.AbstractSequence;
 import org.biojava.nbio.core.sequence.template.Compound;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.stream.Stream;
 
 /**
  * Use GenbankReaderHelper as an example of how to use this class where GenbankReaderHelper should be the
@@ -53,9 +60,12 @@ import java.util.LinkedHashMap;
  */
 public class GenbankReader<S extends AbstractSequence<C>, C extends Compound> {
 
+	private final static Logger logger = LoggerFactory.getLogger(GenbankReader.class);
+
 	private SequenceCreatorInterface<C> sequenceCreator;
 	private GenbankSequenceParser<S,C> genbankParser;
 	private InputStream inputStream;
+	private RecordIterator<String, S> iterator;
 
 	/**
 	 * If you are going to use FileProxyProteinSequenceCreator then do not use this constructor because we need details about
@@ -145,24 +155,7 @@ public class GenbankReader<S extends AbstractSequence<C>, C extends Compound> {
 			String seqString = genbankParser.getSequence(br, 0);
 			//reached end of file?
 			if(seqString==null) break;
-			S sequence = (S) sequenceCreator.getSequence(seqString, 0);
-			genbankParser.getSequenceHeaderParser().parseHeader(genbankParser.getHeader(), sequence);
-
-			// add features to new sequence
-			for (String k: genbankParser.getFeatures().keySet()){
-				for (AbstractFeature f: genbankParser.getFeatures(k)){
-					//f.getLocations().setSequence(sequence);  // can't set proper sequence source to features. It is actually needed? Don't think so...
-					sequence.addFeature(f);
-				}
-			}
-
-			// add taxonomy ID to new sequence
-			ArrayList<DBReferenceInfo> dbQualifier = genbankParser.getDatabaseReferences().get("db_xref");
-			if (dbQualifier != null){
-				DBReferenceInfo q = dbQualifier.get(0);
-				sequence.setTaxonomy(new TaxonomyID(q.getDatabase()+":"+q.getId(), DataSource.GENBANK));
-			}
-
+			S sequence = createSequence(genbankParser, seqString);
 			sequences.put(sequence.getAccession().getID(), sequence);
 		}
 		br.close();
@@ -170,10 +163,141 @@ public class GenbankReader<S extends AbstractSequence<C>, C extends Compound> {
 		return sequences;
 	}
 
+	/**
+	 * Returns the records of the File or InputStream one at a time, so that
+	 * memory does not depend on the size of the file.  Records are split at
+	 * the <code>//</code> lines by scanning the file as bytes; do not mix
+	 * this with {@link #process(int)}.  Records with unrecognised compounds
+	 * are skipped.
+	 * @see #iterator(boolean)
+	 * @return the sequences, in the order of the file
+	 * @since 5.0.0
+	 */
+	public Iterator<S> iterator() {
+		return iterator(false);
+	}
+
+	/**
+	 * Returns the records of the File or InputStream one at a time.  In
+	 * parallel mode the calling thread splits the records and the
+	 * {@link org.biojava.nbio.core.util.ConcurrencyTools} thread pool parses
+	 * them, each with its own {@link GenbankSequenceParser}, so the sequence
+	 * creator must be thread safe.  The order of the file is kept in both modes.
+	 * @param parallel true to parse the records in parallel
+	 * @return the sequences, in the order of the file
+	 * @since 5.0.0
+	 */
+	public Iterator<S> iterator(boolean parallel) {
+		if (iterator != null) {
+			throw new IllegalStateException("The records of this reader are already being iterated");
+		}
+		iterator = new GenbankRecordIterator(parallel);
+		return iterator;
+	}
+
+	/**
+	 * Returns a Stream of the records of the File or InputStream, which
+	 * closes this reader when it is closed.
+	 * @see #iterator(boolean)
+	 * @param parallel true to parse the records in parallel
+	 * @return the sequences, in the order of the file
+	 * @since 5.0.0
+	 */
+	public Stream<S> stream(boolean parallel) {
+		return ((GenbankRecordIterator) iterator(parallel)).toStream(() -> {
+			try {
+				close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * @see #stream(boolean)
+	 * @since 5.0.0
+	 */
+	public Stream<S> stream() {
+		return stream(false);
+	}
+
 	public void close() throws IOException {
+		if (iterator != null) {
+			iterator.cancel();
+		}
 		inputStream.close();
 	}
 
+	private S createSequence(GenbankSequenceParser<S,C> genbankParser, String seqString) throws IOException, CompoundNotFoundException {
+		@SuppressWarnings("unchecked")
+		S sequence = (S) sequenceCreator.getSequence(seqString, 0);
+		genbankParser.getSequenceHeaderParser().parseHeader(genbankParser.getHeader(), sequence);
+
+		// add features to new sequence
+		for (String k: genbankParser.getFeatures().keySet()){
+			for (AbstractFeature f: genbankParser.getFeatures(k)){
+				//f.getLocations().setSequence(sequence);  // can't set proper sequence source to features. It is actually needed? Don't think so...
+				sequence.addFeature(f);
+			}
+		}
+
+		// add taxonomy ID to new sequence
+		ArrayList<DBReferenceInfo> dbQualifier = genbankParser.getDatabaseReferences().get("db_xref");
+		if (dbQualifier != null){
+			DBReferenceInfo q = dbQualifier.get(0);
+			sequence.setTaxonomy(new TaxonomyID(q.getDatabase()+":"+q.getId(), DataSource.GENBANK));
+		}
+		return sequence;
+	}
+
+	// splits the records at the lines starting with //
+	private class GenbankRecordIterator extends RecordIterator<String, S> {
+
+		private final ByteLineScanner scanner = new ByteLineScanner(inputStream);
+		private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+
+		private GenbankRecordIterator(boolean parallel) {
+			super(parallel);
+		}
+
+		@Override
+		protected String nextRecord() throws IOException {
+			record.reset();
+			boolean blank = true;
+			while (scanner.nextLine()) {
+				byte[] buffer = scanner.getBuffer();
+				for (int i = scanner.getStart(); blank && i < scanner.getEnd(); i++) {
+					blank = (buffer[i] & 0xff) <= ' ';
+				}
+				record.write(buffer, scanner.getStart(), scanner.getEnd() - scanner.getStart());
+				record.write('\n');
+				if (scanner.startsWith("//")) {
+					return record.toString(Charset.defaultCharset().name());
+				}
+			}
+			return blank ? null : record.toString(Charset.defaultCharset().name());
+		}
+
+		@Override
+		protected S build(String record) {
+			GenbankSequenceParser<S,C> parser = new GenbankSequenceParser<S,C>();
+			try {
+				String seqString = parser.getSequence(new BufferedReader(new StringReader(record)), 0);
+				if (seqString == null) {
+					return null;
+				}
+				return createSequence(parser, seqString);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (CompoundNotFoundException e) {
+				logger.warn("Record '{}' has unrecognised compounds ({}), it will be ignored",
+						parser.getHeader(), e.getMessage());
+				return null;
+			}
+		}
+
+	}
+
 	public static void main(String[] args) throws Exception {
 		String proteinFile = "src/test/resources/BondFeature.gb";
 		FileInputStream is = new FileInputStream(proteinFile);
@@ -117,7 +117,14 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 	// dbxref line
 	protected static final Pattern dbxp = Pattern.compile("^([^:]+):(\\S+)$");
 
+	/**
+	 * @deprecated {@link InsdcParser} keeps state while parsing, so a shared instance is not
+	 * thread safe; each parser now uses its own.
+	 */
+	@Deprecated
 	protected static final InsdcParser locationParser = new InsdcParser(DataSource.GENBANK);
+	// one per parser, since GenbankReader parses records concurrently
+	private final InsdcParser featureLocationParser = new InsdcParser(DataSource.GENBANK);
 	//sections start at a line and continue till the first line afterwards with a
 	//non-whitespace first character
 	//we want to match any of the following as a new section within a section
@@ -266,7 +273,7 @@ public class GenbankSequenceParser<S extends AbstractSequence<C>, C extends Comp
 						// new feature!
 						gbFeature = new TextFeature(key, val, key, key);
 						Location l =
-								locationParser.parse(val);
+								featureLocationParser.parse(val);
 						gbFeature.setLocation((AbstractLocation)l);
 
 						if (!featureCollection.containsKey(key)) {
@@ -0,0 +1,365 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.io.util.ByteLineScanner;
+import org.biojava.nbio.core.sequence.loader.MappedFastaProxySequenceReader;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random access to the records of a FASTA file through a samtools-style .fai index.  The index is read from
+ * <code>&lt;file&gt;.fai</code> when it exists, and otherwise built by scanning the file once; it can be saved with
+ * {@link #writeIndex(File)}.  Each record is memory-mapped the first time it is used and returned as a
+ * {@link MappedFastaProxySequenceReader}, which finds a position from the line layout of the index, so region queries
+ * only touch the bytes they return.
+ * <p>
+ * Instances are thread safe.  As in samtools, all the lines of a record but the last must have the same length.
+ *
+ * @param <C> the compound type of the records
+ * @since 5.0.0
+ */
+public class IndexedFastaReader<C extends Compound> implements Closeable {
+
+	/**
+	 * A line of a .fai index.
+	 */
+	public static class Entry {
+
+		private final String name;
+		private final int length;
+		private final long offset;
+		private final int lineBases, lineBytes;
+
+		public Entry(String name, int length, long offset, int lineBases, int lineBytes) {
+			this.name = name;
+			this.length = length;
+			this.offset = offset;
+			this.lineBases = lineBases;
+			this.lineBytes = lineBytes;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns the number of residues.
+		 */
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * Returns the offset in the file of the first residue.
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Returns the number of residues on each full line.
+		 */
+		public int getLineBases() {
+			return lineBases;
+		}
+
+		/**
+		 * Returns the number of bytes of each full line, with its line end.
+		 */
+		public int getLineBytes() {
+			return lineBytes;
+		}
+
+		// number of bytes from the first to the last residue
+		private long getByteLength() {
+			if (length == 0) {
+				return 0;
+			}
+			return (long) ((length - 1) / lineBases) * lineBytes + (length - 1) % lineBases + 1;
+		}
+
+		@Override
+		public String toString() {
+			return name + "\t" + length + "\t" + offset + "\t" + lineBases + "\t" + lineBytes;
+		}
+
+	}
+
+	private final File file;
+	private final CompoundSet<C> compoundSet;
+	private final RandomAccessFile raf;
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+	private final Map<String, ByteBuffer> mappings = new ConcurrentHashMap<String, ByteBuffer>();
+
+	/**
+	 * Opens a FASTA file, with the index in <code>&lt;file&gt;.fai</code> if it exists.
+	 *
+	 * @param file the FASTA file
+	 * @param compoundSet the compound set of the records
+	 * @throws IOException if the file or index cannot be read, or the lines of a record have different lengths
+	 */
+	public IndexedFastaReader(File file, CompoundSet<C> compoundSet) throws IOException {
+		this(file, new File(file.getPath() + ".fai"), compoundSet);
+	}
+
+	/**
+	 * Opens a FASTA file with the given index, which is built if it does not exist.
+	 *
+	 * @param file the FASTA file
+	 * @param index the .fai index
+	 * @param compoundSet the compound set of the records
+	 * @throws IOException if the file or index cannot be read, or the lines of a record have different lengths
+	 */
+	public IndexedFastaReader(File file, File index, CompoundSet<C> compoundSet) throws IOException {
+		this.file = file;
+		this.compoundSet = compoundSet;
+		List<Entry> list = index.exists() ? readIndex(index) : buildIndex(file);
+		for (Entry entry : list) {
+			entries.put(entry.getName(), entry);
+		}
+		raf = new RandomAccessFile(file, "r");
+	}
+
+	/**
+	 * Reads a .fai index.
+	 *
+	 * @param index the index file
+	 * @return the entries, in the order of the index
+	 * @throws IOException if the index cannot be read or is malformed
+	 */
+	public static List<Entry> readIndex(File index) throws IOException {
+		List<Entry> list = new ArrayList<Entry>();
+		try (BufferedReader br = new BufferedReader(new FileReader(index))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				String[] fields = line.split("\t");
+				if (fields.length < 5) {
+					throw new IOException("Malformed line in FASTA index " + index + ": " + line);
+				}
+				try {
+					list.add(new Entry(fields[0], Integer.parseInt(fields[1]), Long.parseLong(fields[2]),
+							Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+				} catch (NumberFormatException e) {
+					throw new IOException("Malformed line in FASTA index " + index + ": " + line, e);
+				}
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Builds the .fai index of a FASTA file by scanning it once.
+	 *
+	 * @param file the FASTA file
+	 * @return the entries, in the order of the file
+	 * @throws IOException if the file cannot be read, or the lines of a record have different lengths
+	 */
+	public static List<Entry> buildIndex(File file) throws IOException {
+		List<Entry> list = new ArrayList<Entry>();
+		try (InputStream in = new FileInputStream(file)) {
+			ByteLineScanner scanner = new ByteLineScanner(in);
+			String name = null;
+			long length = 0, offset = 0, lastOffset = 0;
+			int lineBases = -1, lineBytes = -1;
+			// the line end of the last sequence line, and the first one measured in the file
+			int lineEnd = 0, fileLineEnd = -1;
+			boolean shortLine = false;
+			while (true) {
+				boolean more = scanner.nextLine();
+				if (!more || scanner.startsWith(">")) {
+					if (name != null) {
+						if (length > Integer.MAX_VALUE) {
+							throw new IOException("Record " + name + " of " + file + " is too long");
+						}
+						if (lineBytes < 0) {
+							// a single line, which may be the last line of a file without a final line end
+							lineBytes = lineBases + (lineEnd > 0 ? lineEnd : Math.max(fileLineEnd, 1));
+						}
+						list.add(new Entry(name, (int) length, offset, Math.max(lineBases, 0), Math.max(lineBytes, 0)));
+					}
+					if (!more) {
+						break;
+					}
+					byte[] buffer = scanner.getBuffer();
+					int start = scanner.getStart() + 1, end = start;
+					while (end < scanner.getEnd() && buffer[end] > ' ') {
+						end++;
+					}
+					name = new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+					length = 0;
+					lineBases = lineBytes = -1;
+					shortLine = false;
+					continue;
+				}
+				int bases = scanner.getEnd() - scanner.getStart();
+				if (bases == 0 && lineBases < 0) {
+					continue;
+				}
+				if (name == null) {
+					throw new IOException("Sequence before the first header of " + file);
+				}
+				if (lineBases < 0) {
+					offset = scanner.getLineOffset();
+					lineBases = bases;
+				} else {
+					if (lineBytes < 0) {
+						lineBytes = (int) (scanner.getLineOffset() - lastOffset);
+					}
+					if (shortLine && bases > 0 || bases > lineBases) {
+						throw new IOException("Different line length in record " + name + " of " + file);
+					}
+				}
+				shortLine |= bases < lineBases;
+				length += bases;
+				lastOffset = scanner.getLineOffset();
+				lineEnd = scanner.getLineEndLength();
+				if (fileLineEnd < 0 && lineEnd > 0) {
+					fileLineEnd = lineEnd;
+				}
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Writes the index, in the .fai format of samtools.
+	 *
+	 * @param index the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeIndex(File index) throws IOException {
+		try (Writer w = new BufferedWriter(new FileWriter(index))) {
+			for (Entry entry : entries.values()) {
+				w.write(entry.toString());
+				w.write('\n');
+			}
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the names of the records, in the order of the index.
+	 */
+	public List<String> getSequenceNames() {
+		return Collections.unmodifiableList(new ArrayList<String>(entries.keySet()));
+	}
+
+	/**
+	 * Returns the index entry of a record.
+	 *
+	 * @throws IllegalArgumentException if there is no such record
+	 */
+	public Entry getEntry(String name) {
+		Entry entry = entries.get(name);
+		if (entry == null) {
+			throw new IllegalArgumentException("Sequence [" + name + "] was not found in the index of " + file);
+		}
+		return entry;
+	}
+
+	/**
+	 * Returns the storage of a record, which reads the mapped file.
+	 *
+	 * @param name the name of the record
+	 * @return the record
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if there is no such record
+	 */
+	public MappedFastaProxySequenceReader<C> getSequenceReader(String name) throws IOException {
+		Entry entry = getEntry(name);
+		return new MappedFastaProxySequenceReader<C>(getMapping(entry), entry.getLength(), entry.getLineBases(),
+				entry.getLineBytes(), compoundSet, new AccessionID(name));
+	}
+
+	/**
+	 * Returns a record as a sequence of the given creator, backed by {@link #getSequenceReader(String)}.
+	 *
+	 * @param name the name of the record
+	 * @param sequenceCreator for example a {@link DNASequenceCreator}
+	 * @return the record
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if there is no such record
+	 */
+	public AbstractSequence<C> getSequence(String name, SequenceCreatorInterface<C> sequenceCreator) throws IOException {
+		MappedFastaProxySequenceReader<C> reader = getSequenceReader(name);
+		AbstractSequence<C> sequence = sequenceCreator.getSequence(reader, getEntry(name).getOffset());
+		sequence.setAccession(reader.getAccession());
+		return sequence;
+	}
+
+	/**
+	 * Returns a region of a record as it is in the file.
+	 *
+	 * @param name the name of the record
+	 * @param bioBegin the first position, from 1
+	 * @param bioEnd the last position, inclusive
+	 * @return the residues
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if there is no such record
+	 */
+	public String getSequenceAsString(String name, int bioBegin, int bioEnd) throws IOException {
+		return getSequenceReader(name).getSequenceAsString(bioBegin, bioEnd);
+	}
+
+	/**
+	 * Closes the file.  The mappings are released when they are garbage collected.
+	 */
+	@Override
+	public void close() throws IOException {
+		raf.close();
+	}
+
+	private ByteBuffer getMapping(Entry entry) throws IOException {
+		ByteBuffer mapping = mappings.get(entry.getName());
+		if (mapping == null) {
+			long size = entry.getByteLength();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Record " + entry.getName() + " of " + file + " is larger than 2GB");
+			}
+			mapping = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, entry.getOffset(), size);
+			// mapping twice in a race is harmless
+			mappings.put(entry.getName(), mapping);
+		}
+		return mapping;
+	}
+
+}
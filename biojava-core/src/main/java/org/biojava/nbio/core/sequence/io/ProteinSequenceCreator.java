@@ -27,6 +27,7 @@ import org.biojava.nbio.core.sequence.ProteinSequence;
 import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
 import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
 import org.biojava.nbio.core.sequence.loader.ArrayListProxySequenceReader;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
 import org.biojava.nbio.core.sequence.template.AbstractSequence;
 import org.biojava.nbio.core.sequence.template.CompoundSet;
 import org.biojava.nbio.core.sequence.template.ProxySequenceReader;
@@ -43,12 +44,24 @@ public class ProteinSequenceCreator implements
 		SequenceCreatorInterface<AminoAcidCompound> {
 
 	private CompoundSet<AminoAcidCompound> compoundSet;
+	private final boolean byteStorage;
 /**
  *
  * @param compoundSet
  */
 	public ProteinSequenceCreator(CompoundSet<AminoAcidCompound> compoundSet) {
+		this(compoundSet, false);
+	}
+
+	/**
+	 * @param compoundSet
+	 * @param byteStorage true to store the sequences created from Strings in
+	 * a {@link ByteArraySequenceReader}, which takes a byte per compound
+	 * @since 5.0.0
+	 */
+	public ProteinSequenceCreator(CompoundSet<AminoAcidCompound> compoundSet, boolean byteStorage) {
 		this.compoundSet = compoundSet;
+		this.byteStorage = byteStorage;
 	}
 /**
  *
@@ -60,6 +73,9 @@ public class ProteinSequenceCreator implements
 	@Override
 public AbstractSequence<AminoAcidCompound> getSequence(String sequence,
 			long index) throws CompoundNotFoundException {
+		if (byteStorage) {
+			return new ProteinSequence(new ByteArraySequenceReader<AminoAcidCompound>(sequence, compoundSet), compoundSet);
+		}
 		return new ProteinSequence(sequence, compoundSet);
 	}
 /**
@@ -70,6 +86,9 @@ public AbstractSequence<AminoAcidCompound> getSequence(String sequence,
 	@Override
 public AbstractSequence<AminoAcidCompound> getSequence(
 			List<AminoAcidCompound> list) {
+		if (byteStorage) {
+			return new ProteinSequence(new ByteArraySequenceReader<AminoAcidCompound>(list, compoundSet), compoundSet);
+		}
 		ArrayListProxySequenceReader<AminoAcidCompound> store = new ArrayListProxySequenceReader<AminoAcidCompound>();
 		store.setCompoundSet(compoundSet);
 		store.setContents(list);
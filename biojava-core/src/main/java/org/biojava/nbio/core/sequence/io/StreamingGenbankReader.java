@@ -0,0 +1,786 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.exceptions.ParserException;
+import org.biojava.nbio.core.sequence.DataSource;
+import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava.nbio.core.sequence.features.AbstractFeature;
+import org.biojava.nbio.core.sequence.features.DBReferenceInfo;
+import org.biojava.nbio.core.sequence.features.Qualifier;
+import org.biojava.nbio.core.sequence.features.TextFeature;
+import org.biojava.nbio.core.sequence.io.util.ByteLineScanner;
+import org.biojava.nbio.core.sequence.io.util.RecordIterator;
+import org.biojava.nbio.core.sequence.location.InsdcParser;
+import org.biojava.nbio.core.sequence.location.template.AbstractLocation;
+import org.biojava.nbio.core.sequence.location.template.Location;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.util.InputStreamProvider;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.stream.Stream;
+
+/**
+ * Reads GenBank files one record at a time, in memory bounded by the largest record rather than by the file, so
+ * that whole divisions (e.g. the RefSeq bacterial <code>.gbff.gz</code> files) can be scanned.
+ * <p>
+ * Unlike {@link GenbankSequenceParser}, which parses every location with {@link InsdcParser} and every qualifier
+ * into a {@link Qualifier} up front, the features of a {@link Record} keep their location and qualifiers as the raw
+ * text of the file and parse them on first access.  Feature types and qualifier names are interned, so that the
+ * thousands of <code>CDS</code> and <code>locus_tag</code> keys of a genome share their Strings.  The ORIGIN sequence
+ * can be skipped, kept as a String, or packed straight from the file buffer into a {@link ByteArraySequenceReader}
+ * (see {@link SequenceMode}).  Only the LOCUS, DEFINITION, ACCESSION, VERSION, KEYWORDS, COMMENT, FEATURES and
+ * ORIGIN sections are kept.
+ * <p>
+ * Usage:
+ * <pre>
+ * try (StreamingGenbankReader reader = new StreamingGenbankReader(new File("bacteria.1.genomic.gbff.gz"))) {
+ *     reader.setSequenceMode(StreamingGenbankReader.SequenceMode.SKIP);
+ *     StreamingGenbankReader.Record record;
+ *     while ((record = reader.next()) != null) {
+ *         for (StreamingGenbankReader.Feature f : record.getFeatures("CDS")) {
+ *             System.out.println(record.getAccession() + " " + f.getQualifier("locus_tag"));
+ *         }
+ *     }
+ * }
+ * </pre>
+ * A reader is not thread safe, but the records it returns may be used from any thread.
+ *
+ * @since 5.0.0
+ */
+public class StreamingGenbankReader implements Closeable {
+
+	/**
+	 * What is kept of the ORIGIN section of the records
+	 */
+	public enum SequenceMode {
+		/**
+		 * The sequence is skipped, only its length is known from the LOCUS line
+		 */
+		SKIP,
+		/**
+		 * The sequence is kept as an upper case String
+		 */
+		STRING,
+		/**
+		 * The sequence is packed into a {@link ByteArraySequenceReader} of the compound set of the LOCUS line,
+		 * without building a String
+		 */
+		PACKED
+	}
+
+	// interned names are not added beyond this, to bound memory on unusual files
+	private static final int MAX_INTERNED = 4096;
+
+	private static final ThreadLocal<InsdcParser<AbstractSequence<Compound>, Compound>> locationParsers =
+			ThreadLocal.withInitial(() -> new InsdcParser<AbstractSequence<Compound>, Compound>(DataSource.GENBANK));
+
+	private final InputStream inputStream;
+	private final ByteLineScanner scanner;
+	private final Map<String, String> names = new ConcurrentHashMap<String, String>();
+
+	private SequenceMode sequenceMode = SequenceMode.STRING;
+
+	// the letters of the current ORIGIN section
+	private byte[] residues = new byte[1 << 16];
+
+	// a line read ahead which starts the next section
+	private boolean pending;
+
+	/**
+	 * @param inputStream the GenBank file, which is closed by {@link #close()}
+	 */
+	public StreamingGenbankReader(InputStream inputStream) {
+		this.inputStream = inputStream;
+		this.scanner = new ByteLineScanner(inputStream);
+	}
+
+	/**
+	 * Opens a GenBank file, which may be compressed.
+	 *
+	 * @param file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public StreamingGenbankReader(File file) throws IOException {
+		this(new InputStreamProvider().getInputStream(file));
+	}
+
+	public SequenceMode getSequenceMode() {
+		return sequenceMode;
+	}
+
+	/**
+	 * @param sequenceMode what to keep of the sequences of the records read from now on, {@link SequenceMode#STRING}
+	 * by default
+	 */
+	public void setSequenceMode(SequenceMode sequenceMode) {
+		this.sequenceMode = sequenceMode;
+	}
+
+	/**
+	 * Reads the next record.
+	 *
+	 * @return the record, or null at the end of the file
+	 * @throws IOException if the file cannot be read
+	 * @throws ParserException if the record is malformed
+	 */
+	public Record next() throws IOException {
+		Record record = null;
+		StringBuilder value = null;
+		String key = null;
+		while (pending || scanner.nextLine()) {
+			pending = false;
+			byte[] buffer = scanner.getBuffer();
+			int start = scanner.getStart();
+			int end = scanner.getEnd();
+			if (end == start || isBlank(buffer, start, end)) {
+				continue;
+			}
+			if (buffer[start] == ' ') {
+				// continuation of a header section
+				if (value != null) {
+					value.append(' ').append(text(buffer, start, end).trim());
+				}
+				continue;
+			}
+			if (record != null && key != null) {
+				record.setSection(key, value.toString());
+			}
+			key = null;
+			value = null;
+
+			if (scanner.startsWith("//")) {
+				if (record != null) {
+					return record;
+				}
+			} else if (scanner.startsWith(GenbankSequenceParser.LOCUS_TAG)) {
+				if (record != null) {
+					throw new ParserException("Record " + record.getName() + " does not end with //");
+				}
+				record = new Record(text(buffer, start, end));
+			} else if (record == null) {
+				throw new ParserException("Expected a LOCUS line but found: " + text(buffer, start, end));
+			} else if (scanner.startsWith(GenbankSequenceParser.FEATURE_TAG)) {
+				readFeatures(record);
+			} else if (scanner.startsWith(GenbankSequenceParser.START_SEQUENCE_TAG)) {
+				readSequence(record);
+			} else {
+				int k = start;
+				while (k < end && buffer[k] != ' ') {
+					k++;
+				}
+				key = text(buffer, start, k);
+				value = new StringBuilder(text(buffer, k, end).trim());
+			}
+		}
+		if (record != null) {
+			if (key != null) {
+				record.setSection(key, value.toString());
+			}
+			return record;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the remaining records one at a time.
+	 *
+	 * @return the records, in the order of the file
+	 */
+	public Iterator<Record> iterator() {
+		return new StreamingRecordIterator();
+	}
+
+	/**
+	 * Returns a Stream of the remaining records, which closes this reader when it is closed.
+	 *
+	 * @return the records, in the order of the file
+	 */
+	public Stream<Record> stream() {
+		return new StreamingRecordIterator().toStream(() -> {
+			try {
+				close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		inputStream.close();
+	}
+
+	// reads the feature table up to the next line starting a section
+	private void readFeatures(Record record) throws IOException {
+		StringBuilder location = new StringBuilder();
+		StringBuilder qualifiers = new StringBuilder();
+		String type = null;
+		// true while the last qualifier has an unclosed quote
+		boolean quoted = false;
+		while (scanner.nextLine()) {
+			byte[] buffer = scanner.getBuffer();
+			int start = scanner.getStart();
+			int end = scanner.getEnd();
+			if (end == start || isBlank(buffer, start, end)) {
+				continue;
+			}
+			if (buffer[start] != ' ') {
+				pending = true;
+				break;
+			}
+			if (!quoted && end - start > 5 && buffer[start + 5] != ' ') {
+				if (type != null) {
+					record.addFeature(new Feature(names, type, location.toString(), qualifiers.toString()));
+				}
+				int t = start + 5;
+				while (t < end && buffer[t] != ' ') {
+					t++;
+				}
+				type = intern(names, text(buffer, start + 5, t));
+				location.setLength(0);
+				qualifiers.setLength(0);
+				appendTrimmed(location, buffer, t, end);
+				continue;
+			}
+			if (type == null) {
+				throw new ParserException("Malformed GenBank file: found a qualifier without feature.");
+			}
+			int s = Math.min(start + 21, end);
+			if (!quoted && s < end && buffer[s] == '/') {
+				if (qualifiers.length() > 0) {
+					qualifiers.append('\n');
+				}
+				qualifiers.append(text(buffer, s, end));
+			} else if (qualifiers.length() == 0) {
+				// a location spanning several lines
+				appendTrimmed(location, buffer, s, end);
+				continue;
+			} else {
+				qualifiers.append('\n').append(text(buffer, s, end));
+			}
+			for (int i = s; i < end; i++) {
+				if (buffer[i] == '"') {
+					quoted = !quoted;
+				}
+			}
+		}
+		if (type != null) {
+			record.addFeature(new Feature(names, type, location.toString(), qualifiers.toString()));
+		}
+	}
+
+	// reads the sequence up to the // line, which is left for next()
+	private void readSequence(Record record) throws IOException {
+		int n = 0;
+		boolean keep = sequenceMode != SequenceMode.SKIP;
+		if (keep && record.getLength() > residues.length) {
+			residues = new byte[record.getLength()];
+		}
+		while (scanner.nextLine()) {
+			if (scanner.startsWith("//")) {
+				pending = true;
+				break;
+			}
+			if (!keep) {
+				continue;
+			}
+			byte[] buffer = scanner.getBuffer();
+			int end = scanner.getEnd();
+			for (int i = scanner.getStart(); i < end; i++) {
+				byte b = buffer[i];
+				if (b <= ' ' || (b >= '0' && b <= '9')) {
+					continue;
+				}
+				if (b == '.' || b == '~') {
+					b = '-';
+				} else if (b >= 'a' && b <= 'z') {
+					b -= 'a' - 'A';
+				}
+				if (n == residues.length) {
+					residues = Arrays.copyOf(residues, 2 * n);
+				}
+				residues[n++] = b;
+			}
+		}
+		if (sequenceMode == SequenceMode.STRING) {
+			record.sequence = new String(residues, 0, n, StandardCharsets.ISO_8859_1);
+		} else if (sequenceMode == SequenceMode.PACKED) {
+			try {
+				record.storage = pack(residues, n, record.getCompoundSet());
+			} catch (CompoundNotFoundException e) {
+				throw new ParserException("Record " + record.getName() + " has unrecognised compounds", e);
+			}
+		}
+	}
+
+	private static <C extends Compound> ByteArraySequenceReader<C> pack(byte[] residues, int n,
+			CompoundSet<C> compoundSet) throws CompoundNotFoundException {
+		return new ByteArraySequenceReader<C>(residues, 0, n, compoundSet);
+	}
+
+	private static boolean isBlank(byte[] buffer, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (buffer[i] > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String text(byte[] buffer, int start, int end) {
+		return new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+	}
+
+	private static void appendTrimmed(StringBuilder builder, byte[] buffer, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (buffer[i] > ' ') {
+				builder.append((char) (buffer[i] & 0xff));
+			}
+		}
+	}
+
+	private static String intern(Map<String, String> names, String name) {
+		String interned = names.get(name);
+		if (interned != null) {
+			return interned;
+		}
+		if (names.size() >= MAX_INTERNED) {
+			return name;
+		}
+		interned = names.putIfAbsent(name, name);
+		return interned == null ? name : interned;
+	}
+
+	private class StreamingRecordIterator extends RecordIterator<Record, Record> {
+
+		private StreamingRecordIterator() {
+			super(false);
+		}
+
+		@Override
+		protected Record nextRecord() throws IOException {
+			return StreamingGenbankReader.this.next();
+		}
+
+		@Override
+		protected Record build(Record record) {
+			return record;
+		}
+
+	}
+
+	/**
+	 * The header sections, the features and optionally the sequence of one GenBank record.
+	 */
+	public static class Record {
+
+		private final String header;
+		private final String name;
+		private final int length;
+		private final CompoundSet<?> compoundSet;
+
+		private String accession;
+		private int version;
+		private String identifier;
+		private String description;
+		private String keywords;
+		private String comment;
+
+		private final List<Feature> features = new ArrayList<Feature>();
+
+		private String sequence;
+		private ByteArraySequenceReader<?> storage;
+
+		private Record(String header) {
+			this.header = header;
+			Matcher m = GenbankSequenceParser.lp.matcher(header.substring(GenbankSequenceParser.LOCUS_TAG.length()).trim());
+			if (!m.matches()) {
+				throw new ParserException("Bad locus line");
+			}
+			name = m.group(1);
+			accession = name;
+			String l = header.substring(GenbankSequenceParser.LOCUS_TAG.length()).trim();
+			l = l.substring(name.length()).trim();
+			length = Integer.parseInt(l.substring(0, l.indexOf(' ')));
+			if (m.group(2).equals("aa")) {
+				compoundSet = AminoAcidCompoundSet.getAminoAcidCompoundSet();
+			} else {
+				// GenBank writes RNA with t as well
+				compoundSet = AmbiguityDNACompoundSet.getDNACompoundSet();
+			}
+		}
+
+		private void setSection(String key, String value) {
+			if (key.equals(GenbankSequenceParser.DEFINITION_TAG)) {
+				description = value;
+			} else if (key.equals(GenbankSequenceParser.ACCESSION_TAG)) {
+				// if multiple accessions, keep only the first
+				accession = value.split("\\s+")[0];
+			} else if (key.equals(GenbankSequenceParser.VERSION_TAG)) {
+				Matcher m = GenbankSequenceParser.vp.matcher(value);
+				if (!m.matches()) {
+					throw new ParserException("Bad version line");
+				}
+				// believe the version line if it refers to another accession
+				accession = m.group(1);
+				if (m.group(3) != null) {
+					version = Integer.parseInt(m.group(3));
+				}
+				identifier = m.group(5);
+			} else if (key.equals(GenbankSequenceParser.KEYWORDS_TAG)) {
+				keywords = value;
+			} else if (key.equals(GenbankSequenceParser.COMMENT_TAG)) {
+				comment = value;
+			}
+		}
+
+		private void addFeature(Feature feature) {
+			features.add(feature);
+		}
+
+		/**
+		 * @return the LOCUS line
+		 */
+		public String getHeader() {
+			return header;
+		}
+
+		/**
+		 * @return the locus name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the length of the sequence given on the LOCUS line
+		 */
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * @return the compound set of the sequence, as given by the LOCUS line: amino acids, or for any nucleotide
+		 * molecule {@link AmbiguityDNACompoundSet}, since GenBank writes RNA with t and IUPAC ambiguity codes are
+		 * common
+		 */
+		public CompoundSet<?> getCompoundSet() {
+			return compoundSet;
+		}
+
+		/**
+		 * @return the accession of the VERSION line, or of the ACCESSION line if there is none
+		 */
+		public String getAccession() {
+			return accession;
+		}
+
+		/**
+		 * @return the version of the accession, 0 if there is none
+		 */
+		public int getVersion() {
+			return version;
+		}
+
+		/**
+		 * @return the GI number of the VERSION line, or null
+		 */
+		public String getIdentifier() {
+			return identifier;
+		}
+
+		/**
+		 * @return the DEFINITION, with the lines joined by spaces
+		 */
+		public String getDescription() {
+			return description;
+		}
+
+		public String getKeywords() {
+			return keywords;
+		}
+
+		public String getComment() {
+			return comment;
+		}
+
+		/**
+		 * @return the features, in the order of the file
+		 */
+		public List<Feature> getFeatures() {
+			return Collections.unmodifiableList(features);
+		}
+
+		/**
+		 * @param type a feature key, e.g. CDS
+		 * @return the features of the given type, in the order of the file
+		 */
+		public List<Feature> getFeatures(String type) {
+			List<Feature> result = new ArrayList<Feature>();
+			for (Feature f : features) {
+				if (f.getType().equals(type)) {
+					result.add(f);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Returns the NCBI taxonomy ID from the <code>db_xref</code> of the source feature.
+		 *
+		 * @return the ID, e.g. 9606, or null if there is none
+		 */
+		public String getTaxonomyId() {
+			for (Feature f : features) {
+				if (f.getType().equals("source")) {
+					for (String xref : f.getQualifierValues("db_xref")) {
+						if (xref.startsWith("taxon:")) {
+							return xref.substring("taxon:".length());
+						}
+					}
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * @return the sequence if it was read in {@link SequenceMode#STRING} mode, otherwise null
+		 */
+		public String getSequence() {
+			return sequence;
+		}
+
+		/**
+		 * Returns the packed sequence, which can back e.g. a DNASequence.
+		 *
+		 * @return the sequence if it was read in {@link SequenceMode#PACKED} mode, otherwise null
+		 */
+		public ByteArraySequenceReader<?> getSequenceStorage() {
+			return storage;
+		}
+
+		@Override
+		public String toString() {
+			return accession + " " + description;
+		}
+
+	}
+
+	/**
+	 * A feature of a {@link Record}, whose location and qualifiers are parsed on first access.  Parsing is
+	 * thread safe.
+	 */
+	public static class Feature {
+
+		private final Map<String, String> names;
+		private final String type;
+		private final String locationString;
+		// the qualifier lines without indentation, null once parsed
+		private volatile String qualifierText;
+
+		private volatile Location location;
+		private volatile Map<String, List<Qualifier>> qualifiers;
+
+		private Feature(Map<String, String> names, String type, String locationString, String qualifierText) {
+			this.names = names;
+			this.type = type;
+			this.locationString = locationString;
+			this.qualifierText = qualifierText;
+		}
+
+		/**
+		 * @return the feature key, e.g. CDS
+		 */
+		public String getType() {
+			return type;
+		}
+
+		/**
+		 * @return the location as written in the file, without white space
+		 */
+		public String getLocationString() {
+			return locationString;
+		}
+
+		/**
+		 * @return the location, parsed by {@link InsdcParser} on the first call
+		 * @throws ParserException if the location cannot be parsed
+		 */
+		public Location getLocation() {
+			Location l = location;
+			if (l == null) {
+				l = locationParsers.get().parse(locationString);
+				location = l;
+			}
+			return l;
+		}
+
+		/**
+		 * Returns the qualifiers in the form of {@link GenbankSequenceParser}: quotes are removed, lines are joined
+		 * by spaces (without spaces for translations), and db_xrefs are {@link DBReferenceInfo}s.
+		 *
+		 * @return the qualifiers by name, parsed on the first call
+		 * @throws ParserException if a db_xref is malformed
+		 */
+		public Map<String, List<Qualifier>> getQualifiers() {
+			Map<String, List<Qualifier>> q = qualifiers;
+			if (q == null) {
+				synchronized (this) {
+					q = qualifiers;
+					if (q == null) {
+						q = Collections.unmodifiableMap(parseQualifiers(qualifierText));
+						qualifiers = q;
+						qualifierText = null;
+					}
+				}
+			}
+			return q;
+		}
+
+		/**
+		 * @param name e.g. locus_tag
+		 * @return the value of the first qualifier of that name, or null
+		 */
+		public String getQualifier(String name) {
+			List<Qualifier> values = getQualifiers().get(name);
+			return values == null ? null : values.get(0).getValue();
+		}
+
+		/**
+		 * @param name e.g. db_xref
+		 * @return the values of the qualifiers of that name, which may be empty.  db_xrefs are given as
+		 * <code>database:id</code>.
+		 */
+		public List<String> getQualifierValues(String name) {
+			List<Qualifier> values = getQualifiers().get(name);
+			if (values == null) {
+				return Collections.emptyList();
+			}
+			List<String> result = new ArrayList<String>(values.size());
+			for (Qualifier q : values) {
+				if (q instanceof DBReferenceInfo) {
+					DBReferenceInfo xref = (DBReferenceInfo) q;
+					result.add(xref.getDatabase() + ":" + xref.getId());
+				} else {
+					result.add(q.getValue());
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Builds the feature as {@link GenbankSequenceParser} does, e.g. to add it to a sequence.
+		 *
+		 * @return a new TextFeature with the location and qualifiers of this feature
+		 */
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		public AbstractFeature toFeature() {
+			AbstractFeature feature = new TextFeature(type, locationString, type, type);
+			feature.setLocation((AbstractLocation) getLocation());
+			for (Map.Entry<String, List<Qualifier>> e : getQualifiers().entrySet()) {
+				for (Qualifier q : e.getValue()) {
+					feature.addQualifier(e.getKey(), q);
+				}
+			}
+			return feature;
+		}
+
+		private Map<String, List<Qualifier>> parseQualifiers(String text) {
+			Map<String, List<Qualifier>> result = new LinkedHashMap<String, List<Qualifier>>();
+			if (text.isEmpty()) {
+				return result;
+			}
+			int start = 0;
+			while (start < text.length()) {
+				// a qualifier ends before the next line starting with / outside of quotes
+				int end = start + 1;
+				boolean quoted = false;
+				while (end < text.length()) {
+					char c = text.charAt(end);
+					if (c == '"') {
+						quoted = !quoted;
+					} else if (c == '\n' && !quoted && end + 1 < text.length() && text.charAt(end + 1) == '/') {
+						break;
+					}
+					end++;
+				}
+				addQualifier(result, text.substring(start + 1, end));
+				start = end + 1;
+			}
+			return result;
+		}
+
+		private void addQualifier(Map<String, List<Qualifier>> result, String qualifier) {
+			int eq = qualifier.indexOf('=');
+			String key = intern(names, (eq < 0 ? qualifier : qualifier.substring(0, eq)).trim());
+			String val = eq < 0 ? "" : qualifier.substring(eq + 1).replaceAll("\\s*[\\n\\r]+\\s*", " ").trim();
+			if (val.endsWith("\"")) {
+				val = val.substring(1, val.length() - 1); // strip quotes
+			}
+			Qualifier q;
+			if (key.equals("db_xref")) {
+				Matcher m = GenbankSequenceParser.dbxp.matcher(val);
+				if (!m.matches()) {
+					throw new ParserException("Bad dbxref");
+				}
+				q = new DBReferenceInfo(m.group(1), m.group(2));
+			} else if (key.equalsIgnoreCase("translation")) {
+				// strip spaces from sequence
+				q = new Qualifier(key, val.replaceAll("\\s+", ""));
+			} else {
+				q = new Qualifier(key, val);
+			}
+			List<Qualifier> values = result.get(key);
+			if (values == null) {
+				values = new ArrayList<Qualifier>(1);
+				result.put(key, values);
+			}
+			values.add(q);
+		}
+
+		@Override
+		public String toString() {
+			return type + " " + locationString;
+		}
+
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits an InputStream into lines without decoding them.  The current line is exposed as a range of an internal
+ * buffer which is reused from line to line, so the caller copies out only what it keeps.  Lines end with \n, and a
+ * \r before it is dropped.
+ *
+ * @since 5.0.0
+ */
+public class ByteLineScanner {
+
+	private final InputStream in;
+	private byte[] buffer;
+	private int position, limit;
+	private int start, end;
+	// stream offset of buffer[0]
+	private long bufferOffset;
+	private boolean eof;
+
+	public ByteLineScanner(InputStream in) {
+		this(in, 1 << 16);
+	}
+
+	public ByteLineScanner(InputStream in, int bufferSize) {
+		this.in = in;
+		buffer = new byte[bufferSize];
+	}
+
+	/**
+	 * Moves to the next line.
+	 *
+	 * @return false at the end of the stream
+	 * @throws IOException if the stream cannot be read
+	 */
+	public boolean nextLine() throws IOException {
+		int i = position;
+		while (true) {
+			while (i < limit && buffer[i] != '\n') {
+				i++;
+			}
+			if (i < limit) {
+				start = position;
+				end = (i > start && buffer[i - 1] == '\r') ? i - 1 : i;
+				position = i + 1;
+				return true;
+			}
+			if (eof) {
+				if (position == limit) {
+					return false;
+				}
+				start = position;
+				end = (limit > start && buffer[limit - 1] == '\r') ? limit - 1 : limit;
+				position = limit;
+				return true;
+			}
+			// move the partial line to the front, growing the buffer for long lines
+			i -= position;
+			if (position == 0 && limit == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			} else {
+				System.arraycopy(buffer, position, buffer, 0, limit - position);
+				bufferOffset += position;
+				limit -= position;
+				position = 0;
+			}
+			int n = in.read(buffer, limit, buffer.length - limit);
+			if (n < 0) {
+				eof = true;
+			} else {
+				limit += n;
+			}
+		}
+	}
+
+	/**
+	 * Returns the buffer holding the current line, which is only valid until the next call to {@link #nextLine()}.
+	 */
+	public byte[] getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Returns the index of the first byte of the current line in {@link #getBuffer()}.
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the index after the last byte of the current line in {@link #getBuffer()}, excluding the line end.
+	 */
+	public int getEnd() {
+		return end;
+	}
+
+	/**
+	 * Returns the number of bytes of the line end of the current line: 2 for \r\n, 1 for \n and 0 for the last line
+	 * of a stream which does not end with a line end.
+	 */
+	public int getLineEndLength() {
+		return position - end;
+	}
+
+	/**
+	 * Returns the offset in the stream of the first byte of the current line.
+	 */
+	public long getLineOffset() {
+		return bufferOffset + start;
+	}
+
+	/**
+	 * Returns true if the current line starts with the given ASCII prefix.
+	 */
+	public boolean startsWith(String prefix) {
+		if (end - start < prefix.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (buffer[start + i] != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io.util;
+
+import org.biojava.nbio.core.util.ConcurrencyTools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An Iterator over the records of a file, which are split from the file by {@link #nextRecord()} and turned into
+ * results by {@link #build(Object)}.  In parallel mode the caller's thread splits the records while the
+ * {@link ConcurrencyTools} thread pool builds them, with a bounded number of records in flight, so that memory does not
+ * depend on the size of the file.  The results keep the order of the file in both modes.
+ *
+ * @param <R> the type of the split records
+ * @param <T> the type of the results
+ * @since 5.0.0
+ */
+public abstract class RecordIterator<R, T> implements Iterator<T> {
+
+	private final boolean parallel;
+	private final ArrayDeque<Future<T>> pending = new ArrayDeque<Future<T>>();
+	private T next;
+	private boolean split;
+
+	/**
+	 * @param parallel true to build the results in the {@link ConcurrencyTools} thread pool
+	 */
+	protected RecordIterator(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Reads the next record.
+	 *
+	 * @return the record, or null at the end of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	protected abstract R nextRecord() throws IOException;
+
+	/**
+	 * Builds the result for a record.  In parallel mode this is called from several threads at once.
+	 *
+	 * @return the result, or null to skip the record
+	 */
+	protected abstract T build(R record);
+
+	@Override
+	public boolean hasNext() {
+		while (next == null) {
+			if (!parallel) {
+				R record = read();
+				if (record == null) {
+					return false;
+				}
+				next = build(record);
+			} else {
+				int window = 4 * Math.max(1, ConcurrencyTools.getThreadPool().getMaximumPoolSize());
+				while (!split && pending.size() < window) {
+					final R record = read();
+					if (record == null) {
+						split = true;
+					} else {
+						pending.add(ConcurrencyTools.getThreadPool().submit(() -> build(record)));
+					}
+				}
+				if (pending.isEmpty()) {
+					return false;
+				}
+				next = get(pending.poll());
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		T result = next;
+		next = null;
+		return result;
+	}
+
+	/**
+	 * Stops the iteration and cancels the records which are still being built.
+	 */
+	public void cancel() {
+		split = true;
+		for (Future<T> f : pending) {
+			f.cancel(false);
+		}
+		pending.clear();
+	}
+
+	/**
+	 * Returns an ordered Stream of the remaining results, which runs the given action when it is closed.
+	 */
+	public Stream<T> toStream(Runnable closeHandler) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+				false).onClose(() -> {
+					cancel();
+					closeHandler.run();
+				});
+	}
+
+	private R read() {
+		if (split) {
+			return null;
+		}
+		try {
+			return nextRecord();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private T get(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancel();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			cancel();
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+}
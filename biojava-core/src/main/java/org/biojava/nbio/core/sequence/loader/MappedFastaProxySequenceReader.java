@@ -0,0 +1,252 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.loader;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.template.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Storage of a FASTA record which reads its residues straight from a (usually memory-mapped) buffer of the file, in
+ * the line layout of a samtools .fai index: every line but the last holds the same number of residues and takes the
+ * same number of bytes.  A position is turned into a byte offset arithmetically, so {@link #getCompoundAt(int)} and
+ * {@link #getSequenceAsString(int, int)} read only the bytes they need, and nothing is parsed up front.
+ * <p>
+ * The residues must be single characters of the compound set, in either case.  The buffer is only read with absolute
+ * gets, so one instance can be shared between threads.
+ *
+ * @param <C> the compound type
+ * @since 5.0.0
+ * @see org.biojava.nbio.core.sequence.io.IndexedFastaReader
+ */
+public class MappedFastaProxySequenceReader<C extends Compound> implements ProxySequenceReader<C> {
+
+	private final ByteBuffer data;
+	private final int length, lineBases, lineBytes;
+	private final AccessionID accession;
+	private CompoundSet<C> compoundSet;
+	private Object[] compounds = new Object[128];
+
+	/**
+	 * @param data the bytes of the record, from its first residue
+	 * @param length the number of residues
+	 * @param lineBases the number of residues on each full line
+	 * @param lineBytes the number of bytes of each full line, with its line end
+	 * @param compoundSet the compound set of the residues
+	 * @param accession the accession of the record
+	 */
+	public MappedFastaProxySequenceReader(ByteBuffer data, int length, int lineBases, int lineBytes,
+			CompoundSet<C> compoundSet, AccessionID accession) {
+		if (length > 0 && (lineBases < 1 || lineBytes < lineBases)) {
+			throw new IllegalArgumentException("Bad line layout: " + lineBases + " residues in " + lineBytes + " bytes");
+		}
+		this.data = data;
+		this.length = length;
+		this.lineBases = lineBases;
+		this.lineBytes = lineBytes;
+		if (length > 0 && data.limit() <= getOffset(length - 1)) {
+			throw new IllegalArgumentException("A buffer of " + data.limit() + " bytes cannot hold " + length + " residues");
+		}
+		this.accession = accession;
+		setCompoundSet(compoundSet);
+	}
+
+	@Override
+	public void setCompoundSet(CompoundSet<C> compoundSet) {
+		this.compoundSet = compoundSet;
+		compounds = new Object[128];
+	}
+
+	/**
+	 * The residues are read from the file, so they cannot be replaced.
+	 */
+	@Override
+	public void setContents(String sequence) {
+		throw new UnsupportedOperationException("The residues of a mapped FASTA record cannot be changed");
+	}
+
+	@Override
+	public int getLength() {
+		return length;
+	}
+
+	@Override
+	public C getCompoundAt(int position) {
+		if (position < 1 || position > length) {
+			throw new IndexOutOfBoundsException("Position " + position + " is outside of 1-" + length);
+		}
+		return getCompound(data.get(getOffset(position - 1)));
+	}
+
+	@Override
+	public int getIndexOf(C compound) {
+		for (int i = 1; i <= length; i++) {
+			if (getCompoundAt(i).equals(compound)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int getLastIndexOf(C compound) {
+		for (int i = length; i >= 1; i--) {
+			if (getCompoundAt(i).equals(compound)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return getSequenceAsString();
+	}
+
+	@Override
+	public String getSequenceAsString() {
+		return getSequenceAsString(1, length);
+	}
+
+	/**
+	 * Returns the residues of a region as they are in the file, without the line ends.
+	 *
+	 * @param bioBegin the first position, from 1
+	 * @param bioEnd the last position, inclusive
+	 * @return the residues
+	 */
+	public String getSequenceAsString(int bioBegin, int bioEnd) {
+		if (bioBegin < 1 || bioEnd > length || bioBegin > bioEnd + 1) {
+			throw new IndexOutOfBoundsException("Region " + bioBegin + "-" + bioEnd + " is outside of 1-" + length);
+		}
+		byte[] residues = new byte[bioEnd - bioBegin + 1];
+		ByteBuffer view = data.duplicate();
+		int i = bioBegin - 1, filled = 0;
+		while (filled < residues.length) {
+			// copy up to the end of the line
+			int n = Math.min(residues.length - filled, lineBases - i % lineBases);
+			view.position(getOffset(i));
+			view.get(residues, filled, n);
+			filled += n;
+			i += n;
+		}
+		return new String(residues, StandardCharsets.ISO_8859_1);
+	}
+
+	@Override
+	public List<C> getAsList() {
+		return new AbstractList<C>() {
+			@Override
+			public C get(int index) {
+				return getCompoundAt(index + 1);
+			}
+
+			@Override
+			public int size() {
+				return length;
+			}
+		};
+	}
+
+	@Override
+	public SequenceView<C> getSubSequence(Integer bioBegin, Integer bioEnd) {
+		return new SequenceProxyView<C>(MappedFastaProxySequenceReader.this, bioBegin, bioEnd) {
+			@Override
+			public String getSequenceAsString() {
+				return MappedFastaProxySequenceReader.this.getSequenceAsString(getBioStart(), getBioEnd());
+			}
+		};
+	}
+
+	@Override
+	public Iterator<C> iterator() {
+		return new Iterator<C>() {
+			private int position = 1;
+
+			@Override
+			public boolean hasNext() {
+				return position <= length;
+			}
+
+			@Override
+			public C next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return getCompoundAt(position++);
+			}
+		};
+	}
+
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	@Override
+	public AccessionID getAccession() {
+		return accession;
+	}
+
+	@Override
+	public int countCompounds(C... compounds) {
+		return SequenceMixin.countCompounds(this, compounds);
+	}
+
+	@Override
+	public SequenceView<C> getInverse() {
+		return SequenceMixin.inverse(this);
+	}
+
+	// byte offset of a 0-based position
+	private int getOffset(int index) {
+		return length == 0 ? 0 : (index / lineBases) * lineBytes + index % lineBases;
+	}
+
+	@SuppressWarnings("unchecked")
+	private C getCompound(byte b) {
+		if (b < 0) {
+			throw new IllegalStateException("Residue byte " + (b & 0xFF) + " is not ASCII");
+		}
+		Object[] table = compounds;
+		C compound = (C) table[b];
+		if (compound == null) {
+			String s = String.valueOf((char) b);
+			compound = compoundSet.getCompoundForString(s);
+			if (compound == null) {
+				compound = compoundSet.getCompoundForString(s.toUpperCase());
+			}
+			if (compound == null) {
+				throw new IllegalStateException("Compound " + s + " not found in " + compoundSet);
+			}
+			// racing threads store the same compound
+			table[b] = compound;
+		}
+		return compound;
+	}
+
+}
@@ -179,28 +179,23 @@ public class ArrayListSequenceReader<C extends Compound> implements SequenceRead
 	 */
 	@Override
 	public void setContents(String sequence) throws CompoundNotFoundException {
-		// Horrendously inefficient - pretty much the way the old BJ did things.
-		// TODO Should be optimised.
 		this.parsedCompounds.clear();
 		hashcode = null;
 		int maxCompoundLength = compoundSet.getMaxSingleCompoundStringLength();
-		boolean maxCompundLengthEqual1 = true;
-		if (maxCompoundLength > 1) {
-			maxCompundLengthEqual1 = false;
-		}
 		int length = sequence.length();
 		parsedCompounds.ensureCapacity(length); //get the array size correct
+		if (maxCompoundLength == 1) {
+			// the usual case: a table lookup per character
+			CompoundLookupTable.get(compoundSet).parse(sequence, parsedCompounds);
+			parsedCompounds.trimToSize();
+			return;
+		}
 		for (int i = 0; i < length;) {
 			String compoundStr = null;
 			C compound = null;
-			if (maxCompundLengthEqual1) { // trying to save some steps where typically the answer is 1 so avoid complicated for loop
-				compoundStr = sequence.substring(i, i + 1);
+			for (int compoundStrLength = 1; compound == null && compoundStrLength <= maxCompoundLength; compoundStrLength++) {
+				compoundStr = sequence.substring(i, i + compoundStrLength);
 				compound = compoundSet.getCompoundForString(compoundStr);
-			} else {
-				for (int compoundStrLength = 1; compound == null && compoundStrLength <= maxCompoundLength; compoundStrLength++) {
-					compoundStr = sequence.substring(i, i + compoundStrLength);
-					compound = compoundSet.getCompoundForString(compoundStr);
-				}
 			}
 			if (compound == null) {
 				throw new CompoundNotFoundException("Cannot find compound for: " + compoundStr);
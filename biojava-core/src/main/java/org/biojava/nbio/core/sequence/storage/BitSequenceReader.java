@@ -244,6 +244,20 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
 			this.length = sequence.length;
 		}
 
+		/**
+		 * Wraps an array which already holds the given number of compounds in
+		 * the layout of {@link #setCompoundAt(Compound, int)}.
+		 */
+		public BitArrayWorker(CompoundSet<C> compoundSet, int[] sequence, int length) {
+			if (sequence.length < seqArraySize(length)) {
+				throw new IllegalArgumentException("An array of " + sequence.length
+						+ " ints cannot hold " + length + " compounds");
+			}
+			this.compoundSet = compoundSet;
+			this.sequence = sequence;
+			this.length = length;
+		}
+
 		/**
 		 * This method should return the bit mask to be used to extract the
 		 * bytes you are interested in working with. See solid implementations
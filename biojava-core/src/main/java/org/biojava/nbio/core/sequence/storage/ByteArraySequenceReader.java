@@ -0,0 +1,351 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.storage;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.Strand;
+import org.biojava.nbio.core.sequence.template.*;
+import org.biojava.nbio.core.util.Equals;
+import org.biojava.nbio.core.util.Hashcoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Stores a Sequence as one byte per compound: the ordinal of the compound in a table built from the
+ * {@link CompoundSet}.  This takes about a byte per residue instead of a reference per residue for
+ * {@link ArrayListSequenceReader}, and the String conversion, counting and iteration work on the bytes.
+ * <p>
+ * Compound sets of up to 256 compounds are supported.
+ *
+ * @param <C> the compound type
+ * @since 5.0.0
+ */
+public class ByteArraySequenceReader<C extends Compound> implements ProxySequenceReader<C> {
+
+	private CompoundSet<C> compoundSet;
+	private CompoundLookupTable<C> table;
+	private byte[] ordinals = new byte[0];
+
+	private volatile Integer hashcode = null;
+
+	public ByteArraySequenceReader() {
+		//Do nothing
+	}
+
+	public ByteArraySequenceReader(String sequence, CompoundSet<C> compoundSet) throws CompoundNotFoundException {
+		setCompoundSet(compoundSet);
+		setContents(sequence);
+	}
+
+	public ByteArraySequenceReader(List<C> compounds, CompoundSet<C> compoundSet) {
+		setCompoundSet(compoundSet);
+		setContents(compounds);
+	}
+
+	/**
+	 * Packs a sequence given as ASCII characters, e.g. straight from a file buffer, without building a String.
+	 *
+	 * @param sequence the characters of the sequence
+	 * @param offset the index of the first character in sequence
+	 * @param length the number of characters
+	 * @param compoundSet
+	 * @throws CompoundNotFoundException if a character is not in the compound set
+	 * @since 5.0.0
+	 */
+	public ByteArraySequenceReader(byte[] sequence, int offset, int length, CompoundSet<C> compoundSet)
+			throws CompoundNotFoundException {
+		setCompoundSet(compoundSet);
+		if (compoundSet.getMaxSingleCompoundStringLength() != 1) {
+			setContents(new String(sequence, offset, length, StandardCharsets.ISO_8859_1));
+			return;
+		}
+		byte[] result = new byte[length];
+		for (int i = 0; i < length; i++) {
+			char c = (char) (sequence[offset + i] & 0xff);
+			int ordinal = table.getOrdinal(c);
+			if (ordinal < 0) {
+				throw new CompoundNotFoundException("Cannot find compound for: " + c);
+			}
+			result[i] = (byte) ordinal;
+		}
+		ordinals = result;
+	}
+
+	@Override
+	public void setCompoundSet(CompoundSet<C> compoundSet) {
+		List<C> stored = (ordinals.length > 0) ? new ArrayList<C>(getAsList()) : null;
+		this.compoundSet = compoundSet;
+		table = CompoundLookupTable.get(compoundSet);
+		if (table.getOrdinalCount() > 256) {
+			throw new IllegalArgumentException("Compound set of " + table.getOrdinalCount()
+					+ " compounds cannot be stored in bytes");
+		}
+		if (stored != null) {
+			// the ordinals depend on the compound set
+			setContents(stored);
+		}
+	}
+
+	@Override
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	@Override
+	public void setContents(String sequence) throws CompoundNotFoundException {
+		hashcode = null;
+		if (compoundSet.getMaxSingleCompoundStringLength() == 1) {
+			byte[] result = new byte[sequence.length()];
+			table.encode(sequence, result);
+			ordinals = result;
+			return;
+		}
+
+		// compounds of several characters
+		List<C> compounds = new ArrayList<C>(sequence.length());
+		int maxCompoundLength = compoundSet.getMaxSingleCompoundStringLength();
+		for (int i = 0; i < sequence.length();) {
+			String compoundStr = null;
+			C compound = null;
+			for (int compoundStrLength = 1; compound == null && compoundStrLength <= maxCompoundLength
+					&& i + compoundStrLength <= sequence.length(); compoundStrLength++) {
+				compoundStr = sequence.substring(i, i + compoundStrLength);
+				compound = compoundSet.getCompoundForString(compoundStr);
+			}
+			if (compound == null) {
+				throw new CompoundNotFoundException("Cannot find compound for: " + compoundStr);
+			}
+			i += compoundStr.length();
+			compounds.add(compound);
+		}
+		setContents(compounds);
+	}
+
+	public void setContents(List<C> list) {
+		hashcode = null;
+		byte[] result = new byte[list.size()];
+		int i = 0;
+		for (C c : list) {
+			result[i++] = (byte) table.getOrdinal(c);
+		}
+		ordinals = result;
+	}
+
+	@Override
+	public int getLength() {
+		return ordinals.length;
+	}
+
+	@Override
+	public C getCompoundAt(int position) {
+		return table.getCompoundForOrdinal(ordinals[position - 1] & 0xFF);
+	}
+
+	/**
+	 * Returns the ordinal of the compound at a position, which indexes {@link #getCompoundForOrdinal(int)}.
+	 *
+	 * @param position the position, from 1
+	 */
+	public int getOrdinalAt(int position) {
+		return ordinals[position - 1] & 0xFF;
+	}
+
+	/**
+	 * Returns a copy of the ordinals of the compounds, so that a whole sequence can be processed as primitives.
+	 */
+	public byte[] getOrdinals() {
+		return ordinals.clone();
+	}
+
+	/**
+	 * Returns the number of ordinals in use for the compound set, which bounds {@link #getOrdinalAt(int)}.
+	 */
+	public int getOrdinalCount() {
+		return table.getOrdinalCount();
+	}
+
+	/**
+	 * Returns the compound of an ordinal.
+	 */
+	public C getCompoundForOrdinal(int ordinal) {
+		return table.getCompoundForOrdinal(ordinal);
+	}
+
+	@Override
+	public int getIndexOf(C compound) {
+		boolean[] matches = table.getMatches(compound);
+		for (int i = 0; i < ordinals.length; i++) {
+			if (matches[ordinals[i] & 0xFF]) {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public int getLastIndexOf(C compound) {
+		boolean[] matches = table.getMatches(compound);
+		for (int i = ordinals.length - 1; i >= 0; i--) {
+			if (matches[ordinals[i] & 0xFF]) {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public String getSequenceAsString() {
+		return getSequenceAsString(1, getLength(), Strand.POSITIVE);
+	}
+
+	public String getSequenceAsString(Integer begin, Integer end, Strand strand) {
+		if (strand != Strand.POSITIVE || begin > end) {
+			return new SequenceAsStringHelper<C>().getSequenceAsString(getAsList(), compoundSet, begin, end, strand);
+		}
+		if (table.isSingleCharacter()) {
+			char[] result = new char[end - begin + 1];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = table.getCharForOrdinal(ordinals[begin - 1 + i] & 0xFF);
+			}
+			return new String(result);
+		}
+		StringBuilder builder = new StringBuilder();
+		for (int i = begin - 1; i < end; i++) {
+			builder.append(table.getStringForOrdinal(ordinals[i] & 0xFF));
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public String toString() {
+		return getSequenceAsString();
+	}
+
+	/**
+	 * Returns an unmodifiable view of the compounds.
+	 */
+	@Override
+	public List<C> getAsList() {
+		return new AbstractList<C>() {
+			@Override
+			public C get(int index) {
+				return table.getCompoundForOrdinal(ordinals[index] & 0xFF);
+			}
+
+			@Override
+			public int size() {
+				return ordinals.length;
+			}
+		};
+	}
+
+	@Override
+	public Iterator<C> iterator() {
+		final byte[] current = ordinals;
+		return new Iterator<C>() {
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < current.length;
+			}
+
+			@Override
+			public C next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return table.getCompoundForOrdinal(current[index++] & 0xFF);
+			}
+		};
+	}
+
+	@Override
+	public SequenceView<C> getSubSequence(final Integer bioBegin, final Integer bioEnd) {
+		return new SequenceProxyView<C>(ByteArraySequenceReader.this, bioBegin, bioEnd) {
+			@Override
+			public String getSequenceAsString() {
+				return ByteArraySequenceReader.this.getSequenceAsString(getBioStart(), getBioEnd(), Strand.POSITIVE);
+			}
+		};
+	}
+
+	@Override
+	public AccessionID getAccession() {
+		throw new UnsupportedOperationException("Not supported yet.");
+	}
+
+	@Override
+	public int countCompounds(C... compounds) {
+		int[] counts = new int[table.getOrdinalCount()];
+		for (byte b : ordinals) {
+			counts[b & 0xFF]++;
+		}
+		int count = 0;
+		for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+			if (counts[ordinal] == 0) {
+				continue;
+			}
+			for (C compound : compounds) {
+				if (table.getCompoundForOrdinal(ordinal).equals(compound)) {
+					count += counts[ordinal];
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public SequenceView<C> getInverse() {
+		return SequenceMixin.inverse(this);
+	}
+
+	@Override
+	public int hashCode() {
+		if(hashcode == null) {
+			int s = Hashcoder.SEED;
+			s = Hashcoder.hash(s, Arrays.hashCode(ordinals));
+			s = Hashcoder.hash(s, compoundSet);
+			hashcode = s;
+		}
+		return hashcode;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(Object o) {
+		if(Equals.classEqual(this, o)) {
+			ByteArraySequenceReader<C> that = (ByteArraySequenceReader<C>)o;
+			return Arrays.equals(ordinals, that.ordinals) &&
+					Equals.equal(compoundSet, that.compoundSet);
+		}
+		return false;
+	}
+
+}
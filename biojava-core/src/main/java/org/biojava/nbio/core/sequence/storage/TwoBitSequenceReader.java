@@ -87,6 +87,10 @@ public class TwoBitSequenceReader<C extends NucleotideCompound> extends BitSeque
 			super(compoundSet, sequence);
 		}
 
+		public TwoBitArrayWorker(CompoundSet<C> compoundSet, int[] sequence, int length) {
+			super(compoundSet, sequence, length);
+		}
+
 		public TwoBitArrayWorker(Sequence<C> sequence) {
 			super(sequence);
 		}
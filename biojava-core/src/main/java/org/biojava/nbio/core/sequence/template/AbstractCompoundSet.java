@@ -42,6 +42,7 @@ public abstract class AbstractCompoundSet<C extends Compound> implements Compoun
 	private Map<CharSequence, C> charSeqToCompound = new HashMap<CharSequence, C>();
 	private int maxCompoundCharSequenceLength = -1;
 	private Boolean compoundStringLengthEqual = null;
+	private volatile CompoundLookupTable<C> lookupTable;
 
 	Map<C,Set<C>> equivalentsMap = new HashMap<C, Set<C>>();
 
@@ -80,6 +81,23 @@ public abstract class AbstractCompoundSet<C extends Compound> implements Compoun
 		charSeqToCompound.put(compound.toString(), compound);
 		maxCompoundCharSequenceLength = -1;
 		compoundStringLengthEqual = null;
+		lookupTable = null;
+	}
+
+	/**
+	 * Returns the compounds of this set as arrays indexed by character and by ordinal, which is built on the first
+	 * call after the last compound was added.
+	 *
+	 * @return an immutable table, which can be shared between threads
+	 * @since 5.0.0
+	 */
+	public CompoundLookupTable<C> getLookupTable() {
+		CompoundLookupTable<C> table = lookupTable;
+		if (table == null) {
+			table = new CompoundLookupTable<C>(this);
+			lookupTable = table;
+		}
+		return table;
 	}
 
 	@Override
@@ -107,12 +125,15 @@ public C getCompoundForString(String string) {
 	@Override
 public int getMaxSingleCompoundStringLength() {
 		if(maxCompoundCharSequenceLength == -1) {
+			// computed in a local, so that concurrent readers never see a partial maximum
+			int max = -1;
 			for(C compound: charSeqToCompound.values()) {
 				int size = getStringForCompound(compound).length();
-				if(size > maxCompoundCharSequenceLength) {
-					maxCompoundCharSequenceLength = size;
+				if(size > max) {
+					max = size;
 				}
 			}
+			maxCompoundCharSequenceLength = max;
 		}
 		return maxCompoundCharSequenceLength;
 	}
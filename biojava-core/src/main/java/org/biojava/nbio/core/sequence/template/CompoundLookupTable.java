@@ -0,0 +1,248 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.template;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompoundSet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a {@link CompoundSet} as arrays: the compounds are numbered by ordinal, and each ASCII
+ * character is mapped to its compound and ordinal by a 128 entry array, so that parsing a sequence takes an array
+ * load per residue instead of a String allocation and a Map lookup.  A character maps to the compound that
+ * {@link CompoundSet#getCompoundForString(String)} returns for it, so case handling is that of the compound set.
+ * <p>
+ * Tables never change once built and can be shared between threads without synchronization.  The built-in compound
+ * sets keep their own table; use {@link #get(CompoundSet)} to obtain the table of any compound set.
+ *
+ * @param <C> the compound type
+ * @since 5.0.0
+ */
+public final class CompoundLookupTable<C extends Compound> {
+
+	// the table of the last compound set without a table of its own
+	private static volatile CompoundLookupTable<?> lastTable;
+
+	private final CompoundSet<C> compoundSet;
+	private final C[] compounds;
+	private final Map<C, Integer> ordinals = new HashMap<C, Integer>();
+	private final int[] charOrdinals = new int[128];
+	private final C[] charCompounds;
+	// null unless every compound is a single character
+	private final char[] chars;
+	private final String[] strings;
+
+	/**
+	 * Builds the table of a compound set, which must not change afterwards.
+	 *
+	 * @param compoundSet
+	 */
+	@SuppressWarnings("unchecked")
+	public CompoundLookupTable(CompoundSet<C> compoundSet) {
+		this.compoundSet = compoundSet;
+		List<C> all = new ArrayList<C>();
+		for (C c : compoundSet.getAllCompounds()) {
+			if (!ordinals.containsKey(c)) {
+				ordinals.put(c, all.size());
+				all.add(c);
+			}
+		}
+		charCompounds = (C[]) new Compound[128];
+		boolean singles = compoundSet.getMaxSingleCompoundStringLength() == 1;
+		for (char c = 0; c < 128; c++) {
+			C compound = singles ? compoundSet.getCompoundForString(String.valueOf(c)) : null;
+			charCompounds[c] = compound;
+			if (compound == null) {
+				charOrdinals[c] = -1;
+				continue;
+			}
+			if (!ordinals.containsKey(compound)) {
+				ordinals.put(compound, all.size());
+				all.add(compound);
+			}
+			charOrdinals[c] = ordinals.get(compound);
+		}
+		compounds = all.toArray((C[]) new Compound[all.size()]);
+		strings = new String[compounds.length];
+		char[] single = new char[compounds.length];
+		boolean allSingle = true;
+		for (int i = 0; i < compounds.length; i++) {
+			strings[i] = compoundSet.getStringForCompound(compounds[i]);
+			allSingle &= strings[i].length() == 1;
+			single[i] = allSingle ? strings[i].charAt(0) : 0;
+		}
+		chars = allSingle ? single : null;
+	}
+
+	/**
+	 * Returns the table of a compound set: the table kept by the built-in compound sets, otherwise a table which is
+	 * built on demand and reused while the same compound set is asked for.
+	 *
+	 * @param compoundSet
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C extends Compound> CompoundLookupTable<C> get(CompoundSet<C> compoundSet) {
+		if (compoundSet instanceof AbstractCompoundSet) {
+			return ((AbstractCompoundSet<C>) compoundSet).getLookupTable();
+		}
+		if (compoundSet instanceof AminoAcidCompoundSet) {
+			return (CompoundLookupTable<C>) ((AminoAcidCompoundSet) compoundSet).getLookupTable();
+		}
+		CompoundLookupTable<?> table = lastTable;
+		if (table == null || table.compoundSet != compoundSet) {
+			table = new CompoundLookupTable<C>(compoundSet);
+			lastTable = table;
+		}
+		return (CompoundLookupTable<C>) table;
+	}
+
+	public CompoundSet<C> getCompoundSet() {
+		return compoundSet;
+	}
+
+	/**
+	 * @param c
+	 * @return the compound of a character, or null if it has none
+	 */
+	public C getCompound(char c) {
+		if (c < 128) {
+			return charCompounds[c];
+		}
+		return compoundSet.getMaxSingleCompoundStringLength() == 1 ?
+				compoundSet.getCompoundForString(String.valueOf(c)) : null;
+	}
+
+	/**
+	 * @param c
+	 * @return the ordinal of the compound of an ASCII character, or -1 if it has none
+	 */
+	public int getOrdinal(char c) {
+		return c < 128 ? charOrdinals[c] : -1;
+	}
+
+	/**
+	 * @param compound
+	 * @return the ordinal of the compound
+	 * @throws IllegalArgumentException if the compound is not in the compound set
+	 */
+	public int getOrdinal(C compound) {
+		Integer ordinal = ordinals.get(compound);
+		if (ordinal == null) {
+			throw new IllegalArgumentException("Compound " + compound + " is not in " + compoundSet);
+		}
+		return ordinal;
+	}
+
+	public C getCompoundForOrdinal(int ordinal) {
+		return compounds[ordinal];
+	}
+
+	/**
+	 * @return the number of ordinals, which are 0 to this number minus 1
+	 */
+	public int getOrdinalCount() {
+		return compounds.length;
+	}
+
+	/**
+	 * @return the String of the compound of an ordinal
+	 */
+	public String getStringForOrdinal(int ordinal) {
+		return strings[ordinal];
+	}
+
+	/**
+	 * @return true if every compound is written as a single character, see {@link #getCharForOrdinal(int)}
+	 */
+	public boolean isSingleCharacter() {
+		return chars != null;
+	}
+
+	/**
+	 * @return the character of the compound of an ordinal, if {@link #isSingleCharacter()}
+	 */
+	public char getCharForOrdinal(int ordinal) {
+		return chars[ordinal];
+	}
+
+	/**
+	 * @param compound
+	 * @return an array, indexed by ordinal, which is true for the ordinals of compounds equal to the given one
+	 */
+	public boolean[] getMatches(C compound) {
+		boolean[] matches = new boolean[compounds.length];
+		for (int i = 0; i < compounds.length; i++) {
+			matches[i] = compounds[i].equals(compound);
+		}
+		return matches;
+	}
+
+	/**
+	 * Writes the ordinals of the characters of a sequence, e.g. to pack it into a byte per compound.
+	 *
+	 * @param sequence the sequence, of single character compounds
+	 * @param target receives the ordinal of each character, from index 0; it must be at least as long as the
+	 * sequence
+	 * @return the length of the sequence
+	 * @throws CompoundNotFoundException if a character has no compound
+	 * @throws IllegalStateException if the compound set has more than 256 compounds or compounds of several characters
+	 */
+	public int encode(CharSequence sequence, byte[] target) throws CompoundNotFoundException {
+		if (compounds.length > 256 || compoundSet.getMaxSingleCompoundStringLength() != 1) {
+			throw new IllegalStateException("Compound set " + compoundSet + " cannot be encoded in bytes");
+		}
+		int length = sequence.length();
+		for (int i = 0; i < length; i++) {
+			char c = sequence.charAt(i);
+			int ordinal = c < 128 ? charOrdinals[c] : -1;
+			if (ordinal < 0) {
+				throw new CompoundNotFoundException("Cannot find compound for: " + c);
+			}
+			target[i] = (byte) ordinal;
+		}
+		return length;
+	}
+
+	/**
+	 * Adds the compounds of the characters of a sequence to a list.
+	 *
+	 * @param sequence the sequence, of single character compounds
+	 * @param compounds receives the compounds
+	 * @throws CompoundNotFoundException if a character has no compound
+	 */
+	public void parse(CharSequence sequence, List<C> compounds) throws CompoundNotFoundException {
+		int length = sequence.length();
+		for (int i = 0; i < length; i++) {
+			char c = sequence.charAt(i);
+			C compound = c < 128 ? charCompounds[c] : getCompound(c);
+			if (compound == null) {
+				throw new CompoundNotFoundException("Cannot find compound for: " + c);
+			}
+			compounds.add(compound);
+		}
+	}
+
+}
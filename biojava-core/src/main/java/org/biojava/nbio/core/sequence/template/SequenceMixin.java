@@ -22,6 +22,7 @@ package org.biojava.nbio.core.sequence.template;
 
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
 import org.biojava.nbio.core.sequence.storage.ArrayListSequenceReader;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
 import org.biojava.nbio.core.sequence.views.ComplementSequenceView;
 import org.biojava.nbio.core.sequence.views.ReversedSequenceView;
 import org.biojava.nbio.core.sequence.views.WindowedSequence;
@@ -44,7 +45,8 @@ import java.util.*;
  * offered by the implementations of {@link Sequence} to provide all the
  * compounds that implementation allows you to see. Since sequence should know
  * nothing about its backing stores (apart from calling out to it) this should
- * be true.
+ * be true. The exception are the fast paths for sequences stored in a
+ * {@link ByteArraySequenceReader}, which work on its compound ordinals.
  *
  * @author ayates
  */
@@ -79,12 +81,7 @@ public class SequenceMixin {
 	 * @return The number of GC compounds in the sequence
 	 */
 	public static int countGC(Sequence<NucleotideCompound> sequence) {
-		CompoundSet<NucleotideCompound> cs = sequence.getCompoundSet();
-		NucleotideCompound G = cs.getCompoundForString("G");
-		NucleotideCompound C = cs.getCompoundForString("C");
-		NucleotideCompound g = cs.getCompoundForString("g");
-		NucleotideCompound c = cs.getCompoundForString("c");
-		return countCompounds(sequence, G, C, g, c);
+		return countCompoundsOf(sequence, "G", "C", "g", "c");
 	}
 
 	/**
@@ -95,12 +92,43 @@ public class SequenceMixin {
 	 * @return The number of AT compounds in the sequence
 	 */
 	public static int countAT(Sequence<NucleotideCompound> sequence) {
-		CompoundSet<NucleotideCompound> cs = sequence.getCompoundSet();
-		NucleotideCompound A = cs.getCompoundForString("A");
-		NucleotideCompound T = cs.getCompoundForString("T");
-		NucleotideCompound a = cs.getCompoundForString("a");
-		NucleotideCompound t = cs.getCompoundForString("t");
-		return countCompounds(sequence, A, T, a, t);
+		return countCompoundsOf(sequence, "A", "T", "a", "t");
+	}
+
+	// counts the compounds for the given strings with a lookup table instead of a Map
+	private static <C extends Compound> int countCompoundsOf(Sequence<C> sequence, String... strings) {
+		CompoundSet<C> cs = sequence.getCompoundSet();
+		List<C> compounds = new ArrayList<C>();
+		for (String string : strings) {
+			C compound = cs.getCompoundForString(string);
+			if (compound != null && !compounds.contains(compound)) {
+				compounds.add(compound);
+			}
+		}
+		ByteArraySequenceReader<C> storage = getByteStorage(sequence);
+		if (storage != null) {
+			boolean[] counted = new boolean[storage.getOrdinalCount()];
+			for (int i = 0; i < counted.length; i++) {
+				counted[i] = compounds.contains(storage.getCompoundForOrdinal(i));
+			}
+			int count = 0;
+			for (int i = 1; i <= storage.getLength(); i++) {
+				if (counted[storage.getOrdinalAt(i)]) {
+					count++;
+				}
+			}
+			return count;
+		}
+		int count = 0;
+		for (C compound : sequence) {
+			for (int i = 0; i < compounds.size(); i++) {
+				if (compounds.get(i).equals(compound)) {
+					count++;
+					break;
+				}
+			}
+		}
+		return count;
 	}
 
 	/**
@@ -135,6 +163,20 @@ public class SequenceMixin {
 	public static <C extends Compound> Map<C, Integer> getComposition(Sequence<C> sequence) {
 		Map<C, Integer> results = new HashMap<C, Integer>();
 
+		ByteArraySequenceReader<C> storage = getByteStorage(sequence);
+		if (storage != null) {
+			int[] counts = new int[storage.getOrdinalCount()];
+			for (int i = 1; i <= storage.getLength(); i++) {
+				counts[storage.getOrdinalAt(i)]++;
+			}
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] > 0) {
+					results.put(storage.getCompoundForOrdinal(i), counts[i]);
+				}
+			}
+			return results;
+		}
+
 		for (C currentCompound : sequence) {
 			Integer currentInteger = results.get(currentCompound);
 			if ( currentInteger == null)
@@ -259,12 +301,81 @@ public class SequenceMixin {
 	 */
 	public static <C extends Compound> String checksum(Sequence<C> sequence) {
 		CRC64Checksum checksum = new CRC64Checksum();
+		ByteArraySequenceReader<C> storage = getByteStorage(sequence);
+		if (storage != null) {
+			// the names of the ordinals
+			String[] names = new String[storage.getOrdinalCount()];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = storage.getCompoundForOrdinal(i).getShortName();
+			}
+			for (int i = 1; i <= storage.getLength(); i++) {
+				checksum.update(names[storage.getOrdinalAt(i)]);
+			}
+			return checksum.toString();
+		}
 		for (C compound : sequence) {
 			checksum.update(compound.getShortName());
 		}
 		return checksum.toString();
 	}
 
+	/**
+	 * Returns the overlapping k-mers of a sequence as packed <code>long</code>
+	 * codes, without creating an object per k-mer. A k-mer has the same code
+	 * in every sequence of a compound set; see {@link KmerIterator} for the
+	 * encoding and {@link KmerIterator#decode(long)}.
+	 *
+	 * @param <C> Compound to use
+	 * @param sequence Sequence to build from
+	 * @param kmer Kmer size
+	 * @return an iterator over the codes of the k-mers, in order of position
+	 * @throws IllegalArgumentException if the k-mers of this compound set do
+	 * not fit in 64 bits
+	 * @since 5.0.0
+	 */
+	public static <C extends Compound> KmerIterator<C> kmerIterator(Sequence<C> sequence, int kmer) {
+		return new KmerIterator<C>(sequence, kmer);
+	}
+
+	/**
+	 * Counts the overlapping k-mers of a sequence with a rolling code and a
+	 * primitive hash table. This is the allocation-free equivalent of
+	 * counting the views of {@link #overlappingKmers(Sequence, int)}, except
+	 * that nucleotide k-mers are counted regardless of case and those
+	 * containing a base other than A, C, G and T (or U), such as N, are not
+	 * counted.
+	 *
+	 * @param <C> Compound to use
+	 * @param sequence Sequence to build from
+	 * @param kmer Kmer size, at most 32 for nucleotides and 12 for amino acids
+	 * @return the counts of the k-mers
+	 * @throws IllegalArgumentException if the k-mers of this compound set do
+	 * not fit in 64 bits
+	 * @since 5.0.0
+	 */
+	public static <C extends Compound> KmerCounts<C> countKmers(Sequence<C> sequence, int kmer) {
+		KmerIterator<C> it = kmerIterator(sequence, kmer);
+		KmerCounts<C> counts = new KmerCounts<C>(it);
+		while (it.hasNext()) {
+			counts.increment(it.nextLong());
+		}
+		return counts;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <C extends Compound> ByteArraySequenceReader<C> getByteStorage(Sequence<C> sequence) {
+		if (sequence instanceof ByteArraySequenceReader) {
+			return (ByteArraySequenceReader<C>) sequence;
+		}
+		if (sequence instanceof AbstractSequence) {
+			SequenceReader<C> storage = ((AbstractSequence<C>) sequence).getProxySequenceReader();
+			if (storage instanceof ByteArraySequenceReader) {
+				return (ByteArraySequenceReader<C>) storage;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Produces kmers of the specified size e.g. ATGTGA returns two views which
 	 * have ATG TGA
@@ -291,6 +402,8 @@ public class SequenceMixin {
 	 * @param sequence Sequence to build from
 	 * @param kmer Kmer size
 	 * @return The list of overlapping K-mers
+	 * @see #kmerIterator(Sequence, int)
+	 * @see #countKmers(Sequence, int)
 	 */
 	public static <C extends Compound> List<SequenceView<C>> overlappingKmers(Sequence<C> sequence, int kmer) {
 		List<SequenceView<C>> l = new ArrayList<SequenceView<C>>();
@@ -436,4 +549,296 @@ public class SequenceMixin {
 			throw new UnsupportedOperationException("Cannot remove() on a SequenceIterator");
 		}
 	}
+
+	/**
+	 * Iterates over the overlapping k-mers of a sequence as <code>long</code>
+	 * codes. Nucleotides take 2 bits each, so k-mers of up to 32 bases fit;
+	 * upper and lower case share a code, and k-mers spanning any compound
+	 * other than A, C, G and T (or U) are skipped. Other compounds take as
+	 * many bits as the ordinals of their {@link CompoundLookupTable} need (5
+	 * for amino acids). Either way the codes of sequences of the same
+	 * compound set can be compared and merged. Each code is rolled from the
+	 * previous one, so nothing is allocated per k-mer.
+	 *
+	 * @param <C> Type of compound
+	 * @since 5.0.0
+	 */
+	public static class KmerIterator<C extends Compound> implements PrimitiveIterator.OfLong {
+
+		private static final String BASES = "ACGT";
+
+		private final byte[] codes;
+		private final CompoundLookupTable<C> table;
+		// the code of each ordinal, -1 for compounds which end a run of k-mers
+		private final int[] ordinalCodes;
+		// the compound of each code
+		private final List<C> alphabet;
+		private final int kmer, bits;
+		private final long mask;
+		private int index = 0, run = 0;
+		private int position = 0, nextPosition = 0;
+		private long code = 0;
+
+		public KmerIterator(Sequence<C> sequence, int kmer) {
+			if (kmer < 1) {
+				throw new IllegalArgumentException("Kmer size must be at least 1, not " + kmer);
+			}
+			this.kmer = kmer;
+			table = CompoundLookupTable.get(sequence.getCompoundSet());
+			int count = table.getOrdinalCount();
+			if (count > 256) {
+				throw new IllegalArgumentException("Too many compounds in " + sequence.getCompoundSet() + " to pack k-mers");
+			}
+			ordinalCodes = new int[count];
+			List<C> bases = getBases(table);
+			if (bases != null) {
+				alphabet = bases;
+				bits = 2;
+				for (int i = 0; i < count; i++) {
+					String base = table.getStringForOrdinal(i).toUpperCase().replace('U', 'T');
+					ordinalCodes[i] = base.length() == 1 ? BASES.indexOf(base.charAt(0)) : -1;
+				}
+			} else {
+				bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(count - 1));
+				List<C> compounds = new ArrayList<C>(count);
+				for (int i = 0; i < count; i++) {
+					ordinalCodes[i] = i;
+					compounds.add(table.getCompoundForOrdinal(i));
+				}
+				alphabet = compounds;
+			}
+			if ((long) bits * kmer > 64) {
+				throw new IllegalArgumentException(kmer + "-mers of compounds of " + bits
+						+ " bits do not fit in 64 bits");
+			}
+			ByteArraySequenceReader<C> storage = getByteStorage(sequence);
+			if (storage != null && storage.getCompoundSet() == table.getCompoundSet()) {
+				codes = storage.getOrdinals();
+			} else {
+				codes = new byte[sequence.getLength()];
+				int i = 0;
+				for (C compound : sequence) {
+					codes[i++] = (byte) table.getOrdinal(compound);
+				}
+			}
+			mask = (bits * kmer == 64) ? -1L : (1L << (bits * kmer)) - 1;
+		}
+
+		/**
+		 * Returns the compounds of A, C, G and T (or U) if the compound set has nucleotides, or null.
+		 */
+		private static <C extends Compound> List<C> getBases(CompoundLookupTable<C> table) {
+			if (!(table.getCompoundForOrdinal(0) instanceof NucleotideCompound)) {
+				return null;
+			}
+			List<C> bases = new ArrayList<C>(4);
+			for (char c : BASES.toCharArray()) {
+				C base = table.getCompound(c);
+				if (base == null && c == 'T') {
+					base = table.getCompound('U');
+				}
+				if (base == null) {
+					return null;
+				}
+				bases.add(base);
+			}
+			return bases;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (nextPosition > position) {
+				return true;
+			}
+			while (index < codes.length) {
+				int c = ordinalCodes[codes[index++] & 0xFF];
+				if (c < 0) {
+					// start again after the compound
+					run = 0;
+					continue;
+				}
+				code = ((code << bits) | c) & mask;
+				if (++run >= kmer) {
+					nextPosition = index - kmer + 1;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public long nextLong() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("Exhausted sequence of k-mers");
+			}
+			position = nextPosition;
+			return code;
+		}
+
+		/**
+		 * Returns the position of the first compound of the k-mer last returned, from 1.
+		 */
+		public int getPosition() {
+			return position;
+		}
+
+		public int getKmerSize() {
+			return kmer;
+		}
+
+		/**
+		 * Returns the compounds of a k-mer code. Nucleotides are returned in upper case.
+		 */
+		public List<C> decode(long code) {
+			List<C> compounds = new ArrayList<C>(kmer);
+			for (int i = kmer - 1; i >= 0; i--) {
+				compounds.add(alphabet.get((int) ((code >>> (i * bits)) & ((1 << bits) - 1))));
+			}
+			return compounds;
+		}
+
+		/**
+		 * Returns the code of a k-mer.
+		 *
+		 * @throws IllegalArgumentException if a compound of the k-mer is not in the compound set,
+		 * or is a nucleotide other than A, C, G and T (or U)
+		 */
+		public long encode(List<C> compounds) {
+			if (compounds.size() != kmer) {
+				throw new IllegalArgumentException("Expected a " + kmer + "-mer, not " + compounds.size());
+			}
+			long result = 0;
+			for (C compound : compounds) {
+				int c = ordinalCodes[table.getOrdinal(compound)];
+				if (c < 0) {
+					throw new IllegalArgumentException("Compound " + compound + " has no k-mer code");
+				}
+				result = (result << bits) | c;
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Counts of k-mer codes in an open-addressing table of primitives.
+	 *
+	 * @param <C> Type of compound
+	 * @since 5.0.0
+	 * @see SequenceMixin#countKmers(Sequence, int)
+	 */
+	public static class KmerCounts<C extends Compound> {
+
+		/**
+		 * Receives each distinct k-mer with its count.
+		 */
+		public interface Consumer {
+			void accept(long code, int count);
+		}
+
+		private final KmerIterator<C> encoding;
+		private long[] keys = new long[64];
+		// 0 for an empty slot
+		private int[] counts = new int[64];
+		private int size = 0;
+
+		private KmerCounts(KmerIterator<C> encoding) {
+			this.encoding = encoding;
+		}
+
+		private static int mix(long key) {
+			key ^= key >>> 33;
+			key *= 0xff51afd7ed558ccdL;
+			key ^= key >>> 33;
+			return (int) key;
+		}
+
+		private void increment(long key) {
+			int m = keys.length - 1;
+			int i = mix(key) & m;
+			while (counts[i] != 0 && keys[i] != key) {
+				i = (i + 1) & m;
+			}
+			if (counts[i] == 0) {
+				keys[i] = key;
+				if (++size * 2 > keys.length) {
+					counts[i] = 1;
+					grow();
+					return;
+				}
+			}
+			counts[i]++;
+		}
+
+		private void grow() {
+			long[] oldKeys = keys;
+			int[] oldCounts = counts;
+			keys = new long[oldKeys.length * 2];
+			counts = new int[oldKeys.length * 2];
+			int m = keys.length - 1;
+			for (int j = 0; j < oldKeys.length; j++) {
+				if (oldCounts[j] != 0) {
+					int i = mix(oldKeys[j]) & m;
+					while (counts[i] != 0) {
+						i = (i + 1) & m;
+					}
+					keys[i] = oldKeys[j];
+					counts[i] = oldCounts[j];
+				}
+			}
+		}
+
+		/**
+		 * Returns the count of a k-mer code.
+		 */
+		public int getCount(long code) {
+			int m = keys.length - 1;
+			int i = mix(code) & m;
+			while (counts[i] != 0) {
+				if (keys[i] == code) {
+					return counts[i];
+				}
+				i = (i + 1) & m;
+			}
+			return 0;
+		}
+
+		/**
+		 * Returns the count of a k-mer.
+		 */
+		public int getCount(List<C> kmer) {
+			if (kmer.size() != encoding.kmer) {
+				return 0;
+			}
+			long code;
+			try {
+				code = encoding.encode(kmer);
+			} catch (IllegalArgumentException e) {
+				// a compound of another compound set
+				return 0;
+			}
+			return getCount(code);
+		}
+
+		/**
+		 * Returns the number of distinct k-mers.
+		 */
+		public int size() {
+			return size;
+		}
+
+		public void forEach(Consumer consumer) {
+			for (int i = 0; i < keys.length; i++) {
+				if (counts[i] != 0) {
+					consumer.accept(keys[i], counts[i]);
+				}
+			}
+		}
+
+		/**
+		 * Returns the compounds of a k-mer code.
+		 */
+		public List<C> decode(long code) {
+			return encoding.decode(code);
+		}
+	}
 }
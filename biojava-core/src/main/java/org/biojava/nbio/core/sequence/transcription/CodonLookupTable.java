@@ -0,0 +1,127 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.transcription;
+
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.biojava.nbio.core.sequence.transcription.Table.Codon;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Table} compiled into arrays indexed by packed codons. Each base is
+ * encoded in two bits (A=0, C=1, G=2, T/U=3) and a codon is
+ * <code>16 * first + 4 * second + third</code>, so translating a codon is an
+ * array access rather than a map lookup on a {@link Table.CaseInsensitiveTriplet}.
+ * Codons holding any other base (N or an ambiguity code) are packed as
+ * {@link #UNKNOWN} which translates to X.
+ * <p>
+ * The encoding is chosen so that the complement of a base code is
+ * <code>3 - code</code>, which allows reverse frames to be read from the
+ * forward strand without building a reverse complement.
+ *
+ * @since 5.0.0
+ */
+public class CodonLookupTable {
+
+	/**
+	 * The packed value of a codon containing a base other than A, C, G, T or U
+	 */
+	public static final int UNKNOWN = 64;
+
+	private static final byte[] BASES = new byte[128];
+
+	static {
+		Arrays.fill(BASES, (byte) -1);
+		BASES['A'] = BASES['a'] = 0;
+		BASES['C'] = BASES['c'] = 1;
+		BASES['G'] = BASES['g'] = 2;
+		BASES['T'] = BASES['t'] = 3;
+		BASES['U'] = BASES['u'] = 3;
+	}
+
+	private final char[] aminoAcids = new char[UNKNOWN + 1];
+	private final boolean[] starts = new boolean[UNKNOWN + 1];
+	private final boolean[] stops = new boolean[UNKNOWN + 1];
+
+	public CodonLookupTable(Table table, CompoundSet<NucleotideCompound> rnaCompounds,
+			CompoundSet<AminoAcidCompound> aminoAcidCompounds) {
+		Arrays.fill(aminoAcids, 'X');
+		for (Codon codon : table.getCodons(rnaCompounds, aminoAcidCompounds)) {
+			Table.CaseInsensitiveTriplet triplet = codon.getTriplet();
+			int packed = pack(encode(triplet.getOne()), encode(triplet.getTwo()), encode(triplet.getThree()));
+			if (packed == UNKNOWN || codon.getAminoAcid() == null) {
+				continue;
+			}
+			aminoAcids[packed] = codon.getAminoAcid().toString().charAt(0);
+			starts[packed] = codon.isStart();
+			stops[packed] = codon.isStop();
+		}
+	}
+
+	/**
+	 * Returns the two bit code of a base, or -1 if it is not one of A, C, G,
+	 * T or U (in either case)
+	 */
+	public static int encode(char base) {
+		return base < 128 ? BASES[base] : -1;
+	}
+
+	private static int encode(NucleotideCompound compound) {
+		return encode(compound.getBase().charAt(0));
+	}
+
+	/**
+	 * Packs three base codes as returned by {@link #encode(char)} into a
+	 * codon, which is {@link #UNKNOWN} if any of them is negative
+	 */
+	public static int pack(int one, int two, int three) {
+		if ((one | two | three) < 0) {
+			return UNKNOWN;
+		}
+		return (one << 4) | (two << 2) | three;
+	}
+
+	/**
+	 * Returns the packed codon starting at the given 0-based offset of a
+	 * nucleotide String
+	 */
+	public static int pack(CharSequence sequence, int offset) {
+		return pack(encode(sequence.charAt(offset)), encode(sequence.charAt(offset + 1)),
+				encode(sequence.charAt(offset + 2)));
+	}
+
+	/**
+	 * Returns the one letter code of the amino acid the codon translates to
+	 */
+	public char getAminoAcid(int codon) {
+		return aminoAcids[codon];
+	}
+
+	public boolean isStart(int codon) {
+		return starts[codon];
+	}
+
+	public boolean isStop(int codon) {
+		return stops[codon];
+	}
+}
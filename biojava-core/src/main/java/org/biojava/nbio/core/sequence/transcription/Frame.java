@@ -47,6 +47,18 @@ public enum Frame {
 		this.reverse = reverse;
 	}
 
+	/**
+	 * Returns the 1-based position, on the strand of this frame, of the first
+	 * base translated
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	public boolean isReverse() {
+		return reverse;
+	}
+
 	public static Frame getDefaultFrame() {
 		return ONE;
 	}
@@ -0,0 +1,96 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.transcription;
+
+import org.biojava.nbio.core.sequence.Strand;
+import org.biojava.nbio.core.sequence.compound.AminoAcidCompound;
+import org.biojava.nbio.core.sequence.template.Sequence;
+
+/**
+ * An open reading frame found by
+ * {@link TranscriptionEngine#findOrfs(Sequence, int, java.util.function.Consumer)}:
+ * a start codon followed in the same frame by a stop codon.
+ * <p>
+ * The location is given on the forward strand of the searched sequence, so
+ * {@link #getStart()} is never greater than {@link #getEnd()}, also for
+ * frames on the reverse strand.
+ *
+ * @since 5.0.0
+ */
+public class OpenReadingFrame {
+
+	private final Frame frame;
+	private final int start;
+	private final int end;
+	private final Sequence<AminoAcidCompound> protein;
+
+	public OpenReadingFrame(Frame frame, int start, int end, Sequence<AminoAcidCompound> protein) {
+		this.frame = frame;
+		this.start = start;
+		this.end = end;
+		this.protein = protein;
+	}
+
+	public Frame getFrame() {
+		return frame;
+	}
+
+	public Strand getStrand() {
+		return frame.isReverse() ? Strand.NEGATIVE : Strand.POSITIVE;
+	}
+
+	/**
+	 * Returns the 1-based position of the first base on the forward strand,
+	 * which is the first base of the start codon for the forward frames and
+	 * the last base of the stop codon for the reverse frames
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the 1-based inclusive position of the last base on the forward
+	 * strand
+	 */
+	public int getEnd() {
+		return end;
+	}
+
+	/**
+	 * Returns the length of the open reading frame in bases, including the
+	 * stop codon
+	 */
+	public int getLength() {
+		return end - start + 1;
+	}
+
+	/**
+	 * Returns the translation, starting with M and without the stop
+	 */
+	public Sequence<AminoAcidCompound> getProtein() {
+		return protein;
+	}
+
+	@Override
+	public String toString() {
+		return frame + " " + start + ".." + end + " " + protein.getSequenceAsString();
+	}
+}
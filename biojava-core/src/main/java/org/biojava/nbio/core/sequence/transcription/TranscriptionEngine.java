@@ -21,18 +21,24 @@
  */
 package org.biojava.nbio.core.sequence.transcription;
 
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.ProteinSequence;
 import org.biojava.nbio.core.sequence.compound.*;
 import org.biojava.nbio.core.sequence.io.IUPACParser;
 import org.biojava.nbio.core.sequence.io.IUPACParser.IUPACTable;
 import org.biojava.nbio.core.sequence.io.ProteinSequenceCreator;
 import org.biojava.nbio.core.sequence.io.RNASequenceCreator;
 import org.biojava.nbio.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
 import org.biojava.nbio.core.sequence.template.CompoundSet;
 import org.biojava.nbio.core.sequence.template.Sequence;
 import org.biojava.nbio.core.sequence.transcription.Table.Codon;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Used as a way of encapsulating the data structures required to parse DNA to a
@@ -79,6 +85,12 @@ public class TranscriptionEngine {
 	private final CompoundSet<NucleotideCompound> dnaCompounds;
 	private final CompoundSet<NucleotideCompound> rnaCompounds;
 	private final CompoundSet<AminoAcidCompound> aminoAcidCompounds;
+	private final boolean initMet;
+	private final boolean trimStop;
+	private final boolean stopAtStopCodons;
+	private final boolean waitForStartCodon;
+
+	private volatile CodonLookupTable codonLookupTable;
 
 	private TranscriptionEngine(Table table,
 			RNAToAminoAcidTranslator rnaAminoAcidTranslator,
@@ -87,7 +99,9 @@ public class TranscriptionEngine {
 			SequenceCreatorInterface<NucleotideCompound> rnaSequenceCreator,
 			CompoundSet<NucleotideCompound> dnaCompounds,
 			CompoundSet<NucleotideCompound> rnaCompounds,
-			CompoundSet<AminoAcidCompound> aminoAcidCompounds) {
+			CompoundSet<AminoAcidCompound> aminoAcidCompounds,
+			boolean initMet, boolean trimStop,
+			boolean stopAtStopCodons, boolean waitForStartCodon) {
 		this.table = table;
 		this.rnaAminoAcidTranslator = rnaAminoAcidTranslator;
 		this.dnaRnaTranslator = dnaRnaTranslator;
@@ -96,6 +110,10 @@ public class TranscriptionEngine {
 		this.dnaCompounds = dnaCompounds;
 		this.rnaCompounds = rnaCompounds;
 		this.aminoAcidCompounds = aminoAcidCompounds;
+		this.initMet = initMet;
+		this.trimStop = trimStop;
+		this.stopAtStopCodons = stopAtStopCodons;
+		this.waitForStartCodon = waitForStartCodon;
 	}
 
 	/**
@@ -137,6 +155,222 @@ public class TranscriptionEngine {
 		return results;
 	}
 
+	/**
+	 * Translates the DNA in all six frames.
+	 *
+	 * @see #translateFrames(Sequence, Frame...)
+	 */
+	public Map<Frame, Sequence<AminoAcidCompound>> sixFrameTranslation(
+			Sequence<NucleotideCompound> dna) {
+		return translateFrames(dna, Frame.getAllFrames());
+	}
+
+	/**
+	 * Translates DNA in a number of frames with the {@link CodonLookupTable}
+	 * of this engine rather than with the translators. The sequence is read
+	 * once into packed codons for all requested frames (the reverse frames
+	 * are read from the forward strand), and each peptide is stored as one
+	 * byte per residue in a {@link ProteinSequence}.
+	 * <p>
+	 * The result is the same as the one of
+	 * {@link #multipleFrameTranslation(Sequence, Frame...)} with the default
+	 * translators, honouring the initMet, trimStop, stopAtStopCodons and
+	 * waitForStartCodon settings of the {@link Builder}. Codons containing
+	 * ambiguous bases are always translated to X.
+	 *
+	 * @param dna
+	 *            The DNA to translate
+	 * @param frames
+	 *            The Frames to translate in
+	 * @return The protein sequences in the given frames
+	 */
+	public Map<Frame, Sequence<AminoAcidCompound>> translateFrames(
+			Sequence<NucleotideCompound> dna, Frame... frames) {
+		CodonLookupTable lookup = getCodonLookupTable();
+		byte[][] codons = packFrames(dna.getSequenceAsString(), frames);
+		Map<Frame, Sequence<AminoAcidCompound>> results = new EnumMap<Frame, Sequence<AminoAcidCompound>>(
+				Frame.class);
+		for (Frame frame : frames) {
+			byte[] frameCodons = codons[frame.ordinal()];
+			char[] peptide = new char[frameCodons.length];
+			int length = 0;
+			boolean doTranslate = !waitForStartCodon;
+			for (int i = 0; i < frameCodons.length; i++) {
+				int codon = frameCodons[i];
+				if (!doTranslate && lookup.isStart(codon)) {
+					doTranslate = true;
+				}
+				if (doTranslate) {
+					peptide[length++] = i == 0 && initMet && lookup.isStart(codon)
+							? 'M' : lookup.getAminoAcid(codon);
+					if (stopAtStopCodons && lookup.isStop(codon)) {
+						break;
+					}
+				}
+			}
+			if (trimStop && length > 0 && peptide[length - 1] == '*') {
+				length--;
+			}
+			results.put(frame, createProtein(peptide, 0, length));
+		}
+		return results;
+	}
+
+	/**
+	 * Finds the open reading frames in all six frames of the DNA and returns
+	 * them in a List.
+	 *
+	 * @see #findOrfs(Sequence, int, Consumer)
+	 */
+	public List<OpenReadingFrame> findOrfs(Sequence<NucleotideCompound> dna,
+			int minLength) {
+		List<OpenReadingFrame> orfs = new ArrayList<OpenReadingFrame>();
+		findOrfs(dna, minLength, orfs::add);
+		return orfs;
+	}
+
+	/**
+	 * Finds the open reading frames in all six frames of the DNA. An open
+	 * reading frame starts at a start codon of the {@link Table} and ends at
+	 * the next stop codon in the same frame; for every stop codon only the
+	 * longest one is reported, i.e. the one starting at the first start codon
+	 * after the previous stop. Reading frames that are not closed by a stop
+	 * codon before the end of the sequence are not reported.
+	 * <p>
+	 * The open reading frames are passed to the consumer as they are found,
+	 * frame by frame in the order of {@link Frame#getAllFrames()}, and by
+	 * increasing distance from the start of their frame. Only the peptides of
+	 * reported open reading frames are created.
+	 *
+	 * @param dna
+	 *            The DNA to search
+	 * @param minLength
+	 *            The minimum number of amino acids, excluding the stop
+	 * @param consumer
+	 *            Receives the open reading frames
+	 */
+	public void findOrfs(Sequence<NucleotideCompound> dna, int minLength,
+			Consumer<OpenReadingFrame> consumer) {
+		CodonLookupTable lookup = getCodonLookupTable();
+		int length = dna.getLength();
+		Frame[] frames = Frame.getAllFrames();
+		byte[][] codons = packFrames(dna.getSequenceAsString(), frames);
+		char[] peptide = new char[length / 3];
+		for (Frame frame : frames) {
+			byte[] frameCodons = codons[frame.ordinal()];
+			int offset = frame.getStart() - 1;
+			int orfStart = -1;
+			for (int i = 0; i < frameCodons.length; i++) {
+				int codon = frameCodons[i];
+				if (orfStart < 0) {
+					if (lookup.isStart(codon)) {
+						orfStart = i;
+						peptide[0] = 'M';
+					}
+					continue;
+				}
+				if (lookup.isStop(codon)) {
+					if (i - orfStart >= minLength) {
+						Sequence<AminoAcidCompound> protein = createProtein(peptide, 0, i - orfStart);
+						// 1-based positions of the first and last base on the strand of the frame
+						int first = offset + 3 * orfStart + 1;
+						int last = offset + 3 * i + 3;
+						if (frame.isReverse()) {
+							consumer.accept(new OpenReadingFrame(frame, length - last + 1, length - first + 1, protein));
+						} else {
+							consumer.accept(new OpenReadingFrame(frame, first, last, protein));
+						}
+					}
+					orfStart = -1;
+				} else {
+					peptide[i - orfStart] = lookup.getAminoAcid(codon);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Packs the codons of the given frames in a single pass over the
+	 * sequence. The result is indexed by {@link Frame#ordinal()} and holds the
+	 * codons in the order of translation; frames that were not requested are
+	 * null.
+	 */
+	private static byte[][] packFrames(String sequence, Frame... frames) {
+		int length = sequence.length();
+		byte[][] codons = new byte[Frame.values().length][];
+		boolean forward = false;
+		boolean reverse = false;
+		for (Frame frame : frames) {
+			codons[frame.ordinal()] = new byte[Math.max(0, (length - frame.getStart() + 1) / 3)];
+			forward |= !frame.isReverse();
+			reverse |= frame.isReverse();
+		}
+		if (length < 3) {
+			return codons;
+		}
+
+		byte[][] forwardCodons = new byte[3][];
+		byte[][] reverseCodons = new byte[3][];
+		for (Frame frame : frames) {
+			if (frame.isReverse()) {
+				reverseCodons[frame.getStart() - 1] = codons[frame.ordinal()];
+			} else {
+				forwardCodons[frame.getStart() - 1] = codons[frame.ordinal()];
+			}
+		}
+
+		int one = CodonLookupTable.encode(sequence.charAt(0));
+		int two = CodonLookupTable.encode(sequence.charAt(1));
+		for (int i = 0; i + 2 < length; i++) {
+			int three = CodonLookupTable.encode(sequence.charAt(i + 2));
+			if (forward) {
+				byte[] target = forwardCodons[i % 3];
+				if (target != null) {
+					target[i / 3] = (byte) CodonLookupTable.pack(one, two, three);
+				}
+			}
+			if (reverse) {
+				// the codon ending at position i of the reverse complement
+				int fromEnd = length - 3 - i;
+				byte[] target = reverseCodons[fromEnd % 3];
+				if (target != null) {
+					target[fromEnd / 3] = (byte) CodonLookupTable.pack(complement(three),
+							complement(two), complement(one));
+				}
+			}
+			one = two;
+			two = three;
+		}
+		return codons;
+	}
+
+	private static int complement(int base) {
+		return base < 0 ? base : 3 - base;
+	}
+
+	private ProteinSequence createProtein(char[] peptide, int offset, int length) {
+		try {
+			return new ProteinSequence(new ByteArraySequenceReader<AminoAcidCompound>(
+					new String(peptide, offset, length), aminoAcidCompounds), aminoAcidCompounds);
+		} catch (CompoundNotFoundException e) {
+			throw new IllegalStateException("The amino acid compounds do not contain the translation: "
+					+ e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Returns the {@link Table} of this engine compiled for the RNA and amino
+	 * acid compounds of this engine.
+	 */
+	public CodonLookupTable getCodonLookupTable() {
+		CodonLookupTable lookup = codonLookupTable;
+		if (lookup == null) {
+			lookup = new CodonLookupTable(table, rnaCompounds, aminoAcidCompounds);
+			codonLookupTable = lookup;
+		}
+		return lookup;
+	}
+
 	public Table getTable() {
 		return table;
 	}
@@ -200,7 +434,8 @@ public class TranscriptionEngine {
 			return new TranscriptionEngine(getTable(),
 					getRnaAminoAcidTranslator(), getDnaRnaTranslator(),
 					getProteinCreator(), getRnaCreator(), getDnaCompounds(),
-					getRnaCompounds(), getAminoAcidCompounds());
+					getRnaCompounds(), getAminoAcidCompounds(), isInitMet(),
+					isTrimStop(), isStopAtStopCodons(), isWaitForStartCodon());
 		}
 
 		// ---- START OF BUILDER METHODS
@@ -0,0 +1,551 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * A thread-safe in-memory cache that is bounded by the total weight of its
+ * values, e.g. their estimated size in bytes.
+ * <p>
+ * Unlike {@link SoftHashMap} it does not depend on the garbage collector
+ * clearing soft references: once the configured maximum weight is exceeded,
+ * the least recently used entries are evicted. With
+ * {@link EvictionPolicy#TINY_LFU} a new entry is only admitted at the expense
+ * of the least recently used one if it has been requested more often
+ * recently, as estimated by a small frequency sketch. This keeps
+ * one-off lookups (e.g. a scan over many IDs) from flushing the frequently
+ * used entries.
+ * <p>
+ * {@link #get(Object, Callable)} loads missing values at most once per key
+ * at a time: threads requesting a key that is already being loaded wait for
+ * that load and share its result. Loading happens outside of any lock, so
+ * loads of different keys run concurrently.
+ * <p>
+ * Lookups do not lock: the entries are kept in a {@link ConcurrentHashMap}
+ * and each lookup is only recorded in a bounded buffer. The buffer is drained
+ * into the recency order and the frequency sketch under a lock, either by the
+ * next write or by the reader that fills it, if the lock is free. When the
+ * buffer is full further lookups are not recorded until it has been drained,
+ * so under heavy contention recency and frequency are sampled.
+ * <p>
+ * Null values are supported and are cached like any other value. Null keys
+ * are not.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @since 5.0.0
+ */
+public class BoundedCache<K,V> {
+
+	/**
+	 * How entries are chosen for eviction and admission
+	 */
+	public enum EvictionPolicy {
+		/**
+		 * Every new entry is admitted, the least recently used entries are evicted
+		 */
+		LRU,
+		/**
+		 * The least recently used entries are evicted, but a new entry is only
+		 * admitted if it is estimated to be requested more frequently than the
+		 * entry it would evict first
+		 */
+		TINY_LFU
+	}
+
+	private static final Object NULL = new Object();
+
+	/** lookups recorded at most before further ones are dropped */
+	private static final int READ_BUFFER_SIZE = 128;
+	/** number of recorded lookups at which a reader tries to drain the buffer */
+	private static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+
+	private final ToLongFunction<? super V> weigher;
+	private final EvictionPolicy policy;
+
+	private final ConcurrentMap<K, Entry> map;
+
+	// guards order, sketch, weight and maximumWeight, and all writes to map
+	private final ReentrantLock lock;
+	// access ordered: the eldest entry is the least recently used one
+	private final LinkedHashMap<K, Entry> order;
+	private final FrequencySketch sketch;
+
+	private final Queue<K> readBuffer;
+	private final AtomicInteger readBufferSize;
+
+	private final ConcurrentMap<K, CompletableFuture<Object>> loading;
+
+	private long maximumWeight;
+	private long weight;
+
+	private final Statistics statistics;
+
+	/**
+	 * Constructs an LRU cache holding at most the given number of entries.
+	 * @param maximumSize
+	 */
+	public BoundedCache(long maximumSize) {
+		this(maximumSize, v -> 1, EvictionPolicy.LRU);
+	}
+
+	/**
+	 * Constructs a cache bounded by the total weight of its values.
+	 * @param maximumWeight the maximum total weight, 0 to only deduplicate concurrent loads without retaining values
+	 * @param weigher computes the weight of a value, e.g. its estimated size in bytes. It may be called with null.
+	 * @param policy
+	 */
+	public BoundedCache(long maximumWeight, ToLongFunction<? super V> weigher, EvictionPolicy policy) {
+		if (maximumWeight < 0)
+			throw new IllegalArgumentException("Maximum weight must not be negative");
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+		this.policy = policy;
+		this.map = new ConcurrentHashMap<K, Entry>();
+		this.lock = new ReentrantLock();
+		this.order = new LinkedHashMap<K, Entry>(16, 0.75f, true);
+		this.readBuffer = new ConcurrentLinkedQueue<K>();
+		this.readBufferSize = new AtomicInteger();
+		this.sketch = policy == EvictionPolicy.TINY_LFU ? new FrequencySketch() : null;
+		this.loading = new ConcurrentHashMap<K, CompletableFuture<Object>>();
+		this.weight = 0;
+		this.statistics = new Statistics();
+	}
+
+	/**
+	 * Returns the cached value for the given key, or null if there is none.
+	 * Note that null is also returned if null was cached for the key.
+	 * @param key
+	 * @return
+	 */
+	public V get(K key) {
+		Object v = lookup(key);
+		if (v == null) {
+			statistics.misses.incrementAndGet();
+			return null;
+		}
+		statistics.hits.incrementAndGet();
+		return unmask(v);
+	}
+
+	/**
+	 * Returns the cached value for the given key, loading and caching it if
+	 * necessary. Concurrent calls for a key that is being loaded wait for
+	 * the running load instead of starting another one.
+	 * @param key
+	 * @param loader computes the value if it is not cached
+	 * @return the cached or loaded value
+	 * @throws ExecutionException if the loader threw an exception, which is the cause.
+	 * Failed loads are not cached.
+	 */
+	public V get(K key, Callable<? extends V> loader) throws ExecutionException {
+		Object v = lookup(key);
+		if (v != null) {
+			statistics.hits.incrementAndGet();
+			return unmask(v);
+		}
+		statistics.misses.incrementAndGet();
+
+		CompletableFuture<Object> future = new CompletableFuture<Object>();
+		CompletableFuture<Object> running = loading.putIfAbsent(key, future);
+
+		if (running != null) {
+			return unmask(await(running));
+		}
+
+		try {
+			// another thread may have finished loading just before we registered
+			v = lookup(key);
+			if (v == null) {
+				v = mask(loader.call());
+				statistics.loads.incrementAndGet();
+				putMasked(key, v);
+			}
+			future.complete(v);
+			return unmask(v);
+		} catch (Exception e) {
+			statistics.loadFailures.incrementAndGet();
+			future.completeExceptionally(e);
+			throw new ExecutionException(e);
+		} catch (Error e) {
+			statistics.loadFailures.incrementAndGet();
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			loading.remove(key, future);
+		}
+	}
+
+	private static Object await(CompletableFuture<Object> future) throws ExecutionException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ExecutionException(e);
+		}
+	}
+
+	/**
+	 * Adds a value to the cache, replacing any previous value for the key.
+	 * Depending on the policy and the weight of the value, the value may
+	 * not be admitted.
+	 * @param key
+	 * @param value
+	 */
+	public void put(K key, V value) {
+		putMasked(key, mask(value));
+	}
+
+	private void putMasked(K key, Object value) {
+		long w = weigher.applyAsLong(unmask(value));
+
+		lock.lock();
+		try {
+			drainReadBuffer();
+
+			Entry old = removeEntry(key);
+
+			if (w > maximumWeight) {
+				statistics.rejections.incrementAndGet();
+				return;
+			}
+
+			if (sketch != null && old == null && weight + w > maximumWeight && !order.isEmpty()) {
+				K victim = order.keySet().iterator().next();
+				if (sketch.frequency(key) <= sketch.frequency(victim)) {
+					statistics.rejections.incrementAndGet();
+					return;
+				}
+			}
+
+			Entry e = new Entry(value, w);
+			order.put(key, e);
+			map.put(key, e);
+			weight += w;
+			evict();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the entry for the given key, if any.
+	 * @param key
+	 */
+	public void remove(K key) {
+		lock.lock();
+		try {
+			removeEntry(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes all entries. Loads that are running are not affected.
+	 */
+	public void clear() {
+		lock.lock();
+		try {
+			order.clear();
+			map.clear();
+			weight = 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of cached entries
+	 */
+	public int size() {
+		return map.size();
+	}
+
+	/**
+	 * @return the total weight of the cached entries
+	 */
+	public long getWeight() {
+		lock.lock();
+		try {
+			return weight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getMaximumWeight() {
+		lock.lock();
+		try {
+			return maximumWeight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Changes the maximum weight, evicting entries if needed.
+	 * @param maximumWeight
+	 */
+	public void setMaximumWeight(long maximumWeight) {
+		if (maximumWeight < 0)
+			throw new IllegalArgumentException("Maximum weight must not be negative");
+		lock.lock();
+		try {
+			drainReadBuffer();
+			this.maximumWeight = maximumWeight;
+			evict();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public EvictionPolicy getEvictionPolicy() {
+		return policy;
+	}
+
+	/**
+	 * @return the hit, miss and eviction counters of this cache
+	 */
+	public Statistics getStatistics() {
+		return statistics;
+	}
+
+	private Object lookup(K key) {
+		Entry e = map.get(key);
+		recordRead(key);
+		return e == null ? null : e.value;
+	}
+
+	private void recordRead(K key) {
+		if (readBufferSize.incrementAndGet() > READ_BUFFER_SIZE) {
+			// the buffer is full, drop this lookup
+			readBufferSize.decrementAndGet();
+		} else {
+			readBuffer.offer(key);
+		}
+		if (readBufferSize.get() >= READ_BUFFER_DRAIN_THRESHOLD && lock.tryLock()) {
+			try {
+				drainReadBuffer();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	// must be called while holding the lock
+	private void drainReadBuffer() {
+		K key;
+		while ((key = readBuffer.poll()) != null) {
+			readBufferSize.decrementAndGet();
+			if (sketch != null)
+				sketch.increment(key);
+			// moves the entry, if still present, to the most recently used end
+			order.get(key);
+		}
+	}
+
+	// must be called while holding the lock
+	private Entry removeEntry(K key) {
+		Entry old = order.remove(key);
+		if (old != null) {
+			map.remove(key);
+			weight -= old.weight;
+		}
+		return old;
+	}
+
+	// must be called while holding the lock
+	private void evict() {
+		Iterator<Map.Entry<K, Entry>> it = order.entrySet().iterator();
+		while (weight > maximumWeight && it.hasNext()) {
+			Map.Entry<K, Entry> eldest = it.next();
+			it.remove();
+			map.remove(eldest.getKey());
+			weight -= eldest.getValue().weight;
+			statistics.evictions.incrementAndGet();
+		}
+	}
+
+	private static Object mask(Object value) {
+		return value == null ? NULL : value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V unmask(Object value) {
+		return value == NULL ? null : (V) value;
+	}
+
+	private static class Entry {
+		private final Object value;
+		private final long weight;
+
+		public Entry(Object value, long weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	/**
+	 * A count-min sketch of 4 bit counters estimating how often each key has
+	 * been requested recently. All counters are halved periodically so that
+	 * old popularity fades.
+	 */
+	private static class FrequencySketch {
+
+		private static final int DEPTH = 4;
+		private static final int WIDTH = 1 << 12;
+		private static final int SAMPLE_SIZE = 10 * WIDTH;
+		private static final int[] SEEDS = { 0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F };
+
+		private final byte[][] counters = new byte[DEPTH][WIDTH];
+		private int additions = 0;
+
+		public void increment(Object key) {
+			int h = key.hashCode();
+			boolean added = false;
+			for (int i = 0; i < DEPTH; i++) {
+				byte[] row = counters[i];
+				int index = index(h, i);
+				if (row[index] < 15) {
+					row[index]++;
+					added = true;
+				}
+			}
+			if (added && ++additions >= SAMPLE_SIZE) {
+				reset();
+			}
+		}
+
+		public int frequency(Object key) {
+			int h = key.hashCode();
+			int min = Integer.MAX_VALUE;
+			for (int i = 0; i < DEPTH; i++) {
+				min = Math.min(min, counters[i][index(h, i)]);
+			}
+			return min;
+		}
+
+		private void reset() {
+			for (byte[] row : counters) {
+				for (int j = 0; j < row.length; j++) {
+					row[j] >>= 1;
+				}
+			}
+			additions /= 2;
+		}
+
+		private static int index(int h, int i) {
+			int x = h * SEEDS[i];
+			x ^= x >>> 16;
+			return x & (WIDTH - 1);
+		}
+	}
+
+	/**
+	 * Counters of the cache operations since the cache was created
+	 */
+	public static class Statistics {
+
+		private final AtomicLong hits = new AtomicLong();
+		private final AtomicLong misses = new AtomicLong();
+		private final AtomicLong loads = new AtomicLong();
+		private final AtomicLong loadFailures = new AtomicLong();
+		private final AtomicLong evictions = new AtomicLong();
+		private final AtomicLong rejections = new AtomicLong();
+
+		private Statistics() {
+		}
+
+		/**
+		 * @return the number of lookups that found a cached value
+		 */
+		public long getHits() {
+			return hits.get();
+		}
+
+		/**
+		 * @return the number of lookups that did not find a cached value
+		 */
+		public long getMisses() {
+			return misses.get();
+		}
+
+		/**
+		 * @return the number of values loaded successfully. Misses that waited for
+		 * the load of another thread are not counted.
+		 */
+		public long getLoads() {
+			return loads.get();
+		}
+
+		/**
+		 * @return the number of loads that threw an exception
+		 */
+		public long getLoadFailures() {
+			return loadFailures.get();
+		}
+
+		/**
+		 * @return the number of entries evicted to stay within the maximum weight
+		 */
+		public long getEvictions() {
+			return evictions.get();
+		}
+
+		/**
+		 * @return the number of values that were not admitted, either because
+		 * they were heavier than the maximum weight or because of the admission policy
+		 */
+		public long getRejections() {
+			return rejections.get();
+		}
+
+		/**
+		 * @return the fraction of lookups that were hits, 0 if there was no lookup
+		 */
+		public double getHitRate() {
+			long h = getHits();
+			long total = h + getMisses();
+			return total == 0 ? 0 : (double) h / total;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%d misses=%d (hit rate %.3f) loads=%d loadFailures=%d evictions=%d rejections=%d",
+					getHits(), getMisses(), getHitRate(), getLoads(), getLoadFailures(), getEvictions(), getRejections());
+		}
+	}
+}
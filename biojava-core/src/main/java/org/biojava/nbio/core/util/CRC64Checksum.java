@@ -58,7 +58,7 @@ public class CRC64Checksum implements Checksum {
 
 	@Override
 	public void update(byte[] b, int offset, int length) {
-		for (int i = offset; i < length; ++i)
+		for (int i = offset; i < offset + length; ++i)
 			update(b[i]);
 	}
 
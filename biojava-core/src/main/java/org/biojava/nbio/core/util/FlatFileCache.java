@@ -40,7 +40,13 @@ public class FlatFileCache {
 
 	private static FlatFileCache me ;
 
-	private static SoftHashMap<String, byte[]> cache = new SoftHashMap<String, byte[]>(0);
+	/**
+	 * The default maximum total size of the cached files in bytes
+	 */
+	public static final long DEFAULT_MAXIMUM_SIZE = 64 * 1024 * 1024;
+
+	private static BoundedCache<String, byte[]> cache = new BoundedCache<String, byte[]>(
+			DEFAULT_MAXIMUM_SIZE, b -> b == null ? 0 : b.length, BoundedCache.EvictionPolicy.LRU);
 
 	public static FlatFileCache getInstance() {
 
@@ -109,6 +115,15 @@ public class FlatFileCache {
 
 	}
 
+	/**
+	 * Sets the maximum total size of the cached files, evicting the least
+	 * recently used files if needed.
+	 * @param bytes
+	 */
+	public static void setMaximumSize(long bytes) {
+		cache.setMaximumWeight(bytes);
+	}
+
 	public int size() {
 		if ( cache != null)
 			return cache.size();
@@ -30,9 +30,11 @@ import java.util.*;
 /** A in memory cache using soft references. (can be garbage collected)
  *
  * This code is based on: http://java-interview-faqs.blogspot.com/2008/09/building-faster-and-efficient-cache.html
+ *
+ * @deprecated use {@link BoundedCache}, which is bounded by size rather than by garbage collection
  * */
 
-
+@Deprecated
 public class SoftHashMap<K, V> extends AbstractMap<K, V> {
 
 	private final static Logger logger = LoggerFactory.getLogger(SoftHashMap.class);
@@ -24,6 +24,9 @@ import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
 import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
 import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.io.DNASequenceCreator;
+import org.biojava.nbio.core.sequence.storage.ArrayListSequenceReader;
+import org.biojava.nbio.core.sequence.storage.ByteArraySequenceReader;
 import org.biojava.nbio.core.sequence.storage.FourBitSequenceReader;
 import org.biojava.nbio.core.sequence.storage.SingleCompoundSequenceReader;
 import org.biojava.nbio.core.sequence.storage.TwoBitSequenceReader;
@@ -35,8 +38,10 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -190,6 +195,38 @@ public class DNATest {
 		assertThat("FourBit from String not as expected", bitFromString.getSequenceAsString(), is(expected));
 	}
 
+	@Test
+	public void byteArray() throws CompoundNotFoundException {
+		String expected = "ATGCaaNTGA";
+		DNASequence seq = getSeq(expected);
+		ByteArraySequenceReader<NucleotideCompound> bytesFromString =
+				new ByteArraySequenceReader<NucleotideCompound>(expected, seq.getCompoundSet());
+		ByteArraySequenceReader<NucleotideCompound> bytesFromList =
+				new ByteArraySequenceReader<NucleotideCompound>(seq.getAsList(), seq.getCompoundSet());
+
+		assertThat("Bytes from String not as expected", bytesFromString.getSequenceAsString(), is(expected));
+		assertThat("Bytes from List not as expected", bytesFromList.getSequenceAsString(), is(expected));
+		assertEquals(bytesFromString, bytesFromList);
+		assertEquals(bytesFromString.hashCode(), bytesFromList.hashCode());
+		assertEquals(seq.getAsList(), bytesFromString.getAsList());
+		assertThat(bytesFromString.getSubSequence(3, 7).getSequenceAsString(), is("GCaaN"));
+
+		NucleotideCompound a = set.getCompoundForString("A");
+		NucleotideCompound t = set.getCompoundForString("T");
+		assertEquals(seq.countCompounds(a, t), bytesFromString.countCompounds(a, t));
+		assertEquals(seq.getIndexOf(t), bytesFromString.getIndexOf(t));
+		assertEquals(seq.getLastIndexOf(t), bytesFromString.getLastIndexOf(t));
+		int i = 1;
+		for (NucleotideCompound c : bytesFromString) {
+			assertEquals(seq.getCompoundAt(i++), c);
+		}
+
+		DNASequence fromCreator = (DNASequence) new DNASequenceCreator(set, true).getSequence(expected, 0);
+		assertTrue(fromCreator.getProxySequenceReader() instanceof ByteArraySequenceReader);
+		assertThat(fromCreator.getReverseComplement().getSequenceAsString(),
+				is(seq.getReverseComplement().getSequenceAsString()));
+	}
+
 	@Test(expected = IllegalStateException.class)
 	public void badTwoBit() throws CompoundNotFoundException {
 		DNASequence seq = getSeq();
@@ -259,6 +296,112 @@ public class DNATest {
 		assertThat("Asserting second k-mer", l.get(3).getSequenceAsString(), is("TT"));
 	}
 
+	@Test
+	public void kmerCounts() throws CompoundNotFoundException {
+		Random random = new Random(1);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			sb.append("ACGTN".charAt(random.nextInt(5)));
+		}
+		String s = sb.toString();
+		DNASequence listBacked = getSeq(s);
+		DNASequence byteBacked = new DNASequence(new ByteArraySequenceReader<NucleotideCompound>(s, set), set);
+
+		for (DNASequence d : Arrays.asList(listBacked, byteBacked)) {
+			Map<String, Integer> expected = new HashMap<String, Integer>();
+			int windows = 0;
+			for (SequenceView<NucleotideCompound> v : SequenceMixin.overlappingKmers(d, 5)) {
+				// k-mers spanning an N are skipped
+				if (v.getSequenceAsString().indexOf('N') < 0) {
+					Integer c = expected.get(v.getSequenceAsString());
+					expected.put(v.getSequenceAsString(), c == null ? 1 : c + 1);
+					windows++;
+				}
+			}
+			SequenceMixin.KmerCounts<NucleotideCompound> counts = SequenceMixin.countKmers(d, 5);
+			assertEquals(expected.size(), counts.size());
+			for (Map.Entry<String, Integer> e : expected.entrySet()) {
+				assertEquals(e.getValue().intValue(), counts.getCount(getSeq(e.getKey()).getAsList()));
+			}
+			assertEquals(counts.getCount(getSeq("ACGTA").getAsList()), counts.getCount(getSeq("ACGTa").getAsList()));
+			assertEquals(0, counts.getCount(getSeq("ACGTN").getAsList()));
+
+			SequenceMixin.KmerIterator<NucleotideCompound> it = SequenceMixin.kmerIterator(d, 5);
+			int n = 0;
+			while (it.hasNext()) {
+				long code = it.nextLong();
+				assertEquals(s.substring(it.getPosition() - 1, it.getPosition() + 4), SequenceMixin.toString(
+						new ArrayListSequenceReader<NucleotideCompound>(it.decode(code), set)));
+				n++;
+			}
+			assertEquals(windows, n);
+
+			assertEquals(SequenceMixin.checksum(listBacked), SequenceMixin.checksum(d));
+			assertEquals(SequenceMixin.getComposition(listBacked), SequenceMixin.getComposition(d));
+			assertEquals(listBacked.getGCCount(), SequenceMixin.countGC(d));
+		}
+
+		// bases take 2 bits each, so 32-mers fill the 64 bits
+		String bases = "TTACGTACGTACGTACGTACGTACGTACGTACGTAC";
+		SequenceMixin.KmerIterator<NucleotideCompound> it = SequenceMixin.kmerIterator(getSeq(bases), 32);
+		for (int i = 0; i < 5; i++) {
+			long code = it.nextLong();
+			assertEquals(bases.substring(i, i + 32), SequenceMixin.toString(
+					new ArrayListSequenceReader<NucleotideCompound>(it.decode(code), set)));
+		}
+		assertFalse(it.hasNext());
+		try {
+			SequenceMixin.kmerIterator(getSeq(bases), 33);
+			fail("Expected an IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void kmerCountsSkipAmbiguousBases() throws CompoundNotFoundException {
+		// k-mers start again after the N, and lower case counts as upper case
+		SequenceMixin.KmerIterator<NucleotideCompound> it = SequenceMixin.kmerIterator(getSeq("ACGNacgtA"), 3);
+		List<Integer> positions = new ArrayList<Integer>();
+		while (it.hasNext()) {
+			it.nextLong();
+			positions.add(it.getPosition());
+		}
+		assertEquals(Arrays.asList(1, 5, 6, 7), positions);
+
+		SequenceMixin.KmerCounts<NucleotideCompound> counts = SequenceMixin.countKmers(getSeq("ACGNacgtA"), 3);
+		assertEquals(3, counts.size());
+		assertEquals(2, counts.getCount(getSeq("ACG").getAsList()));
+		assertEquals(0, counts.getCount(getSeq("CGN").getAsList()));
+	}
+
+	@Test
+	public void kmerCodesAcrossSequences() throws CompoundNotFoundException {
+		// ACG is encoded the same whichever compounds appear first
+		DNASequence first = getSeq("ACGACG");
+		DNASequence second = getSeq("TTNACGGA");
+		DNASequence byteBacked = new DNASequence(new ByteArraySequenceReader<NucleotideCompound>("GGGACG", set), set);
+		SequenceMixin.KmerCounts<NucleotideCompound> firstCounts = SequenceMixin.countKmers(first, 3);
+		SequenceMixin.KmerCounts<NucleotideCompound> secondCounts = SequenceMixin.countKmers(second, 3);
+		SequenceMixin.KmerCounts<NucleotideCompound> byteCounts = SequenceMixin.countKmers(byteBacked, 3);
+
+		List<NucleotideCompound> acg = getSeq("ACG").getAsList();
+		long code = SequenceMixin.kmerIterator(first, 3).encode(acg);
+		assertEquals(code, SequenceMixin.kmerIterator(second, 3).encode(acg));
+		assertEquals(2, firstCounts.getCount(code));
+		assertEquals(1, secondCounts.getCount(code));
+		assertEquals(1, byteCounts.getCount(code));
+		assertEquals(acg, secondCounts.decode(code));
+
+		// the codes of one sequence can be looked up in the counts of another
+		SequenceMixin.KmerIterator<NucleotideCompound> it = SequenceMixin.kmerIterator(second, 3);
+		int shared = 0;
+		while (it.hasNext()) {
+			shared += firstCounts.getCount(it.nextLong());
+		}
+		assertEquals(2, shared);
+	}
+
 	@Test
 	public void sequenceEquality() throws CompoundNotFoundException {
 		DNASequence d = getSeq("ATGC");
@@ -29,6 +29,7 @@ import org.biojava.nbio.core.sequence.io.*;
 import org.biojava.nbio.core.sequence.io.util.ClasspathResource;
 import org.biojava.nbio.core.sequence.template.Sequence;
 import org.biojava.nbio.core.sequence.transcription.Frame;
+import org.biojava.nbio.core.sequence.transcription.OpenReadingFrame;
 import org.biojava.nbio.core.sequence.transcription.TranscriptionEngine;
 import org.biojava.nbio.core.sequence.transcription.TranscriptionEngine.Builder;
 import org.junit.Assert;
@@ -40,8 +41,10 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 
 import static org.biojava.nbio.core.sequence.io.util.IOUtils.close;
 import static org.hamcrest.CoreMatchers.is;
@@ -247,4 +250,68 @@ public class TranslationTest {
 		assertEquals("XX",seq2.toString());
 		assertNotSame("HR",seq2.toString());
 	}
+
+	@Test
+	public void translateFrames() throws CompoundNotFoundException {
+		TranscriptionEngine[] engines = new TranscriptionEngine[] {
+				TranscriptionEngine.getDefault(),
+				new TranscriptionEngine.Builder().initMet(false).trimStop(false).build(),
+				new TranscriptionEngine.Builder().stopAtStopCodons(true).build(),
+				new TranscriptionEngine.Builder().waitForStartCodon(true).table(11).build()
+		};
+		Random random = new Random(42);
+		for (int length : new int[] {100, 1001}) {
+			StringBuilder sb = new StringBuilder("ATG");
+			for (int i = 3; i < length; i++) {
+				sb.append("ACGTacgt".charAt(random.nextInt(8)));
+			}
+			DNASequence dna = new DNASequence(sb.toString());
+			for (TranscriptionEngine e : engines) {
+				Map<Frame, Sequence<AminoAcidCompound>> expected = e.multipleFrameTranslation(dna, Frame.getAllFrames());
+				Map<Frame, Sequence<AminoAcidCompound>> actual = e.sixFrameTranslation(dna);
+				for (Frame frame : Frame.getAllFrames()) {
+					assertEquals(frame + " of " + dna, expected.get(frame).getSequenceAsString(),
+							actual.get(frame).getSequenceAsString());
+				}
+			}
+		}
+
+		TranscriptionEngine e = TranscriptionEngine.getDefault();
+		Map<Frame, Sequence<AminoAcidCompound>> frames = e.translateFrames(new DNASequence("ATGGCGTGA"),
+				Frame.ONE, Frame.REVERSED_TWO);
+		assertEquals(2, frames.size());
+		assertEquals("MA", frames.get(Frame.ONE).getSequenceAsString());
+		assertEquals("HA", frames.get(Frame.REVERSED_TWO).getSequenceAsString());
+		assertEquals("", e.sixFrameTranslation(new DNASequence("AT")).get(Frame.REVERSED_ONE).getSequenceAsString());
+		assertEquals("VX", e.translateFrames(new DNASequence("GTGGTNTAA"), Frame.ONE)
+				.get(Frame.ONE).getSequenceAsString());
+		assertEquals(e.translate(brca2Dna).getSequenceAsString(),
+				e.translateFrames(brca2Dna, Frame.ONE).get(Frame.ONE).getSequenceAsString());
+	}
+
+	@Test
+	public void findOrfs() throws CompoundNotFoundException {
+		TranscriptionEngine e = TranscriptionEngine.getDefault();
+		// ATG AAA CCC TAG at 3..14 and the reverse complement of ATG AAA GGG TAA at 17..28
+		DNASequence dna = new DNASequence("CCATGAAACCCTAGGGTTACCCTTTCATCC");
+		List<OpenReadingFrame> orfs = e.findOrfs(dna, 2);
+		assertEquals(2, orfs.size());
+
+		OpenReadingFrame forward = orfs.get(0);
+		assertEquals(Frame.THREE, forward.getFrame());
+		assertEquals(Strand.POSITIVE, forward.getStrand());
+		assertEquals(3, forward.getStart());
+		assertEquals(14, forward.getEnd());
+		assertEquals("MKP", forward.getProtein().getSequenceAsString());
+
+		OpenReadingFrame reverse = orfs.get(1);
+		assertEquals(Frame.REVERSED_THREE, reverse.getFrame());
+		assertEquals(Strand.NEGATIVE, reverse.getStrand());
+		assertEquals(17, reverse.getStart());
+		assertEquals(28, reverse.getEnd());
+		assertEquals(12, reverse.getLength());
+		assertEquals("MKG", reverse.getProtein().getSequenceAsString());
+
+		assertTrue(e.findOrfs(dna, 4).isEmpty());
+	}
 }
@@ -0,0 +1,115 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.compound;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.biojava.nbio.core.exceptions.CompoundNotFoundException;
+import org.biojava.nbio.core.sequence.template.Compound;
+import org.biojava.nbio.core.sequence.template.CompoundLookupTable;
+import org.biojava.nbio.core.sequence.template.CompoundSet;
+import org.junit.Test;
+
+public class CompoundLookupTableTest {
+
+	@Test
+	public void testBuiltInSets() {
+		List<CompoundSet<?>> sets = Arrays.<CompoundSet<?>>asList(
+				DNACompoundSet.getDNACompoundSet(),
+				AmbiguityDNACompoundSet.getDNACompoundSet(),
+				RNACompoundSet.getRNACompoundSet(),
+				AmbiguityRNACompoundSet.getRNACompoundSet(),
+				AminoAcidCompoundSet.getAminoAcidCompoundSet());
+		for (CompoundSet<?> set : sets) {
+			checkAgainstCompoundSet(set);
+		}
+		// the built-in sets keep their table
+		assertSame(CompoundLookupTable.get(DNACompoundSet.getDNACompoundSet()),
+				CompoundLookupTable.get(DNACompoundSet.getDNACompoundSet()));
+		assertSame(CompoundLookupTable.get(AminoAcidCompoundSet.getAminoAcidCompoundSet()),
+				AminoAcidCompoundSet.getAminoAcidCompoundSet().getLookupTable());
+	}
+
+	private static <C extends Compound> void checkAgainstCompoundSet(CompoundSet<C> set) {
+		CompoundLookupTable<C> table = CompoundLookupTable.get(set);
+		assertTrue(table.isSingleCharacter());
+		for (char c = 0; c < 200; c++) {
+			C expected = set.getCompoundForString(String.valueOf(c));
+			assertSame(expected, table.getCompound(c));
+			if (expected != null && c < 128) {
+				assertSame(expected, table.getCompoundForOrdinal(table.getOrdinal(c)));
+				assertEquals(table.getOrdinal(c), table.getOrdinal(expected));
+			} else if (c < 128) {
+				assertEquals(-1, table.getOrdinal(c));
+			}
+		}
+	}
+
+	@Test
+	public void testEncode() throws CompoundNotFoundException {
+		CompoundLookupTable<AminoAcidCompound> table = AminoAcidCompoundSet.getAminoAcidCompoundSet().getLookupTable();
+		byte[] ordinals = new byte[10];
+		assertEquals(5, table.encode("MkVa*", ordinals));
+		StringBuilder decoded = new StringBuilder();
+		for (int i = 0; i < 5; i++) {
+			decoded.append(table.getCharForOrdinal(ordinals[i]));
+		}
+		// amino acids are case insensitive
+		assertEquals("MKVA*", decoded.toString());
+
+		try {
+			table.encode("MK!", ordinals);
+			fail("Expected a CompoundNotFoundException");
+		} catch (CompoundNotFoundException e) {
+			// expected
+		}
+
+		CompoundLookupTable<NucleotideCompound> dna = DNACompoundSet.getDNACompoundSet().getLookupTable();
+		List<NucleotideCompound> compounds = new ArrayList<NucleotideCompound>();
+		dna.parse("ACgt", compounds);
+		assertEquals(4, compounds.size());
+		// nucleotides keep their case
+		assertEquals("g", compounds.get(2).getBase());
+	}
+
+	@Test
+	public void testAddedCompounds() {
+		ExtensibleDNACompoundSet set = new ExtensibleDNACompoundSet();
+		CompoundLookupTable<NucleotideCompound> before = set.getLookupTable();
+		assertNull(before.getCompound('X'));
+		assertSame(before, set.getLookupTable());
+
+		set.add("X");
+		CompoundLookupTable<NucleotideCompound> after = set.getLookupTable();
+		assertNotSame(before, after);
+		assertEquals("X", after.getCompound('X').getBase());
+	}
+
+	private static class ExtensibleDNACompoundSet extends DNACompoundSet {
+		public void add(String base) {
+			addNucleotideCompound(base, base);
+		}
+	}
+}
@@ -28,8 +28,17 @@ import org.junit.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.logging.Level;
 
 /**
@@ -161,6 +170,69 @@ public class FastaReaderTest extends TestCase{
 		inStream.close();
 	}
 
+	@Test
+	public void testIterator() throws Exception {
+		LinkedHashMap<String,ProteinSequence> expected = new FastaReader<ProteinSequence,AminoAcidCompound>(
+				this.getClass().getResourceAsStream("/PF00104_small.fasta"),
+				new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet())).process();
+
+		for (boolean parallel : new boolean[] {false, true}) {
+			FastaReader<ProteinSequence,AminoAcidCompound> fastaReader = new FastaReader<ProteinSequence,AminoAcidCompound>(
+					this.getClass().getResourceAsStream("/PF00104_small.fasta"),
+					new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(),
+					new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+			List<ProteinSequence> sequences;
+			try (Stream<ProteinSequence> stream = fastaReader.stream(parallel)) {
+				sequences = stream.collect(Collectors.toList());
+			}
+			assertEquals(283, sequences.size());
+			int i = 0;
+			for (ProteinSequence sequence : expected.values()) {
+				assertEquals(sequence.getAccession().getID(), sequences.get(i).getAccession().getID());
+				assertEquals(sequence.getSequenceAsString(), sequences.get(i).getSequenceAsString());
+				i++;
+			}
+		}
+	}
+
+	@Test
+	public void testIteratorLineEnds() throws Exception {
+		String fasta = "; comment\r\n>sp|P1|A one  \r\nMKV\r\n LL \r\n\r\n>sp|P2|B\n>sp|P3|C two\nQQ\nQ";
+		FastaReader<ProteinSequence,AminoAcidCompound> fastaReader = new FastaReader<ProteinSequence,AminoAcidCompound>(
+				new ByteArrayInputStream(fasta.getBytes("US-ASCII")),
+				new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		List<String> results = new ArrayList<String>();
+		for (Iterator<ProteinSequence> it = fastaReader.iterator(); it.hasNext();) {
+			ProteinSequence sequence = it.next();
+			results.add(sequence.getOriginalHeader() + "=" + sequence.getSequenceAsString());
+		}
+		fastaReader.close();
+		// like process(), a header without a sequence is dropped
+		assertEquals("[sp|P1|A one=MKVLL, sp|P3|C two=QQQ]", results.toString());
+	}
+
+	@Test
+	public void testIteratorNonAsciiHeader() throws Exception {
+		// bytes above 0x7f are negative in Java and must not be trimmed like whitespace
+		byte[] header = "sp|P1|A caf\u00e9".getBytes(StandardCharsets.ISO_8859_1);
+		ByteArrayOutputStream fasta = new ByteArrayOutputStream();
+		fasta.write('>');
+		fasta.write(header);
+		fasta.write("\nMKV\n".getBytes(StandardCharsets.ISO_8859_1));
+		FastaReader<ProteinSequence,AminoAcidCompound> fastaReader = new FastaReader<ProteinSequence,AminoAcidCompound>(
+				new ByteArrayInputStream(fasta.toByteArray()),
+				new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(),
+				new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		Iterator<ProteinSequence> it = fastaReader.iterator();
+		ProteinSequence sequence = it.next();
+		assertEquals(new String(header, Charset.defaultCharset()), sequence.getOriginalHeader());
+		assertEquals("MKV", sequence.getSequenceAsString());
+		assertFalse(it.hasNext());
+		fastaReader.close();
+	}
+
 	@Test
 	public void testSmallFasta(){
 
@@ -20,6 +20,7 @@
  */
 package org.biojava.nbio.core.sequence.io;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.InputStream;
@@ -27,6 +28,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.biojava.nbio.core.sequence.DNASequence;
 import org.biojava.nbio.core.sequence.ProteinSequence;
@@ -110,6 +113,38 @@ public class GenbankReaderTest {
 	}
 
 
+	@Test
+	public void testIterator() throws Exception {
+		Map<String,DNASequence> expected = new GenbankReader<DNASequence, NucleotideCompound>(
+				this.getClass().getResourceAsStream("/two-dnaseqs.gb"),
+				new GenericGenbankHeaderParser<DNASequence,NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())).process();
+		assertEquals(2, expected.size());
+
+		for (boolean parallel : new boolean[] {false, true}) {
+			GenbankReader<DNASequence, NucleotideCompound> dnaReader = new GenbankReader<DNASequence, NucleotideCompound>(
+					this.getClass().getResourceAsStream("/two-dnaseqs.gb"),
+					new GenericGenbankHeaderParser<DNASequence,NucleotideCompound>(),
+					new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+			List<DNASequence> sequences;
+			try (Stream<DNASequence> stream = dnaReader.stream(parallel)) {
+				sequences = stream.collect(Collectors.toList());
+			}
+			assertEquals(2, sequences.size());
+			int i = 0;
+			for (DNASequence sequence : expected.values()) {
+				DNASequence streamed = sequences.get(i++);
+				assertEquals(sequence.getAccession().getID(), streamed.getAccession().getID());
+				assertEquals(sequence.getSequenceAsString(), streamed.getSequenceAsString());
+				assertEquals(sequence.getFeatures().size(), streamed.getFeatures().size());
+				for (int j = 0; j < sequence.getFeatures().size(); j++) {
+					assertEquals(sequence.getFeatures().get(j).getLocations().toString(),
+							streamed.getFeatures().get(j).getLocations().toString());
+				}
+			}
+		}
+	}
+
 	@Test
 	public void CDStest() throws Exception {
 		logger.info("CDS Test");
@@ -0,0 +1,118 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.loader.MappedFastaProxySequenceReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IndexedFastaReaderTest {
+
+	@Rule
+	public TemporaryFolder testFolder = new TemporaryFolder();
+
+	@Test
+	public void testIndex() throws IOException {
+		File f = write(">one first\nACGTACGTAC\nGTACGTACGT\nAC\n>two\r\nGGGCC\r\nTT\r\n>empty\n>three\nacgtN\n");
+		List<IndexedFastaReader.Entry> index = IndexedFastaReader.buildIndex(f);
+		assertEquals(4, index.size());
+		assertEquals("one\t22\t11\t10\t11", index.get(0).toString());
+		assertEquals("two\t7\t42\t5\t7", index.get(1).toString());
+		assertEquals(0, index.get(2).getLength());
+		assertEquals("three\t5\t67\t5\t6", index.get(3).toString());
+
+		// the line end of a last record on a single line is measured, not assumed
+		index = IndexedFastaReader.buildIndex(write(">a\r\nACGT\r\n>b\r\nGG\r\n"));
+		assertEquals("a\t4\t4\t4\t6", index.get(0).toString());
+		assertEquals("b\t2\t14\t2\t4", index.get(1).toString());
+		index = IndexedFastaReader.buildIndex(write(">a\r\nACGT\r\n>b\r\nGG"));
+		assertEquals("b\t2\t14\t2\t4", index.get(1).toString());
+
+		try {
+			IndexedFastaReader.buildIndex(write(">bad\nACGT\nAC\nACGT\n"));
+			fail("Expected an IOException");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testRegions() throws IOException {
+		Random random = new Random(7);
+		StringBuilder expected = new StringBuilder(), fasta = new StringBuilder(">chr1\n");
+		for (int i = 0; i < 1000; i++) {
+			expected.append("ACGTacgtN".charAt(random.nextInt(9)));
+		}
+		for (int i = 0; i < expected.length(); i += 60) {
+			fasta.append(expected, i, Math.min(i + 60, expected.length())).append('\n');
+		}
+		File f = write(fasta.toString());
+
+		try (IndexedFastaReader<NucleotideCompound> reader =
+				new IndexedFastaReader<NucleotideCompound>(f, DNACompoundSet.getDNACompoundSet())) {
+			assertEquals(Arrays.asList("chr1"), reader.getSequenceNames());
+			for (int begin = 1; begin <= 1000; begin += 37) {
+				for (int end = begin; end <= 1000; end += 53) {
+					assertEquals(expected.substring(begin - 1, end), reader.getSequenceAsString("chr1", begin, end));
+				}
+			}
+
+			MappedFastaProxySequenceReader<NucleotideCompound> proxy = reader.getSequenceReader("chr1");
+			assertEquals(1000, proxy.getLength());
+			assertEquals(expected.toString(), proxy.getSequenceAsString());
+			assertEquals(expected.substring(59, 121), proxy.getSubSequence(60, 121).getSequenceAsString());
+			assertEquals(String.valueOf(expected.charAt(60)), proxy.getCompoundAt(61).toString());
+			assertEquals("chr1", proxy.getAccession().getID());
+
+			DNASequence sequence = (DNASequence) reader.getSequence("chr1",
+					new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
+			assertEquals(1000, sequence.getLength());
+			assertEquals(expected.toString(), sequence.getSequenceAsString());
+			assertEquals("chr1", sequence.getAccession().getID());
+
+			// the written index is used instead of scanning
+			File index = new File(f.getPath() + ".fai");
+			reader.writeIndex(index);
+			assertEquals(IndexedFastaReader.buildIndex(f).toString(), IndexedFastaReader.readIndex(index).toString());
+		}
+	}
+
+	private File write(String fasta) throws IOException {
+		File f = testFolder.newFile();
+		try (FileOutputStream out = new FileOutputStream(f)) {
+			out.write(fasta.getBytes("US-ASCII"));
+		}
+		return f;
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.sequence.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.AmbiguityDNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.features.AbstractFeature;
+import org.biojava.nbio.core.sequence.features.FeatureInterface;
+import org.biojava.nbio.core.sequence.template.AbstractSequence;
+import org.junit.Test;
+
+public class StreamingGenbankReaderTest {
+
+	@Test
+	public void testAgainstGenbankReader() throws Exception {
+		Map<String, DNASequence> expected = new GenbankReader<DNASequence, NucleotideCompound>(
+				this.getClass().getResourceAsStream("/NM_000266.gb"),
+				new GenericGenbankHeaderParser<DNASequence, NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())).process();
+		DNASequence sequence = expected.values().iterator().next();
+
+		StreamingGenbankReader.Record record;
+		try (StreamingGenbankReader reader = new StreamingGenbankReader(
+				this.getClass().getResourceAsStream("/NM_000266.gb"))) {
+			record = reader.next();
+			assertNull(reader.next());
+		}
+
+		assertEquals("NM_000266", record.getName());
+		assertEquals("NM_000266", record.getAccession());
+		assertEquals(3, record.getVersion());
+		assertEquals("223671892", record.getIdentifier());
+		assertEquals("Homo sapiens Norrie disease (pseudoglioma) (NDP), mRNA.", record.getDescription());
+		assertEquals(2058, record.getLength());
+		// an mRNA
+		assertSame(AmbiguityDNACompoundSet.getDNACompoundSet(), record.getCompoundSet());
+		assertEquals("9606", record.getTaxonomyId());
+		assertEquals(sequence.getSequenceAsString(), record.getSequence());
+
+		List<FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound>> features = sequence.getFeatures();
+		assertEquals(features.size(), record.getFeatures().size());
+		for (StreamingGenbankReader.Feature f : record.getFeatures()) {
+			AbstractFeature built = f.toFeature();
+			boolean found = false;
+			for (FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound> e : features) {
+				if (e.getType().equals(built.getType()) && e.getSource().equals(built.getSource())) {
+					assertEquals(e.getLocations().getStart(), built.getLocations().getStart());
+					assertEquals(e.getLocations().getEnd(), built.getLocations().getEnd());
+					assertEquals(e.getLocations().getStrand(), built.getLocations().getStrand());
+					assertEquals(e.getQualifiers().keySet(), built.getQualifiers().keySet());
+					found = true;
+				}
+			}
+			assertTrue("No feature " + f, found);
+		}
+
+		StreamingGenbankReader.Feature gene = record.getFeatures("gene").get(0);
+		assertEquals("1..2058", gene.getLocationString());
+		assertEquals("NDP", gene.getQualifier("gene"));
+		assertEquals(Arrays.asList("GeneID:4693", "HGNC:7678", "HPRD:02404", "MIM:300658"),
+				gene.getQualifierValues("db_xref"));
+		assertNull(gene.getQualifier("translation"));
+
+		// names are shared between features
+		StreamingGenbankReader.Feature exon1 = record.getFeatures("exon").get(0);
+		StreamingGenbankReader.Feature exon2 = record.getFeatures("exon").get(1);
+		assertSame(exon1.getType(), exon2.getType());
+		assertSame(exon1.getQualifiers().keySet().iterator().next(), exon2.getQualifiers().keySet().iterator().next());
+
+		String translation = record.getFeatures("CDS").get(0).getQualifier("translation");
+		assertTrue(translation.startsWith("MRKHVLAASFSMLSLLVIMGDTDSKTDSSFIMDSDPRRCMRHHY"));
+		assertFalse(translation.contains(" "));
+	}
+
+	@Test
+	public void testSequenceModes() throws Exception {
+		List<String> expected = new ArrayList<String>();
+		for (DNASequence s : new GenbankReader<DNASequence, NucleotideCompound>(
+				this.getClass().getResourceAsStream("/two-dnaseqs.gb"),
+				new GenericGenbankHeaderParser<DNASequence, NucleotideCompound>(),
+				new DNASequenceCreator(DNACompoundSet.getDNACompoundSet())).process().values()) {
+			expected.add(s.getSequenceAsString());
+		}
+		assertEquals(2, expected.size());
+
+		StreamingGenbankReader reader = new StreamingGenbankReader(this.getClass().getResourceAsStream("/two-dnaseqs.gb"));
+		reader.setSequenceMode(StreamingGenbankReader.SequenceMode.PACKED);
+		List<StreamingGenbankReader.Record> records;
+		try (Stream<StreamingGenbankReader.Record> stream = reader.stream()) {
+			records = stream.collect(Collectors.toList());
+		}
+		assertEquals(2, records.size());
+		for (int i = 0; i < 2; i++) {
+			assertNull(records.get(i).getSequence());
+			assertEquals(expected.get(i), records.get(i).getSequenceStorage().getSequenceAsString());
+			assertEquals(records.get(i).getLength(), records.get(i).getSequenceStorage().getLength());
+		}
+
+		// IUPAC ambiguity codes are packed as well
+		String gb = new String(readAll("/NM_000266.gb"), StandardCharsets.ISO_8859_1)
+				.replace("        1 aagatgctcc gtggaaggga", "        1 rygatgctcn gtggaakgga");
+		reader = new StreamingGenbankReader(new ByteArrayInputStream(gb.getBytes(StandardCharsets.ISO_8859_1)));
+		reader.setSequenceMode(StreamingGenbankReader.SequenceMode.PACKED);
+		StreamingGenbankReader.Record ambiguous = reader.next();
+		assertSame(AmbiguityDNACompoundSet.getDNACompoundSet(), ambiguous.getCompoundSet());
+		assertTrue(ambiguous.getSequenceStorage().getSequenceAsString().startsWith("RYGATGCTCNGTGGAAKGGA"));
+		assertEquals(ambiguous.getLength(), ambiguous.getSequenceStorage().getLength());
+		reader.close();
+
+		reader = new StreamingGenbankReader(this.getClass().getResourceAsStream("/two-dnaseqs.gb"));
+		reader.setSequenceMode(StreamingGenbankReader.SequenceMode.SKIP);
+		try (Stream<StreamingGenbankReader.Record> stream = reader.stream()) {
+			records = stream.collect(Collectors.toList());
+		}
+		assertEquals(2, records.size());
+		assertNull(records.get(1).getSequence());
+		assertNull(records.get(1).getSequenceStorage());
+		assertEquals("vPetite", records.get(0).getName());
+	}
+
+	private byte[] readAll(String resource) throws IOException {
+		try (InputStream in = this.getClass().getResourceAsStream(resource)) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[8192];
+			int n;
+			while ((n = in.read(buf)) != -1) {
+				out.write(buf, 0, n);
+			}
+			return out.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.core.util;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+	@Test
+	public void testLruEviction() {
+		BoundedCache<String, String> cache = new BoundedCache<String, String>(10, String::length, BoundedCache.EvictionPolicy.LRU);
+
+		cache.put("a", "aaaa");
+		cache.put("b", "bbbb");
+		assertEquals("aaaa", cache.get("a"));
+		// b is now the least recently used entry
+		cache.put("c", "cccc");
+
+		assertNull(cache.get("b"));
+		assertEquals("aaaa", cache.get("a"));
+		assertEquals("cccc", cache.get("c"));
+		assertEquals(8, cache.getWeight());
+		assertEquals(1, cache.getStatistics().getEvictions());
+
+		// heavier than the whole cache
+		cache.put("d", "ddddddddddddd");
+		assertNull(cache.get("d"));
+		assertEquals(1, cache.getStatistics().getRejections());
+
+		cache.setMaximumWeight(4);
+		assertEquals(1, cache.size());
+		assertEquals("cccc", cache.get("c"));
+	}
+
+	@Test
+	public void testTinyLfuAdmission() {
+		BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(2, v -> 1, BoundedCache.EvictionPolicy.TINY_LFU);
+
+		cache.put(1, "one");
+		cache.put(2, "two");
+		for (int i = 0; i < 5; i++) {
+			cache.get(1);
+			cache.get(2);
+		}
+
+		// a one-off key does not displace frequently used ones
+		cache.put(3, "three");
+		assertNull(cache.get(3));
+		assertEquals("one", cache.get(1));
+		assertEquals("two", cache.get(2));
+
+		// but a key that becomes popular does
+		for (int i = 0; i < 20; i++) {
+			cache.get(4);
+		}
+		cache.put(4, "four");
+		assertEquals("four", cache.get(4));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testConcurrentReadsAndWrites() throws Exception {
+		final BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(50, String::length, BoundedCache.EvictionPolicy.TINY_LFU);
+		for (int i = 0; i < 10; i++) {
+			cache.put(i, "hot");
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> results = new ArrayList<Future<?>>();
+		for (int t = 0; t < 4; t++) {
+			final int thread = t;
+			results.add(executor.submit(() -> {
+				for (int i = 0; i < 20000; i++) {
+					String v = cache.get(i % 10);
+					if (v != null)
+						assertEquals("hot", v);
+					if (thread == 0 && i % 100 == 0)
+						cache.put(100 + i, "new");
+				}
+			}));
+		}
+		for (Future<?> f : results) {
+			f.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertTrue(cache.getWeight() <= 50);
+		assertEquals(cache.getWeight(), 3 * cache.size());
+		// the frequently read entries are not displaced by the one-off ones
+		for (int i = 0; i < 10; i++) {
+			assertEquals("hot", cache.get(i));
+		}
+	}
+
+	@Test
+	public void testSingleFlight() throws Exception {
+		final BoundedCache<String, String> cache = new BoundedCache<String, String>(100);
+		final AtomicInteger loads = new AtomicInteger();
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<String>> results = new ArrayList<Future<String>>();
+		for (int i = 0; i < 4; i++) {
+			results.add(executor.submit(() -> cache.get("4hhb", () -> {
+				loads.incrementAndGet();
+				started.countDown();
+				release.await();
+				return "structure";
+			})));
+		}
+		started.await();
+		// let the other threads reach the cache
+		Thread.sleep(100);
+		release.countDown();
+
+		for (Future<String> f : results) {
+			assertEquals("structure", f.get(10, TimeUnit.SECONDS));
+		}
+		executor.shutdown();
+
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getStatistics().getLoads());
+		assertEquals("structure", cache.get("4hhb"));
+	}
+
+	@Test
+	public void testFailedAndNullLoads() throws ExecutionException {
+		BoundedCache<String, String> cache = new BoundedCache<String, String>(0);
+
+		try {
+			cache.get("x", () -> { throw new IOException("not found"); });
+			fail("Expected an ExecutionException");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+		assertEquals(1, cache.getStatistics().getLoadFailures());
+
+		// nothing is retained with a maximum weight of 0
+		assertEquals("y", cache.get("y", () -> "y"));
+		assertEquals(0, cache.size());
+
+		cache.setMaximumWeight(10);
+		final AtomicInteger loads = new AtomicInteger();
+		assertNull(cache.get("z", () -> { loads.incrementAndGet(); return null; }));
+		assertNull(cache.get("z", () -> { loads.incrementAndGet(); return null; }));
+		assertEquals(1, loads.get());
+	}
+}
@@ -0,0 +1,525 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.parsers.twobit;
+
+import org.biojava.nbio.core.sequence.AccessionID;
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.biojava.nbio.core.sequence.compound.DNACompoundSet;
+import org.biojava.nbio.core.sequence.compound.NucleotideCompound;
+import org.biojava.nbio.core.sequence.storage.TwoBitSequenceReader;
+import org.biojava.nbio.core.sequence.storage.TwoBitSequenceReader.TwoBitArrayWorker;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random-access reader of UCSC Genome Browser .2bit files.  The file is memory-mapped and its index is parsed once,
+ * after which any number of threads can fetch regions concurrently: the reader keeps no cursor, and the N-blocks and
+ * mask blocks of each sequence are parsed the first time the sequence is used.
+ * <p>
+ * Regions use the coordinates of the format: 0-based, with an exclusive end.  {@link #getSequence(String, int, int)}
+ * returns a {@link DNASequence} backed by a {@link TwoBitSequenceReader}, whose packed array is filled directly from
+ * the file bytes, with the N-blocks laid over it.  That reader is not case sensitive, so the soft-masked
+ * (lower case) sequence is available as a String from {@link #getSequenceAsString(String, int, int)}.
+ * <p>
+ * Both versions of the format (32 and 64 bit offsets) and both byte orders are supported.  Files larger than 2GB are
+ * mapped in several segments.
+ *
+ * @since 5.0.0
+ */
+public class MappedTwoBitReader implements Closeable {
+
+	/**
+	 * A region of a sequence, with a 0-based start and an exclusive end.
+	 */
+	public static class Region {
+
+		private final String name;
+		private final int start, end;
+
+		/**
+		 * Creates a region.
+		 *
+		 * @param name the name of the sequence
+		 * @param start the 0-based start
+		 * @param end the exclusive end
+		 */
+		public Region(String name, int start, int end) {
+			this.name = name;
+			this.start = start;
+			this.end = end;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getStart() {
+			return start;
+		}
+
+		public int getEnd() {
+			return end;
+		}
+
+		@Override
+		public String toString() {
+			return name + ":" + start + "-" + end;
+		}
+
+	}
+
+	private static final int SIGNATURE = 0x1A412743;
+
+	private static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+	private static final char[] BASES = { 'T', 'C', 'A', 'G' };
+
+	// reverses the order of the four bases of a byte: the file stores the first one in the highest bits, the
+	// TwoBitArrayWorker in the lowest
+	private static final int[] REVERSED = new int[256];
+
+	static {
+		for (int b = 0; b < 256; b++) {
+			REVERSED[b] = ((b >>> 6) & 3) | (((b >>> 4) & 3) << 2) | (((b >>> 2) & 3) << 4) | ((b & 3) << 6);
+		}
+	}
+
+	private final File file;
+	private final RandomAccessFile raf;
+	private final MappedByteBuffer[] segments;
+	private final int segmentBits;
+	private final long fileSize;
+	private final Map<String, Long> offsets = new LinkedHashMap<String, Long>();
+	private final Map<String, Record> records = new ConcurrentHashMap<String, Record>();
+
+	/**
+	 * Maps the given file and parses its index.
+	 *
+	 * @param file a .2bit file
+	 * @throws IOException if the file cannot be read or is not a .2bit file
+	 */
+	public MappedTwoBitReader(File file) throws IOException {
+		this(file, DEFAULT_SEGMENT_SIZE);
+	}
+
+	// the segment size must be a power of 2
+	MappedTwoBitReader(File file, int segmentSize) throws IOException {
+		this.file = file;
+		segmentBits = Integer.numberOfTrailingZeros(segmentSize);
+		raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			fileSize = channel.size();
+			segments = new MappedByteBuffer[(int) ((fileSize + segmentSize - 1) >>> segmentBits)];
+			for (int i = 0; i < segments.length; i++) {
+				long position = (long) i << segmentBits;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+						Math.min(segmentSize, fileSize - position));
+			}
+
+			if (fileSize < 16) {
+				throw new IOException("Not a 2bit file: " + file);
+			}
+			ByteOrder order = ByteOrder.LITTLE_ENDIAN;
+			if (readInt(0, order) != SIGNATURE) {
+				order = ByteOrder.BIG_ENDIAN;
+				if (readInt(0, order) != SIGNATURE) {
+					throw new IOException("Wrong start signature in 2bit file: " + file);
+				}
+			}
+			for (MappedByteBuffer segment : segments) {
+				segment.order(order);
+			}
+
+			int version = readInt(4);
+			if (version != 0 && version != 1) {
+				throw new IOException("Unsupported 2bit version " + version + ": " + file);
+			}
+			int count = readInt(8);
+			long position = 16;
+			for (int i = 0; i < count; i++) {
+				int nameSize = getByte(position++) & 0xFF;
+				char[] name = new char[nameSize];
+				for (int j = 0; j < nameSize; j++) {
+					name[j] = (char) (getByte(position++) & 0xFF);
+				}
+				long offset;
+				if (version == 0) {
+					offset = readInt(position) & 0xFFFFFFFFL;
+					position += 4;
+				} else {
+					offset = readLong(position);
+					position += 8;
+				}
+				offsets.put(new String(name), offset);
+			}
+		} catch (IOException | RuntimeException e) {
+			raf.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the file this reader maps.
+	 *
+	 * @return the .2bit file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the names of the sequences, in the order of the file index.
+	 *
+	 * @return the sequence names
+	 */
+	public List<String> getSequenceNames() {
+		return Collections.unmodifiableList(new ArrayList<String>(offsets.keySet()));
+	}
+
+	/**
+	 * Returns the length of a sequence.
+	 *
+	 * @param name the name of the sequence
+	 * @return the number of bases
+	 * @throws IllegalArgumentException if there is no such sequence
+	 */
+	public int getLength(String name) {
+		return getRecord(name).length;
+	}
+
+	/**
+	 * Returns a whole sequence.
+	 *
+	 * @param name the name of the sequence
+	 * @return the sequence, backed by a {@link TwoBitSequenceReader}
+	 * @throws IllegalArgumentException if there is no such sequence
+	 */
+	public DNASequence getSequence(String name) {
+		return getSequence(name, 0, getLength(name));
+	}
+
+	/**
+	 * Returns a region of a sequence.
+	 *
+	 * @param name the name of the sequence
+	 * @param start the 0-based start
+	 * @param end the exclusive end
+	 * @return the region, backed by a {@link TwoBitSequenceReader}
+	 * @throws IllegalArgumentException if there is no such sequence or the region is outside of it
+	 */
+	public DNASequence getSequence(String name, int start, int end) {
+		Record record = getRecord(name);
+		record.check(start, end);
+		int length = end - start;
+		int[] packed = new int[(length + 15) / 16];
+		for (int w = 0; w < packed.length; w++) {
+			// 16 bases start within the first 4 of 5 bytes
+			int base = start + 16 * w;
+			long position = record.dnaOffset + base / 4;
+			long bits = 0;
+			for (int b = 0; b < 5; b++) {
+				if (position + b < fileSize) {
+					bits |= (long) REVERSED[getByte(position + b) & 0xFF] << (8 * b);
+				}
+			}
+			packed[w] = (int) (bits >>> (2 * (base % 4)));
+		}
+		if (length % 16 != 0) {
+			packed[packed.length - 1] &= (1 << (2 * (length % 16))) - 1;
+		}
+
+		int first = record.getFirstBlock(record.nStarts, record.nEnds, start);
+		int last = first;
+		while (last < record.nStarts.length && record.nStarts[last] < end) {
+			last++;
+		}
+		int[] nStarts = new int[last - first], nEnds = new int[last - first];
+		for (int i = first; i < last; i++) {
+			nStarts[i - first] = Math.max(record.nStarts[i], start) - start;
+			nEnds[i - first] = Math.min(record.nEnds[i], end) - start;
+		}
+
+		AccessionID accession = new AccessionID((start == 0 && end == record.length) ? name :
+				name + ":" + start + "-" + end);
+		DNASequence sequence = new DNASequence(new TwoBitSequenceReader<NucleotideCompound>(
+				new NBlockArrayWorker(packed, length, nStarts, nEnds), accession));
+		sequence.setAccession(accession);
+		return sequence;
+	}
+
+	/**
+	 * Returns regions of sequences.  The regions are read in the order of the file, which is faster for many regions
+	 * than fetching them one by one.
+	 *
+	 * @param regions the regions to fetch
+	 * @return the sequences, in the order of the regions
+	 * @throws IllegalArgumentException if there is no such sequence or a region is outside of it
+	 */
+	public List<DNASequence> getSequences(final List<Region> regions) {
+		Integer[] order = new Integer[regions.size()];
+		final long[] keys = new long[regions.size()];
+		for (int i = 0; i < order.length; i++) {
+			Region region = regions.get(i);
+			order[i] = i;
+			keys[i] = getRecord(region.getName()).dnaOffset + region.getStart() / 4;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Long.compare(keys[a], keys[b]);
+			}
+		});
+		DNASequence[] sequences = new DNASequence[order.length];
+		for (int i : order) {
+			Region region = regions.get(i);
+			sequences[i] = getSequence(region.getName(), region.getStart(), region.getEnd());
+		}
+		return Arrays.asList(sequences);
+	}
+
+	/**
+	 * Returns a region of a sequence as a String, with N for the N-blocks and lower case bases for the mask blocks.
+	 *
+	 * @param name the name of the sequence
+	 * @param start the 0-based start
+	 * @param end the exclusive end
+	 * @return the soft-masked region
+	 * @throws IllegalArgumentException if there is no such sequence or the region is outside of it
+	 */
+	public String getSequenceAsString(String name, int start, int end) {
+		Record record = getRecord(name);
+		record.check(start, end);
+		if (start == end) {
+			// the position may be past the end of the file
+			return "";
+		}
+		char[] chars = new char[end - start];
+		long position = record.dnaOffset + start / 4;
+		int b = getByte(position) & 0xFF;
+		for (int i = start; i < end; i++) {
+			int shift = 6 - 2 * (i % 4);
+			if (shift == 6 && i != start) {
+				b = getByte(++position) & 0xFF;
+			}
+			chars[i - start] = BASES[(b >>> shift) & 3];
+		}
+		for (int i = record.getFirstBlock(record.nStarts, record.nEnds, start);
+				i < record.nStarts.length && record.nStarts[i] < end; i++) {
+			Arrays.fill(chars, Math.max(record.nStarts[i], start) - start, Math.min(record.nEnds[i], end) - start,
+					'N');
+		}
+		for (int i = record.getFirstBlock(record.maskStarts, record.maskEnds, start);
+				i < record.maskStarts.length && record.maskStarts[i] < end; i++) {
+			for (int j = Math.max(record.maskStarts[i], start); j < Math.min(record.maskEnds[i], end); j++) {
+				chars[j - start] = Character.toLowerCase(chars[j - start]);
+			}
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Returns the N-blocks of a sequence.
+	 *
+	 * @param name the name of the sequence
+	 * @return the regions of unknown bases
+	 * @throws IllegalArgumentException if there is no such sequence
+	 */
+	public List<Region> getNBlocks(String name) {
+		Record record = getRecord(name);
+		return getRegions(name, record.nStarts, record.nEnds);
+	}
+
+	/**
+	 * Returns the mask blocks of a sequence.
+	 *
+	 * @param name the name of the sequence
+	 * @return the soft-masked regions
+	 * @throws IllegalArgumentException if there is no such sequence
+	 */
+	public List<Region> getMaskBlocks(String name) {
+		Record record = getRecord(name);
+		return getRegions(name, record.maskStarts, record.maskEnds);
+	}
+
+	/**
+	 * Closes the file.  The mappings are released when this reader is garbage collected.
+	 */
+	@Override
+	public void close() throws IOException {
+		raf.close();
+	}
+
+	private static List<Region> getRegions(String name, int[] starts, int[] ends) {
+		List<Region> regions = new ArrayList<Region>(starts.length);
+		for (int i = 0; i < starts.length; i++) {
+			regions.add(new Region(name, starts[i], ends[i]));
+		}
+		return regions;
+	}
+
+	private Record getRecord(String name) {
+		Record record = records.get(name);
+		if (record == null) {
+			Long offset = offsets.get(name);
+			if (offset == null) {
+				throw new IllegalArgumentException("Sequence [" + name + "] was not found in 2bit file " + file);
+			}
+			// parsing twice in a race is harmless
+			record = new Record(offset);
+			records.put(name, record);
+		}
+		return record;
+	}
+
+	private byte getByte(long position) {
+		return segments[(int) (position >>> segmentBits)].get((int) (position & ((1 << segmentBits) - 1)));
+	}
+
+	private int readInt(long position) {
+		int segment = (int) (position >>> segmentBits), index = (int) (position & ((1 << segmentBits) - 1));
+		if (index + 4 <= segments[segment].limit()) {
+			return segments[segment].getInt(index);
+		}
+		// across two segments
+		return readInt(position, segments[0].order());
+	}
+
+	private int readInt(long position, ByteOrder order) {
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			int b = getByte(position + i) & 0xFF;
+			value |= (order == ByteOrder.LITTLE_ENDIAN) ? b << (8 * i) : b << (8 * (3 - i));
+		}
+		return value;
+	}
+
+	private long readLong(long position) {
+		long first = readInt(position) & 0xFFFFFFFFL, second = readInt(position + 4) & 0xFFFFFFFFL;
+		return (segments[0].order() == ByteOrder.LITTLE_ENDIAN) ? first | (second << 32) : (first << 32) | second;
+	}
+
+	// the header of a sequence record
+	private class Record {
+
+		private final int length;
+		private final int[] nStarts, nEnds, maskStarts, maskEnds;
+		private final long dnaOffset;
+
+		private Record(long offset) {
+			length = readInt(offset);
+			long position = offset + 4;
+			int nCount = readInt(position);
+			nStarts = new int[nCount];
+			nEnds = new int[nCount];
+			position = readBlocks(position + 4, nStarts, nEnds);
+			int maskCount = readInt(position);
+			maskStarts = new int[maskCount];
+			maskEnds = new int[maskCount];
+			position = readBlocks(position + 4, maskStarts, maskEnds);
+			// reserved
+			dnaOffset = position + 4;
+		}
+
+		private long readBlocks(long position, int[] starts, int[] ends) {
+			for (int i = 0; i < starts.length; i++) {
+				starts[i] = readInt(position + 4L * i);
+				ends[i] = starts[i] + readInt(position + 4L * (starts.length + i));
+			}
+			return position + 8L * starts.length;
+		}
+
+		private void check(int start, int end) {
+			if (start < 0 || end > length || start > end) {
+				throw new IllegalArgumentException("Region " + start + "-" + end + " is outside of 0-" + length);
+			}
+		}
+
+		// index of the first block which ends after the given position
+		private int getFirstBlock(int[] starts, int[] ends, int position) {
+			int low = 0, high = starts.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (ends[mid] <= position) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+	}
+
+	// 2bit storage which reads N in the N-blocks
+	private static class NBlockArrayWorker extends TwoBitArrayWorker<NucleotideCompound> {
+
+		private final int[] nStarts, nEnds;
+		private final NucleotideCompound n;
+
+		private NBlockArrayWorker(int[] packed, int length, int[] nStarts, int[] nEnds) {
+			super(DNACompoundSet.getDNACompoundSet(), packed, length);
+			this.nStarts = nStarts;
+			this.nEnds = nEnds;
+			n = getCompoundSet().getCompoundForString("N");
+		}
+
+		@Override
+		public NucleotideCompound getCompoundAt(int position) {
+			int index = Arrays.binarySearch(nStarts, position - 1);
+			if (index < 0) {
+				index = -index - 2;
+			}
+			if (index >= 0 && position - 1 < nEnds[index]) {
+				return n;
+			}
+			return super.getCompoundAt(position);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * super.hashCode() + Arrays.hashCode(nStarts);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof NBlockArrayWorker && super.equals(o)
+					&& Arrays.equals(nStarts, ((NBlockArrayWorker) o).nStarts)
+					&& Arrays.equals(nEnds, ((NBlockArrayWorker) o).nEnds);
+		}
+
+	}
+
+}
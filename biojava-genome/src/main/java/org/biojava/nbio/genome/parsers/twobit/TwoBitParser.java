@@ -40,6 +40,9 @@ import java.util.HashMap;
  * it just run this class with input file path as single parameter and set
  * stdout stream into output file. If you have any problems or ideas don't
  * hesitate to contact me through email: rsutormin[at]gmail.com.
+ * <p>
+ * This parser has a single current sequence and cannot be shared between
+ * threads; {@link MappedTwoBitReader} provides random access to regions.
  * @author Roman Sutormin
  */
 public class TwoBitParser extends InputStream {
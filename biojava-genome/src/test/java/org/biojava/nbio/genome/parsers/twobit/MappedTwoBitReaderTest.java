@@ -0,0 +1,214 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.genome.parsers.twobit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.biojava.nbio.core.sequence.DNASequence;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedTwoBitReaderTest {
+
+	@Rule
+	public TemporaryFolder testFolder = new TemporaryFolder();
+
+	private String chr1, chr2;
+
+	@Before
+	public void setUp() {
+		Random random = new Random(42);
+		char[] bases = new char[103];
+		for (int i = 0; i < bases.length; i++) {
+			bases[i] = "TCAG".charAt(random.nextInt(4));
+		}
+		Arrays.fill(bases, 10, 25, 'N');
+		for (int i = 40; i < 60; i++) {
+			bases[i] = Character.toLowerCase(bases[i]);
+		}
+		chr1 = new String(bases);
+		// ends on a byte boundary at the end of the file
+		chr2 = "GATTacAT";
+	}
+
+	@Test
+	public void testRegions() throws IOException {
+		for (boolean bigEndian : new boolean[] { false, true }) {
+			File f = write(bigEndian);
+			// tiny segments so that values straddle them
+			for (int segmentSize : new int[] { 1 << 30, 16 }) {
+				try (MappedTwoBitReader reader = new MappedTwoBitReader(f, segmentSize)) {
+					assertEquals(Arrays.asList("chr1", "chr2"), reader.getSequenceNames());
+					assertEquals(103, reader.getLength("chr1"));
+					assertEquals(chr1, reader.getSequenceAsString("chr1", 0, 103));
+					assertEquals(chr2, reader.getSequenceAsString("chr2", 0, 8));
+					assertEquals("", reader.getSequenceAsString("chr2", 8, 8));
+					assertEquals("", reader.getSequence("chr2", 8, 8).getSequenceAsString());
+					assertEquals(chr2.toUpperCase(), reader.getSequence("chr2").getSequenceAsString());
+					assertEquals(1, reader.getNBlocks("chr1").size());
+					assertEquals(40, reader.getMaskBlocks("chr1").get(0).getStart());
+
+					for (int start = 0; start < 103; start += 7) {
+						for (int end = start; end <= 103; end += 5) {
+							DNASequence region = reader.getSequence("chr1", start, end);
+							assertEquals(chr1.substring(start, end).toUpperCase(), region.getSequenceAsString());
+							assertEquals(chr1.substring(start, end), reader.getSequenceAsString("chr1", start, end));
+						}
+					}
+					assertEquals("chr1:5-30", reader.getSequence("chr1", 5, 30).getAccession().getID());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBatch() throws Exception {
+		try (final MappedTwoBitReader reader = new MappedTwoBitReader(write(false))) {
+			List<MappedTwoBitReader.Region> regions = Arrays.asList(
+					new MappedTwoBitReader.Region("chr2", 1, 4),
+					new MappedTwoBitReader.Region("chr1", 50, 90),
+					new MappedTwoBitReader.Region("chr1", 0, 30));
+			List<DNASequence> sequences = reader.getSequences(regions);
+			assertEquals("ATT", sequences.get(0).getSequenceAsString());
+			assertEquals(chr1.substring(50, 90).toUpperCase(), sequences.get(1).getSequenceAsString());
+			assertEquals(chr1.substring(0, 30), sequences.get(2).getSequenceAsString());
+
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 8; t++) {
+				final int offset = t;
+				results.add(executor.submit(() -> {
+					for (int start = offset; start < 100; start += 3) {
+						if (!reader.getSequenceAsString("chr1", start, 103).equals(chr1.substring(start))) {
+							return false;
+						}
+					}
+					return true;
+				}));
+			}
+			for (Future<Boolean> f : results) {
+				assertTrue(f.get());
+			}
+			executor.shutdown();
+
+			try {
+				reader.getSequence("chr3", 0, 1);
+				fail("Expected an IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			try {
+				reader.getSequence("chr2", 0, 9);
+				fail("Expected an IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	// writes chr1 and chr2, in version 0 for little endian and version 1 for big endian
+	private File write(boolean bigEndian) throws IOException {
+		int version = bigEndian ? 1 : 0;
+		String[] names = { "chr1", "chr2" };
+		String[] sequences = { chr1, chr2 };
+		byte[][] records = new byte[2][];
+		for (int i = 0; i < 2; i++) {
+			records[i] = getRecord(sequences[i], bigEndian);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(1000)
+				.order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(0x1A412743).putInt(version).putInt(2).putInt(0);
+		long offset = 16 + 2 * (1 + 4 + (version == 0 ? 4 : 8));
+		for (int i = 0; i < 2; i++) {
+			buffer.put((byte) names[i].length()).put(names[i].getBytes("US-ASCII"));
+			if (version == 0) {
+				buffer.putInt((int) offset);
+			} else {
+				buffer.putLong(offset);
+			}
+			offset += records[i].length;
+		}
+		for (byte[] record : records) {
+			buffer.put(record);
+		}
+		File f = testFolder.newFile();
+		try (FileOutputStream out = new FileOutputStream(f)) {
+			out.write(buffer.array(), 0, buffer.position());
+		}
+		return f;
+	}
+
+	private static byte[] getRecord(String sequence, boolean bigEndian) {
+		List<int[]> nBlocks = getBlocks(sequence, "N");
+		List<int[]> maskBlocks = getBlocks(sequence, "tcagn");
+		ByteBuffer buffer = ByteBuffer.allocate(1000)
+				.order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(sequence.length());
+		for (List<int[]> blocks : Arrays.asList(nBlocks, maskBlocks)) {
+			buffer.putInt(blocks.size());
+			for (int[] block : blocks) {
+				buffer.putInt(block[0]);
+			}
+			for (int[] block : blocks) {
+				buffer.putInt(block[1] - block[0]);
+			}
+		}
+		buffer.putInt(0);
+		for (int i = 0; i < sequence.length(); i += 4) {
+			int b = 0;
+			for (int j = i; j < i + 4; j++) {
+				int code = j < sequence.length() ? Math.max(0, "TCAG".indexOf(Character.toUpperCase(sequence.charAt(j)))) : 0;
+				b = (b << 2) | code;
+			}
+			buffer.put((byte) b);
+		}
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+
+	private static List<int[]> getBlocks(String sequence, String chars) {
+		List<int[]> blocks = new ArrayList<int[]>();
+		for (int i = 0; i < sequence.length(); i++) {
+			if (chars.indexOf(sequence.charAt(i)) >= 0) {
+				int start = i;
+				while (i < sequence.length() && chars.indexOf(sequence.charAt(i)) >= 0) {
+					i++;
+				}
+				blocks.add(new int[] { start, i });
+			}
+		}
+		return blocks;
+	}
+}
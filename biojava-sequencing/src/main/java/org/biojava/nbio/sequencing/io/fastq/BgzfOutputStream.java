@@ -0,0 +1,320 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.sequencing.io.fastq;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Output stream writing the BGZF (blocked GNU zip) format: a series of gzip
+ * members of at most 64 KiB, each carrying its compressed size in a
+ * <code>BC</code> extra field, followed by an empty end-of-file block.
+ * <p>
+ * BGZF files are valid gzip files, so they can be read with
+ * <code>GZIPInputStream</code> or <code>gunzip</code>. As the blocks are
+ * independent, they are compressed concurrently when more than one thread is
+ * requested, and written in order.
+ *
+ * @since 5.0.0
+ */
+public final class BgzfOutputStream
+	extends OutputStream
+{
+	/** Maximum number of uncompressed bytes in a block, so that the compressed block fits in 64 KiB. */
+	static final int BLOCK_SIZE = 0xff00;
+
+	/** Maximum size of a compressed block. */
+	private static final int MAX_BLOCK_SIZE = 0x10000;
+
+	/** Size of the block header. */
+	private static final int HEADER_SIZE = 18;
+
+	/** Size of the block footer, the CRC32 and the uncompressed size. */
+	private static final int FOOTER_SIZE = 8;
+
+	/** The empty block ending a BGZF file. */
+	private static final byte[] EOF_BLOCK = new byte[]
+		{
+			0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, 0x06, 0x00, 0x42, 0x43,
+			0x02, 0x00, 0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00
+		};
+
+	private final OutputStream out;
+	private final int level;
+	private final ExecutorService executor;
+
+	/** Compressed blocks not written yet, in order. */
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+
+	/** Maximum number of blocks compressed ahead of the underlying stream. */
+	private final int maxPending;
+
+	private byte[] block = new byte[BLOCK_SIZE];
+	private int length;
+	private boolean closed;
+
+
+	/**
+	 * Create a new BGZF output stream compressing on the calling thread with the default compression level.
+	 *
+	 * @param out output stream to write the compressed blocks to, must not be null
+	 */
+	public BgzfOutputStream(final OutputStream out)
+	{
+		this(out, 1, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Create a new BGZF output stream.
+	 *
+	 * @param out output stream to write the compressed blocks to, must not be null
+	 * @param threads number of threads compressing blocks, 1 to compress on the calling thread
+	 * @param level compression level, from 0 to 9 or <code>Deflater.DEFAULT_COMPRESSION</code>
+	 */
+	public BgzfOutputStream(final OutputStream out, final int threads, final int level)
+	{
+		if (out == null)
+		{
+			throw new IllegalArgumentException("out must not be null");
+		}
+		if (threads < 1)
+		{
+			throw new IllegalArgumentException("at least one thread is needed");
+		}
+		this.out = out;
+		this.level = level;
+		this.maxPending = 2 * threads;
+		if (threads > 1)
+		{
+			final AtomicInteger threadCount = new AtomicInteger();
+			this.executor = Executors.newFixedThreadPool(threads, r -> {
+					Thread t = new Thread(r, "BgzfOutputStream-" + threadCount.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+		}
+		else
+		{
+			this.executor = null;
+		}
+	}
+
+
+	@Override
+	public void write(final int b) throws IOException
+	{
+		ensureOpen();
+		if (length == block.length)
+		{
+			submitBlock();
+		}
+		block[length++] = (byte) b;
+	}
+
+	@Override
+	public void write(final byte[] b, int off, int len) throws IOException
+	{
+		ensureOpen();
+		while (len > 0)
+		{
+			if (length == block.length)
+			{
+				submitBlock();
+			}
+			int n = Math.min(len, block.length - length);
+			System.arraycopy(b, off, block, length, n);
+			length += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Compress the current block, possibly writing blocks compressed earlier, and start a new block.
+	 */
+	private void submitBlock() throws IOException
+	{
+		ensureOpen();
+		final byte[] data = block;
+		final int size = length;
+		if (executor == null)
+		{
+			out.write(compress(data, size, level));
+		}
+		else
+		{
+			pending.add(executor.submit(() -> compress(data, size, level)));
+			block = new byte[BLOCK_SIZE];
+			while (pending.size() >= maxPending)
+			{
+				writePending();
+			}
+		}
+		length = 0;
+	}
+
+	/**
+	 * Write the oldest pending compressed block.
+	 */
+	private void writePending() throws IOException
+	{
+		try
+		{
+			out.write(pending.remove().get());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while compressing");
+		}
+		catch (ExecutionException e)
+		{
+			throw new IOException("could not compress block", e.getCause());
+		}
+	}
+
+	/**
+	 * Compress the specified data into a BGZF block.
+	 */
+	static byte[] compress(final byte[] data, final int size, final int level)
+	{
+		byte[] compressed = new byte[MAX_BLOCK_SIZE];
+		int compressedSize = deflate(data, size, level, compressed);
+		if (compressedSize < 0)
+		{
+			// incompressible data, store it
+			compressedSize = deflate(data, size, Deflater.NO_COMPRESSION, compressed);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, size);
+
+		int blockSize = HEADER_SIZE + compressedSize + FOOTER_SIZE;
+		byte[] result = new byte[blockSize];
+		System.arraycopy(EOF_BLOCK, 0, result, 0, HEADER_SIZE - 2);
+		putShort(result, HEADER_SIZE - 2, blockSize - 1);
+		System.arraycopy(compressed, 0, result, HEADER_SIZE, compressedSize);
+		putInt(result, HEADER_SIZE + compressedSize, (int) crc.getValue());
+		putInt(result, HEADER_SIZE + compressedSize + 4, size);
+		return result;
+	}
+
+	/**
+	 * Deflate the data into the specified buffer.
+	 *
+	 * @return the compressed size, or -1 if it does not fit in a block
+	 */
+	private static int deflate(final byte[] data, final int size, final int level, final byte[] compressed)
+	{
+		Deflater deflater = new Deflater(level, true);
+		try
+		{
+			deflater.setInput(data, 0, size);
+			deflater.finish();
+			int limit = MAX_BLOCK_SIZE - HEADER_SIZE - FOOTER_SIZE;
+			int n = deflater.deflate(compressed, 0, limit);
+			return deflater.finished() ? n : -1;
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+
+	private static void putShort(final byte[] b, final int off, final int value)
+	{
+		b[off] = (byte) value;
+		b[off + 1] = (byte) (value >>> 8);
+	}
+
+	private static void putInt(final byte[] b, final int off, final int value)
+	{
+		putShort(b, off, value);
+		putShort(b, off + 2, value >>> 16);
+	}
+
+	private void ensureOpen() throws IOException
+	{
+		if (closed)
+		{
+			throw new IOException("stream closed");
+		}
+	}
+
+	/**
+	 * Compress and write the current block, even if it is not full, and flush the underlying stream.
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		ensureOpen();
+		if (length > 0)
+		{
+			submitBlock();
+		}
+		while (!pending.isEmpty())
+		{
+			writePending();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Write the remaining data and the end-of-file block, and close the underlying stream.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (closed)
+		{
+			return;
+		}
+		try
+		{
+			flush();
+			out.write(EOF_BLOCK);
+		}
+		finally
+		{
+			closed = true;
+			try
+			{
+				if (executor != null)
+				{
+					executor.shutdownNow();
+				}
+			}
+			finally
+			{
+				out.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,307 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.sequencing.io.fastq;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * High-throughput writer for FASTQ formatted sequences.
+ * <p>
+ * Records are encoded straight into a large byte buffer, which is written to
+ * the underlying stream when full. Quality scores are converted to the
+ * variant of this writer with a lookup table per source variant, giving the
+ * same result as {@link FastqTools#convert(Fastq, FastqVariant)} without
+ * creating any intermediate <code>Fastq</code> or <code>String</code>.
+ * Records read by {@link ParallelFastqReader} can be written from their
+ * {@link ParallelFastqReader.RecordView} bytes directly.
+ * <p>
+ * The output may be compressed with {@link #bgzf(File, FastqVariant, int)},
+ * which compresses blocks on several threads while records are encoded.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @since 5.0.0
+ */
+public final class BufferedFastqWriter
+	implements Closeable, Flushable
+{
+	/** Default buffer size. */
+	public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+	/** Output stream. */
+	private final OutputStream outputStream;
+
+	/** FASTQ sequence format variant of the written records. */
+	private final FastqVariant variant;
+
+	/** Encoding buffer. */
+	private byte[] buffer;
+
+	/** Number of bytes in the buffer. */
+	private int position;
+
+
+	/**
+	 * Create a new buffered FASTQ writer with the default buffer size.
+	 *
+	 * @param outputStream output stream to write to, must not be null
+	 * @param variant FASTQ sequence format variant of the written records, must not be null
+	 */
+	public BufferedFastqWriter(final OutputStream outputStream, final FastqVariant variant)
+	{
+		this(outputStream, variant, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a new buffered FASTQ writer.
+	 *
+	 * @param outputStream output stream to write to, must not be null
+	 * @param variant FASTQ sequence format variant of the written records, must not be null
+	 * @param bufferSize size of the encoding buffer, must be positive; it grows for larger records
+	 */
+	public BufferedFastqWriter(final OutputStream outputStream, final FastqVariant variant, final int bufferSize)
+	{
+		if (outputStream == null)
+		{
+			throw new IllegalArgumentException("outputStream must not be null");
+		}
+		if (variant == null)
+		{
+			throw new IllegalArgumentException("variant must not be null");
+		}
+		if (bufferSize < 1)
+		{
+			throw new IllegalArgumentException("bufferSize must be positive");
+		}
+		this.outputStream = outputStream;
+		this.variant = variant;
+		this.buffer = new byte[bufferSize];
+	}
+
+	/**
+	 * Create a new buffered FASTQ writer writing BGZF compressed output to the specified file.
+	 *
+	 * @param file file to write to, must not be null
+	 * @param variant FASTQ sequence format variant of the written records, must not be null
+	 * @param threads number of compression threads, at least one
+	 * @return a new buffered FASTQ writer writing BGZF compressed output to the specified file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static BufferedFastqWriter bgzf(final File file, final FastqVariant variant, final int threads)
+		throws IOException
+	{
+		if (file == null)
+		{
+			throw new IllegalArgumentException("file must not be null");
+		}
+		return new BufferedFastqWriter(new BgzfOutputStream(new FileOutputStream(file), threads, 6), variant);
+	}
+
+
+	/**
+	 * Return the FASTQ sequence format variant of the written records.
+	 *
+	 * @return the FASTQ sequence format variant of the written records
+	 */
+	public FastqVariant getVariant()
+	{
+		return variant;
+	}
+
+	/**
+	 * Write the specified FASTQ formatted sequence, converted to the variant of this writer.
+	 *
+	 * @param fastq FASTQ formatted sequence to write, must not be null
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void write(final Fastq fastq) throws IOException
+	{
+		if (fastq == null)
+		{
+			throw new IllegalArgumentException("fastq must not be null");
+		}
+		byte[] description = fastq.getDescription().getBytes(StandardCharsets.UTF_8);
+		String sequence = fastq.getSequence();
+		String quality = fastq.getQuality();
+		ensureCapacity(description.length + sequence.length() + quality.length() + 6);
+
+		buffer[position++] = '@';
+		System.arraycopy(description, 0, buffer, position, description.length);
+		position += description.length;
+		buffer[position++] = '\n';
+		for (int i = 0, size = sequence.length(); i < size; i++)
+		{
+			buffer[position++] = (byte) sequence.charAt(i);
+		}
+		buffer[position++] = '\n';
+		buffer[position++] = '+';
+		buffer[position++] = '\n';
+		byte[] conversion = FastqTools.qualityConversion(fastq.getVariant(), variant);
+		for (int i = 0, size = quality.length(); i < size; i++)
+		{
+			char c = quality.charAt(i);
+			buffer[position++] = c < 256 ? conversion[c]
+				: (byte) variant.quality(variant.qualityScore(fastq.getVariant().errorProbability(c)));
+		}
+		buffer[position++] = '\n';
+	}
+
+	/**
+	 * Write the specified FASTQ formatted sequences, converted to the variant of this writer.
+	 * Null elements are skipped, as by {@link FastqWriter#append(Appendable, Iterable)}.
+	 *
+	 * @param fastq zero or more FASTQ formatted sequences to write, must not be null
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void write(final Iterable<Fastq> fastq) throws IOException
+	{
+		if (fastq == null)
+		{
+			throw new IllegalArgumentException("fastq must not be null");
+		}
+		for (Fastq f : fastq)
+		{
+			if (f != null)
+			{
+				write(f);
+			}
+		}
+	}
+
+	/**
+	 * Write the specified FASTQ formatted sequences, converted to the variant of this writer.
+	 *
+	 * @param fastq variable number of FASTQ formatted sequences to write, must not be null
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void write(final Fastq... fastq) throws IOException
+	{
+		if (fastq == null)
+		{
+			throw new IllegalArgumentException("fastq must not be null");
+		}
+		write(Arrays.asList(fastq));
+	}
+
+	/**
+	 * Write the record of the specified view, converted to the variant of this writer, copying its bytes.
+	 *
+	 * @param record view of a FASTQ formatted sequence to write, must not be null
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void write(final ParallelFastqReader.RecordView record) throws IOException
+	{
+		if (record == null)
+		{
+			throw new IllegalArgumentException("record must not be null");
+		}
+		int descriptionLength = record.getDescriptionLength();
+		int length = record.length();
+		ensureCapacity(descriptionLength + 2 * length + 6);
+
+		buffer[position++] = '@';
+		System.arraycopy(record.getDescriptionBuffer(), record.getDescriptionOffset(), buffer, position, descriptionLength);
+		position += descriptionLength;
+		buffer[position++] = '\n';
+		System.arraycopy(record.getSequenceBuffer(), record.getSequenceOffset(), buffer, position, length);
+		position += length;
+		buffer[position++] = '\n';
+		buffer[position++] = '+';
+		buffer[position++] = '\n';
+		byte[] quality = record.getQualityBuffer();
+		int offset = record.getQualityOffset();
+		if (record.getVariant() == variant)
+		{
+			System.arraycopy(quality, offset, buffer, position, length);
+			position += length;
+		}
+		else
+		{
+			byte[] conversion = FastqTools.qualityConversion(record.getVariant(), variant);
+			for (int i = 0; i < length; i++)
+			{
+				buffer[position++] = conversion[quality[offset + i] & 0xff];
+			}
+		}
+		buffer[position++] = '\n';
+	}
+
+	/**
+	 * Make room for the specified number of bytes, writing the buffer out or growing it if needed.
+	 */
+	private void ensureCapacity(final int size) throws IOException
+	{
+		if (position + size > buffer.length)
+		{
+			writeBuffer();
+			if (size > buffer.length)
+			{
+				buffer = new byte[size];
+			}
+		}
+	}
+
+	private void writeBuffer() throws IOException
+	{
+		if (position > 0)
+		{
+			outputStream.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	/**
+	 * Write the buffered records and flush the underlying stream.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		writeBuffer();
+		outputStream.flush();
+	}
+
+	/**
+	 * Write the buffered records and close the underlying stream.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			writeBuffer();
+		}
+		finally
+		{
+			outputStream.close();
+		}
+	}
+}
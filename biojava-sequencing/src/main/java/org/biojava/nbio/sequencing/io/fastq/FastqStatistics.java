@@ -0,0 +1,476 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.sequencing.io.fastq;
+
+import java.util.Arrays;
+
+/**
+ * Streaming quality control statistics for FASTQ formatted sequences.
+ * <p>
+ * Records are added one at a time and only summary counts are kept:
+ * the read length distribution, base composition, per-read GC content,
+ * N counts and quality score histograms per position, and a HyperLogLog
+ * sketch of the sequences to estimate the number of distinct reads and
+ * so the duplication level. Adding a record does not allocate once the
+ * arrays have grown to the longest read.
+ * <p>
+ * Instances are not thread-safe. To collect statistics from several
+ * threads, use one instance per thread and {@link #merge(FastqStatistics)}
+ * them at the end; merging gives the same result as adding all records to
+ * a single instance.
+ *
+ * @since 5.0.0
+ */
+public final class FastqStatistics
+{
+	/** Lowest quality score of all FASTQ sequence format variants, the Solexa minimum. */
+	public static final int MINIMUM_QUALITY_SCORE = -5;
+
+	/** Highest quality score of all FASTQ sequence format variants, the Sanger maximum. */
+	public static final int MAXIMUM_QUALITY_SCORE = 93;
+
+	/** Number of quality scores counted at each position. */
+	private static final int QUALITY_RANGE = MAXIMUM_QUALITY_SCORE - MINIMUM_QUALITY_SCORE + 1;
+
+	/** Index of a base in the base counts: A, C, G, T or U, N and anything else. */
+	private static final byte A = 0, C = 1, G = 2, T = 3, N = 4, OTHER = 5;
+
+	/** Base count index indexed by character. */
+	private static final byte[] BASES = new byte[256];
+
+	static
+	{
+		Arrays.fill(BASES, OTHER);
+		BASES['A'] = BASES['a'] = A;
+		BASES['C'] = BASES['c'] = C;
+		BASES['G'] = BASES['g'] = G;
+		BASES['T'] = BASES['t'] = T;
+		BASES['U'] = BASES['u'] = T;
+		BASES['N'] = BASES['n'] = N;
+	}
+
+	/** Number of bits of a sequence hash selecting a sketch register. */
+	private static final int SKETCH_BITS = 14;
+
+	/** FNV-1a hash parameters for the sequences. */
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private long reads;
+	private long bases;
+	private final long[] baseCounts = new long[OTHER + 1];
+
+	/** Number of reads by length. */
+	private long[] lengths = new long[0];
+
+	/** Number of reads by percentage of G or C among their A, C, G and T bases. */
+	private final long[] gcContents = new long[101];
+
+	/** Quality score counts, <code>QUALITY_RANGE</code> per position. */
+	private long[] qualities = new long[0];
+
+	/** Number of N bases by position. */
+	private long[] positionNs = new long[0];
+
+	/** HyperLogLog registers of the sequence hashes. */
+	private final byte[] sketch = new byte[1 << SKETCH_BITS];
+
+	/** Reusable buffer for decoded quality scores. */
+	private byte[] qualityScores = new byte[0];
+
+
+	/**
+	 * Add the specified FASTQ formatted sequence.
+	 *
+	 * @param fastq FASTQ formatted sequence, must not be null
+	 */
+	public void add(final Fastq fastq)
+	{
+		if (fastq == null)
+		{
+			throw new IllegalArgumentException("fastq must not be null");
+		}
+		add(fastq.getSequence(), fastq.getQuality(), fastq.getVariant());
+	}
+
+	/**
+	 * Add the specified sequence and quality scores.
+	 *
+	 * @param sequence sequence, must not be null
+	 * @param quality quality scores as encoded in a FASTQ formatted sequence, must not be null
+	 * @param variant FASTQ sequence format variant of the quality scores, must not be null
+	 */
+	public void add(final CharSequence sequence, final CharSequence quality, final FastqVariant variant)
+	{
+		if (sequence == null)
+		{
+			throw new IllegalArgumentException("sequence must not be null");
+		}
+		int length = sequence.length();
+		ensureLength(length);
+		long hash = FNV_OFFSET;
+		int gc = 0;
+		int acgt = 0;
+		for (int i = 0; i < length; i++)
+		{
+			char c = sequence.charAt(i);
+			int base = c < 256 ? BASES[c] : OTHER;
+			countBase(base, i);
+			gc += (base == C || base == G) ? 1 : 0;
+			acgt += base <= T ? 1 : 0;
+			hash = (hash ^ (c & 0xffff)) * FNV_PRIME;
+		}
+		qualityScores = FastqTools.qualityScores(quality, variant, qualityScores);
+		finish(length, gc, acgt, hash, Math.min(length, quality.length()));
+	}
+
+	/**
+	 * Add the specified record, using its bytes directly.
+	 *
+	 * @param record view of a FASTQ formatted sequence, must not be null
+	 */
+	public void add(final ParallelFastqReader.RecordView record)
+	{
+		if (record == null)
+		{
+			throw new IllegalArgumentException("record must not be null");
+		}
+		int length = record.length();
+		ensureLength(length);
+		byte[] sequence = record.getSequenceBuffer();
+		int offset = record.getSequenceOffset();
+		long hash = FNV_OFFSET;
+		int gc = 0;
+		int acgt = 0;
+		for (int i = 0; i < length; i++)
+		{
+			int c = sequence[offset + i] & 0xff;
+			int base = BASES[c];
+			countBase(base, i);
+			gc += (base == C || base == G) ? 1 : 0;
+			acgt += base <= T ? 1 : 0;
+			hash = (hash ^ c) * FNV_PRIME;
+		}
+		qualityScores = FastqTools.qualityScores(record.getQualityBuffer(), record.getQualityOffset(), length,
+												 record.getVariant(), qualityScores);
+		finish(length, gc, acgt, hash, length);
+	}
+
+	private void countBase(final int base, final int position)
+	{
+		baseCounts[base]++;
+		if (base == N)
+		{
+			positionNs[position]++;
+		}
+	}
+
+	/**
+	 * Count everything but the bases of a read, with the quality scores decoded into <code>qualityScores</code>.
+	 */
+	private void finish(final int length, final int gc, final int acgt, final long hash, final int qualityLength)
+	{
+		reads++;
+		bases += length;
+		lengths[length]++;
+		if (acgt > 0)
+		{
+			gcContents[(int) Math.round(100.0d * gc / acgt)]++;
+		}
+		for (int i = 0, p = 0; i < qualityLength; i++, p += QUALITY_RANGE)
+		{
+			int q = Math.min(MAXIMUM_QUALITY_SCORE, Math.max(MINIMUM_QUALITY_SCORE, qualityScores[i]));
+			qualities[p + q - MINIMUM_QUALITY_SCORE]++;
+		}
+
+		long h = mix(hash);
+		int register = (int) (h >>> (64 - SKETCH_BITS));
+		int rank = Long.numberOfLeadingZeros((h << SKETCH_BITS) | (1L << (SKETCH_BITS - 1))) + 1;
+		if (rank > sketch[register])
+		{
+			sketch[register] = (byte) rank;
+		}
+	}
+
+	/**
+	 * Grow the per-length and per-position arrays to hold reads of the specified length.
+	 */
+	private void ensureLength(final int length)
+	{
+		if (length >= lengths.length)
+		{
+			int size = Math.max(length + 1, 2 * lengths.length);
+			lengths = Arrays.copyOf(lengths, size);
+		}
+		if (length > positionNs.length)
+		{
+			int size = Math.max(length, 2 * positionNs.length);
+			positionNs = Arrays.copyOf(positionNs, size);
+			qualities = Arrays.copyOf(qualities, size * QUALITY_RANGE);
+		}
+	}
+
+	/**
+	 * Add the counts of the specified statistics to these statistics.
+	 *
+	 * @param other statistics to merge into these, must not be null
+	 * @return these statistics
+	 */
+	public FastqStatistics merge(final FastqStatistics other)
+	{
+		if (other == null)
+		{
+			throw new IllegalArgumentException("other must not be null");
+		}
+		ensureLength(Math.max(other.lengths.length - 1, other.positionNs.length));
+		reads += other.reads;
+		bases += other.bases;
+		add(baseCounts, other.baseCounts);
+		add(lengths, other.lengths);
+		add(gcContents, other.gcContents);
+		add(qualities, other.qualities);
+		add(positionNs, other.positionNs);
+		for (int i = 0; i < sketch.length; i++)
+		{
+			sketch[i] = (byte) Math.max(sketch[i], other.sketch[i]);
+		}
+		return this;
+	}
+
+	private static void add(final long[] counts, final long[] other)
+	{
+		for (int i = 0; i < other.length; i++)
+		{
+			counts[i] += other[i];
+		}
+	}
+
+	/**
+	 * Return the number of reads added.
+	 *
+	 * @return the number of reads added
+	 */
+	public long getReads()
+	{
+		return reads;
+	}
+
+	/**
+	 * Return the number of bases of all reads added.
+	 *
+	 * @return the number of bases of all reads added
+	 */
+	public long getBases()
+	{
+		return bases;
+	}
+
+	/**
+	 * Return the length of the longest read, or 0 if no read was added.
+	 *
+	 * @return the length of the longest read
+	 */
+	public int getMaximumLength()
+	{
+		for (int i = lengths.length - 1; i > 0; i--)
+		{
+			if (lengths[i] > 0)
+			{
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Return the mean read length, or 0 if no read was added.
+	 *
+	 * @return the mean read length
+	 */
+	public double getMeanLength()
+	{
+		return reads == 0 ? 0.0d : (double) bases / reads;
+	}
+
+	/**
+	 * Return the read length distribution, the number of reads indexed by length.
+	 *
+	 * @return a new array holding the number of reads of each length up to the longest read
+	 */
+	public long[] getLengthDistribution()
+	{
+		return Arrays.copyOf(lengths, getMaximumLength() + 1);
+	}
+
+	/**
+	 * Return the number of A, C, G, T or U, N or other bases, case-insensitively.
+	 *
+	 * @param base base
+	 * @return the number of bases counted as the specified base
+	 */
+	public long getBaseCount(final char base)
+	{
+		return baseCounts[base < 256 ? BASES[base] : OTHER];
+	}
+
+	/**
+	 * Return the number of N bases.
+	 *
+	 * @return the number of N bases
+	 */
+	public long getNCount()
+	{
+		return baseCounts[N];
+	}
+
+	/**
+	 * Return the number of N bases at the specified 0-based position of the reads.
+	 *
+	 * @param position 0-based position
+	 * @return the number of N bases at the specified position
+	 */
+	public long getNCount(final int position)
+	{
+		return position < positionNs.length ? positionNs[position] : 0L;
+	}
+
+	/**
+	 * Return the fraction of G and C among the A, C, G and T bases, or 0 if there are none.
+	 *
+	 * @return the GC content of all reads
+	 */
+	public double getGcContent()
+	{
+		long acgt = baseCounts[A] + baseCounts[C] + baseCounts[G] + baseCounts[T];
+		return acgt == 0 ? 0.0d : (double) (baseCounts[C] + baseCounts[G]) / acgt;
+	}
+
+	/**
+	 * Return the distribution of the GC content of the reads.  Reads without any A, C, G or T base are
+	 * not counted.
+	 *
+	 * @return a new array of 101 elements holding the number of reads by rounded GC percentage
+	 */
+	public long[] getGcContentDistribution()
+	{
+		return gcContents.clone();
+	}
+
+	/**
+	 * Return the quality score histogram at the specified 0-based position of the reads.  Scores outside
+	 * {@link #MINIMUM_QUALITY_SCORE} and {@link #MAXIMUM_QUALITY_SCORE} are counted at these bounds.
+	 *
+	 * @param position 0-based position
+	 * @return a new array holding the number of bases with each quality score at the specified position,
+	 *    indexed by <code>qualityScore - MINIMUM_QUALITY_SCORE</code>
+	 */
+	public long[] getQualityDistribution(final int position)
+	{
+		if (position >= positionNs.length)
+		{
+			return new long[QUALITY_RANGE];
+		}
+		return Arrays.copyOfRange(qualities, position * QUALITY_RANGE, (position + 1) * QUALITY_RANGE);
+	}
+
+	/**
+	 * Return the mean quality score at the specified 0-based position of the reads, or NaN if no read
+	 * reaches the position.
+	 *
+	 * @param position 0-based position
+	 * @return the mean quality score at the specified position
+	 */
+	public double getMeanQuality(final int position)
+	{
+		if (position >= positionNs.length)
+		{
+			return Double.NaN;
+		}
+		long count = 0;
+		long sum = 0;
+		for (int i = 0, p = position * QUALITY_RANGE; i < QUALITY_RANGE; i++, p++)
+		{
+			count += qualities[p];
+			sum += qualities[p] * (i + MINIMUM_QUALITY_SCORE);
+		}
+		return count == 0 ? Double.NaN : (double) sum / count;
+	}
+
+	/**
+	 * Return the estimated number of distinct sequences among the reads.  The estimate comes from a
+	 * HyperLogLog sketch and has a relative standard error of about 1%.
+	 *
+	 * @return the estimated number of distinct sequences
+	 */
+	public long getEstimatedDistinctReads()
+	{
+		int m = sketch.length;
+		double sum = 0.0d;
+		int zeros = 0;
+		for (byte register : sketch)
+		{
+			sum += 1.0d / (1L << register);
+			if (register == 0)
+			{
+				zeros++;
+			}
+		}
+		double alpha = 0.7213d / (1.0d + 1.079d / m);
+		double estimate = alpha * m * m / sum;
+		if (estimate <= 2.5d * m && zeros > 0)
+		{
+			// linear counting for small cardinalities
+			estimate = m * Math.log((double) m / zeros);
+		}
+		return Math.min(reads, Math.round(estimate));
+	}
+
+	/**
+	 * Return the estimated fraction of reads that duplicate the sequence of another read.
+	 *
+	 * @return the estimated fraction of duplicate reads
+	 */
+	public double getEstimatedDuplicateFraction()
+	{
+		return reads == 0 ? 0.0d : 1.0d - (double) getEstimatedDistinctReads() / reads;
+	}
+
+	/**
+	 * Spread the bits of an FNV hash (MurmurHash3 finalizer).
+	 */
+	private static long mix(long h)
+	{
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%d reads, %d bases, mean length %.1f, GC %.1f%%, %d N, %.1f%% duplicates",
+							 reads, bases, getMeanLength(), 100.0d * getGcContent(), getNCount(),
+							 100.0d * getEstimatedDuplicateFraction());
+	}
+}
@@ -38,6 +38,39 @@ import java.util.List;
  */
 public final class FastqTools
 {
+	/** Quality scores indexed by FASTQ sequence format variant ordinal and ASCII quality character. */
+	private static final byte[][] QUALITY_SCORES = new byte[FastqVariant.values().length][128];
+
+	/** Error probabilities indexed by FASTQ sequence format variant ordinal and ASCII quality character. */
+	private static final double[][] ERROR_PROBABILITIES = new double[FastqVariant.values().length][128];
+
+	/** Converted quality characters indexed by source and target variant ordinals and source quality byte. */
+	private static final byte[][][] QUALITY_CONVERSIONS = new byte[FastqVariant.values().length][FastqVariant.values().length][];
+
+	static
+	{
+		for (FastqVariant variant : FastqVariant.values())
+		{
+			for (char c = 0; c < 128; c++)
+			{
+				QUALITY_SCORES[variant.ordinal()][c] = (byte) variant.qualityScore(c);
+				ERROR_PROBABILITIES[variant.ordinal()][c] = variant.errorProbability(c);
+			}
+		}
+		for (FastqVariant from : FastqVariant.values())
+		{
+			for (FastqVariant to : FastqVariant.values())
+			{
+				byte[] conversion = new byte[256];
+				for (char c = 0; c < conversion.length; c++)
+				{
+					conversion[c] = (byte) (from == to ? c : to.quality(to.qualityScore(from.errorProbability(c))));
+				}
+				QUALITY_CONVERSIONS[from.ordinal()][to.ordinal()] = conversion;
+			}
+		}
+	}
+
 
 	/**
 	 * Private no-arg constructor.
@@ -176,7 +209,7 @@ public final class FastqTools
 		for (int i = 0; i < size; i++)
 		{
 			char c = fastq.getQuality().charAt(i);
-			qualityScores.add(variant.qualityScore(c));
+			qualityScores.add(qualityScore(variant, c));
 		}
 		return ImmutableList.copyOf(qualityScores);
 	}
@@ -208,7 +241,7 @@ public final class FastqTools
 		for (int i = 0; i < size; i++)
 		{
 			char c = fastq.getQuality().charAt(i);
-			qualityScores[i] = variant.qualityScore(c);
+			qualityScores[i] = qualityScore(variant, c);
 		}
 		return qualityScores;
 	}
@@ -231,7 +264,7 @@ public final class FastqTools
 		for (int i = 0; i < size; i++)
 		{
 			char c = fastq.getQuality().charAt(i);
-			errorProbabilities.add(variant.errorProbability(c));
+			errorProbabilities.add(errorProbability(variant, c));
 		}
 		return ImmutableList.copyOf(errorProbabilities);
 	}
@@ -263,11 +296,164 @@ public final class FastqTools
 		for (int i = 0; i < size; i++)
 		{
 			char c = fastq.getQuality().charAt(i);
-			errorProbabilities[i] = variant.errorProbability(c);
+			errorProbabilities[i] = errorProbability(variant, c);
 		}
 		return errorProbabilities;
 	}
 
+	/**
+	 * Decode the specified quality scores into the specified byte array, which is reused if it is long
+	 * enough.  Only the first <code>quality.length()</code> values of the returned array are set.
+	 *
+	 * @since 5.0.0
+	 * @param quality quality scores as encoded in a FASTQ formatted sequence, must not be null
+	 * @param variant FASTQ sequence format variant of the quality scores, must not be null
+	 * @param qualityScores byte array to decode into, may be null
+	 * @return the specified byte array, or a new byte array if it was null or too short
+	 */
+	public static byte[] qualityScores(final CharSequence quality, final FastqVariant variant, final byte[] qualityScores)
+	{
+		if (quality == null)
+		{
+			throw new IllegalArgumentException("quality must not be null");
+		}
+		if (variant == null)
+		{
+			throw new IllegalArgumentException("variant must not be null");
+		}
+		int size = quality.length();
+		byte[] result = (qualityScores == null || qualityScores.length < size) ? new byte[size] : qualityScores;
+		byte[] table = QUALITY_SCORES[variant.ordinal()];
+		for (int i = 0; i < size; i++)
+		{
+			char c = quality.charAt(i);
+			result[i] = c < 128 ? table[c] : (byte) variant.qualityScore(c);
+		}
+		return result;
+	}
+
+	/**
+	 * Decode the quality scores stored as ASCII bytes in the specified range of a byte array, e.g. as read by
+	 * {@link ParallelFastqReader}, into the specified byte array, which is reused if it is long enough.
+	 *
+	 * @since 5.0.0
+	 * @param quality buffer holding the quality scores, must not be null
+	 * @param offset offset of the first quality score in the buffer
+	 * @param length number of quality scores
+	 * @param variant FASTQ sequence format variant of the quality scores, must not be null
+	 * @param qualityScores byte array to decode into, may be null
+	 * @return the specified byte array, or a new byte array if it was null or too short
+	 */
+	public static byte[] qualityScores(final byte[] quality, final int offset, final int length,
+									   final FastqVariant variant, final byte[] qualityScores)
+	{
+		if (quality == null)
+		{
+			throw new IllegalArgumentException("quality must not be null");
+		}
+		if (variant == null)
+		{
+			throw new IllegalArgumentException("variant must not be null");
+		}
+		byte[] result = (qualityScores == null || qualityScores.length < length) ? new byte[length] : qualityScores;
+		byte[] table = QUALITY_SCORES[variant.ordinal()];
+		for (int i = 0; i < length; i++)
+		{
+			int c = quality[offset + i] & 0xff;
+			result[i] = c < 128 ? table[c] : (byte) variant.qualityScore((char) c);
+		}
+		return result;
+	}
+
+	/**
+	 * Decode the error probabilities of the specified quality scores into the specified double array, which
+	 * is reused if it is long enough.  Only the first <code>quality.length()</code> values of the returned
+	 * array are set.
+	 *
+	 * @since 5.0.0
+	 * @param quality quality scores as encoded in a FASTQ formatted sequence, must not be null
+	 * @param variant FASTQ sequence format variant of the quality scores, must not be null
+	 * @param errorProbabilities double array to decode into, may be null
+	 * @return the specified double array, or a new double array if it was null or too short
+	 */
+	public static double[] errorProbabilities(final CharSequence quality, final FastqVariant variant, final double[] errorProbabilities)
+	{
+		if (quality == null)
+		{
+			throw new IllegalArgumentException("quality must not be null");
+		}
+		if (variant == null)
+		{
+			throw new IllegalArgumentException("variant must not be null");
+		}
+		int size = quality.length();
+		double[] result = (errorProbabilities == null || errorProbabilities.length < size) ? new double[size] : errorProbabilities;
+		double[] table = ERROR_PROBABILITIES[variant.ordinal()];
+		for (int i = 0; i < size; i++)
+		{
+			char c = quality.charAt(i);
+			result[i] = c < 128 ? table[c] : variant.errorProbability(c);
+		}
+		return result;
+	}
+
+	/**
+	 * Decode the error probabilities of the quality scores stored as ASCII bytes in the specified range of
+	 * a byte array into the specified double array, which is reused if it is long enough.
+	 *
+	 * @since 5.0.0
+	 * @param quality buffer holding the quality scores, must not be null
+	 * @param offset offset of the first quality score in the buffer
+	 * @param length number of quality scores
+	 * @param variant FASTQ sequence format variant of the quality scores, must not be null
+	 * @param errorProbabilities double array to decode into, may be null
+	 * @return the specified double array, or a new double array if it was null or too short
+	 */
+	public static double[] errorProbabilities(final byte[] quality, final int offset, final int length,
+											  final FastqVariant variant, final double[] errorProbabilities)
+	{
+		if (quality == null)
+		{
+			throw new IllegalArgumentException("quality must not be null");
+		}
+		if (variant == null)
+		{
+			throw new IllegalArgumentException("variant must not be null");
+		}
+		double[] result = (errorProbabilities == null || errorProbabilities.length < length) ? new double[length] : errorProbabilities;
+		double[] table = ERROR_PROBABILITIES[variant.ordinal()];
+		for (int i = 0; i < length; i++)
+		{
+			int c = quality[offset + i] & 0xff;
+			result[i] = c < 128 ? table[c] : variant.errorProbability((char) c);
+		}
+		return result;
+	}
+
+	/**
+	 * Return the quality score of the specified quality character from the precomputed table.
+	 *
+	 * @param variant FASTQ sequence format variant
+	 * @param c quality character
+	 * @return the quality score of the specified quality character
+	 */
+	static int qualityScore(final FastqVariant variant, final char c)
+	{
+		return c < 128 ? QUALITY_SCORES[variant.ordinal()][c] : variant.qualityScore(c);
+	}
+
+	/**
+	 * Return the error probability of the specified quality character from the precomputed table.
+	 *
+	 * @param variant FASTQ sequence format variant
+	 * @param c quality character
+	 * @return the error probability of the specified quality character
+	 */
+	static double errorProbability(final FastqVariant variant, final char c)
+	{
+		return c < 128 ? ERROR_PROBABILITIES[variant.ordinal()][c] : variant.errorProbability(c);
+	}
+
 	/**
 	 * Convert the specified FASTQ formatted sequence to the
 	 * specified FASTQ sequence format variant.
@@ -319,14 +505,31 @@ public final class FastqTools
 		{
 			return fastq.getQuality();
 		}
-		int size = fastq.getQuality().length();
-		double[] errorProbabilities = errorProbabilities(fastq, new double[size]);
-		StringBuilder sb = new StringBuilder(size);
+		String quality = fastq.getQuality();
+		int size = quality.length();
+		byte[] conversion = qualityConversion(fastq.getVariant(), variant);
+		char[] converted = new char[size];
 		for (int i = 0; i < size; i++)
 		{
-			sb.append(variant.quality(variant.qualityScore(errorProbabilities[i])));
+			char c = quality.charAt(i);
+			converted[i] = c < 256 ? (char) (conversion[c] & 0xff) : variant.quality(variant.qualityScore(fastq.getVariant().errorProbability(c)));
 		}
-		return sb.toString();
+		return new String(converted);
+	}
+
+	/**
+	 * Return the table converting quality characters of the specified source FASTQ sequence format variant
+	 * to the specified target variant, indexed by the source quality character as an unsigned byte.  The
+	 * conversion is the same as {@link #convertQualities(Fastq, FastqVariant)}; the returned table must not
+	 * be modified.
+	 *
+	 * @param from source FASTQ sequence format variant
+	 * @param to target FASTQ sequence format variant
+	 * @return the table converting quality characters from <code>from</code> to <code>to</code>
+	 */
+	static byte[] qualityConversion(final FastqVariant from, final FastqVariant to)
+	{
+		return QUALITY_CONVERSIONS[from.ordinal()][to.ordinal()];
 	}
 
 	/**
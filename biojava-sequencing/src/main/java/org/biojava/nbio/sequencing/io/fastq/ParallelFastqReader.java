@@ -0,0 +1,966 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.sequencing.io.fastq;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-threaded reader for FASTQ formatted sequences.
+ * <p>
+ * A reader thread reads the input in large blocks, splits each block at
+ * record boundaries and hands the complete records of a block as one batch
+ * to a pool of worker threads, which validate and parse them. Records
+ * wrapped over several lines are supported, with the same rules and errors
+ * as {@link FastqReader#stream(Readable, StreamListener)}.
+ * <p>
+ * Records are either delivered as {@link Fastq} objects, in input order, on
+ * the calling thread with {@link #stream(InputStream, StreamListener)}, or
+ * as {@link RecordView}s on the worker threads with
+ * {@link #process(InputStream, RecordListener)}, which avoids creating any
+ * object per record.
+ * <p>
+ * The input is read as bytes; compressed files should be wrapped in a
+ * decompressing stream (e.g. a <code>GZIPInputStream</code>), which then
+ * runs on the reader thread.
+ *
+ * <pre>
+ * ParallelFastqReader reader = new ParallelFastqReader(FastqVariant.FASTQ_SANGER);
+ * reader.process(new GZIPInputStream(new FileInputStream("reads.fastq.gz"), 65536), new RecordListener()
+ * {
+ *   public void record(final RecordView record)
+ *   {
+ *     // called concurrently from the worker threads
+ *   }
+ * });
+ * </pre>
+ *
+ * @since 5.0.0
+ */
+public final class ParallelFastqReader
+{
+	/** Default size of the blocks read from the input. */
+	public static final int DEFAULT_BLOCK_SIZE = 4 * 1024 * 1024;
+
+	/** FASTQ sequence format variant. */
+	private final FastqVariant variant;
+
+	/** Valid quality characters for the variant, indexed by byte. */
+	private final boolean[] validQuality;
+
+	/** Number of worker threads. */
+	private int threads;
+
+	/** Size of the blocks read from the input. */
+	private int blockSize;
+
+	/** Maximum number of batches read ahead of the consumer. */
+	private int queueCapacity;
+
+
+	/**
+	 * Create a new parallel FASTQ reader for the specified FASTQ sequence format variant, using one
+	 * worker thread per available processor.
+	 *
+	 * @param variant FASTQ sequence format variant, must not be null
+	 */
+	public ParallelFastqReader(final FastqVariant variant)
+	{
+		if (variant == null)
+		{
+			throw new IllegalArgumentException("variant must not be null");
+		}
+		this.variant = variant;
+		this.validQuality = new boolean[256];
+		for (int c = 0; c < validQuality.length; c++)
+		{
+			int qualityScore = variant.qualityScore((char) c);
+			validQuality[c] = qualityScore >= variant.minimumQualityScore() && qualityScore <= variant.maximumQualityScore();
+		}
+		this.threads = Runtime.getRuntime().availableProcessors();
+		this.blockSize = DEFAULT_BLOCK_SIZE;
+		this.queueCapacity = 2 * threads;
+	}
+
+
+	/**
+	 * Return the FASTQ sequence format variant for this reader.
+	 *
+	 * @return the FASTQ sequence format variant for this reader
+	 */
+	public FastqVariant getVariant()
+	{
+		return variant;
+	}
+
+	public int getThreads()
+	{
+		return threads;
+	}
+
+	/**
+	 * Set the number of worker threads.
+	 *
+	 * @param threads number of worker threads, must be at least one
+	 */
+	public void setThreads(final int threads)
+	{
+		if (threads < 1)
+		{
+			throw new IllegalArgumentException("at least one thread is needed");
+		}
+		this.threads = threads;
+	}
+
+	public int getBlockSize()
+	{
+		return blockSize;
+	}
+
+	/**
+	 * Set the size of the blocks read from the input. Blocks are grown as needed
+	 * to hold records larger than this size.
+	 *
+	 * @param blockSize size of the blocks in bytes, must be positive
+	 */
+	public void setBlockSize(final int blockSize)
+	{
+		if (blockSize < 1)
+		{
+			throw new IllegalArgumentException("blockSize must be positive");
+		}
+		this.blockSize = blockSize;
+	}
+
+	public int getQueueCapacity()
+	{
+		return queueCapacity;
+	}
+
+	/**
+	 * Set the maximum number of batches read ahead of the consumer, which bounds
+	 * the memory used to about <code>queueCapacity * blockSize</code>.
+	 *
+	 * @param queueCapacity maximum number of batches read ahead, must be positive
+	 */
+	public void setQueueCapacity(final int queueCapacity)
+	{
+		if (queueCapacity < 1)
+		{
+			throw new IllegalArgumentException("queueCapacity must be positive");
+		}
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Stream the specified input stream. The listener is called on the calling thread, in input order,
+	 * while the following records are parsed on the worker threads. The input stream is not closed.
+	 *
+	 * @param inputStream input stream to read from, must not be null
+	 * @param listener event based reader callback, must not be null
+	 * @throws IOException if an I/O error occurs or the input is not valid
+	 */
+	public void stream(final InputStream inputStream, final StreamListener listener)
+		throws IOException
+	{
+		if (listener == null)
+		{
+			throw new IllegalArgumentException("listener must not be null");
+		}
+		run(inputStream, new BatchParser<List<Fastq>>()
+			{
+				@Override
+				public List<Fastq> parse(final Batch batch, final RecordView view) throws IOException
+				{
+					List<Fastq> fastqs = new ArrayList<Fastq>(batch.size());
+					for (int i = 0; i < batch.size(); i++)
+					{
+						parseRecord(batch, i, view);
+						fastqs.add(view.toFastq());
+					}
+					return fastqs;
+				}
+
+				@Override
+				public void consume(final List<Fastq> fastqs)
+				{
+					for (Fastq fastq : fastqs)
+					{
+						listener.fastq(fastq);
+					}
+				}
+			});
+	}
+
+	/**
+	 * Process the specified input stream, passing a view of each record to the listener. The listener is
+	 * called concurrently from the worker threads, in no particular order, and the view passed to it is only
+	 * valid for the duration of the call. This method returns when all records are processed. The input
+	 * stream is not closed.
+	 *
+	 * @param inputStream input stream to read from, must not be null
+	 * @param listener record callback, must be thread-safe, must not be null
+	 * @throws IOException if an I/O error occurs or the input is not valid
+	 */
+	public void process(final InputStream inputStream, final RecordListener listener)
+		throws IOException
+	{
+		if (listener == null)
+		{
+			throw new IllegalArgumentException("listener must not be null");
+		}
+		run(inputStream, new BatchParser<Object>()
+			{
+				@Override
+				public Object parse(final Batch batch, final RecordView view) throws IOException
+				{
+					for (int i = 0; i < batch.size(); i++)
+					{
+						parseRecord(batch, i, view);
+						listener.record(view);
+					}
+					return null;
+				}
+
+				@Override
+				public void consume(final Object result)
+				{
+					// empty
+				}
+			});
+	}
+
+	/**
+	 * Run the reader thread and the workers, passing the results of the batches to the parser in input order.
+	 */
+	private <T> void run(final InputStream inputStream, final BatchParser<T> parser)
+		throws IOException
+	{
+		if (inputStream == null)
+		{
+			throw new IllegalArgumentException("inputStream must not be null");
+		}
+
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+				Thread t = new Thread(r, "ParallelFastqReader-" + threadCount.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		final ThreadLocal<RecordView> views = ThreadLocal.withInitial(RecordView::new);
+		final BlockingQueue<Future<T>> queue = new ArrayBlockingQueue<Future<T>>(queueCapacity);
+		final CompletableFuture<T> end = new CompletableFuture<T>();
+
+		Thread reader = new Thread(() -> {
+				try
+				{
+					read(inputStream, batch -> queue.put(workers.submit(() -> parser.parse(batch, views.get()))));
+					queue.put(end);
+				}
+				catch (InterruptedException e)
+				{
+					// cancelled
+				}
+				catch (Throwable t)
+				{
+					// errors as well, otherwise the caller would wait for the end forever
+					CompletableFuture<T> failed = new CompletableFuture<T>();
+					failed.completeExceptionally(t);
+					try
+					{
+						queue.put(failed);
+					}
+					catch (InterruptedException e)
+					{
+						// cancelled
+					}
+				}
+			}, "ParallelFastqReader-reader");
+		reader.setDaemon(true);
+		reader.start();
+
+		try
+		{
+			Future<T> future;
+			while ((future = queue.take()) != end)
+			{
+				parser.consume(getResult(future));
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while reading FASTQ");
+		}
+		finally
+		{
+			reader.interrupt();
+			workers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Wait for the result of a batch, rethrowing the exception it failed with.
+	 */
+	private static <T> T getResult(final Future<T> future)
+		throws IOException, InterruptedException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+			{
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Read the input in blocks and pass the complete records of each block as a batch to the specified sink.
+	 */
+	private void read(final InputStream inputStream, final BatchSink sink)
+		throws IOException, InterruptedException
+	{
+		byte[] buffer = new byte[blockSize];
+		int length = 0;
+		boolean eof = false;
+		while (!eof)
+		{
+			while (length < buffer.length)
+			{
+				int read = inputStream.read(buffer, length, buffer.length - length);
+				if (read < 0)
+				{
+					eof = true;
+					break;
+				}
+				length += read;
+			}
+
+			int[] starts = new int[64];
+			int count = 0;
+			int p = 0;
+			IOException error = null;
+			try
+			{
+				int next;
+				while ((next = scanRecord(buffer, p, length, eof)) >= 0)
+				{
+					if (count + 1 >= starts.length)
+					{
+						starts = Arrays.copyOf(starts, starts.length * 2);
+					}
+					starts[count++] = p;
+					p = next;
+				}
+			}
+			catch (IOException e)
+			{
+				// the records preceding the error are still delivered
+				error = e;
+			}
+			starts[count] = p;
+			if (count > 0)
+			{
+				sink.accept(new Batch(buffer, starts, count));
+			}
+			if (error != null)
+			{
+				throw error;
+			}
+
+			// carry the incomplete record over to the next block
+			int remaining = length - p;
+			byte[] nextBuffer = new byte[remaining > blockSize / 2 ? 2 * remaining : blockSize];
+			System.arraycopy(buffer, p, nextBuffer, 0, remaining);
+			buffer = nextBuffer;
+			length = remaining;
+		}
+	}
+
+	/**
+	 * Find the end of the record starting at <code>start</code>, following the rules of {@link FastqParser}.
+	 *
+	 * @return the offset following the record, or -1 if there is no complete record before <code>length</code>
+	 * @throws IOException if the record is not valid or truncated at the end of the input
+	 */
+	private static int scanRecord(final byte[] b, final int start, final int length, final boolean eof)
+		throws IOException
+	{
+		if (start >= length)
+		{
+			return -1;
+		}
+		if (b[start] != '@')
+		{
+			throw new IOException("description must begin with a '@' character");
+		}
+		int p = nextLine(b, start, length, eof);
+		if (p < 0)
+		{
+			return -1;
+		}
+
+		// the line following the description is always sequence
+		int sequenceLength = 0;
+		boolean first = true;
+		while (true)
+		{
+			if (p >= length)
+			{
+				return truncated(eof);
+			}
+			int end = nextLine(b, p, length, eof);
+			if (end < 0)
+			{
+				return -1;
+			}
+			if (!first && b[p] == '+')
+			{
+				p = end;
+				break;
+			}
+			sequenceLength += trimmedLength(b, p, end);
+			first = false;
+			p = end;
+		}
+
+		// the line following the repeat description is always quality
+		int qualityLength = 0;
+		first = true;
+		while (first || qualityLength < sequenceLength)
+		{
+			if (p >= length)
+			{
+				if (!eof)
+				{
+					return -1;
+				}
+				if (first)
+				{
+					throw new IOException("truncated sequence");
+				}
+				break;
+			}
+			int end = nextLine(b, p, length, eof);
+			if (end < 0)
+			{
+				return -1;
+			}
+			qualityLength += trimmedLength(b, p, end);
+			first = false;
+			p = end;
+		}
+		if (qualityLength != sequenceLength)
+		{
+			throw new IOException("sequence and quality scores must be the same length");
+		}
+		return p;
+	}
+
+	private static int truncated(final boolean eof)
+		throws IOException
+	{
+		if (eof)
+		{
+			throw new IOException("truncated sequence");
+		}
+		return -1;
+	}
+
+	/**
+	 * Return the offset of the line following the line starting at <code>p</code>, or -1 if the line
+	 * is not terminated before <code>length</code> and more input follows.
+	 */
+	private static int nextLine(final byte[] b, final int p, final int length, final boolean eof)
+	{
+		for (int i = p; i < length; i++)
+		{
+			if (b[i] == '\n')
+			{
+				return i + 1;
+			}
+		}
+		return eof ? length : -1;
+	}
+
+	/**
+	 * Return the length of the line between <code>p</code> and <code>end</code> after trimming
+	 * as {@link String#trim()} does, including the line terminator.
+	 */
+	private static int trimmedLength(final byte[] b, final int p, final int end)
+	{
+		int s = trimStart(b, p, end);
+		return trimEnd(b, s, end) - s;
+	}
+
+	private static int trimStart(final byte[] b, int p, final int end)
+	{
+		while (p < end && (b[p] & 0xff) <= ' ')
+		{
+			p++;
+		}
+		return p;
+	}
+
+	private static int trimEnd(final byte[] b, final int p, int end)
+	{
+		while (end > p && (b[end - 1] & 0xff) <= ' ')
+		{
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 * Parse and validate a record of a batch into the specified view. The record boundaries were
+	 * already checked by {@link #scanRecord(byte[], int, int, boolean)}.
+	 */
+	private void parseRecord(final Batch batch, final int index, final RecordView view)
+		throws IOException
+	{
+		byte[] b = batch.data;
+		int p = batch.starts[index];
+		int recordEnd = batch.starts[index + 1];
+
+		int end = nextLine(b, p, recordEnd, true);
+		int descriptionStart = trimStart(b, p + 1, end);
+		int descriptionEnd = trimEnd(b, descriptionStart, end);
+		p = end;
+
+		// sequence lines up to the repeat description
+		int sequenceStart = p;
+		int sequenceLines = 0;
+		while (sequenceLines == 0 || b[p] != '+')
+		{
+			p = nextLine(b, p, recordEnd, true);
+			sequenceLines++;
+		}
+		int sequenceEnd = p;
+
+		end = nextLine(b, p, recordEnd, true);
+		int repeatStart = trimStart(b, p + 1, end);
+		int repeatEnd = trimEnd(b, repeatStart, end);
+		if (descriptionEnd > descriptionStart && repeatEnd > repeatStart
+			&& !regionEquals(b, descriptionStart, descriptionEnd, repeatStart, repeatEnd))
+		{
+			throw new IOException("repeat description must match description");
+		}
+
+		view.set(b, descriptionStart, descriptionEnd);
+		view.setSequence(b, sequenceStart, sequenceEnd, sequenceLines > 1);
+		view.setQuality(b, end, recordEnd);
+
+		byte[] quality = view.qualityBuffer;
+		for (int i = view.qualityStart; i < view.qualityEnd; i++)
+		{
+			if (!validQuality[quality[i] & 0xff])
+			{
+				char c = (char) (quality[i] & 0xff);
+				int qualityScore = variant.qualityScore(c);
+				throw new IOException("quality score must be between " + variant.minimumQualityScore() +
+									  " and " + variant.maximumQualityScore() + ", was " + qualityScore +
+									  " for ASCII char '" + c + "'");
+			}
+		}
+		view.variant = variant;
+	}
+
+	private static boolean regionEquals(final byte[] b, final int start1, final int end1, final int start2, final int end2)
+	{
+		if (end1 - start1 != end2 - start2)
+		{
+			return false;
+		}
+		for (int i = 0; i < end1 - start1; i++)
+		{
+			if (b[start1 + i] != b[start2 + i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Callback for the records read by {@link ParallelFastqReader#process(InputStream, RecordListener)}.
+	 */
+	public interface RecordListener
+	{
+		/**
+		 * Notify this listener of a record. The view is only valid for the duration of the call.
+		 *
+		 * @param record view of the record
+		 */
+		void record(RecordView record);
+	}
+
+	/**
+	 * View of a FASTQ formatted sequence in the buffer it was read into. The sequence and quality scores
+	 * are slices of the buffer, except for records wrapped over several lines, whose lines are first
+	 * joined into a buffer owned by the view. A view is reused for the following records parsed by the
+	 * same thread.
+	 */
+	public static final class RecordView
+	{
+		private byte[] buffer;
+		private int descriptionStart;
+		private int descriptionEnd;
+
+		private byte[] sequenceBuffer;
+		private int sequenceStart;
+		private int sequenceEnd;
+
+		private byte[] qualityBuffer;
+		private int qualityStart;
+		private int qualityEnd;
+
+		private FastqVariant variant;
+
+		/** Buffers for the joined lines of wrapped records. */
+		private byte[] sequenceScratch = new byte[0];
+		private byte[] qualityScratch = new byte[0];
+
+		/** Length of the last result of {@link #join(byte[], int, int, byte[])}. */
+		private int joinedLength;
+
+		private final ByteSequence sequence = new ByteSequence();
+		private final ByteSequence quality = new ByteSequence();
+
+
+		private RecordView()
+		{
+			// empty
+		}
+
+
+		private void set(final byte[] buffer, final int descriptionStart, final int descriptionEnd)
+		{
+			this.buffer = buffer;
+			this.descriptionStart = descriptionStart;
+			this.descriptionEnd = descriptionEnd;
+		}
+
+		private void setSequence(final byte[] b, final int start, final int end, final boolean wrapped)
+		{
+			if (wrapped)
+			{
+				sequenceScratch = join(b, start, end, sequenceScratch);
+				sequenceBuffer = sequenceScratch;
+				sequenceStart = 0;
+				sequenceEnd = joinedLength;
+			}
+			else
+			{
+				sequenceBuffer = b;
+				sequenceStart = trimStart(b, start, end);
+				sequenceEnd = trimEnd(b, sequenceStart, end);
+			}
+			sequence.set(sequenceBuffer, sequenceStart, sequenceEnd);
+		}
+
+		private void setQuality(final byte[] b, final int start, final int end)
+		{
+			int firstEnd = nextLine(b, start, end, true);
+			if (firstEnd < end)
+			{
+				qualityScratch = join(b, start, end, qualityScratch);
+				qualityBuffer = qualityScratch;
+				qualityStart = 0;
+				qualityEnd = joinedLength;
+			}
+			else
+			{
+				qualityBuffer = b;
+				qualityStart = trimStart(b, start, end);
+				qualityEnd = trimEnd(b, qualityStart, end);
+			}
+			quality.set(qualityBuffer, qualityStart, qualityEnd);
+		}
+
+		/**
+		 * Join the trimmed lines between <code>start</code> and <code>end</code> into the specified buffer,
+		 * which is grown if needed.
+		 */
+		private byte[] join(final byte[] b, int start, final int end, byte[] target)
+		{
+			if (target.length < end - start)
+			{
+				target = new byte[Math.max(end - start, 2 * target.length)];
+			}
+			int length = 0;
+			while (start < end)
+			{
+				int next = nextLine(b, start, end, true);
+				int s = trimStart(b, start, next);
+				int e = trimEnd(b, s, next);
+				System.arraycopy(b, s, target, length, e - s);
+				length += e - s;
+				start = next;
+			}
+			joinedLength = length;
+			return target;
+		}
+
+		/**
+		 * Return the description of this record, decoded as UTF-8.
+		 *
+		 * @return the description of this record
+		 */
+		public String getDescription()
+		{
+			return new String(buffer, descriptionStart, descriptionEnd - descriptionStart, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Return the buffer holding the description, UTF-8 encoded, from {@link #getDescriptionOffset()}
+		 * for {@link #getDescriptionLength()} bytes.
+		 *
+		 * @return the buffer holding the description
+		 */
+		public byte[] getDescriptionBuffer()
+		{
+			return buffer;
+		}
+
+		public int getDescriptionOffset()
+		{
+			return descriptionStart;
+		}
+
+		public int getDescriptionLength()
+		{
+			return descriptionEnd - descriptionStart;
+		}
+
+		/**
+		 * Return the sequence of this record as a view of the underlying bytes.
+		 *
+		 * @return the sequence of this record
+		 */
+		public CharSequence getSequence()
+		{
+			return sequence;
+		}
+
+		/**
+		 * Return the quality scores of this record as a view of the underlying bytes.
+		 *
+		 * @return the quality scores of this record
+		 */
+		public CharSequence getQuality()
+		{
+			return quality;
+		}
+
+		/**
+		 * Return the number of bases of this record.
+		 *
+		 * @return the number of bases of this record
+		 */
+		public int length()
+		{
+			return sequenceEnd - sequenceStart;
+		}
+
+		/**
+		 * Return the buffer holding the sequence, from {@link #getSequenceOffset()} for {@link #length()} bytes.
+		 *
+		 * @return the buffer holding the sequence
+		 */
+		public byte[] getSequenceBuffer()
+		{
+			return sequenceBuffer;
+		}
+
+		public int getSequenceOffset()
+		{
+			return sequenceStart;
+		}
+
+		/**
+		 * Return the buffer holding the quality scores, from {@link #getQualityOffset()} for {@link #length()} bytes.
+		 *
+		 * @return the buffer holding the quality scores
+		 */
+		public byte[] getQualityBuffer()
+		{
+			return qualityBuffer;
+		}
+
+		public int getQualityOffset()
+		{
+			return qualityStart;
+		}
+
+		public FastqVariant getVariant()
+		{
+			return variant;
+		}
+
+		/**
+		 * Create and return a new FASTQ formatted sequence holding a copy of this record.
+		 *
+		 * @return a new FASTQ formatted sequence holding a copy of this record
+		 */
+		public Fastq toFastq()
+		{
+			return new Fastq(getDescription(), sequence.toString(), quality.toString(), variant);
+		}
+
+		@Override
+		public String toString()
+		{
+			return "@" + getDescription();
+		}
+	}
+
+	/**
+	 * Character sequence view of a range of bytes, decoded as ISO-8859-1.
+	 */
+	private static final class ByteSequence implements CharSequence
+	{
+		private byte[] bytes;
+		private int start;
+		private int end;
+
+		private ByteSequence()
+		{
+			// empty
+		}
+
+		private ByteSequence(final byte[] bytes, final int start, final int end)
+		{
+			set(bytes, start, end);
+		}
+
+		private void set(final byte[] bytes, final int start, final int end)
+		{
+			this.bytes = bytes;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public int length()
+		{
+			return end - start;
+		}
+
+		@Override
+		public char charAt(final int index)
+		{
+			if (index < 0 || index >= length())
+			{
+				throw new IndexOutOfBoundsException("index " + index + " out of range for length " + length());
+			}
+			return (char) (bytes[start + index] & 0xff);
+		}
+
+		@Override
+		public CharSequence subSequence(final int from, final int to)
+		{
+			if (from < 0 || to > length() || from > to)
+			{
+				throw new IndexOutOfBoundsException("subSequence(" + from + ", " + to + ") out of range for length " + length());
+			}
+			return new ByteSequence(bytes, start + from, start + to);
+		}
+
+		@Override
+		public String toString()
+		{
+			return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+		}
+	}
+
+	/**
+	 * Complete records of a block.
+	 */
+	private static final class Batch
+	{
+		/** Block the records were read into. */
+		private final byte[] data;
+
+		/** Start offsets of the records, followed by the end of the last record. */
+		private final int[] starts;
+
+		/** Number of records. */
+		private final int count;
+
+		private Batch(final byte[] data, final int[] starts, final int count)
+		{
+			this.data = data;
+			this.starts = starts;
+			this.count = count;
+		}
+
+		private int size()
+		{
+			return count;
+		}
+	}
+
+	/**
+	 * Receives the batches split by the reader thread.
+	 */
+	private interface BatchSink
+	{
+		void accept(Batch batch) throws InterruptedException;
+	}
+
+	/**
+	 * Parses the batches on the worker threads and consumes the results on the calling thread.
+	 */
+	private interface BatchParser<T>
+	{
+		T parse(Batch batch, RecordView view) throws IOException;
+
+		void consume(T result);
+	}
+}
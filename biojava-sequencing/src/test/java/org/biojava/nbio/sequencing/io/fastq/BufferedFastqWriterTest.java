@@ -0,0 +1,283 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.sequencing.io.fastq;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Unit test for BufferedFastqWriter and BgzfOutputStream.
+ */
+public final class BufferedFastqWriterTest extends TestCase
+{
+	private static final String[] EXAMPLES = new String[]
+		{
+			"sanger_full_range_original_sanger.fastq",
+			"solexa_full_range_original_solexa.fastq",
+			"illumina_full_range_original_illumina.fastq",
+			"wrapping_original_sanger.fastq"
+		};
+
+	private static FastqWriter writer(final FastqVariant variant)
+	{
+		switch (variant)
+		{
+		case FASTQ_SOLEXA:
+			return new SolexaFastqWriter();
+		case FASTQ_ILLUMINA:
+			return new IlluminaFastqWriter();
+		default:
+			return new SangerFastqWriter();
+		}
+	}
+
+	private static FastqVariant variant(final String name)
+	{
+		return name.startsWith("solexa") ? FastqVariant.FASTQ_SOLEXA
+			: name.startsWith("illumina") ? FastqVariant.FASTQ_ILLUMINA : FastqVariant.FASTQ_SANGER;
+	}
+
+	private List<Fastq> read(final String name, final FastqVariant variant) throws IOException
+	{
+		InputStream inputStream = getClass().getResourceAsStream(name);
+		try
+		{
+			final List<Fastq> fastqs = new ArrayList<Fastq>();
+			new ParallelFastqReader(variant).stream(inputStream, new StreamListener()
+				{
+					@Override
+					public void fastq(final Fastq fastq)
+					{
+						fastqs.add(fastq);
+					}
+				});
+			return fastqs;
+		}
+		finally
+		{
+			inputStream.close();
+		}
+	}
+
+	public void testConstructor()
+	{
+		try
+		{
+			new BufferedFastqWriter(null, FastqVariant.FASTQ_SANGER);
+			fail("BufferedFastqWriter(null, ) expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e)
+		{
+			// expected
+		}
+		try
+		{
+			new BufferedFastqWriter(new ByteArrayOutputStream(), null);
+			fail("BufferedFastqWriter(, null) expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+
+	public void testWriteMatchesFastqWriter() throws Exception
+	{
+		for (String example : EXAMPLES)
+		{
+			List<Fastq> fastqs = read(example, variant(example));
+			for (FastqVariant target : FastqVariant.values())
+			{
+				String expected = writer(target).append(new StringBuilder(), fastqs).toString();
+
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				BufferedFastqWriter writer = new BufferedFastqWriter(out, target, 16);
+				writer.write(fastqs);
+				writer.close();
+				assertEquals(example + " as " + target, expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	public void testWriteRecordView() throws Exception
+	{
+		for (String example : EXAMPLES)
+		{
+			FastqVariant source = variant(example);
+			List<Fastq> fastqs = read(example, source);
+			for (final FastqVariant target : FastqVariant.values())
+			{
+				String expected = writer(target).append(new StringBuilder(), fastqs).toString();
+
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				final BufferedFastqWriter writer = new BufferedFastqWriter(out, target, 64);
+				ParallelFastqReader reader = new ParallelFastqReader(source);
+				// a single worker delivers the records in order
+				reader.setThreads(1);
+				InputStream inputStream = getClass().getResourceAsStream(example);
+				reader.process(inputStream, new ParallelFastqReader.RecordListener()
+					{
+						@Override
+						public void record(final ParallelFastqReader.RecordView record)
+						{
+							try
+							{
+								writer.write(record);
+							}
+							catch (IOException e)
+							{
+								throw new RuntimeException(e);
+							}
+						}
+					});
+				inputStream.close();
+				writer.flush();
+				assertEquals(example + " as " + target, expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	public void testBgzf() throws Exception
+	{
+		Random random = new Random(42);
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		BgzfOutputStream out = new BgzfOutputStream(compressed, 3, 6);
+		for (int i = 0; i < 50; i++)
+		{
+			// alternate compressible and incompressible data
+			byte[] data = new byte[random.nextInt(20000)];
+			if (i % 2 == 0)
+			{
+				random.nextBytes(data);
+			}
+			else
+			{
+				Arrays.fill(data, (byte) 'A');
+			}
+			out.write(data);
+			out.write('\n');
+			expected.write(data);
+			expected.write('\n');
+		}
+		out.close();
+
+		byte[] bytes = compressed.toByteArray();
+		// first block header with the BC extra field
+		assertEquals(0x1f, bytes[0] & 0xff);
+		assertEquals(0x8b, bytes[1] & 0xff);
+		assertEquals(4, bytes[3]);
+		assertEquals('B', bytes[12]);
+		assertEquals('C', bytes[13]);
+		// end-of-file block
+		assertEquals(28, bytes[bytes.length - 12] + 1);
+
+		// blocks are chained by their sizes
+		int offset = 0;
+		int blocks = 0;
+		while (offset < bytes.length)
+		{
+			offset += ((bytes[offset + 16] & 0xff) | ((bytes[offset + 17] & 0xff) << 8)) + 1;
+			blocks++;
+		}
+		assertEquals(bytes.length, offset);
+		assertTrue(blocks > 8);
+
+		assertTrue(Arrays.equals(expected.toByteArray(), readFully(new GZIPInputStream(new ByteArrayInputStream(bytes)))));
+	}
+
+	public void testBgzfCloseFailure() throws Exception
+	{
+		final boolean[] closed = new boolean[1];
+		OutputStream failing = new OutputStream()
+			{
+				@Override
+				public void write(final int b) throws IOException
+				{
+					throw new IOException("disk full");
+				}
+
+				@Override
+				public void close()
+				{
+					closed[0] = true;
+				}
+			};
+		BgzfOutputStream out = new BgzfOutputStream(failing, 2, 6);
+		out.write(new byte[1000]);
+		try
+		{
+			out.close();
+			fail("expected IOException");
+		}
+		catch (IOException e)
+		{
+			assertEquals("disk full", e.getMessage());
+		}
+		// the underlying stream is closed even though writing failed
+		assertTrue(closed[0]);
+	}
+
+	public void testBgzfWriter() throws Exception
+	{
+		List<Fastq> fastqs = read("sanger_full_range_original_sanger.fastq", FastqVariant.FASTQ_SANGER);
+		File file = File.createTempFile("bufferedFastqWriterTest", ".fastq.gz");
+		file.deleteOnExit();
+		BufferedFastqWriter writer = BufferedFastqWriter.bgzf(file, FastqVariant.FASTQ_ILLUMINA, 2);
+		writer.write(fastqs);
+		writer.close();
+
+		String expected = new IlluminaFastqWriter().append(new StringBuilder(), fastqs).toString();
+		assertEquals(expected, new String(readFully(new GZIPInputStream(new FileInputStream(file))), StandardCharsets.UTF_8));
+	}
+
+	private static byte[] readFully(final InputStream inputStream) throws IOException
+	{
+		try
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = inputStream.read(buffer)) != -1)
+			{
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+		finally
+		{
+			inputStream.close();
+		}
+	}
+}
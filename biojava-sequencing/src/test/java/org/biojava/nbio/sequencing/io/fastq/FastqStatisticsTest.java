@@ -0,0 +1,146 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.sequencing.io.fastq;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Unit test for FastqStatistics.
+ */
+public final class FastqStatisticsTest extends TestCase
+{
+	private final FastqBuilder builder = new FastqBuilder().withDescription("foo").withVariant(FastqVariant.FASTQ_SANGER);
+
+	public void testAdd()
+	{
+		FastqStatistics statistics = new FastqStatistics();
+		statistics.add(builder.withSequence("ACGTN").withQuality("!+5?I").build());
+		statistics.add(builder.withSequence("GGnc").withQuality("IIII").build());
+
+		assertEquals(2, statistics.getReads());
+		assertEquals(9, statistics.getBases());
+		assertEquals(5, statistics.getMaximumLength());
+		assertEquals(4.5d, statistics.getMeanLength());
+		assertTrue(Arrays.equals(new long[] { 0, 0, 0, 0, 1, 1 }, statistics.getLengthDistribution()));
+
+		assertEquals(2, statistics.getNCount());
+		assertEquals(0, statistics.getNCount(0));
+		assertEquals(1, statistics.getNCount(2));
+		assertEquals(1, statistics.getNCount(4));
+		assertEquals(3, statistics.getBaseCount('g'));
+		assertEquals(5.0d / 7.0d, statistics.getGcContent(), 1e-9);
+		assertEquals(1, statistics.getGcContentDistribution()[50]);
+		assertEquals(1, statistics.getGcContentDistribution()[100]);
+
+		assertEquals(20.0d, statistics.getMeanQuality(0), 1e-9);
+		assertEquals(25.0d, statistics.getMeanQuality(1), 1e-9);
+		assertEquals(40.0d, statistics.getMeanQuality(4), 1e-9);
+		assertTrue(Double.isNaN(statistics.getMeanQuality(5)));
+		long[] histogram = statistics.getQualityDistribution(1);
+		assertEquals(1, histogram[10 - FastqStatistics.MINIMUM_QUALITY_SCORE]);
+		assertEquals(1, histogram[40 - FastqStatistics.MINIMUM_QUALITY_SCORE]);
+
+		assertEquals(2, statistics.getEstimatedDistinctReads());
+		assertEquals(0.0d, statistics.getEstimatedDuplicateFraction());
+	}
+
+	public void testMerge()
+	{
+		Random random = new Random(42);
+		FastqStatistics all = new FastqStatistics();
+		FastqStatistics first = new FastqStatistics();
+		FastqStatistics second = new FastqStatistics();
+		for (int i = 0; i < 200; i++)
+		{
+			int length = 1 + random.nextInt(i < 100 ? 10 : 50);
+			StringBuilder sequence = new StringBuilder();
+			StringBuilder quality = new StringBuilder();
+			for (int j = 0; j < length; j++)
+			{
+				sequence.append("ACGTN".charAt(random.nextInt(5)));
+				quality.append((char) (33 + random.nextInt(42)));
+			}
+			Fastq fastq = builder.withSequence(sequence.toString()).withQuality(quality.toString()).build();
+			all.add(fastq);
+			(i < 100 ? first : second).add(fastq);
+		}
+		first.merge(second);
+
+		assertEquals(all.toString(), first.toString());
+		assertTrue(Arrays.equals(all.getLengthDistribution(), first.getLengthDistribution()));
+		assertTrue(Arrays.equals(all.getGcContentDistribution(), first.getGcContentDistribution()));
+		for (int i = 0; i < 50; i++)
+		{
+			assertTrue(Arrays.equals(all.getQualityDistribution(i), first.getQualityDistribution(i)));
+			assertEquals(all.getNCount(i), first.getNCount(i));
+		}
+		assertEquals(all.getEstimatedDistinctReads(), first.getEstimatedDistinctReads());
+	}
+
+	public void testDuplicates()
+	{
+		Random random = new Random(42);
+		FastqStatistics statistics = new FastqStatistics();
+		char[] sequence = new char[30];
+		char[] quality = new char[30];
+		Arrays.fill(quality, 'I');
+		for (int i = 0; i < 20000; i++)
+		{
+			for (int j = 0; j < sequence.length; j++)
+			{
+				sequence[j] = "ACGT".charAt(random.nextInt(4));
+			}
+			Fastq fastq = builder.withSequence(new String(sequence)).withQuality(new String(quality)).build();
+			statistics.add(fastq);
+			statistics.add(fastq);
+		}
+		assertEquals(20000.0d, statistics.getEstimatedDistinctReads(), 600.0d);
+		assertEquals(0.5d, statistics.getEstimatedDuplicateFraction(), 0.02d);
+	}
+
+	public void testAddRecordView() throws Exception
+	{
+		String input = "@a\nACGTN\n+\n!+5?I\n@b\nGG\nnc\n+\nII\nII\n";
+		final FastqStatistics views = new FastqStatistics();
+		ParallelFastqReader reader = new ParallelFastqReader(FastqVariant.FASTQ_SANGER);
+		reader.setThreads(1);
+		reader.process(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)), new ParallelFastqReader.RecordListener()
+			{
+				@Override
+				public void record(final ParallelFastqReader.RecordView record)
+				{
+					views.add(record);
+				}
+			});
+
+		FastqStatistics fastqs = new FastqStatistics();
+		fastqs.add(builder.withSequence("ACGTN").withQuality("!+5?I").build());
+		fastqs.add(builder.withSequence("GGnc").withQuality("IIII").build());
+		assertEquals(fastqs.toString(), views.toString());
+		assertEquals(fastqs.getMeanQuality(1), views.getMeanQuality(1));
+		assertEquals(fastqs.getEstimatedDistinctReads(), views.getEstimatedDistinctReads());
+	}
+}
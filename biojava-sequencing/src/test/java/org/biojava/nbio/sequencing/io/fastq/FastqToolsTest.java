@@ -475,4 +475,42 @@ public final class FastqToolsTest extends TestCase
 		assertTrue(FastqTools.toList(collection) instanceof List);
 		assertNotSame(collection, FastqTools.toList(collection));
 	}
+
+	public void testQualityScoresIntoByteArray()
+	{
+		byte[] qualityScores = FastqTools.qualityScores("!5I~", FastqVariant.FASTQ_SANGER, null);
+		assertEquals(4, qualityScores.length);
+		assertEquals(0, qualityScores[0]);
+		assertEquals(20, qualityScores[1]);
+		assertEquals(40, qualityScores[2]);
+		assertEquals(93, qualityScores[3]);
+
+		// reused when long enough
+		assertSame(qualityScores, FastqTools.qualityScores(";@", FastqVariant.FASTQ_SOLEXA, qualityScores));
+		assertEquals(-5, qualityScores[0]);
+		assertEquals(0, qualityScores[1]);
+
+		byte[] bytes = "xxhh".getBytes();
+		assertSame(qualityScores, FastqTools.qualityScores(bytes, 2, 2, FastqVariant.FASTQ_ILLUMINA, qualityScores));
+		assertEquals(40, qualityScores[0]);
+		assertEquals(40, qualityScores[1]);
+	}
+
+	public void testErrorProbabilitiesIntoDoubleArray()
+	{
+		for (FastqVariant variant : FastqVariant.values())
+		{
+			Fastq fastq = builder.withVariant(variant).build();
+			double[] expected = FastqTools.errorProbabilities(fastq, new double[4]);
+			double[] errorProbabilities = FastqTools.errorProbabilities(fastq.getQuality(), variant, new double[10]);
+			double[] fromBytes = FastqTools.errorProbabilities(fastq.getQuality().getBytes(), 0, 4, variant, null);
+			for (int i = 0; i < 4; i++)
+			{
+				assertEquals(variant.errorProbability(fastq.getQuality().charAt(i)), expected[i]);
+				assertEquals(expected[i], errorProbabilities[i]);
+				assertEquals(expected[i], fromBytes[i]);
+			}
+		}
+		assertEquals(0.1d, FastqTools.errorProbabilities("+", FastqVariant.FASTQ_SANGER, null)[0], 1e-12);
+	}
 }
@@ -0,0 +1,261 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.sequencing.io.fastq;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit test for ParallelFastqReader.
+ */
+public final class ParallelFastqReaderTest
+	extends TestCase
+{
+	/** Example files read by both readers, with their variants. */
+	private static final String[] EXAMPLES = new String[]
+		{
+			"example.fastq",
+			"evil_wrapping.fastq",
+			"illumina_full_range_as_illumina.fastq",
+			"longreads_as_sanger.fastq",
+			"misc_dna_as_solexa.fastq",
+			"misc_rna_original_sanger.fastq",
+			"multiple-wrapped-quality.fastq",
+			"sanger_full_range_original_sanger.fastq",
+			"solexa_full_range_original_solexa.fastq",
+			"tricky.fastq",
+			"wrapping_original_sanger.fastq",
+			"wrapping_issues.fastq",
+			"empty.fastq",
+			"sanger-invalid-description.fastq",
+			"sanger-invalid-repeat-description.fastq"
+		};
+
+	private static FastqVariant variant(final String name)
+	{
+		if (name.contains("solexa"))
+		{
+			return FastqVariant.FASTQ_SOLEXA;
+		}
+		if (name.contains("illumina"))
+		{
+			return FastqVariant.FASTQ_ILLUMINA;
+		}
+		return FastqVariant.FASTQ_SANGER;
+	}
+
+	private static FastqReader reader(final FastqVariant variant)
+	{
+		switch (variant)
+		{
+		case FASTQ_SOLEXA:
+			return new SolexaFastqReader();
+		case FASTQ_ILLUMINA:
+			return new IlluminaFastqReader();
+		default:
+			return new SangerFastqReader();
+		}
+	}
+
+	private byte[] bytes(final String name) throws IOException
+	{
+		InputStream inputStream = getClass().getResourceAsStream(name);
+		try
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = inputStream.read(buffer)) != -1)
+			{
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+		finally
+		{
+			inputStream.close();
+		}
+	}
+
+	private static List<String> toStrings(final Iterable<Fastq> fastqs)
+	{
+		List<String> strings = new ArrayList<String>();
+		for (Fastq fastq : fastqs)
+		{
+			strings.add(fastq.getDescription() + "|" + fastq.getSequence() + "|" + fastq.getQuality() + "|" + fastq.getVariant());
+		}
+		return strings;
+	}
+
+	public void testConstructor()
+	{
+		try
+		{
+			new ParallelFastqReader(null);
+			fail("ParallelFastqReader(null) expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+
+	public void testStreamMatchesFastqReader() throws Exception
+	{
+		for (String example : EXAMPLES)
+		{
+			FastqVariant variant = variant(example);
+			byte[] data = bytes(example);
+
+			List<String> expected = null;
+			try
+			{
+				expected = toStrings(reader(variant).read(new ByteArrayInputStream(data)));
+			}
+			catch (IOException e)
+			{
+				// the parallel reader must fail as well
+			}
+
+			for (int blockSize : new int[] { 1, 7, 64, 1 << 20 })
+			{
+				ParallelFastqReader reader = new ParallelFastqReader(variant);
+				reader.setBlockSize(blockSize);
+				reader.setThreads(3);
+				reader.setQueueCapacity(2);
+				final List<Fastq> fastqs = new ArrayList<Fastq>();
+				try
+				{
+					reader.stream(new ByteArrayInputStream(data), new StreamListener()
+						{
+							@Override
+							public void fastq(final Fastq fastq)
+							{
+								fastqs.add(fastq);
+							}
+						});
+					assertNotNull(example + " expected IOException", expected);
+					assertEquals(example, expected, toStrings(fastqs));
+				}
+				catch (IOException e)
+				{
+					assertNull(example + " unexpected " + e, expected);
+				}
+			}
+		}
+	}
+
+	public void testErrorExamples() throws Exception
+	{
+		ParallelFastqReader reader = new ParallelFastqReader(FastqVariant.FASTQ_SANGER);
+		reader.setBlockSize(32);
+		for (String errorExample : AbstractFastqReaderTest.ERROR_EXAMPLES)
+		{
+			try
+			{
+				reader.stream(new ByteArrayInputStream(bytes(errorExample)), new StreamListener()
+					{
+						@Override
+						public void fastq(final Fastq fastq)
+						{
+							// empty
+						}
+					});
+				fail("error example " + errorExample + " expected IOException");
+			}
+			catch (IOException e)
+			{
+				// expected
+			}
+		}
+	}
+
+	public void testReaderError() throws Exception
+	{
+		final byte[] data = bytes("wrapping_original_sanger.fastq");
+		InputStream inputStream = new InputStream()
+			{
+				private int offset;
+
+				@Override
+				public int read()
+				{
+					if (offset == data.length / 2)
+					{
+						throw new AssertionError("read failed");
+					}
+					return data[offset++] & 0xff;
+				}
+			};
+		ParallelFastqReader reader = new ParallelFastqReader(FastqVariant.FASTQ_SANGER);
+		reader.setBlockSize(100);
+		try
+		{
+			reader.stream(inputStream, new StreamListener()
+				{
+					@Override
+					public void fastq(final Fastq fastq)
+					{
+						// empty
+					}
+				});
+			fail("expected AssertionError");
+		}
+		catch (AssertionError e)
+		{
+			assertEquals("read failed", e.getMessage());
+		}
+	}
+
+	public void testProcess() throws Exception
+	{
+		byte[] data = bytes("wrapping_original_sanger.fastq");
+		List<String> expected = toStrings(new SangerFastqReader().read(new ByteArrayInputStream(data)));
+
+		ParallelFastqReader reader = new ParallelFastqReader(FastqVariant.FASTQ_SANGER);
+		reader.setBlockSize(100);
+		final List<String> records = Collections.synchronizedList(new ArrayList<String>());
+		reader.process(new ByteArrayInputStream(data), new ParallelFastqReader.RecordListener()
+			{
+				@Override
+				public void record(final ParallelFastqReader.RecordView record)
+				{
+					assertEquals(record.length(), record.getSequence().length());
+					assertEquals(record.length(), record.getQuality().length());
+					assertEquals(record.getSequence().charAt(0), (char) record.getSequenceBuffer()[record.getSequenceOffset()]);
+					assertEquals(record.getQuality().subSequence(1, 3).toString(),
+							new String(record.getQualityBuffer(), record.getQualityOffset() + 1, 2));
+					records.add(record.getDescription() + "|" + record.getSequence() + "|" + record.getQuality() + "|" + record.getVariant());
+				}
+			});
+
+		Collections.sort(expected);
+		Collections.sort(records);
+		assertEquals(expected, records);
+	}
+}
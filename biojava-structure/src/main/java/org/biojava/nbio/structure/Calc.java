@@ -1243,6 +1243,71 @@ public class Calc {
 		return CalcPoint.rmsd(atomsToPoints(x), atomsToPoints(y));
 	}
 
+	/**
+	 * Calculate the RMSD of two sets of interleaved x,y,z coordinates (as
+	 * returned by {@link CompactAtomStore#getCoordinates()}), already
+	 * superposed.
+	 * 
+	 * @param x
+	 *            coordinates superposed to y
+	 * @param y
+	 *            coordinates superposed to x
+	 * @return RMSD
+	 */
+	public static double rmsd(double[] x, double[] y) {
+
+		if (x.length != y.length) {
+			throw new IllegalArgumentException(
+					"Coordinate arrays are not of the same length.");
+		}
+
+		double sum = 0.0;
+		for (int i = 0; i < x.length; i++) {
+			double d = x[i] - y[i];
+			sum += d * d;
+		}
+		return Math.sqrt(sum / (x.length / 3));
+	}
+
+	/**
+	 * Returns the centroid of all atoms in a {@link CompactAtomStore}, reading
+	 * the coordinates directly from the store.
+	 * 
+	 * @param store
+	 * @return the centroid
+	 */
+	public static Point3d getCentroid(CompactAtomStore store) {
+		double x = 0, y = 0, z = 0;
+		int n = store.size();
+		for (int i = 0; i < n; i++) {
+			x += store.getX(i);
+			y += store.getY(i);
+			z += store.getZ(i);
+		}
+		return new Point3d(x / n, y / n, z / n);
+	}
+
+	/**
+	 * Transforms all atoms of a {@link CompactAtomStore} in place, given a
+	 * Matrix4d. This is equivalent to transforming every {@link CompactAtom}
+	 * of the store, but does not create any intermediate objects.
+	 * 
+	 * @param store
+	 * @param m
+	 */
+	public static void transform(CompactAtomStore store, Matrix4d m) {
+		int n = store.size();
+		for (int i = 0; i < n; i++) {
+			double x = store.getX(i);
+			double y = store.getY(i);
+			double z = store.getZ(i);
+			store.setCoords(i,
+					m.m00 * x + m.m01 * y + m.m02 * z + m.m03,
+					m.m10 * x + m.m11 * y + m.m12 * z + m.m13,
+					m.m20 * x + m.m21 * y + m.m22 * z + m.m23);
+		}
+	}
+
 	/**
 	 * Calculate the TM-Score for the superposition.
 	 *
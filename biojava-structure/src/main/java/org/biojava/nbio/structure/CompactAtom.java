@@ -0,0 +1,302 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import org.biojava.nbio.structure.io.FileConvert;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.vecmath.Point3d;
+
+/**
+ * A lightweight {@link Atom} that is a view of one row of a
+ * {@link CompactAtomStore}. All per-atom values except for the parent group
+ * and the bonds are read from and written to the store.
+ * <p>
+ * Note that, unlike {@link AtomImpl}, {@link #getCoordsAsPoint3d()} returns a
+ * copy of the coordinates: modifying the returned object does not move the
+ * atom. Use the setters or {@link Calc} to modify coordinates.
+ *
+ * @see CompactAtomStore
+ * @since 5.0.0
+ */
+public class CompactAtom implements Atom, Serializable, PDBRecord {
+
+	private static final long serialVersionUID = 6240914470389468283L;
+
+	private final CompactAtomStore store;
+	private final int index;
+
+	private Group parent;
+
+	private List<Bond> bonds;
+
+	/**
+	 * Constructs a view of the given row of a store. Use
+	 * {@link CompactAtomStore#newAtom()} to add atoms to a store.
+	 * @param store
+	 * @param index
+	 */
+	CompactAtom(CompactAtomStore store, int index) {
+		this.store = store;
+		this.index = index;
+		this.parent = null;
+		this.bonds = null;
+	}
+
+	/**
+	 * @return the store that holds the data of this atom
+	 */
+	public CompactAtomStore getStore() {
+		return store;
+	}
+
+	/**
+	 * @return the row of this atom in its {@link CompactAtomStore}
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setName(String s) { store.setName(index, s); }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() { return store.getName(index); }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setElement(Element e) { store.setElement(index, e); }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Element getElement() { return store.getElement(index); }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setPDBserial(int i) { store.setPDBserial(index, i); }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getPDBserial() { return store.getPDBserial(index); }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setCoords(double[] c) {
+		store.setCoords(index, c[0], c[1], c[2]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double[] getCoords() {
+		return new double[] { store.getX(index), store.getY(index), store.getZ(index) };
+	}
+
+	/**
+	 * Returns a copy of the coordinates of this atom. Changes to the
+	 * returned object are not reflected in the atom.
+	 */
+	@Override
+	public Point3d getCoordsAsPoint3d() {
+		return store.getPoint3d(index);
+	}
+
+	@Override
+	public void setX(double x) { store.setX(index, x); }
+
+	@Override
+	public void setY(double y) { store.setY(index, y); }
+
+	@Override
+	public void setZ(double z) { store.setZ(index, z); }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getX() { return store.getX(index); }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getY() { return store.getY(index); }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getZ() { return store.getZ(index); }
+
+	/**
+	 * Set alternate Location.
+	 * @see #getAltLoc
+	 */
+	@Override
+	public void setAltLoc(Character c) {
+		if (c==null)
+			store.setAltLoc(index, (char) 0);
+		else
+			store.setAltLoc(index, c);
+	}
+
+	/**
+	 * Get alternate Location.
+	 * @return a Character object representing the alt loc value
+	 * @see #setAltLoc
+	 */
+	@Override
+	public Character getAltLoc() {
+		char altLoc = store.getAltLoc(index);
+		if (altLoc==0) return null;
+		return altLoc;
+	}
+
+	@Override
+	public void setOccupancy(float occu) { store.setOccupancy(index, occu); }
+
+	@Override
+	public float getOccupancy() { return store.getOccupancy(index); }
+
+	@Override
+	public void setTempFactor(float temp) { store.setTempFactor(index, temp); }
+
+	@Override
+	public float getTempFactor() { return store.getTempFactor(index); }
+
+	@Override
+	public short getCharge() { return store.getCharge(index); }
+
+	@Override
+	public void setCharge(short inputCharge) { store.setCharge(index, inputCharge); }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setGroup(Group parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Group getGroup() {
+		return parent;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Bond> getBonds() {
+		return bonds;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setBonds(List<Bond> bonds) {
+		this.bonds = bonds;
+	}
+
+	@Override
+	public void addBond(Bond bond) {
+		if (bonds==null) {
+			bonds = new ArrayList<Bond>(AtomImpl.BONDS_INITIAL_CAPACITY);
+		}
+		bonds.add(bond);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasBond(Atom other) {
+		if ( bonds == null)
+			return false;
+
+		for (Bond b : bonds){
+			if ( b.getAtomA().equals(other) || b.getAtomB().equals(other))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String toPDB() {
+		return FileConvert.toPDB(this);
+	}
+
+	@Override
+	public void toPDB(StringBuffer buf) {
+		FileConvert.toPDB(this,buf);
+	}
+
+	@Override
+	public String toString() {
+		return getName() + " " + getElement() + " " + getPDBserial() + " " + getX() + " " + getY() + " " + getZ();
+	}
+
+	/**
+	 * Returns an identical copy of this atom as a standalone {@link AtomImpl},
+	 * detached from the store.
+	 * @return an identical copy of this object
+	 */
+	@Override
+	public Object clone() {
+		AtomImpl n = new AtomImpl();
+		n.setOccupancy(getOccupancy());
+		n.setTempFactor(getTempFactor());
+		n.setAltLoc(getAltLoc());
+		n.setCharge(getCharge());
+		n.setX(getX());
+		n.setY(getY());
+		n.setZ(getZ());
+		n.setPDBserial(getPDBserial());
+		n.setName(getName());
+		n.setElement(getElement());
+		// as in AtomImpl, bonds are cloned at the group or chain level
+		return n;
+	}
+}
@@ -0,0 +1,419 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.vecmath.Point3d;
+
+/**
+ * A struct-of-arrays store for the per-atom data of a {@link Structure}.
+ * <p>
+ * Instead of every {@link AtomImpl} holding its own {@link Point3d}, name
+ * String and so on, all atoms of a structure share a set of contiguous
+ * primitive columns: interleaved x/y/z coordinates, occupancies and
+ * temperature factors (either on the Java heap or in an off-heap direct
+ * buffer), plus serial numbers, element ordinals, alternate locations,
+ * charges and indices into a table of interned atom names.
+ * <p>
+ * The atoms themselves are represented by {@link CompactAtom} flyweights,
+ * which only hold a reference to this store, their row index, their parent
+ * {@link Group} and their bonds. The parsers fill a store directly when
+ * {@link org.biojava.nbio.structure.io.FileParsingParameters#setUseCompactAtomStore(boolean)}
+ * is set.
+ * <p>
+ * Coordinates can be read in bulk with {@link #getCoordinates()} or
+ * {@link #getCoordinates(int[], double[])}, which is what
+ * {@link Calc} and {@link org.biojava.nbio.structure.geometry.SuperPositionQCP}
+ * use to avoid materializing an {@link Atom} array.
+ * <p>
+ * This class is not thread-safe for writing. Concurrent reads of a store
+ * that is no longer modified are safe.
+ *
+ * @since 5.0.0
+ */
+public class CompactAtomStore implements Serializable {
+
+	private static final long serialVersionUID = -4018416361563432811L;
+
+	/**
+	 * The default initial number of atom rows.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private static final Element[] ELEMENTS = Element.values();
+
+	private final boolean offHeap;
+
+	private int size;
+	private int capacity;
+
+	// numeric columns, allocated either on heap or as direct buffers
+	private transient DoubleBuffer xyz;
+	private transient FloatBuffer occupancies;
+	private transient FloatBuffer tempFactors;
+
+	private int[] serials;
+	private int[] nameIds;
+	private byte[] elements;
+	private char[] altLocs;
+	private short[] charges;
+
+	private List<String> names;
+	private Map<String,Integer> nameLookup;
+
+	/**
+	 * Constructs an empty heap-backed store with the {@link #DEFAULT_CAPACITY}.
+	 */
+	public CompactAtomStore() {
+		this(DEFAULT_CAPACITY, false);
+	}
+
+	/**
+	 * Constructs an empty store.
+	 * @param initialCapacity the number of atom rows to preallocate, the store grows as needed
+	 * @param offHeap if true coordinates, occupancies and temperature factors are kept
+	 * in direct (off-heap) buffers, otherwise on the Java heap
+	 */
+	public CompactAtomStore(int initialCapacity, boolean offHeap) {
+		if (initialCapacity < 1) initialCapacity = 1;
+		this.offHeap = offHeap;
+		this.size = 0;
+		this.capacity = initialCapacity;
+
+		xyz = allocateDoubles(3 * capacity);
+		occupancies = allocateFloats(capacity);
+		tempFactors = allocateFloats(capacity);
+
+		serials  = new int[capacity];
+		nameIds  = new int[capacity];
+		elements = new byte[capacity];
+		altLocs  = new char[capacity];
+		charges  = new short[capacity];
+
+		names = new ArrayList<String>();
+		nameLookup = new HashMap<String,Integer>();
+		// row 0 of the name table is reserved for null names
+		names.add(null);
+		Arrays.fill(elements, (byte) Element.R.ordinal());
+	}
+
+	/**
+	 * @return the number of atoms in this store
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if the numeric columns are held in off-heap direct buffers
+	 */
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	/**
+	 * @return the number of distinct atom names interned in this store
+	 */
+	public int getNumberOfNames() {
+		return names.size() - 1;
+	}
+
+	/**
+	 * Appends a new row to the store, with all values initialized as for a
+	 * freshly constructed {@link AtomImpl}, and returns a flyweight view of it.
+	 * @return the new atom
+	 */
+	public CompactAtom newAtom() {
+		if (size == capacity) {
+			resize(capacity * 2);
+		}
+		int index = size++;
+		return new CompactAtom(this, index);
+	}
+
+	/**
+	 * Releases the unused preallocated capacity.
+	 */
+	public void trimToSize() {
+		if (size < capacity) {
+			resize(Math.max(size, 1));
+		}
+	}
+
+	private void resize(int newCapacity) {
+		int oldElements = capacity;
+
+		DoubleBuffer newXyz = allocateDoubles(3 * newCapacity);
+		FloatBuffer newOcc = allocateFloats(newCapacity);
+		FloatBuffer newTemp = allocateFloats(newCapacity);
+
+		copy(xyz, newXyz, 3 * size);
+		copy(occupancies, newOcc, size);
+		copy(tempFactors, newTemp, size);
+
+		xyz = newXyz;
+		occupancies = newOcc;
+		tempFactors = newTemp;
+
+		serials  = Arrays.copyOf(serials, newCapacity);
+		nameIds  = Arrays.copyOf(nameIds, newCapacity);
+		altLocs  = Arrays.copyOf(altLocs, newCapacity);
+		charges  = Arrays.copyOf(charges, newCapacity);
+		elements = Arrays.copyOf(elements, newCapacity);
+		if (newCapacity > oldElements) {
+			Arrays.fill(elements, oldElements, newCapacity, (byte) Element.R.ordinal());
+		}
+
+		capacity = newCapacity;
+	}
+
+	private static void copy(DoubleBuffer from, DoubleBuffer to, int length) {
+		DoubleBuffer src = from.duplicate();
+		src.position(0);
+		src.limit(length);
+		to.put(src);
+		to.clear();
+	}
+
+	private static void copy(FloatBuffer from, FloatBuffer to, int length) {
+		FloatBuffer src = from.duplicate();
+		src.position(0);
+		src.limit(length);
+		to.put(src);
+		to.clear();
+	}
+
+	private DoubleBuffer allocateDoubles(int n) {
+		if (offHeap) {
+			return ByteBuffer.allocateDirect(n * 8).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+		}
+		return DoubleBuffer.allocate(n);
+	}
+
+	private FloatBuffer allocateFloats(int n) {
+		if (offHeap) {
+			return ByteBuffer.allocateDirect(n * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		}
+		return FloatBuffer.allocate(n);
+	}
+
+	public double getX(int i) {
+		return xyz.get(3 * i);
+	}
+
+	public double getY(int i) {
+		return xyz.get(3 * i + 1);
+	}
+
+	public double getZ(int i) {
+		return xyz.get(3 * i + 2);
+	}
+
+	public void setX(int i, double x) {
+		xyz.put(3 * i, x);
+	}
+
+	public void setY(int i, double y) {
+		xyz.put(3 * i + 1, y);
+	}
+
+	public void setZ(int i, double z) {
+		xyz.put(3 * i + 2, z);
+	}
+
+	/**
+	 * Sets all three coordinates of an atom at once.
+	 * @param i the atom index
+	 * @param x
+	 * @param y
+	 * @param z
+	 */
+	public void setCoords(int i, double x, double y, double z) {
+		int offset = 3 * i;
+		xyz.put(offset, x);
+		xyz.put(offset + 1, y);
+		xyz.put(offset + 2, z);
+	}
+
+	/**
+	 * Returns a new Point3d with the coordinates of the given atom. Changes to
+	 * the returned object are not reflected in this store.
+	 * @param i the atom index
+	 * @return
+	 */
+	public Point3d getPoint3d(int i) {
+		int offset = 3 * i;
+		return new Point3d(xyz.get(offset), xyz.get(offset + 1), xyz.get(offset + 2));
+	}
+
+	/**
+	 * Returns a copy of the coordinates of all atoms as an interleaved
+	 * x,y,z array of length 3*{@link #size()}.
+	 * @return
+	 */
+	public double[] getCoordinates() {
+		double[] dest = new double[3 * size];
+		DoubleBuffer src = xyz.duplicate();
+		src.position(0);
+		src.get(dest, 0, dest.length);
+		return dest;
+	}
+
+	/**
+	 * Copies the coordinates of the given atoms, in the order given, as
+	 * interleaved x,y,z values into dest.
+	 * @param indices the atom indices
+	 * @param dest an array of at least 3*indices.length values
+	 */
+	public void getCoordinates(int[] indices, double[] dest) {
+		for (int k = 0; k < indices.length; k++) {
+			int offset = 3 * indices[k];
+			dest[3 * k]     = xyz.get(offset);
+			dest[3 * k + 1] = xyz.get(offset + 1);
+			dest[3 * k + 2] = xyz.get(offset + 2);
+		}
+	}
+
+	public float getOccupancy(int i) {
+		return occupancies.get(i);
+	}
+
+	public void setOccupancy(int i, float occupancy) {
+		occupancies.put(i, occupancy);
+	}
+
+	public float getTempFactor(int i) {
+		return tempFactors.get(i);
+	}
+
+	public void setTempFactor(int i, float tempFactor) {
+		tempFactors.put(i, tempFactor);
+	}
+
+	public int getPDBserial(int i) {
+		return serials[i];
+	}
+
+	public void setPDBserial(int i, int serial) {
+		serials[i] = serial;
+	}
+
+	public Element getElement(int i) {
+		return ELEMENTS[elements[i] & 0xff];
+	}
+
+	public void setElement(int i, Element element) {
+		elements[i] = (byte) (element == null ? Element.R : element).ordinal();
+	}
+
+	/**
+	 * @param i the atom index
+	 * @return the alternate location, 0 if none was set
+	 */
+	public char getAltLoc(int i) {
+		return altLocs[i];
+	}
+
+	public void setAltLoc(int i, char altLoc) {
+		altLocs[i] = altLoc;
+	}
+
+	public short getCharge(int i) {
+		return charges[i];
+	}
+
+	public void setCharge(int i, short charge) {
+		charges[i] = charge;
+	}
+
+	public String getName(int i) {
+		return names.get(nameIds[i]);
+	}
+
+	/**
+	 * Sets the name of an atom. Names are interned in a table local to this
+	 * store, so that a structure with thousands of "CA" atoms holds a single
+	 * "CA" String.
+	 * @param i the atom index
+	 * @param name
+	 */
+	public void setName(int i, String name) {
+		if (name == null) {
+			nameIds[i] = 0;
+			return;
+		}
+		Integer id = nameLookup.get(name);
+		if (id == null) {
+			id = names.size();
+			names.add(name);
+			nameLookup.put(name, id);
+		}
+		nameIds[i] = id;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		double[] c = new double[3 * capacity];
+		DoubleBuffer src = xyz.duplicate();
+		src.clear();
+		src.get(c);
+		float[] o = new float[capacity];
+		FloatBuffer srcO = occupancies.duplicate();
+		srcO.clear();
+		srcO.get(o);
+		float[] t = new float[capacity];
+		FloatBuffer srcT = tempFactors.duplicate();
+		srcT.clear();
+		srcT.get(t);
+		out.writeObject(c);
+		out.writeObject(o);
+		out.writeObject(t);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		double[] c = (double[]) in.readObject();
+		float[] o = (float[]) in.readObject();
+		float[] t = (float[]) in.readObject();
+		xyz = allocateDoubles(c.length);
+		xyz.put(c);
+		xyz.clear();
+		occupancies = allocateFloats(o.length);
+		occupancies.put(o);
+		occupancies.clear();
+		tempFactors = allocateFloats(t.length);
+		tempFactors.put(t);
+		tempFactors.clear();
+	}
+}
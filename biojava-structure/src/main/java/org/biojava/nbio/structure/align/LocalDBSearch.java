@@ -0,0 +1,474 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.align.ce.ConfigStrucAligParams;
+import org.biojava.nbio.structure.align.model.AFPChain;
+import org.biojava.nbio.structure.align.util.AFPChainScorer;
+import org.biojava.nbio.structure.align.util.AtomCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Searches many query structures against many target structures locally, keeping the best hits of each query.
+ * <p>
+ * Unlike {@link MultiThreadedDBSearch}, which aligns one query against the representatives of the RCSB and writes
+ * text results, this class needs no server: the representative atoms of all structures are loaded once through an
+ * {@link AtomCache} and shared between the alignments, the query x target matrix is split into tiles which are
+ * aligned on a work-stealing {@link ForkJoinPool}, and the hits of each query are kept in a heap bounded to the
+ * best {@link #setTopK(int) k} hits and returned as {@link Hit} objects.
+ * <p>
+ * Hits are scored by the TM-score normalized by the length of the query. Since every aligned pair contributes at
+ * most 1 to it, a target cannot score more than min(length of query, length of target) / length of query. Pairs
+ * whose bound is below the {@link #setMinScore(double) minimum score}, or below the k-th best score of a query
+ * whose heap is full, are skipped without being aligned.
+ *
+ * @since 5.0.0
+ */
+public class LocalDBSearch {
+
+	private final static Logger logger = LoggerFactory.getLogger(LocalDBSearch.class);
+
+	private final AtomCache cache;
+	private final String algorithmName;
+	private ConfigStrucAligParams parameters;
+
+	private int nrCPUs = Runtime.getRuntime().availableProcessors();
+	private int topK = 10;
+	private double minScore = 0.5;
+	private int tileSize = 8;
+	private boolean includeSelf = false;
+
+	private final AtomicBoolean interrupted = new AtomicBoolean(false);
+	private final AtomicLong nrAligned = new AtomicLong();
+	private final AtomicLong nrSkipped = new AtomicLong();
+
+	/**
+	 * @param cache the cache from which the structures are loaded
+	 * @param algorithmName the name of the pairwise algorithm, see {@link StructureAlignmentFactory}.
+	 * 	A new instance is created for each tile.
+	 */
+	public LocalDBSearch(AtomCache cache, String algorithmName) {
+		this.cache = cache;
+		this.algorithmName = algorithmName;
+	}
+
+	public ConfigStrucAligParams getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * @param parameters the parameters of the algorithm, or null for its defaults
+	 */
+	public void setParameters(ConfigStrucAligParams parameters) {
+		this.parameters = parameters;
+	}
+
+	public int getNrCPUs() {
+		return nrCPUs;
+	}
+
+	public void setNrCPUs(int nrCPUs) {
+		this.nrCPUs = nrCPUs;
+	}
+
+	public int getTopK() {
+		return topK;
+	}
+
+	/**
+	 * @param topK the number of hits kept for each query (default 10)
+	 */
+	public void setTopK(int topK) {
+		if (topK < 1)
+			throw new IllegalArgumentException("topK must be at least 1");
+		this.topK = topK;
+	}
+
+	public double getMinScore() {
+		return minScore;
+	}
+
+	/**
+	 * @param minScore the minimum TM-score, normalized by the length of the query, of a hit (default 0.5)
+	 */
+	public void setMinScore(double minScore) {
+		this.minScore = minScore;
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * @param tileSize the number of queries and of targets aligned together by one task (default 8)
+	 */
+	public void setTileSize(int tileSize) {
+		if (tileSize < 1)
+			throw new IllegalArgumentException("tileSize must be at least 1");
+		this.tileSize = tileSize;
+	}
+
+	public boolean isIncludeSelf() {
+		return includeSelf;
+	}
+
+	/**
+	 * @param includeSelf true to also align a query against a target of the same name (default false)
+	 */
+	public void setIncludeSelf(boolean includeSelf) {
+		this.includeSelf = includeSelf;
+	}
+
+	/**
+	 * @return the number of alignments calculated by the last search
+	 */
+	public long getNrAligned() {
+		return nrAligned.get();
+	}
+
+	/**
+	 * @return the number of pairs of the last search which were skipped because they could not reach the score of a hit
+	 */
+	public long getNrSkipped() {
+		return nrSkipped.get();
+	}
+
+	/**
+	 * Stops the running search. The hits found so far are returned.
+	 */
+	public void interrupt() {
+		interrupted.set(true);
+	}
+
+	/**
+	 * Loads the structures and searches each query against all targets.
+	 * Structures which cannot be loaded are logged and left out.
+	 *
+	 * @param queries the names of the queries, see {@link AtomCache#getRepresentativeAtoms(String)}
+	 * @param targets the names of the targets
+	 * @return the hits of each query which has any, best first, in the order of the queries
+	 */
+	public Map<String, List<Hit>> run(Collection<String> queries, Collection<String> targets) {
+		interrupted.set(false);
+		ForkJoinPool pool = new ForkJoinPool(nrCPUs);
+		try {
+			Map<String, Atom[]> atoms = prefetch(pool, queries, targets);
+			return run(pool, select(atoms, queries), select(atoms, targets));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Searches each query against all targets.
+	 *
+	 * @param queries the representative atoms of the queries, by name
+	 * @param targets the representative atoms of the targets, by name
+	 * @return the hits of each query which has any, best first, in the order of the queries
+	 */
+	public Map<String, List<Hit>> run(Map<String, Atom[]> queries, Map<String, Atom[]> targets) {
+		interrupted.set(false);
+		ForkJoinPool pool = new ForkJoinPool(nrCPUs);
+		try {
+			return run(pool, queries, targets);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private Map<String, List<Hit>> run(ForkJoinPool pool, Map<String, Atom[]> queries, Map<String, Atom[]> targets) {
+		nrAligned.set(0);
+		nrSkipped.set(0);
+
+		List<String> queryNames = new ArrayList<String>(queries.keySet());
+		List<String> targetNames = new ArrayList<String>(targets.keySet());
+		Atom[][] queryAtoms = new Atom[queryNames.size()][];
+		Atom[][] targetAtoms = new Atom[targetNames.size()][];
+		TopHits[] hits = new TopHits[queryNames.size()];
+		for (int i = 0; i < queryAtoms.length; i++) {
+			queryAtoms[i] = queries.get(queryNames.get(i));
+			hits[i] = new TopHits(topK, minScore);
+		}
+		for (int i = 0; i < targetAtoms.length; i++) {
+			targetAtoms[i] = targets.get(targetNames.get(i));
+		}
+
+		long startTime = System.currentTimeMillis();
+		pool.invoke(new Tile(new Search(queryNames, queryAtoms, targetNames, targetAtoms, hits),
+				0, queryAtoms.length, 0, targetAtoms.length));
+		logger.info("Aligned {} pairs and skipped {} in {} sec.", nrAligned.get(), nrSkipped.get(),
+				(System.currentTimeMillis() - startTime) / 1000);
+
+		Map<String, List<Hit>> results = new LinkedHashMap<String, List<Hit>>();
+		for (int i = 0; i < hits.length; i++) {
+			List<Hit> sorted = hits[i].getSorted();
+			if (!sorted.isEmpty())
+				results.put(queryNames.get(i), sorted);
+		}
+		return results;
+	}
+
+	// loads all structures on the pool, each once
+	private Map<String, Atom[]> prefetch(ForkJoinPool pool, Collection<String> queries, Collection<String> targets) {
+		final Set<String> names = new LinkedHashSet<String>(queries);
+		names.addAll(targets);
+		final Map<String, Atom[]> atoms = new ConcurrentHashMap<String, Atom[]>();
+		try {
+			pool.submit(() -> names.parallelStream().forEach(name -> {
+				if (interrupted.get())
+					return;
+				try {
+					atoms.put(name, cache.getRepresentativeAtoms(name));
+				} catch (IOException e) {
+					logger.error("Could not load structure {}", name, e);
+				} catch (StructureException e) {
+					logger.error("Could not load structure {}", name, e);
+				}
+			})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			interrupted.set(true);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+		logger.info("Loaded {} of {} structures", atoms.size(), names.size());
+		return atoms;
+	}
+
+	private static Map<String, Atom[]> select(Map<String, Atom[]> atoms, Collection<String> names) {
+		Map<String, Atom[]> selected = new LinkedHashMap<String, Atom[]>();
+		for (String name : names) {
+			Atom[] a = atoms.get(name);
+			if (a != null)
+				selected.put(name, a);
+		}
+		return selected;
+	}
+
+	// the state shared by the tiles of a search
+	private class Search {
+		final List<String> queryNames;
+		final Atom[][] queryAtoms;
+		final List<String> targetNames;
+		final Atom[][] targetAtoms;
+		final TopHits[] hits;
+
+		Search(List<String> queryNames, Atom[][] queryAtoms, List<String> targetNames, Atom[][] targetAtoms,
+				TopHits[] hits) {
+			this.queryNames = queryNames;
+			this.queryAtoms = queryAtoms;
+			this.targetNames = targetNames;
+			this.targetAtoms = targetAtoms;
+			this.hits = hits;
+		}
+
+		void align(int q0, int q1, int t0, int t1) {
+			StructureAlignment algorithm;
+			try {
+				algorithm = StructureAlignmentFactory.getAlgorithm(algorithmName);
+				if (parameters != null)
+					algorithm.setParameters(parameters);
+			} catch (StructureException e) {
+				logger.error("Unknown algorithm {}", algorithmName, e);
+				interrupted.set(true);
+				return;
+			}
+
+			for (int q = q0; q < q1; q++) {
+				String name1 = queryNames.get(q);
+				int length1 = queryAtoms[q].length;
+				for (int t = t0; t < t1; t++) {
+					if (interrupted.get())
+						return;
+					String name2 = targetNames.get(t);
+					if (!includeSelf && name1.equals(name2))
+						continue;
+
+					double bound = Math.min(length1, targetAtoms[t].length) / (double) length1;
+					if (bound < hits[q].getThreshold()) {
+						nrSkipped.incrementAndGet();
+						continue;
+					}
+
+					// the algorithms may modify the atoms, so each alignment gets its own copies
+					Atom[] ca1 = StructureTools.cloneAtomArray(queryAtoms[q]);
+					Atom[] ca2 = StructureTools.cloneAtomArray(targetAtoms[t]);
+					try {
+						AFPChain afpChain = algorithm.align(ca1, ca2);
+						nrAligned.incrementAndGet();
+						afpChain.setName1(name1);
+						afpChain.setName2(name2);
+						double score = AFPChainScorer.getTMScore(afpChain, ca1, ca2, false);
+						hits[q].offer(new Hit(name1, name2, score, afpChain));
+					} catch (StructureException e) {
+						logger.error("Could not align {} and {}", name1, name2, e);
+					}
+				}
+			}
+		}
+	}
+
+	// a rectangle of the query x target matrix, split until it is no larger than tileSize x tileSize
+	private class Tile extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Search search;
+		private final int q0, q1, t0, t1;
+
+		Tile(Search search, int q0, int q1, int t0, int t1) {
+			this.search = search;
+			this.q0 = q0;
+			this.q1 = q1;
+			this.t0 = t0;
+			this.t1 = t1;
+		}
+
+		@Override
+		protected void compute() {
+			if (interrupted.get())
+				return;
+			int nq = q1 - q0;
+			int nt = t1 - t0;
+			if (nq <= tileSize && nt <= tileSize) {
+				search.align(q0, q1, t0, t1);
+			} else if (nq >= nt) {
+				int mid = q0 + nq / 2;
+				invokeAll(new Tile(search, q0, mid, t0, t1), new Tile(search, mid, q1, t0, t1));
+			} else {
+				int mid = t0 + nt / 2;
+				invokeAll(new Tile(search, q0, q1, t0, mid), new Tile(search, q0, q1, mid, t1));
+			}
+		}
+	}
+
+	// the best hits of a query, in a min-heap of at most k hits
+	private static class TopHits {
+
+		private final int k;
+		private final double minScore;
+		private final PriorityQueue<Hit> heap;
+		// the score a new hit has to reach
+		private volatile double threshold;
+
+		TopHits(int k, double minScore) {
+			this.k = k;
+			this.minScore = minScore;
+			this.heap = new PriorityQueue<Hit>(k + 1, Collections.reverseOrder());
+			this.threshold = minScore;
+		}
+
+		double getThreshold() {
+			return threshold;
+		}
+
+		synchronized void offer(Hit hit) {
+			if (hit.getScore() < minScore)
+				return;
+			heap.add(hit);
+			if (heap.size() > k)
+				heap.poll();
+			if (heap.size() == k)
+				threshold = Math.max(minScore, heap.peek().getScore());
+		}
+
+		synchronized List<Hit> getSorted() {
+			List<Hit> sorted = new ArrayList<Hit>(heap);
+			Collections.sort(sorted);
+			return sorted;
+		}
+	}
+
+	/**
+	 * A hit of a search: the alignment of a query with a target, and its score.
+	 * Hits sort best first, and by the name of the target between equal scores.
+	 */
+	public static class Hit implements Comparable<Hit> {
+
+		private final String query;
+		private final String target;
+		private final double score;
+		private final AFPChain afpChain;
+
+		public Hit(String query, String target, double score, AFPChain afpChain) {
+			this.query = query;
+			this.target = target;
+			this.score = score;
+			this.afpChain = afpChain;
+		}
+
+		public String getQuery() {
+			return query;
+		}
+
+		public String getTarget() {
+			return target;
+		}
+
+		/**
+		 * @return the TM-score of the alignment, normalized by the length of the query
+		 */
+		public double getScore() {
+			return score;
+		}
+
+		/**
+		 * @return the alignment, of the query as the first structure
+		 */
+		public AFPChain getAFPChain() {
+			return afpChain;
+		}
+
+		@Override
+		public int compareTo(Hit o) {
+			int c = Double.compare(o.score, score);
+			if (c != 0)
+				return c;
+			return target.compareTo(o.target);
+		}
+
+		@Override
+		public String toString() {
+			return query + "\t" + target + "\t" + String.format("%.4f", score);
+		}
+	}
+}
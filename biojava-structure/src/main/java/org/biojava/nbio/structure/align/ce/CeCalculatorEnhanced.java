@@ -365,53 +365,35 @@ public class CeCalculatorEnhanced {
 	{
 
 
+		if ( params.getScoringStrategy() == CeParameters.ScoringStrategy.CA_SCORING && nse == ca.length)
+			return CeDistanceMatrices.getCaDistances(ca);
+
 		double[][] intraDist = new double[nse][nse];
 
-		//
+		// all scoring strategies are symmetric, so each pair is computed once
 		for(int ise1=0; ise1<nse; ise1++)  {
 
-			for(int ise2=0; ise2<nse; ise2++)  {
+			for(int ise2=ise1; ise2<nse; ise2++)  {
 				intraDist[ise1][ise2] = getDistanceWithSidechain(ca[ise1], ca[ise2]);
-
+				intraDist[ise2][ise1] = intraDist[ise1][ise2];
 			}
 		}
 		return intraDist;
 	}
 
 
+	/**
+	 * Builds the matrix of the mean distance differences between all pairs of
+	 * fragments of length winSize from {@link #getDist1()} and {@link #getDist2()}.
+	 * The rows are computed in parallel if {@link CeParameters#isParallelMatrix()}.
+	 *
+	 * @return a new nse1 x nse2 matrix, -1 where a fragment would extend past the end of a protein
+	 */
 	public double[][] initSumOfDistances(int nse1, int nse2, int winSize, int  winSizeComb1, Atom[] ca1, Atom[] ca2) {
 
-		double d;
-
-		double[][] mat   = new double[nse1][nse2];
-
-		// init the initial mat[] array.
-		// at this stage mat contains the sum of the distances of fragments of the matrices dist1, dist
-		for(int ise1=0; ise1<nse1; ise1++) {
-			for(int ise2=0; ise2<nse2; ise2++) {
-
-				mat[ise1][ise2]=-1.0;
-
-				if(ise1>nse1-winSize || ise2>nse2-winSize) continue;
-
-				d=0.0;
-				// this sums up over the distances of the fragments
-				for(int is1=0; is1<winSize-2; is1++)
-					for(int is2=is1+2; is2<winSize; is2++) {
-						//System.out.println("pos1 :" +  (ise1+is1) + " " + (ise1+is2) +  " " + (ise2+is1) + " " + (ise2+is2));
-						// is this abs or floor? check!
-						d+=Math.abs(dist1[ise1+is1][ise1+is2]-dist2[ise2+is1][ise2+is2]);
-					}
-				mat[ise1][ise2]=d/winSizeComb1;
-
-				//System.out.println("mat ["+ise1+"]["+ise2+"]="+mat[ise1][ise2]);
-			}
-
-		}
-
-		// verified: mat[][] probably ok.
-
-		return mat;
+		// at this stage mat contains the sum of the distances of fragments of the matrices dist1, dist2
+		return CeDistanceMatrices.getSumOfDistances(dist1, dist2, nse1, nse2, winSize, winSizeComb1,
+				params.isParallelMatrix());
 	}
 
 
@@ -0,0 +1,171 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.ce;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.biojava.nbio.structure.Atom;
+
+/**
+ * Primitive implementations of the matrices that {@link CECalculator} and {@link CeCalculatorEnhanced} build before
+ * tracing: the intramolecular distance matrices and the matrix of window sums of distance differences.
+ * <p>
+ * The window sums are the bulk of the work, O(nse1 * nse2 * winSize<sup>2</sup>). Instead of reading the
+ * <code>(winSize-1)*(winSize-2)/2</code> distances of each fragment pair through two arrays of arrays on every
+ * visit, the distances of each fragment are copied once into a flat row-major array, so that the inner loop
+ * streams through two contiguous rows. The sums are accumulated in the same order as the original loops, so the
+ * results are bitwise identical.
+ * <p>
+ * The flat arrays are kept per thread and reused between alignments.
+ *
+ * @since 5.0.0
+ */
+final class CeDistanceMatrices {
+
+	private static final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+	private CeDistanceMatrices() {
+	}
+
+	/**
+	 * Computes the CA distance matrix from the coordinates as primitives, computing each pair once.
+	 *
+	 * @param ca
+	 * @return a new symmetric matrix
+	 */
+	static double[][] getCaDistances(Atom[] ca) {
+		int nse = ca.length;
+		Buffers b = buffers.get();
+		double[] xyz = b.coordinates = ensure(b.coordinates, 3 * nse);
+		for (int i = 0; i < nse; i++) {
+			xyz[3 * i] = ca[i].getX();
+			xyz[3 * i + 1] = ca[i].getY();
+			xyz[3 * i + 2] = ca[i].getZ();
+		}
+
+		double[][] dist = new double[nse][nse];
+		for (int i = 0; i < nse; i++) {
+			double xi = xyz[3 * i];
+			double yi = xyz[3 * i + 1];
+			double zi = xyz[3 * i + 2];
+			double[] row = dist[i];
+			for (int j = i + 1; j < nse; j++) {
+				// same expression as Calc.getDistance
+				double x = xi - xyz[3 * j];
+				double y = yi - xyz[3 * j + 1];
+				double z = zi - xyz[3 * j + 2];
+				double d = Math.sqrt(x * x + y * y + z * z);
+				row[j] = d;
+				dist[j][i] = d;
+			}
+		}
+		return dist;
+	}
+
+	/**
+	 * Builds the matrix of the mean absolute differences between the intramolecular distances of all pairs of
+	 * fragments of length winSize, skipping the distances of neighbouring residues.
+	 *
+	 * @param dist1 the distance matrix of the first protein
+	 * @param dist2 the distance matrix of the second protein
+	 * @param nse1 the length of the first protein
+	 * @param nse2 the length of the second protein
+	 * @param winSize the fragment length
+	 * @param winSizeComb1 the divisor of the sums
+	 * @param parallel true to compute the rows in parallel
+	 * @return a new nse1 x nse2 matrix, -1 where a fragment would extend past the end of a protein
+	 */
+	static double[][] getSumOfDistances(double[][] dist1, double[][] dist2, int nse1, int nse2,
+			int winSize, final int winSizeComb1, boolean parallel) {
+
+		final double[][] mat = new double[nse1][nse2];
+		final int pairs = getPairCount(winSize);
+		final int fragments1 = Math.max(0, nse1 - winSize + 1);
+		final int fragments2 = Math.max(0, nse2 - winSize + 1);
+
+		Buffers b = buffers.get();
+		final double[] frag1 = b.fragments1 = getFragmentDistances(dist1, fragments1, winSize, pairs, b.fragments1);
+		final double[] frag2 = b.fragments2 = getFragmentDistances(dist2, fragments2, winSize, pairs, b.fragments2);
+
+		IntStream rows = IntStream.range(0, nse1);
+		if (parallel) {
+			rows = rows.parallel();
+		}
+		rows.forEach(ise1 -> {
+			double[] row = mat[ise1];
+			if (ise1 >= fragments1) {
+				Arrays.fill(row, -1.0);
+				return;
+			}
+			int o1 = ise1 * pairs;
+			for (int ise2 = 0; ise2 < fragments2; ise2++) {
+				int o2 = ise2 * pairs;
+				double d = 0.0;
+				for (int k = 0; k < pairs; k++) {
+					d += Math.abs(frag1[o1 + k] - frag2[o2 + k]);
+				}
+				row[ise2] = d / winSizeComb1;
+			}
+			Arrays.fill(row, fragments2, row.length, -1.0);
+		});
+		return mat;
+	}
+
+	/**
+	 * @return the number of distances within a fragment which are summed
+	 */
+	private static int getPairCount(int winSize) {
+		int pairs = 0;
+		for (int is1 = 0; is1 < winSize - 2; is1++) {
+			pairs += winSize - is1 - 2;
+		}
+		return pairs;
+	}
+
+	// copies the distances of each fragment into a row, in the order in which they are summed
+	private static double[] getFragmentDistances(double[][] dist, int fragments, int winSize, int pairs, double[] buffer) {
+		double[] result = ensure(buffer, fragments * pairs);
+		int k = 0;
+		for (int ise = 0; ise < fragments; ise++) {
+			for (int is1 = 0; is1 < winSize - 2; is1++) {
+				double[] row = dist[ise + is1];
+				for (int is2 = is1 + 2; is2 < winSize; is2++) {
+					result[k++] = row[ise + is2];
+				}
+			}
+		}
+		return result;
+	}
+
+	private static double[] ensure(double[] buffer, int length) {
+		if (buffer == null || buffer.length < length) {
+			return new double[length];
+		}
+		return buffer;
+	}
+
+	private static class Buffers {
+		private double[] coordinates;
+		private double[] fragments1;
+		private double[] fragments2;
+	}
+}
@@ -84,6 +84,8 @@ public class CeParameters implements ConfigStrucAligParams  {
 
 	protected int maxNrIterationsForOptimization;
 
+	protected boolean parallelMatrix;
+
 	protected SubstitutionMatrix<AminoAcidCompound> substitutionMatrix;
 	protected double seqWeight;
 
@@ -122,6 +124,7 @@ public class CeParameters implements ConfigStrucAligParams  {
 		oRmsdThr = DEFAULT_oRmsdThr;
 
 		maxNrIterationsForOptimization = Integer.MAX_VALUE;
+		parallelMatrix = false;
 		seqWeight = 0;
 	}
 
@@ -373,6 +376,30 @@ public class CeParameters implements ConfigStrucAligParams  {
 		this.maxNrIterationsForOptimization = maxNrIterationsForOptimization;
 	}
 
+	/**
+	 * Whether the rows of the matrix of fragment distance differences
+	 * are computed in parallel.
+	 *
+	 * @return true to use several threads for one alignment (default false)
+	 * @since 5.0.0
+	 */
+	public boolean isParallelMatrix() {
+		return parallelMatrix;
+	}
+
+	/**
+	 * Set whether the rows of the matrix of fragment distance differences
+	 * are computed in parallel. This speeds up the alignment of large
+	 * structures; when many alignments run concurrently it is better left off.
+	 * The results do not depend on this setting.
+	 *
+	 * @param parallelMatrix true to use several threads for one alignment
+	 * @since 5.0.0
+	 */
+	public void setParallelMatrix(boolean parallelMatrix) {
+		this.parallelMatrix = parallelMatrix;
+	}
+
 
 	/** Should sequence conservation be considered as part of the alignment? If yes, this weight factor allows to determine how much.
 	 *  By default this is set to 0, meaning no contribution of the sequence alignment score.
@@ -93,6 +93,34 @@ public class FatCat
 	}
 
 
+	/**
+	 * Aligns two structures both rigidly and flexibly, sharing the aligned fragment pairs of the two modes.
+	 * See {@link FatCatAligner#alignRigidAndFlexible(Atom[], Atom[], FatCatParameters)}.
+	 *
+	 * @param ca1
+	 * @param ca2
+	 * @param params the parameters of the flexible alignment
+	 * @return the rigid and the flexible alignment, in this order
+	 * @throws StructureException
+	 * @since 5.0.0
+	 */
+	public AFPChain[] alignRigidAndFlexible(Atom[] ca1, Atom[] ca2, FatCatParameters params) throws StructureException{
+
+		FatCatAligner[] aligners = FatCatAligner.alignRigidAndFlexible(ca1, ca2, params);
+		aligner = aligners[1];
+
+		AFPChain rigid = aligners[0].getAfpChain();
+		rigid.setAlgorithmName(FatCatRigid.algorithmName);
+		rigid.setVersion(VERSION+"");
+
+		AFPChain flexible = aligners[1].getAfpChain();
+		flexible.setAlgorithmName(FatCatFlexible.algorithmName);
+		flexible.setVersion(VERSION+"");
+
+		return new AFPChain[] { rigid, flexible };
+	}
+
+
 	protected AFPChain align(Atom[] ca1, Atom[] ca2, FatCatParameters params, boolean doRigid) throws StructureException{
 
 		aligner = new FatCatAligner();
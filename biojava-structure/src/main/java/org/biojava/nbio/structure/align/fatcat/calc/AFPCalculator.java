@@ -29,11 +29,15 @@ package org.biojava.nbio.structure.align.fatcat.calc;
 import org.biojava.nbio.structure.*;
 import org.biojava.nbio.structure.align.model.AFP;
 import org.biojava.nbio.structure.align.model.AFPChain;
+import org.biojava.nbio.structure.geometry.SuperPositionQCP;
 import org.biojava.nbio.structure.geometry.SuperPositions;
 import org.biojava.nbio.structure.jama.Matrix;
 
+import javax.vecmath.Point3d;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /** a class that performs calculations on AFPCHains
  *
@@ -44,10 +48,22 @@ public class AFPCalculator
 {
 	public static final boolean debug = FatCatAligner.debug;
 
-
-	public static final  void extractAFPChains(FatCatParameters params, AFPChain afpChain,Atom[] ca1,Atom[] ca2) throws StructureException {
+	// QCP keeps the state of the last superposition
+	private static final ThreadLocal<SuperPositionQCP> qcp = ThreadLocal.withInitial(() -> new SuperPositionQCP(false));
 
 
+	/**
+	 * Extracts the aligned fragment pairs of two proteins: the pairs of fragments of {@link FatCatParameters#getFragLen()}
+	 * residues whose RMSD is below {@link FatCatParameters#getRmsdCut()}. The AFPs are sorted by their start in
+	 * the first protein, then in the second.
+	 * <p>
+	 * The fragments are compared on primitive coordinates, one row of fragment pairs (all pairs starting at one
+	 * residue of the first protein) at a time; the rows are distributed over several threads if
+	 * {@link FatCatParameters#isParallel()}, and the AFPs do not depend on that. Unless
+	 * {@link FatCatParameters#isDeterministic()} is false, the RMSDs are calculated by the default algorithm of
+	 * {@link SuperPositions}, otherwise by QCP without creating any point arrays.
+	 */
+	public static final  void extractAFPChains(final FatCatParameters params, AFPChain afpChain,final Atom[] ca1,final Atom[] ca2) throws StructureException {
 
 		List<AFP> afpSet = new ArrayList<AFP>();
 		afpChain.setAfpSet(afpSet);
@@ -55,84 +71,52 @@ public class AFPCalculator
 		if ( debug )
 			System.err.println("nr of atoms ca1: " + ca1.length + " ca2: " +  ca2.length);
 
-
-
-		int     p1, p2;
-		@SuppressWarnings("unused")
-		int n0, n, n1, n2;
-		double  filter1;
-		double rmsd = 0;
-
-		Matrix r = new Matrix(3,3);
-		Atom   t = new AtomImpl();
-
+		// all AFPs share the transformation, which is not calculated here
+		final Matrix r = new Matrix(3,3);
+		final Atom   t = new AtomImpl();
 
 		int sparse = params.getSparse();
 		int maxTra = params.getMaxTra();
-		int fragLen = params.getFragLen();
-		double disFilter = params.getDisFilter();
-		double rmsdCut = params.getRmsdCut();
-		double badRmsd = params.getBadRmsd();
-		double fragScore = params.getFragScore();
+		final int fragLen = params.getFragLen();
 
-		int     add = sparse + 1; //if add > 1, use sparse sampling
-		n0 = n = n1 = n2 = 0;
-
-		int minLen = 0;
+		final int     add = sparse + 1; //if add > 1, use sparse sampling
 
 		int prot1Length = ca1.length;
 		int prot2Length = ca2.length;
 
-		if(prot1Length < prot2Length)
-			minLen = prot1Length;
-		else
-			minLen = prot2Length;
+		final int minLen = Math.min(prot1Length, prot2Length);
 		afpChain.setMinLen(minLen);
 
 		afpChain.setBlockResList(new int[maxTra+1][2][minLen]);
 		afpChain.setFocusRes1(new int[minLen]);
 		afpChain.setFocusRes2(new int[minLen]);
 
-		for(p1 = 0; p1 < prot1Length - fragLen; p1 += add )    {
-			for(p2 = 0; p2 < prot2Length - fragLen; p2 += add)     {
-				n0 ++;
-				filter1 = getEnd2EndDistance(ca1, ca2, p1, p1 + fragLen - 1, p2, p2 + fragLen - 1);
-				//difference bewteen end-to-end distances
-				if(filter1 > disFilter) { n1 ++; continue; }
-				boolean filter2 = filterTerminal(ca1,ca2, p1, p1 + fragLen - 1, p2, p2 + fragLen - 1, fragLen, minLen);
-				if(filter2)     {
-					n2 ++;
-					continue;
-
-				} //be cautious to use this filter !!
-
-				// here FATCAT does a a jacobi transformation
-				//rmsd = kearsay(fragLen, ca1[p1], ca2[p2], r, t);
-				// we use the BioJava SVD instead...
-
-				//
-				rmsd = getRmsd(ca1,ca2,fragLen, p1,p2,r,t);
-
-				if(rmsd < rmsdCut)      {
-					AFP     afptmp = new AFP();
-					afptmp.setP1(p1);
-					afptmp.setP2(p2);
-					afptmp.setFragLen(fragLen);
-					afptmp.setRmsd(rmsd);
-					afptmp.setM(r);
-					afptmp.setT(t.getCoords());
-					afptmp.setScore(scoreAfp(afptmp,badRmsd,fragScore));
-					afpSet.add(afptmp);
-					n ++;
-				}
-			}
-		}
+		final double[] xyz1 = getCoordinates(ca1);
+		final double[] xyz2 = getCoordinates(ca2);
+		final Point3d[] points1 = Calc.atomsToPoints(ca1);
+		final Point3d[] points2 = Calc.atomsToPoints(ca2);
 
-		int afpNum = afpSet.size();
+		// the end-to-end distances of the fragments of the second protein
+		final double[] ends2 = new double[Math.max(0, prot2Length - fragLen)];
+		for (int p2 = 0; p2 < ends2.length; p2 += add)
+			ends2[p2] = getDistance(xyz2, p2, p2 + fragLen - 1);
+
+		int rows = prot1Length > fragLen ? (prot1Length - fragLen + add - 1) / add : 0;
+		@SuppressWarnings("unchecked")
+		final List<AFP>[] rowAfps = new List[rows];
+
+		IntStream rowStream = IntStream.range(0, rows);
+		if (params.isParallel())
+			rowStream = rowStream.parallel();
+		rowStream.forEach(row -> rowAfps[row] = extractRow(row * add, params, xyz1, xyz2, points1, points2,
+				ends2, ca1.length, ca2.length, minLen, r, t));
+
+		for (List<AFP> afps : rowAfps)
+			afpSet.addAll(afps);
 
 		if(debug) {
-			String msg = String.format("possible AFP-pairs %d, remain %d after filter 1 remove %d; filter 2 remove %d\n",
-					n0, afpNum, n1, n2);
+			String msg = String.format("possible AFP-pairs %d, remain %d\n", rows * ((ends2.length + add - 1) / add),
+					afpSet.size());
 			System.err.println(msg);
 		}
 
@@ -140,22 +124,76 @@ public class AFPCalculator
 	}
 
 	/**
-	 * filter 1 for AFP extration: the distance of end-to-end
-	 * @param p1b
-	 * @param p1e
-	 * @param p2b
-	 * @param p2e
-	 * @return
+	 * The AFPs of all fragment pairs starting at residue p1 of the first protein.
 	 */
-	private static final double getEnd2EndDistance(Atom[] ca1, Atom[] ca2, int p1b, int p1e, int p2b, int p2e)
-	{
+	private static List<AFP> extractRow(int p1, FatCatParameters params, double[] xyz1, double[] xyz2,
+			Point3d[] points1, Point3d[] points2, double[] ends2, int prot1Length, int prot2Length, int minLen,
+			Matrix r, Atom t) {
+
+		int add = params.getSparse() + 1;
+		int fragLen = params.getFragLen();
+		double disFilter = params.getDisFilter();
+		double rmsdCut = params.getRmsdCut();
+		double badRmsd = params.getBadRmsd();
+		double fragScore = params.getFragScore();
+		boolean deterministic = params.isDeterministic();
+
+		List<AFP> afps = new ArrayList<AFP>();
+		double end1 = getDistance(xyz1, p1, p1 + fragLen - 1);
+
+		for(int p2 = 0; p2 < prot2Length - fragLen; p2 += add)     {
+			//difference bewteen end-to-end distances
+			double filter1 = Math.abs(end1 - ends2[p2]);
+			if(filter1 > disFilter) continue;
+
+			//be cautious to use this filter !!
+			if(filterTerminal(prot1Length, prot2Length, p1, p1 + fragLen - 1, p2, p2 + fragLen - 1, fragLen, minLen))
+				continue;
+
+			// here FATCAT does a a jacobi transformation
+			//rmsd = kearsay(fragLen, ca1[p1], ca2[p2], r, t);
+			// we use the BioJava superposition instead...
+			double rmsd;
+			if (deterministic)
+				rmsd = SuperPositions.getRmsd(Arrays.copyOfRange(points1, p1, p1 + fragLen),
+						Arrays.copyOfRange(points2, p2, p2 + fragLen));
+			else
+				rmsd = qcp.get().getRmsd(xyz1, p1, xyz2, p2, fragLen);
+
+			if(rmsd < rmsdCut)      {
+				AFP     afptmp = new AFP();
+				afptmp.setP1(p1);
+				afptmp.setP2(p2);
+				afptmp.setFragLen(fragLen);
+				afptmp.setRmsd(rmsd);
+				afptmp.setM(r);
+				afptmp.setT(t.getCoords());
+				afptmp.setScore(scoreAfp(afptmp,badRmsd,fragScore));
+				afps.add(afptmp);
+			}
+		}
+		return afps;
+	}
 
-		double min = 99;
-			double dist1 = Calc.getDistance(ca1[p1b], ca1[p1e]);
-			double dist2 = Calc.getDistance(ca2[p2b], ca2[p2e]);
-			min = dist1 - dist2;
+	private static double[] getCoordinates(Atom[] ca) {
+		double[] xyz = new double[3 * ca.length];
+		for (int i = 0; i < ca.length; i++) {
+			xyz[3 * i] = ca[i].getX();
+			xyz[3 * i + 1] = ca[i].getY();
+			xyz[3 * i + 2] = ca[i].getZ();
+		}
+		return xyz;
+	}
 
-		return Math.abs(min);
+	/**
+	 * filter 1 for AFP extration: the distance of end-to-end,
+	 * the same expression as Calc.getDistance
+	 */
+	private static double getDistance(double[] xyz, int b, int e) {
+		double x = xyz[3 * b] - xyz[3 * e];
+		double y = xyz[3 * b + 1] - xyz[3 * e + 1];
+		double z = xyz[3 * b + 2] - xyz[3 * e + 2];
+		return Math.sqrt(x * x + y * y + z * z);
 	}
 
 	/**
@@ -167,10 +205,10 @@ public class AFPCalculator
 	 * @return
 	 */
 
-	private static final  boolean filterTerminal(Atom[] ca1, Atom[] ca2, int p1b, int p1e, int p2b, int p2e, int fragLen, int minLen)
+	private static final  boolean filterTerminal(int prot1Length, int prot2Length, int p1b, int p1e, int p2b, int p2e, int fragLen, int minLen)
 	{
 		int     d1 = (p1b < p2b)?p1b:p2b;
-		int     d2 = (ca1.length - p1e) < (ca2.length - p2e)?(ca1.length - p1e):(ca2.length - p2e);
+		int     d2 = (prot1Length - p1e) < (prot2Length - p2e)?(prot1Length - p1e):(prot2Length - p2e);
 		int     d3 = d1 + d2 + fragLen; //maximum alignment length from current AFP
 
 
@@ -181,56 +219,6 @@ public class AFPCalculator
 
 	}
 
-	private static final double getRmsd(Atom[] ca1, Atom[] ca2, int fragLen, 
-			int p1, int p2, Matrix m, Atom t) throws StructureException {
-
-
-		double rmsd = 99.9;
-		Atom[] catmp1 = getFragment(ca1, p1, fragLen,false);
-		Atom[] catmp2 = getFragment(ca2, p2, fragLen,false);
-
-		if ( catmp1 == null) {
-			System.err.println("could not get fragment for ca1 " + p1 + " " + fragLen );
-			return rmsd;
-		}
-
-		if ( catmp2 == null) {
-			System.err.println("could not get fragment for ca2 " + p2 + " " + fragLen );
-			return rmsd;
-		}
-
-		return SuperPositions.getRmsd(Calc.atomsToPoints(catmp1), 
-				Calc.atomsToPoints(catmp2));
-	}
-
-	/** get a continue subset of Atoms based by the starting position and the length
-	 *
-	 * @param caall
-	 * @param pos ... the start position
-	 * @param fragmentLength .. the length of the subset to extract.
-	 * @param clone: returns a copy of the atom (in case the coordinate get manipulated...)
-	 * @return an Atom[] array
-	 */
-	private static final Atom[] getFragment(Atom[] caall, int pos, int fragmentLength , 
-			boolean clone){
-
-		if ( pos+fragmentLength > caall.length)
-			return null;
-
-		Atom[] tmp = new Atom[fragmentLength];
-
-		for (int i=0;i< fragmentLength;i++){
-			if (clone){
-				tmp[i] = (Atom)caall[i+pos].clone();
-			} else {
-				tmp[i] = caall[i+pos];
-			}
-		}
-		return tmp;
-
-	}
-
-
 	/**
 	 * Assign score to each AFP
 	 */
@@ -118,25 +118,34 @@ public class AFPChainer
 		afpChain.setDisTable1(disTable1);
 		afpChain.setDisTable2(disTable2);
 
+		double[][] dis1 = disTable1.getArray();
+		double[][] dis2 = disTable2.getArray();
+		// reused for all pairs, rather than boxing the connection into the AFPChain
+		Connection connection = new Connection();
+		boolean compared = false;
+
 		for(i = 0; i < afpNum; i ++)    {
-			sco[i] = afpSet.get(i).getScore(); //start from itself
+			AFP afp = afpSet.get(i);
+			double score = afp.getScore();
+			sco[i] = score; //start from itself
 			pre[i] = -1;
 			twi[i] = 0;
-			if ( afpSet.get(i).getP1() < fragLen || afpSet.get(i).getP2() < fragLen)
+			if ( afp.getP1() < fragLen || afp.getP2() < fragLen)
 				n = 0;
 			else
 				n = getCompatibleAfps(i, list, params, afpChain); //get a compatible list
 			//printf("afp %d, compatible %d\n", i, n);
 			for(j0 = 0; j0 < n; j0 ++)      {
 				j = list[j0];
-				isConnected = afpPairConn(j, i, params,afpChain); //note: j, i
-				Double conn = afpChain.getConn();
+				isConnected = afpPairConn(afpSet.get(j), afp, params, dis1, dis2, connection); //note: j, i
+				compared = true;
+				double conn = connection.conn;
 				int t = 0;
 				if ( isConnected)
 					t=1;
 				if(twi[j] + t > maxTra) continue;
 				//two many transformation are disfavored
-				stmp = sco[j] + afpSet.get(i).getScore() + conn;
+				stmp = sco[j] + score + conn;
 				if(stmp > sco[i])       { //considered all previous compatible AFPs
 					sco[i] = stmp;
 					twi[i] = twi[j] + t;
@@ -155,6 +164,12 @@ public class AFPChainer
 
 		//trace-back from maxafp (maxsco)
 
+		// the connection of the last pair, as afpPairConn(int, int, ...) leaves it
+		if (compared) {
+			afpChain.setConn(connection.conn);
+			afpChain.setDVar(connection.dvar);
+		}
+
 		afpChain.setAlignScore(maxsco);
 		afpChain.setAlignScoreUpdate(maxsco);
 		afpChain.setAfpChainTwiNum(0);
@@ -169,19 +184,16 @@ public class AFPChainer
 	{
 		int length = ca.length;
 		Matrix dis = new Matrix(length,length);
+		double[][] d = dis.getArray();
 
 		int     i, j;
 		for(i = 0; i < length; i ++)    {
-			dis.set(i,i,0);
 			for(j = i + 1;( j < length) && (j <= i + maxlen); j ++)     {
-				dis.set(i,j,0);
-
-				double val = dis.get(i,j) + (Calc.getDistance(ca[i],ca[j])) * (Calc.getDistance(ca[i],ca[j]));
-				dis.set(i,j,val);
-
-
-				dis.set(i,j,Math.sqrt(dis.get(i,j)));
-				dis.set(j,i,dis.get(i,j));
+				double dist = Calc.getDistance(ca[i],ca[j]);
+				// not simplified to dist: the square root of the square can differ in the last bit,
+				// and the tables must stay bitwise identical to those of earlier versions
+				d[i][j] = Math.sqrt(dist * dist);
+				d[j][i] = d[i][j];
 			}
 		}
 		return dis;
@@ -308,10 +320,20 @@ public class AFPChainer
 	public static boolean afpPairConn(int afp1, int afp2,  FatCatParameters params, AFPChain afpChain)
 
 	{
+		List<AFP> afpSet = afpChain.getAfpSet();
+		Connection connection = new Connection();
 
-		Double conn = afpChain.getConn();
-		Double dvar = afpChain.getDVar();
+		boolean ch = afpPairConn(afpSet.get(afp1), afpSet.get(afp2), params,
+				afpChain.getDisTable1().getArray(), afpChain.getDisTable2().getArray(), connection);
 
+		afpChain.setConn(connection.conn);
+		afpChain.setDVar(connection.dvar);
+		return ch;
+	}
+
+	private static boolean afpPairConn(AFP afp1, AFP afp2, FatCatParameters params,
+			double[][] disTable1, double[][] disTable2, Connection connection)
+	{
 		double misScore = params.getMisScore();
 		double maxPenalty = params.getMaxPenalty();
 		double disCut = params.getDisCut();
@@ -319,10 +341,8 @@ public class AFPChainer
 		double torsionPenalty = params.getTorsionPenalty();
 		double disSmooth = params.getDisSmooth();
 
-		List<AFP> afpSet = afpChain.getAfpSet();
-
-		int     m = calcGap(afpSet.get(afp2),afpSet.get(afp1));
-		int     g = calcMismatch(afpSet.get(afp2),afpSet.get(afp1));
+		int     m = calcGap(afp2,afp1);
+		int     g = calcMismatch(afp2,afp1);
 
 
 		double  gp = misScore * m;      //on average, penalty for a mismatch is misScore, no modification on score
@@ -333,7 +353,7 @@ public class AFPChainer
 		//note: use < (smaller) instead of >, because maxPenalty is a negative number
 
 		double  d;
-		d = calAfpDis(afp1, afp2,params, afpChain);
+		d = calAfpDis(afp1, afp2, params, disTable1, disTable2);
 		//note: the 'dis' value is numerically equivalent to the 'rms' with exceptions
 
 		boolean     ch = false;
@@ -348,14 +368,17 @@ public class AFPChainer
 			tp = torsionPenalty * wt;
 		}
 
-		dvar = d;
-		conn = tp + gp;
-
-		afpChain.setConn(conn);
-		afpChain.setDVar(dvar);
+		connection.dvar = d;
+		connection.conn = tp + gp;
 		return ch;
 	}
 
+	/** the connection of the last AFP pair */
+	private static class Connection {
+		double conn;
+		double dvar;
+	}
+
 	/**
 	 * return the gaps between this and afp
 	 * requiring afp1 >  afp2
@@ -403,29 +426,24 @@ public class AFPChainer
 	 * @param afp2
 	 * @return
 	 */
-	private static double calAfpDis(int afp1, int afp2, FatCatParameters params, AFPChain afpChain)
+	private static double calAfpDis(AFP afp1, AFP afp2, FatCatParameters params, double[][] disTable1, double[][] disTable2)
 	{
-
-		List<AFP> afpSet = afpChain.getAfpSet();
-
-		Matrix disTable1 = afpChain.getDisTable1();
-		Matrix disTable2 = afpChain.getDisTable2();
-
 		int fragLen = params.getFragLen();
 		double afpDisCut = params.getAfpDisCut();
 		double disCut = params.getDisCut();
 		double fragLenSq = params.getFragLenSq();
 
-		int     i, j, ai, bi, aj, bj;
+		int     p11 = afp1.getP1(), p12 = afp1.getP2();
+		int     p21 = afp2.getP1(), p22 = afp2.getP2();
+
+		int     i, j, ai, bi;
 		double  d;
 		double  rms = 0;
 		for(i = 0; i < fragLen; i ++)   {
-			ai = afpSet.get(afp1).getP1() + i;
-			bi = afpSet.get(afp1).getP2() + i;
+			ai = p11 + i;
+			bi = p12 + i;
 			for(j = 0; j < fragLen; j ++)   {
-				aj = afpSet.get(afp2).getP1() + j;
-				bj = afpSet.get(afp2).getP2() + j;
-				d = disTable1.get(aj,ai) - disTable2.get(bj,bi);
+				d = disTable1[p21 + j][ai] - disTable2[p22 + j][bi];
 				rms += d * d;
 				if(rms > afpDisCut)     { return (disCut); }
 			}
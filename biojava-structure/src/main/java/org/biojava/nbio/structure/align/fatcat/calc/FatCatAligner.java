@@ -37,6 +37,9 @@ import org.biojava.nbio.structure.align.model.AFPChain;
 import org.biojava.nbio.structure.align.util.AFPAlignmentDisplay;
 
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 
 /** A class that does calculations on an AFPChain
@@ -118,6 +121,86 @@ public class FatCatAligner
 
 
 
+	/**
+	 * Aligns two structures both rigidly and flexibly. The AFPs are extracted once and shared by the two
+	 * chainings, which run concurrently if {@link FatCatParameters#isParallel()}. The alignments are the same as
+	 * those of two aligners, one with the given parameters and one with maxTra 0.
+	 *
+	 * @param ca1
+	 * @param ca2
+	 * @param params the parameters of the flexible alignment, which are not modified
+	 * @return the rigid and the flexible aligner, in this order
+	 * @throws StructureException
+	 * @since 5.0.0
+	 */
+	public static FatCatAligner[] alignRigidAndFlexible(final Atom[] ca1, final Atom[] ca2, FatCatParameters params)
+			throws StructureException {
+
+		final long tstart = System.currentTimeMillis();
+
+		final AFPChain afps = new AFPChain(FatCat.algorithmName);
+		afps.setCa1Length(ca1.length);
+		afps.setCa2Length(ca2.length);
+		AFPCalculator.extractAFPChains(params, afps, ca1, ca2);
+		AFPCalculator.sortAfps(afps, ca1, ca2);
+
+		final FatCatParameters rigidParams = params.clone();
+		rigidParams.setMaxTra(0);
+		final FatCatAligner rigid = new FatCatAligner();
+		FatCatAligner flexible = new FatCatAligner();
+
+		if (params.isParallel()) {
+			ForkJoinTask<Void> task = ForkJoinPool.commonPool().submit(() -> {
+				rigid.chain(ca1, ca2, true, rigidParams, afps, tstart);
+				return null;
+			});
+			flexible.chain(ca1, ca2, false, params, afps, tstart);
+			try {
+				task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new StructureException("Interrupted while aligning", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof StructureException)
+					throw (StructureException) e.getCause();
+				throw new RuntimeException(e.getCause());
+			}
+		} else {
+			rigid.chain(ca1, ca2, true, rigidParams, afps, tstart);
+			flexible.chain(ca1, ca2, false, params, afps, tstart);
+		}
+		return new FatCatAligner[] { rigid, flexible };
+	}
+
+	/**
+	 * Chains the AFPs extracted into another AFPChain, which is not modified.
+	 */
+	private void chain(Atom[] ca1, Atom[] ca2, boolean doRigid, FatCatParameters params, AFPChain afps, long tstart)
+			throws StructureException {
+
+		int minLen = afps.getMinLen();
+		afpChain = new AFPChain(FatCat.algorithmName);
+		afpChain.setCa1Length(ca1.length);
+		afpChain.setCa2Length(ca2.length);
+		afpChain.setAfpSet(afps.getAfpSet());
+		afpChain.setMinLen(minLen);
+		afpChain.setBlockResList(new int[params.getMaxTra()+1][2][minLen]);
+		afpChain.setFocusRes1(new int[minLen]);
+		afpChain.setFocusRes2(new int[minLen]);
+		afpChain.setAfpIndex(afps.getAfpIndex());
+		afpChain.setAfpAftIndex(afps.getAfpAftIndex());
+		afpChain.setAfpBefIndex(afps.getAfpBefIndex());
+
+		if ( doRigid)
+			this.twistedGroups = rChainAfp(params, afpChain,ca1,ca2);
+
+		else {
+			this.twistedGroups = chainAfp(params,afpChain,ca1,ca2);
+		}
+
+		afpChain.setCalculationTime(System.currentTimeMillis()-tstart);
+	}
+
 	/** runs rigid chaining process
 	 *
 	 */
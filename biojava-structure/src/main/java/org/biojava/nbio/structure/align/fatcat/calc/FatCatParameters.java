@@ -34,7 +34,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 
-public class FatCatParameters implements ConfigStrucAligParams
+public class FatCatParameters implements ConfigStrucAligParams, Cloneable
 {
 
 	public static final int DEFAULT_FRAGLEN = 8;
@@ -60,6 +60,8 @@ public class FatCatParameters implements ConfigStrucAligParams
 	double resScore;
 	double fragScore;
 	int sparse;
+	boolean parallel;
+	boolean deterministic;
 
 	public FatCatParameters(){
 		reset();
@@ -91,6 +93,8 @@ public class FatCatParameters implements ConfigStrucAligParams
 		resScore = 3.0; //on average, the score for each well-matched residue pair
 		fragScore = resScore * fragLen; //the score for each well-matched fragment
 		sparse = 0;
+		parallel = false;
+		deterministic = true;
 	}
 
 
@@ -363,6 +367,70 @@ public class FatCatParameters implements ConfigStrucAligParams
 	}
 
 
+	/** Whether the AFPs are extracted on several threads, and
+	 * {@link FatCatAligner#alignRigidAndFlexible(org.biojava.nbio.structure.Atom[], org.biojava.nbio.structure.Atom[], FatCatParameters)}
+	 * chains them for both modes concurrently.
+	 *
+	 * @return true to use several threads for one alignment (default false)
+	 * @since 5.0.0
+	 */
+	public boolean isParallel()
+	{
+		return parallel;
+	}
+
+
+	/** Set whether the AFPs are extracted on several threads. The AFPs do not
+	 * depend on this setting.
+	 *
+	 * @param parallel true to use several threads for one alignment
+	 * @since 5.0.0
+	 */
+	public void setParallel(boolean parallel)
+	{
+		this.parallel = parallel;
+	}
+
+
+	/** Whether the fragments of the AFPs are superimposed exactly as in the
+	 * original FATCAT port, so that the alignments are bitwise reproducible.
+	 *
+	 * @return true for reproducible alignments (default true)
+	 * @since 5.0.0
+	 */
+	public boolean isDeterministic()
+	{
+		return deterministic;
+	}
+
+
+	/** If false, the RMSDs of the fragments are calculated by QCP on primitive
+	 * coordinates, which is faster but can differ from the default in the last
+	 * digits, and thus rarely change which AFPs pass the RMSD cutoff.
+	 *
+	 * @param deterministic true for reproducible alignments
+	 * @since 5.0.0
+	 */
+	public void setDeterministic(boolean deterministic)
+	{
+		this.deterministic = deterministic;
+	}
+
+
+	/** @return a copy of these parameters
+	 * @since 5.0.0
+	 */
+	@Override
+	public FatCatParameters clone()
+	{
+		try {
+			return (FatCatParameters) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+
 	@Override
 	public List<String> getUserConfigHelp() {
 		List<String> params = new ArrayList<String>();
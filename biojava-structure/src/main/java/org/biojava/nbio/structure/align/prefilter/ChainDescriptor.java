@@ -0,0 +1,174 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.prefilter;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Group;
+import org.biojava.nbio.structure.secstruc.SecStrucCalc;
+import org.biojava.nbio.structure.secstruc.SecStrucInfo;
+import org.biojava.nbio.structure.secstruc.SecStrucType;
+
+import java.util.Arrays;
+
+/**
+ * A small fixed-length summary of the shape of a protein chain, used to select the candidates of a structure
+ * similarity search before they are aligned. The values of a descriptor are:
+ * <ul>
+ * <li>the fractions of residues in helices, strands and other secondary structure, as assigned to the groups
+ * of the atoms, e.g. by {@link SecStrucCalc}; all residues count as other if nothing is assigned</li>
+ * <li>a histogram of the distances between the representative atoms of residues at least
+ * {@value #MIN_SEPARATION} apart in the chain, in {@value #BINS} bins of {@value #BIN_WIDTH} &Aring;,
+ * normalized to a sum of 1</li>
+ * <li>the radius of gyration relative to that of a compact globule of the same length</li>
+ * </ul>
+ * The length is kept separately.
+ *
+ * @since 5.0.0
+ */
+public final class ChainDescriptor {
+
+	/** The number of secondary structure fractions */
+	public static final int SSE_VALUES = 3;
+
+	/** The number of bins of the distance histogram */
+	public static final int BINS = 16;
+
+	/** The width of a bin of the distance histogram, in &Aring; */
+	public static final double BIN_WIDTH = 2.5;
+
+	/** The minimum distance in sequence of the residues of the distance histogram */
+	public static final int MIN_SEPARATION = 3;
+
+	/** The number of values of a descriptor */
+	public static final int SIZE = SSE_VALUES + BINS + 1;
+
+	private final String name;
+	private final int length;
+	private final float[] values;
+
+	/**
+	 * @param name the name of the chain
+	 * @param length the number of residues of the chain
+	 * @param values the {@link #SIZE} values of the descriptor
+	 */
+	public ChainDescriptor(String name, int length, float[] values) {
+		if (values.length != SIZE)
+			throw new IllegalArgumentException("A descriptor has " + SIZE + " values, not " + values.length);
+		this.name = name;
+		this.length = length;
+		this.values = values;
+	}
+
+	/**
+	 * Calculates the descriptor of a chain.
+	 *
+	 * @param name the name of the chain
+	 * @param ca the representative atoms of the chain
+	 * @return
+	 */
+	public static ChainDescriptor calculate(String name, Atom[] ca) {
+		int n = ca.length;
+		float[] values = new float[SIZE];
+
+		int helix = 0;
+		int strand = 0;
+		for (Atom a : ca) {
+			Group g = a.getGroup();
+			Object ss = g == null ? null : g.getProperty(Group.SEC_STRUC);
+			if (ss instanceof SecStrucInfo) {
+				SecStrucType type = ((SecStrucInfo) ss).getType();
+				if (type.isHelixType())
+					helix++;
+				else if (type.isBetaStrand())
+					strand++;
+			}
+		}
+		if (n > 0) {
+			values[0] = (float) helix / n;
+			values[1] = (float) strand / n;
+			values[2] = (float) (n - helix - strand) / n;
+		}
+
+		double[] xyz = new double[3 * n];
+		double cx = 0, cy = 0, cz = 0;
+		for (int i = 0; i < n; i++) {
+			xyz[3 * i] = ca[i].getX();
+			xyz[3 * i + 1] = ca[i].getY();
+			xyz[3 * i + 2] = ca[i].getZ();
+			cx += xyz[3 * i];
+			cy += xyz[3 * i + 1];
+			cz += xyz[3 * i + 2];
+		}
+
+		long[] counts = new long[BINS];
+		long total = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = i + MIN_SEPARATION; j < n; j++) {
+				double x = xyz[3 * i] - xyz[3 * j];
+				double y = xyz[3 * i + 1] - xyz[3 * j + 1];
+				double z = xyz[3 * i + 2] - xyz[3 * j + 2];
+				int bin = (int) (Math.sqrt(x * x + y * y + z * z) / BIN_WIDTH);
+				counts[Math.min(bin, BINS - 1)]++;
+				total++;
+			}
+		}
+		for (int b = 0; b < BINS; b++) {
+			values[SSE_VALUES + b] = total == 0 ? 0 : (float) ((double) counts[b] / total);
+		}
+
+		if (n > 0) {
+			cx /= n;
+			cy /= n;
+			cz /= n;
+			double sum = 0;
+			for (int i = 0; i < n; i++) {
+				double x = xyz[3 * i] - cx;
+				double y = xyz[3 * i + 1] - cy;
+				double z = xyz[3 * i + 2] - cz;
+				sum += x * x + y * y + z * z;
+			}
+			// the radius of gyration of a globular protein is about 2.2 N^0.38
+			values[SIZE - 1] = (float) (Math.sqrt(sum / n) / (2.2 * Math.pow(n, 0.38)));
+		}
+
+		return new ChainDescriptor(name, n, values);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return the values of the descriptor, which must not be modified
+	 */
+	public float[] getValues() {
+		return values;
+	}
+
+	@Override
+	public String toString() {
+		return name + " " + length + " " + Arrays.toString(values);
+	}
+}
@@ -0,0 +1,336 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.prefilter;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Chain;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.align.StructureAlignment;
+import org.biojava.nbio.structure.secstruc.SecStrucCalc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * An index of the {@link ChainDescriptor descriptors} of many chains, to select the candidates of a structure
+ * similarity search so that a {@link StructureAlignment} only has to run on the few hundred most similar chains.
+ * <p>
+ * The descriptors are held in flat arrays and are written to disk in a compact binary file, about 100 bytes per
+ * chain. A query scans all descriptors and returns the k nearest, where the distance of two descriptors is the sum
+ * of the absolute differences of their values plus the absolute log ratio of their lengths, times
+ * {@link #setLengthWeight(double) a weight}. How many of the true hits the candidates contain can be measured with
+ * {@link #getRecall(Collection, List)} against an exhaustive search.
+ * <p>
+ * An index can be queried by several threads, but must not be modified meanwhile.
+ *
+ * @since 5.0.0
+ */
+public class StructureIndex {
+
+	private final static Logger logger = LoggerFactory.getLogger(StructureIndex.class);
+
+	// "BJSI"
+	private static final int MAGIC = 0x424a5349;
+	private static final int VERSION = 1;
+
+	private String[] names = new String[16];
+	private int[] lengths = new int[16];
+	private float[] values = new float[16 * ChainDescriptor.SIZE];
+	private int size;
+
+	private double lengthWeight = 1.0;
+
+	/**
+	 * Adds the descriptor of a chain.
+	 *
+	 * @param descriptor
+	 */
+	public void add(ChainDescriptor descriptor) {
+		if (size == names.length) {
+			int capacity = size * 2;
+			names = Arrays.copyOf(names, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			values = Arrays.copyOf(values, capacity * ChainDescriptor.SIZE);
+		}
+		names[size] = descriptor.getName();
+		lengths[size] = descriptor.getLength();
+		System.arraycopy(descriptor.getValues(), 0, values, size * ChainDescriptor.SIZE, ChainDescriptor.SIZE);
+		size++;
+	}
+
+	/**
+	 * Calculates the secondary structure of a structure and adds the descriptors of its polymer chains, named
+	 * <code>id.chain</code> like a {@link org.biojava.nbio.structure.align.client.StructureName}.
+	 *
+	 * @param id the identifier of the structure, e.g. a PDB id
+	 * @param structure
+	 * @param minLength the minimum number of residues of a chain
+	 */
+	public void addStructure(String id, Structure structure, int minLength) {
+		try {
+			new SecStrucCalc().calculate(structure, true);
+		} catch (StructureException e) {
+			logger.warn("Could not calculate the secondary structure of {}: {}", id, e.getMessage());
+		}
+		for (Chain chain : structure.getPolyChains()) {
+			Atom[] ca = StructureTools.getRepresentativeAtomArray(chain);
+			if (ca.length >= minLength)
+				add(ChainDescriptor.calculate(id + "." + chain.getName(), ca));
+		}
+	}
+
+	/**
+	 * @return the number of chains in the index
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index
+	 * @return the descriptor of a chain
+	 */
+	public ChainDescriptor get(int index) {
+		if (index >= size)
+			throw new IndexOutOfBoundsException(index + " >= " + size);
+		float[] v = Arrays.copyOfRange(values, index * ChainDescriptor.SIZE, (index + 1) * ChainDescriptor.SIZE);
+		return new ChainDescriptor(names[index], lengths[index], v);
+	}
+
+	public double getLengthWeight() {
+		return lengthWeight;
+	}
+
+	/**
+	 * @param lengthWeight the weight of the absolute log ratio of the lengths in the distance (default 1)
+	 */
+	public void setLengthWeight(double lengthWeight) {
+		this.lengthWeight = lengthWeight;
+	}
+
+	/**
+	 * Returns the chains nearest to a query.
+	 *
+	 * @param query the descriptor of the query
+	 * @param k the number of chains to return, at least 1
+	 * @return the k nearest chains, nearest first
+	 * @throws IllegalArgumentException if k is less than 1
+	 */
+	public List<Candidate> query(ChainDescriptor query, int k) {
+		if (k < 1)
+			throw new IllegalArgumentException("Number of chains must be at least 1, not " + k);
+		float[] q = query.getValues();
+		double logLength = Math.log(Math.max(1, query.getLength()));
+
+		// the farthest of the nearest candidates is at the head
+		PriorityQueue<Candidate> heap = new PriorityQueue<Candidate>(k + 1, Collections.reverseOrder());
+		double worst = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			double d = lengthWeight * Math.abs(logLength - Math.log(Math.max(1, lengths[i])));
+			int offset = i * ChainDescriptor.SIZE;
+			for (int j = 0; j < ChainDescriptor.SIZE && d <= worst; j++) {
+				d += Math.abs(q[j] - values[offset + j]);
+			}
+			if (d > worst)
+				continue;
+			heap.add(new Candidate(names[i], lengths[i], d));
+			if (heap.size() > k) {
+				heap.poll();
+			}
+			if (heap.size() == k) {
+				worst = heap.peek().getDistance();
+			}
+		}
+
+		List<Candidate> candidates = new ArrayList<Candidate>(heap);
+		Collections.sort(candidates);
+		return candidates;
+	}
+
+	/**
+	 * Measures the recall of a query: the fraction of the true hits, e.g. those of an exhaustive search with
+	 * a {@link StructureAlignment}, which are among the candidates.
+	 *
+	 * @param hits the names of the true hits
+	 * @param candidates the candidates returned by {@link #query(ChainDescriptor, int)}
+	 * @return the recall, 1 if there are no hits
+	 */
+	public static double getRecall(Collection<String> hits, List<Candidate> candidates) {
+		if (hits.isEmpty())
+			return 1.0;
+		Set<String> names = new HashSet<String>();
+		for (Candidate c : candidates) {
+			names.add(c.getName());
+		}
+		int found = 0;
+		for (String hit : hits) {
+			if (names.contains(hit))
+				found++;
+		}
+		return (double) found / hits.size();
+	}
+
+	/**
+	 * Writes the index to a file.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public void write(File file) throws IOException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			write(out);
+		}
+	}
+
+	/**
+	 * Writes the index to a stream, which is not closed.
+	 *
+	 * @param stream
+	 * @throws IOException
+	 */
+	public void write(OutputStream stream) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(ChainDescriptor.SIZE);
+		out.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			out.writeUTF(names[i]);
+			out.writeInt(lengths[i]);
+			int offset = i * ChainDescriptor.SIZE;
+			for (int j = 0; j < ChainDescriptor.SIZE; j++) {
+				out.writeFloat(values[offset + j]);
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads an index written by {@link #write(File)}.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException if the file cannot be read or is not an index
+	 */
+	public static StructureIndex read(File file) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			return read(in);
+		}
+	}
+
+	/**
+	 * Reads an index written by {@link #write(OutputStream)}. The stream is not closed.
+	 *
+	 * @param stream
+	 * @return
+	 * @throws IOException if the stream cannot be read or is not an index
+	 */
+	public static StructureIndex read(InputStream stream) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+		if (in.readInt() != MAGIC)
+			throw new IOException("Not a structure index");
+		int version = in.readInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported structure index version " + version);
+		int descriptorSize = in.readInt();
+		if (descriptorSize != ChainDescriptor.SIZE)
+			throw new IOException("Unsupported descriptor size " + descriptorSize);
+		int count = in.readInt();
+
+		StructureIndex index = new StructureIndex();
+		int capacity = Math.max(count, 1);
+		index.names = new String[capacity];
+		index.lengths = new int[capacity];
+		index.values = new float[capacity * ChainDescriptor.SIZE];
+		for (int i = 0; i < count; i++) {
+			index.names[i] = in.readUTF();
+			index.lengths[i] = in.readInt();
+			int offset = i * ChainDescriptor.SIZE;
+			for (int j = 0; j < ChainDescriptor.SIZE; j++) {
+				index.values[offset + j] = in.readFloat();
+			}
+		}
+		index.size = count;
+		return index;
+	}
+
+	/**
+	 * A chain returned by a query, with its distance to the query.
+	 * Candidates sort nearest first, and by name between equal distances.
+	 */
+	public static class Candidate implements Comparable<Candidate> {
+
+		private final String name;
+		private final int length;
+		private final double distance;
+
+		public Candidate(String name, int length, double distance) {
+			this.name = name;
+			this.length = length;
+			this.distance = distance;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		public double getDistance() {
+			return distance;
+		}
+
+		@Override
+		public int compareTo(Candidate o) {
+			int c = Double.compare(distance, o.distance);
+			if (c != 0)
+				return c;
+			return name.compareTo(o.name);
+		}
+
+		@Override
+		public String toString() {
+			return name + "\t" + length + "\t" + String.format("%.4f", distance);
+		}
+	}
+}
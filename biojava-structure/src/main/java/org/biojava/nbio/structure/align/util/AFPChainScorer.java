@@ -41,6 +41,24 @@ public class AFPChainScorer {
 
 
 	public  static double getTMScore(AFPChain align, Atom[] ca1, Atom[] ca2) throws StructureException
+	{
+		return getTMScore(align, ca1, ca2, true);
+	}
+
+	/**
+	 * Calculate the TM-score of an alignment.
+	 *
+	 * @param align the alignment
+	 * @param ca1 the atoms of the first structure
+	 * @param ca2 the atoms of the second structure
+	 * @param normalizeMin true to normalize by the length of the shorter structure,
+	 * 	false to normalize by the length of the first one, e.g. the query of a search
+	 * @return the TM-score, or -1 if nothing is aligned
+	 * @throws StructureException
+	 * @since 5.0.0
+	 */
+	public static double getTMScore(AFPChain align, Atom[] ca1, Atom[] ca2, boolean normalizeMin)
+			throws StructureException
 	{
 		if ( align.getNrEQR() == 0)
 			return -1;
@@ -85,6 +103,9 @@ public class AFPChainScorer {
 
 		Calc.transform(ca2aligned, trans);
 
+		if ( ! normalizeMin)
+			return Calc.getTMScore(ca1aligned, ca2aligned, ca1.length, ca1.length);
+
 		return Calc.getTMScore(ca1aligned, ca2aligned, ca1.length, ca2.length);
 
 	}
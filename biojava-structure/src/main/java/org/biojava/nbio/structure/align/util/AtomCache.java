@@ -22,11 +22,10 @@ package org.biojava.nbio.structure.align.util;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
 
+import org.biojava.nbio.core.util.BoundedCache;
 import org.biojava.nbio.core.util.InputStreamProvider;
 import org.biojava.nbio.structure.*;
 import org.biojava.nbio.structure.align.client.StructureName;
@@ -55,9 +54,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A utility class that provides easy access to Structure objects. If you are running a script that is frequently
- * re-using the same PDB structures, the AtomCache keeps an in-memory cache of the files for quicker access. The cache
- * is a soft-cache, this means it won't cause out of memory exceptions, but garbage collects the data if the Java
- * virtual machine needs to free up space. The AtomCache is thread-safe.
+ * re-using the same PDB structures, the AtomCache can keep an in-memory cache of the parsed structures for quicker
+ * access, see {@link #setStructureCacheSize(long)}. The cache is bounded by the estimated memory usage of the
+ * structures, so it won't cause out of memory exceptions or depend on the garbage collector. Concurrent requests
+ * for the same PDB ID are parsed only once, even if the cache is disabled. The AtomCache is thread-safe.
  *
  * @author Andreas Prlic
  * @author Spencer Bliven
@@ -84,6 +84,12 @@ public class AtomCache {
 
 	private static final String FILE_SEPARATOR = System.getProperty("file.separator");
 
+	/**
+	 * The default maximum estimated size in bytes of the structures kept in memory.
+	 * It is 0, i.e. parsed structures are not retained after they are returned.
+	 */
+	public static final long DEFAULT_STRUCTURE_CACHE_SIZE = 0;
+
 	protected FileParsingParameters params;
 	protected PDPProvider pdpprovider;
 
@@ -92,8 +98,9 @@ public class AtomCache {
 
 	private String cachePath;
 
-	// make sure IDs are loaded uniquely
-	private Collection<String> currentlyLoading = Collections.synchronizedCollection(new TreeSet<String>());
+	// parsed structures by lower case PDB ID, also makes sure that concurrent requests load an ID once
+	private BoundedCache<String, Structure> structureCache = new BoundedCache<String, Structure>(
+			DEFAULT_STRUCTURE_CACHE_SIZE, AtomCache::estimateSize, BoundedCache.EvictionPolicy.TINY_LFU);
 
 	private String path;
 
@@ -148,7 +155,6 @@ public class AtomCache {
 		fetchBehavior = FetchBehavior.DEFAULT;
 		obsoleteBehavior = ObsoleteBehavior.DEFAULT;
 
-		currentlyLoading.clear();
 		params = new FileParsingParameters();
 
 		setUseMmCif(false);
@@ -826,6 +832,65 @@ public class AtomCache {
 
 	public void setFileParsingParams(FileParsingParameters params) {
 		this.params = params;
+		structureCache.clear();
+	}
+
+	/**
+	 * Returns the in-memory cache of parsed structures, e.g. to inspect its
+	 * statistics or to clear it after modifying the {@link FileParsingParameters}
+	 * returned by {@link #getFileParsingParams()}.
+	 * @return
+	 * @since 5.0.0
+	 */
+	public BoundedCache<String, Structure> getStructureCache() {
+		return structureCache;
+	}
+
+	/**
+	 * Replaces the in-memory cache of parsed structures, e.g. to share one
+	 * cache between AtomCache instances with the same settings or to use a
+	 * different eviction policy. Keys are lower case PDB IDs.
+	 * @param structureCache
+	 * @since 5.0.0
+	 */
+	public void setStructureCache(BoundedCache<String, Structure> structureCache) {
+		this.structureCache = structureCache;
+	}
+
+	/**
+	 * Sets the maximum estimated memory usage in bytes of the parsed structures
+	 * kept in memory, 0 to disable the cache. Note that cached structures are
+	 * returned as they are, so callers that modify a structure returned by this
+	 * AtomCache also modify the cached one.
+	 * @param bytes
+	 * @see #estimateSize(Structure)
+	 * @since 5.0.0
+	 */
+	public void setStructureCacheSize(long bytes) {
+		structureCache.setMaximumWeight(bytes);
+	}
+
+	/**
+	 * A rough estimate of the memory used by a parsed structure, used to bound
+	 * the structure cache.
+	 * @param s
+	 * @return the estimated size in bytes
+	 * @since 5.0.0
+	 */
+	public static long estimateSize(Structure s) {
+		if (s == null)
+			return 0;
+		long size = 4096;
+		for (int i = 0; i < s.nrModels(); i++) {
+			for (Chain c : s.getChains(i)) {
+				size += 512;
+				for (Group g : c.getAtomGroups()) {
+					// group with its atom list, atoms with their coordinates and bonds
+					size += 256 + 256L * g.size();
+				}
+			}
+		}
+		return size;
 	}
 
 
@@ -891,6 +956,7 @@ public class AtomCache {
 	 */
 	public void setPath(String path) {
 		this.path = FileDownloadUtils.expandUserHome(path);
+		structureCache.clear();
 	}
 
 	public void setPdpprovider(PDPProvider pdpprovider) {
@@ -927,6 +993,7 @@ public class AtomCache {
 		this.useMmCif = useMmCif;
 		// Either way the user wants to use PDB or MMCIF
 		this.useMmtf = false;
+		structureCache.clear();
 	}
 	
 	/**
@@ -938,7 +1005,8 @@ public class AtomCache {
 		if(useMmtf){
 			useMmCif=false;
 		}
-		
+		structureCache.clear();
+
 	}
 
 	/** Returns useMmtf flag
@@ -949,11 +1017,6 @@ public class AtomCache {
 		return this.useMmtf;
 	}
 
-	private boolean checkLoading(String name) {
-		return currentlyLoading.contains(name);
-
-	}
-
 	/**
 	 * Returns a {@link Structure} corresponding to the CATH identifier supplied in {@code structureName}, using the the {@link CathDatabase}
 	 * at {@link CathFactory#getCathDatabase()}.
@@ -989,17 +1052,25 @@ public class AtomCache {
 		return n;
 	}
 
-	protected void flagLoading(String name) {
-		if (!currentlyLoading.contains(name)) {
-
-			currentlyLoading.add(name);
-		}
-	}
-
-	protected void flagLoadingFinished(String name) {
+	/**
+	 * This method does nothing.
+	 *
+	 * @param name Ignored
+	 * @deprecated Concurrent requests for a structure are now collapsed by
+	 * the structure cache, so loading is no longer flagged (5.0.0)
+	 */
+	@Deprecated
+	protected void flagLoading(String name) {}
 
-		currentlyLoading.remove(name);
-	}
+	/**
+	 * This method does nothing.
+	 *
+	 * @param name Ignored
+	 * @deprecated Concurrent requests for a structure are now collapsed by
+	 * the structure cache, so loading is no longer flagged (5.0.0)
+	 */
+	@Deprecated
+	protected void flagLoadingFinished(String name) {}
 
 	/**
 	 * Loads a structure directly by PDB ID
@@ -1014,17 +1085,22 @@ public class AtomCache {
 		if(pdbId.length() != 4) {
 			throw new StructureException("Unrecognized PDB ID: "+pdbId);
 		}
-		while (checkLoading(pdbId)) {
-			// waiting for loading to be finished...
-
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				logger.error(e.getMessage());
-			}
 
+		try {
+			return structureCache.get(pdbId.toLowerCase(), () -> loadStructureByPdbId(pdbId));
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof StructureException)
+				throw (StructureException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IOException("Could not load structure "+pdbId, cause);
 		}
+	}
 
+	private Structure loadStructureByPdbId(String pdbId) throws IOException, StructureException {
 		Structure s;
 		if (useMmtf) {
 			logger.debug("loading from mmtf");
@@ -1056,40 +1132,22 @@ public class AtomCache {
 
 	protected Structure loadStructureFromCifByPdbId(String pdbId) throws IOException, StructureException {
 
-		Structure s;
-		flagLoading(pdbId);
-		try {
-			MMCIFFileReader reader = new MMCIFFileReader(path);
-			reader.setFetchBehavior(fetchBehavior);
-			reader.setObsoleteBehavior(obsoleteBehavior);
-			reader.setFileParsingParameters(params);
-			s = reader.getStructureById(pdbId.toLowerCase());
-
-		} finally {
-			flagLoadingFinished(pdbId);
-		}
-
-		return s;
+		MMCIFFileReader reader = new MMCIFFileReader(path);
+		reader.setFetchBehavior(fetchBehavior);
+		reader.setObsoleteBehavior(obsoleteBehavior);
+		reader.setFileParsingParameters(params);
+		return reader.getStructureById(pdbId.toLowerCase());
 	}
 
 	protected Structure loadStructureFromPdbByPdbId(String pdbId) throws IOException, StructureException {
 
-		Structure s;
-		flagLoading(pdbId);
-		try {
-			PDBFileReader reader = new PDBFileReader(path);
-			reader.setFetchBehavior(fetchBehavior);
-			reader.setObsoleteBehavior(obsoleteBehavior);
-
-			reader.setFileParsingParameters(params);
+		PDBFileReader reader = new PDBFileReader(path);
+		reader.setFetchBehavior(fetchBehavior);
+		reader.setObsoleteBehavior(obsoleteBehavior);
 
-			s = reader.getStructureById(pdbId.toLowerCase());
+		reader.setFileParsingParameters(params);
 
-		} finally {
-			flagLoadingFinished(pdbId);
-		}
-
-		return s;
+		return reader.getStructureById(pdbId.toLowerCase());
 	}
 
 }
@@ -20,18 +20,23 @@
  */
 package org.biojava.nbio.structure.align.util;
 
+import org.biojava.nbio.core.util.BoundedCache;
 import org.biojava.nbio.core.util.SoftHashMap;
 
 
-/** provides a SoftHashMap singleton.
+/** provides a BoundedCache singleton.
  *
  *
- * @Deprecated find better ways for caching or use a SoftHashMap directly
+ * @Deprecated find better ways for caching or use a BoundedCache directly
  */
 
 public class CacheFactory  {
 
-	@SuppressWarnings("rawtypes")
+	public static final long DEFAULT_CACHE_SIZE = 1000;
+
+	private static BoundedCache<Object, Object> boundedCache = new BoundedCache<Object, Object>(DEFAULT_CACHE_SIZE);
+
+	@SuppressWarnings({ "rawtypes", "deprecation" })
 	private static SoftHashMap  cache  = new SoftHashMap ();
 
 	// no public constructor;
@@ -39,6 +44,17 @@ public class CacheFactory  {
 
 	}
 
+	/**
+	 * @since 5.0.0
+	 */
+	public static BoundedCache<Object, Object> getBoundedCache(){
+		return boundedCache;
+	}
+
+	/**
+	 * @deprecated use {@link #getBoundedCache()}, which is bounded by size rather than by garbage collection
+	 */
+	@Deprecated
 	@SuppressWarnings("rawtypes")
 	public static SoftHashMap getCache(){
 		return cache;
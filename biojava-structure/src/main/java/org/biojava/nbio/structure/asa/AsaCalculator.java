@@ -21,14 +21,17 @@
 package org.biojava.nbio.structure.asa;
 
 import org.biojava.nbio.structure.*;
+import org.biojava.nbio.structure.contact.Contact;
+import org.biojava.nbio.structure.contact.Grid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.vecmath.Point3d;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.TreeMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 
@@ -46,6 +49,11 @@ import java.util.concurrent.Executors;
  * Lysozyme and Insulin." JMB (1973) 79:351-371.
  * Lee, B., and Richards, F.M. "The interpretation of Protein Structures: Estimation of
  * Static Accessibility" JMB (1971) 55:379-400
+ * <p>
+ * The neighbours of every atom are found once with a spatial hashing {@link Grid}
+ * and stored in flat index arrays, and the sphere points are tested against them
+ * using primitive coordinate arrays, so that no objects are created per atom or per
+ * sphere point.
  * @author duarte_j
  *
  */
@@ -77,19 +85,41 @@ public class AsaCalculator {
 
 
 
-	private class AsaCalcWorker implements Runnable {
+	/**
+	 * The number of atoms below which a parallel task is not split further
+	 */
+	private static final int PARALLEL_SPLIT_THRESHOLD = 64;
+
+	/**
+	 * Extra distance added to the grid cutoff so that the grid cells are always
+	 * larger than the maximum neighbour distance (the grid has a 0.01 precision)
+	 */
+	private static final double GRID_CUTOFF_MARGIN = 0.02;
 
-		private int i;
+	private class AsaCalcTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private int from;
+		private int to;
 		private double[] asas;
 
-		public AsaCalcWorker(int i, double[] asas) {
-			this.i = i;
+		public AsaCalcTask(int from, int to, double[] asas) {
+			this.from = from;
+			this.to = to;
 			this.asas = asas;
 		}
 
 		@Override
-		public void run() {
-			asas[i] = calcSingleAsa(i);
+		protected void compute() {
+			if (to - from <= PARALLEL_SPLIT_THRESHOLD) {
+				for (int i=from;i<to;i++) {
+					asas[i] = calcSingleAsa(i);
+				}
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new AsaCalcTask(from, mid, asas), new AsaCalcTask(mid, to, asas));
+			}
 		}
 	}
 
@@ -102,6 +132,18 @@ public class AsaCalculator {
 	private Point3d[] spherePoints;
 	private double cons;
 
+	// primitive copies of atom and sphere point coordinates
+	private double[] xs;
+	private double[] ys;
+	private double[] zs;
+	private double[] spherePointsX;
+	private double[] spherePointsY;
+	private double[] spherePointsZ;
+
+	// neighbours of atom i are neighbors[neighborStarts[i]] to neighbors[neighborStarts[i+1]-1]
+	private int[] neighborStarts;
+	private int[] neighbors;
+
 	/**
 	 * Constructs a new AsaCalculator. Subsequently call {@link #calculateAsas()}
 	 * or {@link #getGroupAsas()} to calculate the ASAs
@@ -230,68 +272,30 @@ public class AsaCalculator {
 
 	/**
 	 * Calculates the Accessible Surface Areas for the atoms given in constructor and with parameters given.
-	 * Beware that the parallel implementation is quite memory hungry. It scales well as long as there is
-	 * enough memory available.
+	 * If more than 1 thread was requested the atoms are distributed over a work-stealing
+	 * {@link ForkJoinPool}. The results are identical to the single-threaded calculation.
 	 * @return an array with asa values corresponding to each atom of the input array
 	 */
 	public double[] calculateAsas() {
 
 		double[] asas = new double[atomCoords.length];
 
+		initNeighbors();
+
 		if (nThreads<=1) { // (i.e. it will also be 1 thread if 0 or negative number specified)
 			for (int i=0;i<atomCoords.length;i++) {
 				asas[i] = calcSingleAsa(i);
 			}
 
 		} else {
-			// NOTE the multithreaded calculation does not scale up well in some systems,
-			// why? I guess some memory/garbage collect problem? I tried increasing Xmx in pc8201 but didn't help
-
-			// Following scaling tests are for 3hbx, calculating ASA of full asym unit (6 chains):
-
-			// SCALING test done in merlinl01 (12 cores, Xeon X5670  @ 2.93GHz, 24GB RAM)
-			//1 threads, time:  8.8s -- x1.0
-			//2 threads, time:  4.4s -- x2.0
-			//3 threads, time:  2.9s -- x3.0
-			//4 threads, time:  2.2s -- x3.9
-			//5 threads, time:  1.8s -- x4.9
-			//6 threads, time:  1.6s -- x5.5
-			//7 threads, time:  1.4s -- x6.5
-			//8 threads, time:  1.3s -- x6.9
-
-			// SCALING test done in pc8201 (4 cores, Core2 Quad Q9550  @ 2.83GHz, 8GB RAM)
-			//1 threads, time: 17.2s -- x1.0
-			//2 threads, time:  9.7s -- x1.8
-			//3 threads, time:  7.7s -- x2.2
-			//4 threads, time:  7.9s -- x2.2
-
-			// SCALING test done in eppic01 (16 cores, Xeon E5-2650 0  @ 2.00GHz, 128GB RAM)
-			//1 threads, time: 10.7s -- x1.0
-			//2 threads, time:  5.6s -- x1.9
-			//3 threads, time:  3.6s -- x3.0
-			//4 threads, time:  2.8s -- x3.9
-			//5 threads, time:  2.3s -- x4.8
-			//6 threads, time:  1.8s -- x6.0
-			//7 threads, time:  1.6s -- x6.8
-			//8 threads, time:  1.3s -- x8.0
-			//9 threads, time:  1.3s -- x8.5
-			//10 threads, time:  1.1s -- x10.0
-			//11 threads, time:  1.0s -- x10.9
-			//12 threads, time:  0.9s -- x11.4
-
-
-
-			ExecutorService threadPool = Executors.newFixedThreadPool(nThreads);
-
-
-			for (int i=0;i<atomCoords.length;i++) {
-				threadPool.submit(new AsaCalcWorker(i,asas));
+			// the atoms are split recursively into ranges, idle threads steal the pending
+			// ranges of busy ones: this balances the uneven cost of buried vs exposed atoms
+			ForkJoinPool pool = new ForkJoinPool(nThreads);
+			try {
+				pool.invoke(new AsaCalcTask(0, atomCoords.length, asas));
+			} finally {
+				pool.shutdown();
 			}
-
-			threadPool.shutdown();
-
-			while (!threadPool.isTerminated());
-
 		}
 
 		return asas;
@@ -317,73 +321,117 @@ public class AsaCalculator {
 	}
 
 	/**
-	 * Returns list of indices of atoms within probe distance to atom k.
-	 * @param k index of atom for which we want neighbor indices
+	 * Finds for every atom the indices of the atoms within probe distance and stores
+	 * them in {@link #neighbors}, sorted by index. Only the atom pairs reported by a
+	 * {@link Grid} with a cutoff of the maximum possible neighbour distance are checked.
+	 * The neighbour criterion is exactly the same as in an all-to-all scan.
 	 */
-	private ArrayList<Integer> findNeighborIndices(int k) {
-		// looking at a typical protein case, number of neighbours are from ~10 to ~50, with an average of ~30
-		// Thus 40 seems to be a good compromise for the starting capacity
-		ArrayList<Integer> neighbor_indices = new ArrayList<Integer>(40);
+	private void initNeighbors() {
 
-		double radius = radii[k] + probe + probe;
+		if (neighbors!=null) return;
 
-		for (int i=0;i<atomCoords.length;i++) {
-			if (i==k) continue;
+		int n = atomCoords.length;
 
-			double dist = 0;
+		xs = new double[n];
+		ys = new double[n];
+		zs = new double[n];
+		double maxRadius = 0;
+		for (int i=0;i<n;i++) {
+			xs[i] = atomCoords[i].x;
+			ys[i] = atomCoords[i].y;
+			zs[i] = atomCoords[i].z;
+			maxRadius = Math.max(maxRadius, radii[i]);
+		}
 
-			dist = atomCoords[i].distance(atomCoords[k]);
+		spherePointsX = new double[spherePoints.length];
+		spherePointsY = new double[spherePoints.length];
+		spherePointsZ = new double[spherePoints.length];
+		for (int k=0;k<spherePoints.length;k++) {
+			spherePointsX[k] = spherePoints[k].x;
+			spherePointsY[k] = spherePoints[k].y;
+			spherePointsZ[k] = spherePoints[k].z;
+		}
 
-			if (dist < radius + radii[i]) {
-				neighbor_indices.add(i);
-			}
+		neighborStarts = new int[n+1];
 
+		if (n==0) {
+			neighbors = new int[0];
+			return;
 		}
 
-		return neighbor_indices;
-	}
+		Grid grid = new Grid(2.0 * (maxRadius + probe) + GRID_CUTOFF_MARGIN);
+		grid.addCoords(atomCoords);
+		List<Contact> contacts = grid.getIndicesContacts();
+
+		// first pass: count the neighbours of each atom
+		int[] counts = new int[n];
+		for (Contact contact : contacts) {
+			int i = contact.getI();
+			int j = contact.getJ();
+			double dist = contact.getDistance();
+			if (dist < radii[i] + probe + probe + radii[j]) counts[i]++;
+			if (dist < radii[j] + probe + probe + radii[i]) counts[j]++;
+		}
 
-	private double calcSingleAsa(int i) {
-		Point3d atom_i = atomCoords[i];
-		ArrayList<Integer> neighbor_indices = findNeighborIndices(i);
-		int n_neighbor = neighbor_indices.size();
-		int j_closest_neighbor = 0;
-		double radius = probe + radii[i];
+		for (int i=0;i<n;i++) {
+			neighborStarts[i+1] = neighborStarts[i] + counts[i];
+		}
 
-		int n_accessible_point = 0;
+		// second pass: fill the neighbour indices
+		neighbors = new int[neighborStarts[n]];
+		int[] fill = Arrays.copyOf(neighborStarts, n);
+		for (Contact contact : contacts) {
+			int i = contact.getI();
+			int j = contact.getJ();
+			double dist = contact.getDistance();
+			if (dist < radii[i] + probe + probe + radii[j]) neighbors[fill[i]++] = j;
+			if (dist < radii[j] + probe + probe + radii[i]) neighbors[fill[j]++] = i;
+		}
 
-		for (Point3d point: spherePoints){
-			boolean is_accessible = true;
-			Point3d test_point = new Point3d(point.x*radius + atom_i.x,
-					point.y*radius + atom_i.y,
-					point.z*radius + atom_i.z);
+		for (int i=0;i<n;i++) {
+			Arrays.sort(neighbors, neighborStarts[i], neighborStarts[i+1]);
+		}
+	}
 
-			int[] cycled_indices = new int[n_neighbor];
-			int arind = 0;
-			for (int ind=j_closest_neighbor;ind<n_neighbor;ind++) {
-				cycled_indices[arind] = ind;
-				arind++;
-			}
-			for (int ind=0;ind<j_closest_neighbor;ind++){
-				cycled_indices[arind] = ind;
-				arind++;
-			}
+	private double calcSingleAsa(int i) {
+		initNeighbors();
+
+		double xi = xs[i];
+		double yi = ys[i];
+		double zi = zs[i];
+		int start = neighborStarts[i];
+		int nNeighbor = neighborStarts[i+1] - start;
+		int jClosestNeighbor = 0;
+		double radius = probe + radii[i];
 
-			for (int j: cycled_indices) {
-				Point3d atom_j = atomCoords[neighbor_indices.get(j)];
-				double r = radii[neighbor_indices.get(j)] + probe;
-				double diff_sq = test_point.distanceSquared(atom_j);
-				if (diff_sq < r*r) {
-					j_closest_neighbor = j;
-					is_accessible = false;
+		int nAccessiblePoint = 0;
+
+		for (int k=0;k<spherePointsX.length;k++) {
+			boolean isAccessible = true;
+			double testX = spherePointsX[k]*radius + xi;
+			double testY = spherePointsY[k]*radius + yi;
+			double testZ = spherePointsZ[k]*radius + zi;
+
+			// start with the neighbour that occluded the previous point, it is likely to occlude this one too
+			for (int c=0;c<nNeighbor;c++) {
+				int j = jClosestNeighbor + c;
+				if (j>=nNeighbor) j -= nNeighbor;
+				int neighbor = neighbors[start + j];
+				double r = radii[neighbor] + probe;
+				double dx = testX - xs[neighbor];
+				double dy = testY - ys[neighbor];
+				double dz = testZ - zs[neighbor];
+				if (dx*dx + dy*dy + dz*dz < r*r) {
+					jClosestNeighbor = j;
+					isAccessible = false;
 					break;
 				}
 			}
-			if (is_accessible) {
-				n_accessible_point++;
+			if (isAccessible) {
+				nAccessiblePoint++;
 			}
 		}
-		return cons*n_accessible_point*radius*radius;
+		return cons*nAccessiblePoint*radius*radius;
 	}
 
 	/**
@@ -0,0 +1,122 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.geometry;
+
+import java.util.stream.IntStream;
+
+/**
+ * Superposes many windows of two interleaved x,y,z coordinate arrays in one call with the
+ * {@link SuperPositionQCP QCP} algorithm, e.g. all the trial fragment pairs of an optimization.
+ * <p>
+ * Each window is given by the index of its first point in each array and its number of points, so that the
+ * coordinates of a structure are copied into a flat array once and then shared by all of its windows. The
+ * RMSDs, and optionally the rotations, are written into arrays provided by the caller: apart from one
+ * {@link SuperPositionQCP} per thread, nothing is allocated.
+ * <p>
+ * Large batches can be split into chunks superposed in parallel. Every window is calculated the same way in
+ * either mode, so the results do not depend on it.
+ *
+ * @since 5.0.0
+ */
+public final class SuperPositionBatch {
+
+	/** The number of windows superposed by one parallel task */
+	private static final int CHUNK_SIZE = 64;
+
+	private static final ThreadLocal<SuperPositionQCP> qcp =
+			ThreadLocal.withInitial(() -> new SuperPositionQCP(false));
+
+	private SuperPositionBatch() {
+	}
+
+	/**
+	 * Superposes windows of the same length.
+	 *
+	 * @param fixed interleaved coordinates of the reference set
+	 * @param fixedOffsets the index of the first point of each window in fixed
+	 * @param moved interleaved coordinates of the set to superpose
+	 * @param movedOffsets the index of the first point of each window in moved
+	 * @param length the number of points of the windows
+	 * @param count the number of windows
+	 * @param rmsds the array to which the RMSD of each window is written
+	 * @param rotations the array to which the rotation of each window is written, see
+	 * 	{@link #superpose(double[], int[], double[], int[], int[], int, double[], double[], boolean)}, or null
+	 * @param parallel true to superpose large batches in parallel
+	 * @throws IllegalArgumentException if a window is empty or out of the coordinate arrays
+	 */
+	public static void superpose(double[] fixed, int[] fixedOffsets, double[] moved, int[] movedOffsets,
+			int length, int count, double[] rmsds, double[] rotations, boolean parallel) {
+		superpose(fixed, fixedOffsets, moved, movedOffsets, null, length, count, rmsds, rotations, parallel);
+	}
+
+	/**
+	 * Superposes windows of any length. A rotation is written as the 9 elements of a 3x3 matrix, row-major,
+	 * from index 9*i for window i. It superposes the centered window of moved onto the centered window of fixed,
+	 * and is the identity if it could not be determined.
+	 *
+	 * @param fixed interleaved coordinates of the reference set
+	 * @param fixedOffsets the index of the first point of each window in fixed
+	 * @param moved interleaved coordinates of the set to superpose
+	 * @param movedOffsets the index of the first point of each window in moved
+	 * @param lengths the number of points of each window
+	 * @param count the number of windows
+	 * @param rmsds the array to which the RMSD of each window is written
+	 * @param rotations the array to which the rotation of each window is written, or null
+	 * @param parallel true to superpose large batches in parallel
+	 * @throws IllegalArgumentException if a window is empty or out of the coordinate arrays
+	 */
+	public static void superpose(double[] fixed, int[] fixedOffsets, double[] moved, int[] movedOffsets,
+			int[] lengths, int count, double[] rmsds, double[] rotations, boolean parallel) {
+		superpose(fixed, fixedOffsets, moved, movedOffsets, lengths, 0, count, rmsds, rotations, parallel);
+	}
+
+	private static void superpose(final double[] fixed, final int[] fixedOffsets, final double[] moved,
+			final int[] movedOffsets, final int[] lengths, final int length, final int count,
+			final double[] rmsds, final double[] rotations, boolean parallel) {
+
+		if (fixedOffsets.length < count || movedOffsets.length < count || rmsds.length < count
+				|| (lengths != null && lengths.length < count)
+				|| (rotations != null && rotations.length < 9 * count))
+			throw new IllegalArgumentException("The arrays of the batch are shorter than " + count + " windows.");
+
+		int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		if (!parallel || chunks < 2) {
+			superpose(fixed, fixedOffsets, moved, movedOffsets, lengths, length, 0, count, rmsds, rotations);
+			return;
+		}
+		IntStream.range(0, chunks).parallel().forEach(c -> {
+			int start = c * CHUNK_SIZE;
+			int end = Math.min(start + CHUNK_SIZE, count);
+			superpose(fixed, fixedOffsets, moved, movedOffsets, lengths, length, start, end, rmsds, rotations);
+		});
+	}
+
+	private static void superpose(double[] fixed, int[] fixedOffsets, double[] moved, int[] movedOffsets,
+			int[] lengths, int length, int start, int end, double[] rmsds, double[] rotations) {
+		SuperPositionQCP q = qcp.get();
+		for (int i = start; i < end; i++) {
+			int n = lengths == null ? length : lengths[i];
+			rmsds[i] = q.getRmsd(fixed, fixedOffsets[i], moved, movedOffsets[i], n);
+			if (rotations != null)
+				q.getRotation(rotations, 9 * i);
+		}
+	}
+}
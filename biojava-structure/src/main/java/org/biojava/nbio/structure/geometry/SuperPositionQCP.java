@@ -443,9 +443,9 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 		}
 
 		if (i == 50) {
-			logger.warn(String.format("More than %d iterations needed!", i));
+			logger.warn("More than {} iterations needed!", i);
 		} else {
-			logger.info(String.format("%d iterations needed!", i));
+			logger.info("{} iterations needed!", i);
 		}
 
 		/*
@@ -542,7 +542,8 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 		q3 /= normq;
 		q4 /= normq;
 
-		logger.debug("q: " + q1 + " " + q2 + " " + q3 + " " + q4);
+		if (logger.isDebugEnabled())
+			logger.debug("q: " + q1 + " " + q2 + " " + q3 + " " + q4);
 
 		double a2 = q1 * q1;
 		double x2 = q2 * q2;
@@ -571,6 +572,186 @@ public final class SuperPositionQCP extends SuperPositionAbstract {
 		return 1;
 	}
 
+	/**
+	 * Calculates the RMSD of the superposition of moved onto fixed, where
+	 * both coordinate sets are given as interleaved x,y,z arrays (as returned
+	 * by {@link org.biojava.nbio.structure.CompactAtomStore#getCoordinates()}).
+	 * No intermediate point arrays are created and the input is not modified.
+	 * 
+	 * @param fixed interleaved coordinates of the reference set
+	 * @param moved interleaved coordinates of the set to superpose
+	 * @return root mean square deviation
+	 */
+	public double getRmsd(double[] fixed, double[] moved) {
+		checkInput(fixed, moved);
+		calcRmsd(fixed, 0, moved, 0, fixed.length / 3);
+		return rmsd;
+	}
+
+	/**
+	 * Calculates the RMSD of the superposition of a window of moved onto a
+	 * window of fixed, where both coordinate sets are given as interleaved
+	 * x,y,z arrays, e.g. the fragments of two proteins. No intermediate point
+	 * arrays are created and the input is not modified.
+	 * 
+	 * @param fixed interleaved coordinates of the reference set
+	 * @param fixedOffset the index of the first point of the window in fixed
+	 * @param moved interleaved coordinates of the set to superpose
+	 * @param movedOffset the index of the first point of the window in moved
+	 * @param length the number of points of the windows, at least 1
+	 * @return root mean square deviation
+	 * @throws IllegalArgumentException if the windows are empty or out of the
+	 *             coordinate arrays
+	 * @since 5.0.0
+	 */
+	public double getRmsd(double[] fixed, int fixedOffset, double[] moved,
+			int movedOffset, int length) {
+		if (length < 1)
+			throw new IllegalArgumentException(
+					"Window of " + length + " points, at least 1 is needed.");
+		if (fixedOffset < 0 || movedOffset < 0
+				|| 3 * (fixedOffset + length) > fixed.length
+				|| 3 * (movedOffset + length) > moved.length)
+			throw new IllegalArgumentException(
+					"Window of " + length + " points out of the coordinate arrays.");
+		calcRmsd(fixed, fixedOffset, moved, movedOffset, length);
+		return rmsd;
+	}
+
+	/**
+	 * Superposition of moved onto fixed, where both coordinate sets are given
+	 * as interleaved x,y,z arrays. The input is not modified.
+	 * 
+	 * @param fixed interleaved coordinates of the reference set
+	 * @param moved interleaved coordinates of the set to superpose
+	 * @return the transformation that superposes moved onto fixed
+	 */
+	public Matrix4d superpose(double[] fixed, double[] moved) {
+		checkInput(fixed, moved);
+		calcRmsd(fixed, 0, moved, 0, fixed.length / 3);
+		calcRotationMatrix();
+		if (!centered) {
+			calcTransformation();
+		} else {
+			transformation.set(rotmat);
+		}
+		return transformation;
+	}
+
+	/**
+	 * Copies the rotation of the last RMSD calculated on interleaved
+	 * coordinate arrays into 9 consecutive elements of an array, row-major.
+	 * The rotation superposes the centered window of moved onto the centered
+	 * window of fixed. It is the identity if it could not be determined.
+	 * 
+	 * @param rotation the array to write to
+	 * @param offset the index of the first element written
+	 */
+	void getRotation(double[] rotation, int offset) {
+		calcRotationMatrix();
+		rotation[offset] = rotmat.m00;
+		rotation[offset + 1] = rotmat.m01;
+		rotation[offset + 2] = rotmat.m02;
+		rotation[offset + 3] = rotmat.m10;
+		rotation[offset + 4] = rotmat.m11;
+		rotation[offset + 5] = rotmat.m12;
+		rotation[offset + 6] = rotmat.m20;
+		rotation[offset + 7] = rotmat.m21;
+		rotation[offset + 8] = rotmat.m22;
+	}
+
+	private void checkInput(double[] fixed, double[] moved) {
+		if (fixed.length != moved.length || fixed.length % 3 != 0)
+			throw new IllegalArgumentException(
+					"Coordinate arrays to superpose are of different lengths or not multiples of 3.");
+	}
+
+	/**
+	 * Calculates the RMSD of n consecutive points of interleaved coordinate
+	 * arrays, starting at the given point offsets, without creating any
+	 * intermediate point arrays.
+	 */
+	private void calcRmsd(double[] fixed, int fixedOffset, double[] moved,
+			int movedOffset, int n) {
+		if (xtrans == null) xtrans = new Point3d();
+		if (ytrans == null) ytrans = new Point3d();
+		if (centered) {
+			xtrans.set(0, 0, 0);
+			ytrans.set(0, 0, 0);
+		} else {
+			// negated centroids, as in the Point3d based calculation
+			centroid(moved, movedOffset, n, xtrans);
+			xtrans.negate();
+			centroid(fixed, fixedOffset, n, ytrans);
+			ytrans.negate();
+		}
+		innerProduct(fixed, fixedOffset, ytrans, moved, movedOffset, xtrans, n);
+		calcRmsd(wsum);
+		rmsdCalculated = true;
+		transformationCalculated = false;
+	}
+
+	private static void centroid(double[] coords, int offset, int n, Point3d center) {
+		double cx = 0, cy = 0, cz = 0;
+		int start = 3 * offset;
+		int end = start + 3 * n;
+		for (int i = start; i < end; i += 3) {
+			cx += coords[i];
+			cy += coords[i + 1];
+			cz += coords[i + 2];
+		}
+		center.set(cx, cy, cz);
+		center.scale(1.0 / n);
+	}
+
+	/**
+	 * Unweighted inner product of two interleaved coordinate arrays, each
+	 * translated on the fly by the given vector.
+	 */
+	private void innerProduct(double[] coords1, int offset1, Point3d trans1,
+			double[] coords2, int offset2, Point3d trans2, int n) {
+		double g1 = 0.0, g2 = 0.0;
+
+		Sxx = 0;
+		Sxy = 0;
+		Sxz = 0;
+		Syx = 0;
+		Syy = 0;
+		Syz = 0;
+		Szx = 0;
+		Szy = 0;
+		Szz = 0;
+
+		int i1 = 3 * offset1;
+		int i2 = 3 * offset2;
+		for (int k = 0; k < n; k++, i1 += 3, i2 += 3) {
+			double x1 = coords1[i1] + trans1.x;
+			double y1 = coords1[i1 + 1] + trans1.y;
+			double z1 = coords1[i1 + 2] + trans1.z;
+			double x2 = coords2[i2] + trans2.x;
+			double y2 = coords2[i2 + 1] + trans2.y;
+			double z2 = coords2[i2 + 2] + trans2.z;
+
+			g1 += x1 * x1 + y1 * y1 + z1 * z1;
+			g2 += x2 * x2 + y2 * y2 + z2 * z2;
+
+			Sxx += x1 * x2;
+			Sxy += x1 * y2;
+			Sxz += x1 * z2;
+
+			Syx += y1 * x2;
+			Syy += y1 * y2;
+			Syz += y1 * z2;
+
+			Szx += z1 * x2;
+			Szy += z1 * y2;
+			Szz += z1 * z2;
+		}
+		wsum = n;
+
+		e0 = (g1 + g2) * 0.5;
+	}
+
 	@Override
 	public double getRmsd(Point3d[] fixed, Point3d[] moved) {
 		set(moved, fixed);
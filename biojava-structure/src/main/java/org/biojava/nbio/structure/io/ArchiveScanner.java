@@ -0,0 +1,611 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.biojava.nbio.core.util.InputStreamProvider;
+import org.biojava.nbio.structure.Structure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses all entries of a local PDB mirror in parallel.
+ * <p>
+ * The entries are listed with {@link LocalPDBDirectory#getLocalFiles()} (or
+ * given explicitly) and processed by a two-stage pipeline:
+ * <ol>
+ * <li>reader threads load each file into memory, decompressing it if needed,</li>
+ * <li>parser threads turn the decompressed bytes into a {@link Structure}
+ * with {@link LocalPDBDirectory#getStructure(InputStream)}.</li>
+ * </ol>
+ * The parser threads share the given directory, so its
+ * {@link LocalPDBDirectory#getStructure(InputStream)} must be safe to call
+ * concurrently, as it is for the readers of BioJava.
+ * Both stages are connected by bounded queues, so that decompression
+ * overlaps with parsing, and parsing overlaps with the work done by the
+ * caller on the results. When the caller falls behind, the queues fill up
+ * and the pipeline blocks until results are consumed, so the memory
+ * footprint is bounded by the queue capacity rather than by the archive size.
+ * <p>
+ * Failures do not stop a scan: every entry produces a {@link Result} holding
+ * either the structure or the exception. Throughput counters are available
+ * from {@link #getStatistics()} while and after a scan runs.
+ * <p>
+ * Usage:
+ * <pre>
+ * ArchiveScanner scanner = new ArchiveScanner(new MMCIFFileReader("/path/to/pdb"));
+ * try (Stream&lt;ArchiveScanner.Result&gt; results = scanner.stream()) {
+ *     results.filter(ArchiveScanner.Result::isSuccess)
+ *            .forEach(r -&gt; process(r.getStructure()));
+ * }
+ * System.out.println(scanner.getStatistics());
+ * </pre>
+ * A scanner runs one scan at a time.
+ *
+ * @since 5.0.0
+ */
+public class ArchiveScanner {
+
+	private static final Logger logger = LoggerFactory.getLogger(ArchiveScanner.class);
+
+	/**
+	 * The default capacity of each of the two queues of the pipeline
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 32;
+
+	/**
+	 * Marks the end of the data in the queues
+	 */
+	private static final Result END = new Result(null, null, null, null, 0);
+
+	private final LocalPDBDirectory reader;
+
+	private int parserThreads;
+	private int readerThreads;
+	private int queueCapacity;
+
+	private volatile Statistics statistics;
+
+	/**
+	 * Constructs a scanner for the entries of the given directory, using one
+	 * parser thread per available processor and one reader thread.
+	 * @param reader the directory, whose {@link FileParsingParameters} are used for parsing
+	 */
+	public ArchiveScanner(LocalPDBDirectory reader) {
+		this.reader = reader;
+		this.parserThreads = Runtime.getRuntime().availableProcessors();
+		this.readerThreads = 1;
+		this.queueCapacity = DEFAULT_QUEUE_CAPACITY;
+		this.statistics = new Statistics();
+	}
+
+	public int getParserThreads() {
+		return parserThreads;
+	}
+
+	/**
+	 * @param parserThreads the number of threads parsing structures
+	 */
+	public void setParserThreads(int parserThreads) {
+		if (parserThreads < 1)
+			throw new IllegalArgumentException("At least one parser thread is needed");
+		this.parserThreads = parserThreads;
+	}
+
+	public int getReaderThreads() {
+		return readerThreads;
+	}
+
+	/**
+	 * @param readerThreads the number of threads reading and decompressing files
+	 */
+	public void setReaderThreads(int readerThreads) {
+		if (readerThreads < 1)
+			throw new IllegalArgumentException("At least one reader thread is needed");
+		this.readerThreads = readerThreads;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @param queueCapacity the maximum number of decompressed files and of
+	 * parsed structures held in memory before the pipeline blocks
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		if (queueCapacity < 1)
+			throw new IllegalArgumentException("The queue capacity must be positive");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * @return the counters of the current or last scan
+	 */
+	public Statistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Parses all local entries, passing each result to the given callback.
+	 * The callback runs on the calling thread, one result at a time, in
+	 * the order in which parsing finishes.
+	 * @param callback
+	 * @return the statistics of the scan
+	 * @throws InterruptedException if the calling thread is interrupted, in which case the scan is cancelled
+	 */
+	public Statistics scan(Consumer<Result> callback) throws InterruptedException {
+		return scan(reader.getLocalFiles(), callback);
+	}
+
+	/**
+	 * Parses the given files, passing each result to the given callback.
+	 * The callback runs on the calling thread, one result at a time, in
+	 * the order in which parsing finishes. If the callback throws an exception
+	 * the scan is cancelled and the exception is rethrown.
+	 * @param files
+	 * @param callback
+	 * @return the statistics of the scan
+	 * @throws InterruptedException if the calling thread is interrupted, in which case the scan is cancelled
+	 */
+	public Statistics scan(Collection<File> files, Consumer<Result> callback) throws InterruptedException {
+		Pipeline pipeline = start(files);
+		try {
+			Result result;
+			while ((result = pipeline.results.take()) != END) {
+				callback.accept(result);
+			}
+		} finally {
+			pipeline.close();
+		}
+		return pipeline.statistics;
+	}
+
+	/**
+	 * Returns a stream over the results of parsing all local entries.
+	 * @return
+	 * @see #stream(Collection)
+	 */
+	public Stream<Result> stream() {
+		return stream(reader.getLocalFiles());
+	}
+
+	/**
+	 * Returns a sequential stream over the results of parsing the given
+	 * files, in the order in which parsing finishes. Parsing starts
+	 * immediately and runs ahead of the stream by at most the queue capacity.
+	 * The stream should be closed (e.g. with try-with-resources) to cancel
+	 * the scan if not all results are consumed.
+	 * @param files
+	 * @return
+	 */
+	public Stream<Result> stream(Collection<File> files) {
+		final Pipeline pipeline = start(files);
+
+		Iterator<Result> it = new Iterator<Result>() {
+			private Result next = null;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null) {
+					try {
+						next = pipeline.results.take();
+					} catch (InterruptedException e) {
+						pipeline.close();
+						Thread.currentThread().interrupt();
+						next = END;
+					}
+				}
+				if (next == END) {
+					pipeline.close();
+					return false;
+				}
+				return true;
+			}
+
+			@Override
+			public Result next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				Result r = next;
+				next = null;
+				return r;
+			}
+		};
+
+		return StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(it, Spliterator.NONNULL), false)
+				.onClose(pipeline::close);
+	}
+
+	private Pipeline start(Collection<File> files) {
+		Pipeline pipeline = new Pipeline(new ArrayList<File>(files));
+		statistics = pipeline.statistics;
+		pipeline.start();
+		return pipeline;
+	}
+
+	/**
+	 * The state of one scan: the threads and the queues connecting them.
+	 */
+	private class Pipeline {
+
+		private final List<File> files;
+		private final AtomicInteger nextFile;
+		private final AtomicInteger activeReaders;
+		private final AtomicInteger activeParsers;
+
+		private final BlockingQueue<Result> loaded;
+		private final BlockingQueue<Result> results;
+
+		private final Statistics statistics;
+		private final ExecutorService executor;
+
+		private volatile boolean closed;
+
+		public Pipeline(List<File> files) {
+			this.files = files;
+			this.nextFile = new AtomicInteger();
+			this.activeReaders = new AtomicInteger(readerThreads);
+			this.activeParsers = new AtomicInteger(parserThreads);
+			this.loaded = new ArrayBlockingQueue<Result>(queueCapacity);
+			this.results = new ArrayBlockingQueue<Result>(queueCapacity);
+			this.statistics = new Statistics();
+			this.executor = Executors.newFixedThreadPool(readerThreads + parserThreads, new ThreadFactory() {
+				private final AtomicInteger n = new AtomicInteger();
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "ArchiveScanner-" + n.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+
+		public void start() {
+			for (int i = 0; i < readerThreads; i++) {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						read();
+					}
+				});
+			}
+			for (int i = 0; i < parserThreads; i++) {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						parse();
+					}
+				});
+			}
+			executor.shutdown();
+		}
+
+		/**
+		 * Cancels the scan if it is still running.
+		 */
+		public void close() {
+			if (closed)
+				return;
+			closed = true;
+			executor.shutdownNow();
+			statistics.finish();
+		}
+
+		private void read() {
+			try {
+				int i;
+				while (!closed && (i = nextFile.getAndIncrement()) < files.size()) {
+					loaded.put(load(files.get(i)));
+				}
+			} catch (InterruptedException e) {
+				// cancelled
+				return;
+			} finally {
+				if (activeReaders.decrementAndGet() == 0) {
+					// tell every parser that there is no more input
+					for (int p = 0; p < parserThreads && !closed; p++) {
+						try {
+							loaded.put(END);
+						} catch (InterruptedException e) {
+							break;
+						}
+					}
+				}
+			}
+		}
+
+		private Result load(File file) {
+			String pdbId = reader.getPdbId(file);
+			long start = System.nanoTime();
+			try {
+				InputStreamProvider isp = new InputStreamProvider();
+				byte[] data;
+				try (InputStream in = isp.getInputStream(file)) {
+					data = readFully(in, (int) Math.min(4 * file.length(), Integer.MAX_VALUE - 8));
+				}
+				statistics.readNanos.addAndGet(System.nanoTime() - start);
+				statistics.compressedBytes.addAndGet(file.length());
+				statistics.uncompressedBytes.addAndGet(data.length);
+				return new Result(file, pdbId, null, null, 0, data);
+			} catch (IOException|RuntimeException e) {
+				statistics.readNanos.addAndGet(System.nanoTime() - start);
+				return new Result(file, pdbId, null, e, 0);
+			}
+		}
+
+		private void parse() {
+			try {
+				Result entry;
+				while (!closed && (entry = loaded.take()) != END) {
+					Result result = entry.exception == null ? parse(entry) : entry;
+					statistics.count(result);
+					results.put(result);
+				}
+			} catch (InterruptedException e) {
+				// cancelled
+				return;
+			} finally {
+				if (activeParsers.decrementAndGet() == 0 && !closed) {
+					statistics.finish();
+					try {
+						results.put(END);
+					} catch (InterruptedException e) {
+						// cancelled
+					}
+				}
+			}
+		}
+
+		private Result parse(Result entry) {
+			long start = System.nanoTime();
+			try {
+				Structure s = reader.getStructure(new ByteArrayInputStream(entry.data));
+				long time = System.nanoTime() - start;
+				return new Result(entry.file, entry.pdbId, s, null, time);
+			} catch (Exception e) {
+				logger.debug("Could not parse {}: {}", entry.file, e.getMessage());
+				return new Result(entry.file, entry.pdbId, null, e, System.nanoTime() - start);
+			}
+		}
+	}
+
+	private static byte[] readFully(InputStream in, int sizeHint) throws IOException {
+		byte[] buf = new byte[Math.max(sizeHint, 8192)];
+		int n = 0;
+		int read;
+		while ((read = in.read(buf, n, buf.length - n)) != -1) {
+			n += read;
+			if (n == buf.length) {
+				buf = Arrays.copyOf(buf, buf.length * 2);
+			}
+		}
+		return Arrays.copyOf(buf, n);
+	}
+
+	/**
+	 * The outcome of parsing one entry: either a structure or the exception
+	 * that prevented reading or parsing it.
+	 */
+	public static class Result {
+
+		private final File file;
+		private final String pdbId;
+		private final Structure structure;
+		private final Exception exception;
+		private final long parseNanos;
+
+		// the decompressed file, only set between the two stages
+		private final byte[] data;
+
+		private Result(File file, String pdbId, Structure structure, Exception exception, long parseNanos) {
+			this(file, pdbId, structure, exception, parseNanos, null);
+		}
+
+		private Result(File file, String pdbId, Structure structure, Exception exception, long parseNanos, byte[] data) {
+			this.file = file;
+			this.pdbId = pdbId;
+			this.structure = structure;
+			this.exception = exception;
+			this.parseNanos = parseNanos;
+			this.data = data;
+		}
+
+		/**
+		 * @return the file the entry was read from
+		 */
+		public File getFile() {
+			return file;
+		}
+
+		/**
+		 * @return the PDB ID derived from the file name
+		 */
+		public String getPdbId() {
+			return pdbId;
+		}
+
+		/**
+		 * @return the structure, or null if the entry could not be read or parsed
+		 */
+		public Structure getStructure() {
+			return structure;
+		}
+
+		/**
+		 * @return the exception thrown while reading or parsing, or null on success
+		 */
+		public Exception getException() {
+			return exception;
+		}
+
+		public boolean isSuccess() {
+			return exception == null;
+		}
+
+		/**
+		 * @return the time spent parsing this entry, in nanoseconds
+		 */
+		public long getParseNanos() {
+			return parseNanos;
+		}
+
+		@Override
+		public String toString() {
+			return pdbId + " " + (isSuccess() ? "OK" : exception.toString());
+		}
+	}
+
+	/**
+	 * Throughput counters of a scan. They are updated concurrently while the
+	 * scan runs.
+	 */
+	public static class Statistics {
+
+		private final long startNanos;
+		private volatile long endNanos;
+
+		private final AtomicLong entries = new AtomicLong();
+		private final AtomicLong failures = new AtomicLong();
+		private final AtomicLong compressedBytes = new AtomicLong();
+		private final AtomicLong uncompressedBytes = new AtomicLong();
+		private final AtomicLong readNanos = new AtomicLong();
+		private final AtomicLong parseNanos = new AtomicLong();
+
+		private Statistics() {
+			startNanos = System.nanoTime();
+			endNanos = -1;
+		}
+
+		private void count(Result result) {
+			entries.incrementAndGet();
+			if (!result.isSuccess())
+				failures.incrementAndGet();
+			parseNanos.addAndGet(result.parseNanos);
+		}
+
+		private void finish() {
+			if (endNanos < 0)
+				endNanos = System.nanoTime();
+		}
+
+		/**
+		 * @return the number of entries processed so far, including failures
+		 */
+		public long getEntries() {
+			return entries.get();
+		}
+
+		/**
+		 * @return the number of entries that could not be read or parsed
+		 */
+		public long getFailures() {
+			return failures.get();
+		}
+
+		/**
+		 * @return the total size of the files read, as stored on disk
+		 */
+		public long getCompressedBytes() {
+			return compressedBytes.get();
+		}
+
+		/**
+		 * @return the total size of the files read, after decompression
+		 */
+		public long getUncompressedBytes() {
+			return uncompressedBytes.get();
+		}
+
+		/**
+		 * @return the time spent reading and decompressing, summed over all reader threads
+		 */
+		public double getReadSeconds() {
+			return readNanos.get() / 1e9;
+		}
+
+		/**
+		 * @return the time spent parsing, summed over all parser threads
+		 */
+		public double getParseSeconds() {
+			return parseNanos.get() / 1e9;
+		}
+
+		/**
+		 * @return the wall clock time since the scan started, until it finished if it did
+		 */
+		public double getElapsedSeconds() {
+			long end = endNanos < 0 ? System.nanoTime() : endNanos;
+			return (end - startNanos) / 1e9;
+		}
+
+		public boolean isFinished() {
+			return endNanos >= 0;
+		}
+
+		/**
+		 * @return the number of entries processed per second of wall clock time
+		 */
+		public double getEntriesPerSecond() {
+			double s = getElapsedSeconds();
+			return s > 0 ? getEntries() / s : 0;
+		}
+
+		/**
+		 * @return the number of decompressed megabytes processed per second of wall clock time
+		 */
+		public double getMegabytesPerSecond() {
+			double s = getElapsedSeconds();
+			return s > 0 ? getUncompressedBytes() / 1e6 / s : 0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d entries (%d failed) in %.1f s: %.1f entries/s, %.1f MB/s (read %.1f s, parse %.1f s)",
+					getEntries(), getFailures(), getElapsedSeconds(),
+					getEntriesPerSecond(), getMegabytesPerSecond(),
+					getReadSeconds(), getParseSeconds());
+		}
+	}
+}
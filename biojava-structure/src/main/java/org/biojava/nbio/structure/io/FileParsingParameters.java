@@ -27,6 +27,9 @@ package org.biojava.nbio.structure.io;
 import java.io.Serializable;
 
 import org.biojava.nbio.structure.AminoAcid;
+import org.biojava.nbio.structure.AtomImpl;
+import org.biojava.nbio.structure.CompactAtom;
+import org.biojava.nbio.structure.CompactAtomStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +46,8 @@ import org.slf4j.LoggerFactory;
  * </li>
  * <li> {@link #setCreateAtomBonds(boolean)} - create atom bonds from parsed bonds in PDB/mmCIF files and chemical component files
  * </li>
+ * <li> {@link #setUseCompactAtomStore(boolean)} - store atom data in a {@link CompactAtomStore} instead of individual {@link AtomImpl} objects
+ * </li>
  * </ul>
  *
  * @author Andreas Prlic
@@ -110,6 +115,16 @@ public class FileParsingParameters implements Serializable
 	 */
 	private boolean createAtomCharges;
 
+	/**
+	 * Should the atoms be backed by a {@link CompactAtomStore}?
+	 */
+	private boolean useCompactAtomStore;
+
+	/**
+	 * Should the numeric columns of the {@link CompactAtomStore} be kept off-heap?
+	 */
+	private boolean compactAtomStoreOffHeap;
+
 	/**
 	 * The maximum number of atoms we will add to a structure,
 	 * this protects from memory overflows in the few really big protein structures.
@@ -147,6 +162,10 @@ public class FileParsingParameters implements Serializable
 
 		createAtomCharges = true;
 
+		useCompactAtomStore = false;
+
+		compactAtomStoreOffHeap = false;
+
 	}
 
 	/**
@@ -370,6 +389,57 @@ public class FileParsingParameters implements Serializable
 		this.createAtomCharges = createAtomCharges;
 	}
 
+	/**
+	 * Should the parsed atoms be backed by a {@link CompactAtomStore}?
+	 *
+	 * @return true if a compact store is used, false if every atom is an {@link AtomImpl}
+	 */
+	public boolean isUseCompactAtomStore() {
+		return useCompactAtomStore;
+	}
 
+	/**
+	 * Should the parsed atoms be backed by a {@link CompactAtomStore}? If true the
+	 * parsers create {@link CompactAtom} flyweights whose coordinates, B-factors,
+	 * occupancies, elements and interned names live in contiguous primitive arrays
+	 * shared by the whole structure. This considerably reduces the memory footprint
+	 * of large structures. Default is false.
+	 *
+	 * @param useCompactAtomStore
+	 */
+	public void setUseCompactAtomStore(boolean useCompactAtomStore) {
+		this.useCompactAtomStore = useCompactAtomStore;
+	}
+
+	/**
+	 * Are the numeric columns of the {@link CompactAtomStore} allocated off-heap?
+	 *
+	 * @return true if direct buffers are used
+	 */
+	public boolean isCompactAtomStoreOffHeap() {
+		return compactAtomStoreOffHeap;
+	}
 
+	/**
+	 * Should the numeric columns of the {@link CompactAtomStore} be allocated in
+	 * direct (off-heap) buffers? Only used if {@link #isUseCompactAtomStore()} is true.
+	 * Default is false.
+	 *
+	 * @param compactAtomStoreOffHeap
+	 */
+	public void setCompactAtomStoreOffHeap(boolean compactAtomStoreOffHeap) {
+		this.compactAtomStoreOffHeap = compactAtomStoreOffHeap;
+	}
+
+	/**
+	 * Creates a new {@link CompactAtomStore} configured according to these parameters,
+	 * or null if {@link #isUseCompactAtomStore()} is false.
+	 *
+	 * @param initialCapacity the expected number of atoms
+	 * @return a new store or null
+	 */
+	public CompactAtomStore createCompactAtomStore(int initialCapacity) {
+		if (!useCompactAtomStore) return null;
+		return new CompactAtomStore(initialCapacity, compactAtomStoreOffHeap);
+	}
 }
@@ -704,6 +704,74 @@ public abstract class LocalPDBDirectory implements StructureIOFile {
 		return null;
 	}
 
+	/**
+	 * Lists all locally available entry files, without contacting the server.
+	 * <p>
+	 * Both the split layout (<code>&lt;splitDir&gt;/&lt;middle&gt;/(pdb)?&lt;pdbId&gt;.&lt;ext&gt;</code>)
+	 * and flat directories (files placed directly in the split directory or
+	 * in {@link #getPath()}) are searched. Obsolete entries are included if the
+	 * {@link ObsoleteBehavior} is {@link ObsoleteBehavior#FETCH_OBSOLETE}.
+	 * Only files with one of the {@link #getExtensions() extensions} are returned.
+	 * @return the files, sorted by directory and name
+	 * @see ArchiveScanner
+	 * @since 5.0.0
+	 */
+	public List<File> getLocalFiles() {
+		List<File> files = new ArrayList<File>();
+
+		addLocalFiles(path, false, files);
+		addLocalFiles(splitDirPath, true, files);
+		if(getObsoleteBehavior() == ObsoleteBehavior.FETCH_OBSOLETE) {
+			addLocalFiles(obsoleteDirPath, true, files);
+		}
+		return files;
+	}
+
+	private void addLocalFiles(File dir, boolean split, List<File> files) {
+		File[] children = dir.listFiles();
+		if (children == null)
+			return;
+		Arrays.sort(children);
+
+		for (File child : children) {
+			if (child.isDirectory()) {
+				if (!split)
+					continue;
+				File[] entries = child.listFiles();
+				if (entries == null)
+					continue;
+				Arrays.sort(entries);
+				for (File entry : entries) {
+					if (entry.isFile() && getPdbId(entry) != null)
+						files.add(entry);
+				}
+			} else if (getPdbId(child) != null) {
+				files.add(child);
+			}
+		}
+	}
+
+	/**
+	 * Extracts the PDB ID from the name of an entry file, e.g. <code>pdb4hhb.ent.gz</code>
+	 * or <code>4hhb.cif.gz</code>.
+	 * @param file
+	 * @return the lower case PDB ID, or null if the file name does not end with
+	 * one of the {@link #getExtensions() extensions}
+	 * @since 5.0.0
+	 */
+	public String getPdbId(File file) {
+		String name = file.getName();
+		for (String ex : getExtensions()) {
+			if (name.length() > ex.length() && name.endsWith(ex)) {
+				String id = name.substring(0, name.length() - ex.length());
+				if (id.length() == 7 && id.startsWith("pdb"))
+					id = id.substring(3);
+				return id.toLowerCase();
+			}
+		}
+		return null;
+	}
+
 	protected boolean checkFileExists(String pdbId){
 		File path =  getLocalFile(pdbId);
 		if ( path != null)
@@ -56,7 +56,8 @@ public class MMCIFFileReader extends LocalPDBDirectory {
 	public static final String[] MMCIF_SPLIT_DIR    = new String[]{"data","structures","divided" ,"mmCIF"};
 	public static final String[] MMCIF_OBSOLETE_DIR = new String[]{"data","structures","obsolete","mmCIF"};
 
-	private SimpleMMcifConsumer consumer;
+	// the consumer of the last parse, only kept for getMMcifConsumer()
+	private volatile SimpleMMcifConsumer consumer;
 
 	public static void main(String[] args) throws Exception {
 
@@ -99,7 +100,8 @@ public class MMCIFFileReader extends LocalPDBDirectory {
 
 		MMcifParser parser = new SimpleMMcifParser();
 
-		consumer = new SimpleMMcifConsumer();
+		// local, so that concurrent parses with the same reader do not share a consumer
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer();
 
 		consumer.setFileParsingParameters(getFileParsingParameters());
 
@@ -113,6 +115,7 @@ public class MMCIFFileReader extends LocalPDBDirectory {
 
 		// now get the protein structure.
 		Structure cifStructure = consumer.getStructure();
+		this.consumer = consumer;
 
 		return cifStructure;
 	}
@@ -48,7 +48,7 @@ public class MMTFFileReader extends LocalPDBDirectory {
 	
 	@Override
 	public Structure getStructure(InputStream inStream) throws IOException {
-		return MmtfActions.readFromInputStream(inStream);
+		return MmtfActions.readFromInputStream(inStream, getFileParsingParameters());
 	}
 
 	@Override
@@ -52,6 +52,7 @@ import org.biojava.nbio.structure.AtomImpl;
 import org.biojava.nbio.structure.Author;
 import org.biojava.nbio.structure.Chain;
 import org.biojava.nbio.structure.ChainImpl;
+import org.biojava.nbio.structure.CompactAtomStore;
 import org.biojava.nbio.structure.EntityInfo;
 import org.biojava.nbio.structure.EntityType;
 import org.biojava.nbio.structure.DBRef;
@@ -245,6 +246,9 @@ public class PDBFileParser  {
 
 	private boolean atomOverflow;
 
+	/** the store backing the parsed atoms, null unless compact atom storage was requested **/
+	private CompactAtomStore atomStore;
+
 	/** flag to tell parser to only read Calpha coordinates **/
 	private boolean parseCAonly;
 
@@ -281,6 +285,7 @@ public class PDBFileParser  {
 		dateFormat = new SimpleDateFormat("dd-MMM-yy", Locale.US);
 		atomCount = 0;
 		atomOverflow = false;
+		atomStore = null;
 		parseCAonly = false;
 		
 		// this SHOULD not be done
@@ -1787,7 +1792,12 @@ public class PDBFileParser  {
 		// create new atom
 
 		int pdbnumber = Integer.parseInt (line.substring (6, 11).trim ());
-		AtomImpl atom = new AtomImpl() ;
+		Atom atom;
+		if (atomStore == null) {
+			atom = new AtomImpl();
+		} else {
+			atom = atomStore.newAtom();
+		}
 		atom.setPDBserial(pdbnumber) ;
 
 		atom.setAltLoc(altLoc);
@@ -2515,6 +2525,7 @@ public class PDBFileParser  {
 		lengthCheck = -1;
 		atomCount = 0;
 		atomOverflow = false;
+		atomStore = params.createCompactAtomStore(CompactAtomStore.DEFAULT_CAPACITY);
 		siteToResidueMap.clear();
 		
 		blankChainIdsPresent = false;
@@ -2696,6 +2707,10 @@ public class PDBFileParser  {
 		if (currentModel!=null) {
 			allModels.add(currentModel);
 		}
+
+		if (atomStore!=null) {
+			atomStore.trimToSize();
+		}
 		
 		if (blankChainIdsPresent) {
 			// from biojava 5.0 there's limited support for old pdb files with blank chain ids
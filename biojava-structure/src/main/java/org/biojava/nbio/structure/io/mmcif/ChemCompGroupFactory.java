@@ -22,7 +22,7 @@
  */
 package org.biojava.nbio.structure.io.mmcif;
 
-import org.biojava.nbio.core.util.SoftHashMap;
+import org.biojava.nbio.core.util.BoundedCache;
 import org.biojava.nbio.structure.AminoAcid;
 import org.biojava.nbio.structure.AminoAcidImpl;
 import org.biojava.nbio.structure.Group;
@@ -33,6 +33,8 @@ import org.biojava.nbio.structure.io.mmcif.model.ChemComp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ExecutionException;
+
 
 public class ChemCompGroupFactory {
 
@@ -40,26 +42,54 @@ public class ChemCompGroupFactory {
 
 	private static ChemCompProvider chemCompProvider = new DownloadChemCompProvider();
 
-	private static SoftHashMap<String, ChemComp> cache = new SoftHashMap<String, ChemComp>(0);
+	/**
+	 * The default maximum estimated size in bytes of the cached chemical components
+	 */
+	public static final long DEFAULT_CACHE_SIZE = 64 * 1024 * 1024;
+
+	private static BoundedCache<String, ChemComp> cache = new BoundedCache<String, ChemComp>(
+			DEFAULT_CACHE_SIZE, ChemCompGroupFactory::estimateSize, BoundedCache.EvictionPolicy.LRU);
 
 	public static ChemComp getChemComp(String recordName){
 
-		recordName = recordName.toUpperCase().trim();
+		final String id = recordName.toUpperCase().trim();
 
 		// we are using the cache, to avoid hitting the file system too often.
-		ChemComp cc = cache.get(recordName);
-		if ( cc != null) {
-			logger.debug("Chem comp "+cc.getThree_letter_code()+" read from cache");
-			return cc;
+		// Concurrent requests for the same component wait for a single provider call.
+		// Note that this also caches null or empty responses
+		try {
+			return cache.get(id, () -> {
+				logger.debug("Chem comp "+id+" read from provider "+chemCompProvider.getClass().getCanonicalName());
+				return chemCompProvider.getChemComp(id);
+			});
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new RuntimeException(e.getCause());
 		}
+	}
 
-		// not cached, get the chem comp from the provider
-		logger.debug("Chem comp "+recordName+" read from provider "+chemCompProvider.getClass().getCanonicalName());
-		cc = chemCompProvider.getChemComp(recordName);
+	/**
+	 * Returns the cache of chemical components, e.g. to inspect its statistics,
+	 * to change its size or to clear it.
+	 * @return
+	 */
+	public static BoundedCache<String, ChemComp> getCache() {
+		return cache;
+	}
 
-		// Note that this also caches null or empty responses
-		cache.put(recordName, cc);
-		return cc;
+	/**
+	 * A rough estimate of the memory used by a chemical component definition
+	 */
+	private static long estimateSize(ChemComp cc) {
+		if (cc == null)
+			return 64;
+		long size = 2048;
+		if (cc.getAtoms() != null)
+			size += 512L * cc.getAtoms().size();
+		if (cc.getBonds() != null)
+			size += 256L * cc.getBonds().size();
+		return size;
 	}
 
 	/**
@@ -70,7 +100,7 @@ public class ChemCompGroupFactory {
 	 * <p>
 	 * Changing the provider does not reset the cache, so Chemical
 	 * Component definitions already downloaded from previous providers
-	 * will be used. To reset the cache see {@link #getCache()).
+	 * will be used. To reset the cache see {@link #getCache()}.
 	 *
 	 * @param provider
 	 */
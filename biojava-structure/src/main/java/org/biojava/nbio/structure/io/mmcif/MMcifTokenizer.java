@@ -0,0 +1,279 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io.mmcif;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A byte-level tokenizer for CIF data that works directly on a
+ * {@link ByteBuffer}, e.g. a memory-mapped file.
+ * <p>
+ * Calling {@link #next()} only locates the bounds of the next token, no
+ * String is created until {@link #getString()} is called. This allows
+ * {@link SimpleMMcifParser} to skip the values of categories and columns
+ * that no consumer needs at the cost of scanning their bytes once.
+ * <p>
+ * Tokens are the whitespace separated words of the file, with comments
+ * removed. Values quoted with ' or " (where the closing quote must be
+ * followed by whitespace) and multi-line text fields delimited by lines
+ * starting with ; are returned as single tokens. As in the line-based
+ * parser, quoted values are trimmed and the lines of a text field are
+ * concatenated without line separators.
+ *
+ * @since 5.0.0
+ */
+public class MMcifTokenizer {
+
+	private static final byte S1 = '\'';
+	private static final byte S2 = '"';
+	private static final byte STRING_LIMIT = ';';
+	private static final byte COMMENT = '#';
+
+	private final ByteBuffer buffer;
+	private final int limit;
+
+	private int pos;
+
+	private int start;
+	private int end;
+	private boolean quoted;
+	private boolean textField;
+
+	private boolean pushedBack;
+
+	private byte[] scratch;
+
+	/**
+	 * Constructs a tokenizer over the bytes between the current position and
+	 * the limit of the given buffer. The buffer's position is not modified.
+	 * @param buffer
+	 */
+	public MMcifTokenizer(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.pos = buffer.position();
+		this.limit = buffer.limit();
+		this.start = pos;
+		this.end = pos;
+		this.scratch = new byte[256];
+	}
+
+	/**
+	 * Advances to the next token.
+	 * @return false if the end of the data was reached
+	 */
+	public boolean next() {
+		if (pushedBack) {
+			pushedBack = false;
+			return true;
+		}
+
+		quoted = false;
+		textField = false;
+
+		while (pos < limit) {
+			byte b = buffer.get(pos);
+
+			if (b == '\n' || b == '\r' || b == ' ' || b == '\t') {
+				pos++;
+				continue;
+			}
+
+			if (b == COMMENT) {
+				skipToEndOfLine();
+				continue;
+			}
+
+			if (b == STRING_LIMIT && isLineStart(pos)) {
+				readTextField();
+				return true;
+			}
+
+			if (b == S1 || b == S2) {
+				readQuoted(b);
+				return true;
+			}
+
+			start = pos;
+			while (pos < limit && !isWhitespace(buffer.get(pos))) {
+				pos++;
+			}
+			end = pos;
+			return true;
+		}
+
+		start = end = limit;
+		return false;
+	}
+
+	/**
+	 * Makes the following call to {@link #next()} return the current token
+	 * again.
+	 */
+	public void pushBack() {
+		pushedBack = true;
+	}
+
+	/**
+	 * @return true if the current token was quoted or a text field, i.e. it is
+	 * a value even if it looks like a data name or a reserved word
+	 */
+	public boolean isQuoted() {
+		return quoted || textField;
+	}
+
+	/**
+	 * @return the number of bytes of the current token
+	 */
+	public int length() {
+		return end - start;
+	}
+
+	/**
+	 * @param c
+	 * @return true if the current token is unquoted and starts with the given char
+	 */
+	public boolean startsWith(char c) {
+		return !isQuoted() && end > start && buffer.get(start) == c;
+	}
+
+	/**
+	 * Case-insensitive check of the start of an unquoted token, used for the
+	 * CIF reserved words such as <code>loop_</code> and <code>data_</code>.
+	 * @param prefix an ASCII prefix
+	 * @return true if the current token is unquoted and starts with the given prefix
+	 */
+	public boolean startsWithIgnoreCase(String prefix) {
+		if (isQuoted() || end - start < prefix.length())
+			return false;
+		for (int i = 0; i < prefix.length(); i++) {
+			int b = buffer.get(start + i) & 0xff;
+			if (Character.toLowerCase(b) != Character.toLowerCase(prefix.charAt(i)))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Creates the String value of the current token.
+	 * @return
+	 */
+	public String getString() {
+		if (!textField) {
+			return decode(start, end);
+		}
+
+		// concatenate the lines of the text field, dropping the line terminators
+		StringBuilder sb = new StringBuilder(end - start);
+		int lineStart = start;
+		for (int i = start; i < end; i++) {
+			byte b = buffer.get(i);
+			if (b == '\n' || b == '\r') {
+				if (i > lineStart) sb.append(decode(lineStart, i));
+				lineStart = i + 1;
+			}
+		}
+		if (end > lineStart) sb.append(decode(lineStart, end));
+		return sb.toString();
+	}
+
+	private String decode(int from, int to) {
+		int len = to - from;
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + from, len, StandardCharsets.UTF_8);
+		}
+		if (scratch.length < len) {
+			scratch = new byte[Math.max(len, 2 * scratch.length)];
+		}
+		for (int i = 0; i < len; i++) {
+			scratch[i] = buffer.get(from + i);
+		}
+		return new String(scratch, 0, len, StandardCharsets.UTF_8);
+	}
+
+	private void readQuoted(byte quote) {
+		quoted = true;
+		int i = pos + 1;
+		int close = -1;
+		while (i < limit) {
+			byte b = buffer.get(i);
+			if (b == '\n' || b == '\r') {
+				break;
+			}
+			if (b == quote && (i + 1 == limit || isWhitespace(buffer.get(i + 1)))) {
+				close = i;
+				break;
+			}
+			i++;
+		}
+		start = pos + 1;
+		// an unterminated quote runs to the end of the line
+		end = close < 0 ? i : close;
+		pos = close < 0 ? i : close + 1;
+
+		// quoted values are trimmed, as in the line-based parser
+		while (start < end && isWhitespace(buffer.get(start))) start++;
+		while (end > start && isWhitespace(buffer.get(end - 1))) end--;
+	}
+
+	private void readTextField() {
+		textField = true;
+		start = pos + 1;
+		int i = start;
+		while (i < limit) {
+			byte b = buffer.get(i);
+			if (b == '\n' || b == '\r') {
+				int next = i + 1;
+				if (b == '\r' && next < limit && buffer.get(next) == '\n') next++;
+				if (next < limit && buffer.get(next) == STRING_LIMIT) {
+					end = i;
+					pos = next;
+					// the closing line is ignored after its ;
+					skipToEndOfLine();
+					return;
+				}
+				i = next;
+				continue;
+			}
+			i++;
+		}
+		end = limit;
+		pos = limit;
+	}
+
+	private void skipToEndOfLine() {
+		while (pos < limit) {
+			byte b = buffer.get(pos);
+			if (b == '\n' || b == '\r') break;
+			pos++;
+		}
+	}
+
+	private boolean isLineStart(int i) {
+		if (i == buffer.position()) return true;
+		byte prev = buffer.get(i - 1);
+		return prev == '\n' || prev == '\r';
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+}
@@ -38,6 +38,7 @@ import org.biojava.nbio.structure.Atom;
 import org.biojava.nbio.structure.AtomImpl;
 import org.biojava.nbio.structure.Chain;
 import org.biojava.nbio.structure.ChainImpl;
+import org.biojava.nbio.structure.CompactAtomStore;
 import org.biojava.nbio.structure.EntityInfo;
 import org.biojava.nbio.structure.EntityType;
 import org.biojava.nbio.structure.DBRef;
@@ -168,6 +169,12 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 
 	private FileParsingParameters params;
 
+	/**
+	 * The store backing the parsed atoms, null unless
+	 * {@link FileParsingParameters#isUseCompactAtomStore()} is set
+	 */
+	private CompactAtomStore atomStore;
+
 	public  SimpleMMcifConsumer(){
 		params = new FileParsingParameters();
 		documentStart();
@@ -542,7 +549,12 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 	private Atom convertAtom(AtomSite atom){
 
 
-		Atom a = new AtomImpl();
+		Atom a;
+		if (atomStore == null) {
+			a = new AtomImpl();
+		} else {
+			a = atomStore.newAtom();
+		}
 
 		a.setPDBserial(Integer.parseInt(atom.getId()));
 		a.setName(atom.getLabel_atom_id());
@@ -646,6 +658,8 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 	public void documentStart() {
 		structure = new StructureImpl();
 
+		atomStore = params.createCompactAtomStore(CompactAtomStore.DEFAULT_CAPACITY);
+
 		currentChain        = null;
 		currentGroup 		= null;
 		currentNmrModelNumber 	= null;
@@ -693,6 +707,10 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 
 		allModels.add(currentModel);
 
+		if (atomStore != null) {
+			atomStore.trimToSize();
+		}
+
 		// this populates the asymId2authorId and asymId2entityId maps, needed in header only mode to get the mapping 
 		// between the 2 chain identifiers.
 		initMaps();
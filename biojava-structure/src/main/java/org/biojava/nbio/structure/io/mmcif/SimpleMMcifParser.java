@@ -22,18 +22,27 @@
 package org.biojava.nbio.structure.io.mmcif;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
 
 
 import org.biojava.nbio.structure.Structure;
@@ -139,11 +148,75 @@ public class SimpleMMcifParser implements MMcifParser {
 
 	private Struct struct ;
 
+	/**
+	 * The categories (and per category the columns, null for all of them) that
+	 * are passed on to the consumers. If empty, all categories are.
+	 */
+	private Map<String,Set<String>> requiredCategories;
+
+	/**
+	 * Per bean class name the setters to use for each CIF field name
+	 */
+	private static final Map<String,BeanSetters> beanSetters = new ConcurrentHashMap<String, BeanSetters>();
+
 	private static final Logger logger = LoggerFactory.getLogger(SimpleMMcifParser.class);
 
 	public SimpleMMcifParser(){
 		consumers = new ArrayList<MMcifConsumer>();
 		struct = null;
+		requiredCategories = new HashMap<String, Set<String>>();
+	}
+
+	/**
+	 * Restricts parsing to the given category. Once at least one category has
+	 * been added, all other categories are skipped: no model beans are built
+	 * for them and, when parsing from a {@link ByteBuffer} or {@link File},
+	 * not even Strings are created for their values.
+	 * <p>
+	 * If columns are given, only those columns of the category are read, all
+	 * other fields of the resulting beans will be null. Note that the
+	 * consumers must be able to cope with the missing data, e.g.
+	 * {@link SimpleMMcifConsumer} needs at least the <code>_atom_site</code>
+	 * columns it uses to build atoms and groups.
+	 * @param category the category name, e.g. <code>_atom_site</code> (the leading underscore is optional)
+	 * @param columns the column names, e.g. <code>Cartn_x</code>, or none to read all columns
+	 * @since 5.0.0
+	 */
+	public void addRequiredCategory(String category, String... columns) {
+		if (!category.startsWith(FIELD_LINE))
+			category = FIELD_LINE + category;
+
+		if (columns == null || columns.length == 0) {
+			requiredCategories.put(category, null);
+			return;
+		}
+		if (requiredCategories.containsKey(category) && requiredCategories.get(category) == null) {
+			// all columns already required
+			return;
+		}
+		Set<String> cols = requiredCategories.get(category);
+		if (cols == null) {
+			cols = new HashSet<String>();
+			requiredCategories.put(category, cols);
+		}
+		Collections.addAll(cols, columns);
+	}
+
+	/**
+	 * Removes all category restrictions, so that all categories are parsed again.
+	 * @since 5.0.0
+	 */
+	public void clearRequiredCategories() {
+		requiredCategories.clear();
+	}
+
+	/**
+	 * @param category the category name including the leading underscore
+	 * @return true if the given category is passed on to the consumers
+	 * @since 5.0.0
+	 */
+	public boolean isRequiredCategory(String category) {
+		return requiredCategories.isEmpty() || requiredCategories.containsKey(category);
 	}
 
 	@Override
@@ -188,6 +261,253 @@ public class SimpleMMcifParser implements MMcifParser {
 
 	}
 
+	/**
+	 * Parses a mmCIF file. Uncompressed files are memory-mapped, gzipped files
+	 * (ending with .gz) are decompressed into memory. In both cases the data
+	 * is parsed with {@link #parse(ByteBuffer)}.
+	 * @param file
+	 * @throws IOException
+	 * @since 5.0.0
+	 */
+	public void parse(File file) throws IOException {
+		if (file.getName().endsWith(".gz")) {
+			try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+				parse(ByteBuffer.wrap(readFully(in, (int) Math.min(file.length() * 4, Integer.MAX_VALUE - 8))));
+			}
+			return;
+		}
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+				FileChannel channel = raf.getChannel()) {
+			parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	private static byte[] readFully(InputStream in, int sizeHint) throws IOException {
+		byte[] buf = new byte[Math.max(sizeHint, 8192)];
+		int n = 0;
+		int read;
+		while ((read = in.read(buf, n, buf.length - n)) != -1) {
+			n += read;
+			if (n == buf.length) {
+				buf = Arrays.copyOf(buf, buf.length * 2);
+			}
+		}
+		return Arrays.copyOf(buf, n);
+	}
+
+	/**
+	 * Parses mmCIF data held in a buffer, from its position to its limit. The
+	 * data is tokenized directly from the bytes with a {@link MMcifTokenizer},
+	 * without splitting it into lines. Values of categories and columns not
+	 * selected with {@link #addRequiredCategory(String, String...)} are
+	 * skipped without creating Strings for them.
+	 * @param buffer
+	 * @throws IOException
+	 * @since 5.0.0
+	 */
+	public void parse(ByteBuffer buffer) throws IOException {
+
+		triggerDocumentStart();
+
+		struct = new Struct();
+
+		List<String> fields = new ArrayList<String>();
+		List<String> values = new ArrayList<String>();
+		Set<String> warnings = new HashSet<String>(); // used only to reduce logging statements
+
+		String category = null;
+		Set<String> columns = null;
+		boolean required = false;
+
+		MMcifTokenizer tokenizer = new MMcifTokenizer(buffer);
+
+		if (!tokenizer.next() || !tokenizer.startsWithIgnoreCase(MMCIF_TOP_HEADER)) {
+			logger.error("This does not look like a valid mmCIF file! The first token should start with 'data_'");
+			triggerDocumentEnd();
+			return;
+		}
+
+		while (tokenizer.next()) {
+
+			boolean loopStart = tokenizer.startsWithIgnoreCase(LOOP_START);
+
+			if (loopStart || tokenizer.startsWithIgnoreCase(MMCIF_TOP_HEADER)) {
+				// end of the current single-record category
+				if (category != null && !fields.isEmpty())
+					endLineChecks(category, fields, values, warnings);
+				resetBuffers(fields, values, warnings);
+				category = null;
+
+				if (loopStart) {
+					parseLoop(tokenizer, fields, values, warnings);
+					resetBuffers(fields, values, warnings);
+				}
+				continue;
+			}
+
+			if (!tokenizer.startsWith('_')) {
+				logger.warn("Found value '{}' outside of a data item or loop, ignoring it", tokenizer.getString());
+				continue;
+			}
+
+			String key = tokenizer.getString();
+
+			if (!tokenizer.next()) {
+				logger.warn("No value found for {} at end of file", key);
+				break;
+			}
+
+			int pos = key.indexOf('.');
+			if (pos < 0) {
+				logger.warn("Found data name without category: {}, ignoring it", key);
+				continue;
+			}
+
+			String newCategory = key.substring(0, pos);
+			if (!newCategory.equals(category)) {
+				// we've changed category: need to flush the previous one
+				if (category != null && !fields.isEmpty())
+					endLineChecks(category, fields, values, warnings);
+				resetBuffers(fields, values, warnings);
+
+				category = newCategory;
+				required = isRequiredCategory(category);
+				columns = requiredCategories.get(category);
+			}
+
+			if (!required)
+				continue;
+
+			String field = key.substring(pos + 1);
+			if (columns == null || columns.contains(field)) {
+				fields.add(field);
+				values.add(tokenizer.getString());
+			}
+		}
+
+		if (category != null && !fields.isEmpty()) {
+			// the last category in the file will still be missing, we add it now
+			endLineChecks(category, fields, values, warnings);
+			resetBuffers(fields, values, warnings);
+		}
+
+		if (struct != null){
+			triggerStructData(struct);
+		}
+
+		triggerDocumentEnd();
+	}
+
+	/**
+	 * Parses a loop, starting after its loop_ token, and passes each row to
+	 * {@link #endLineChecks(String, List, List, Set)}. The first token after
+	 * the loop is pushed back to the tokenizer.
+	 */
+	private void parseLoop(MMcifTokenizer tokenizer, List<String> fields, List<String> values, Set<String> warnings) throws IOException {
+
+		String category = null;
+		List<String> loopFields = new ArrayList<String>();
+
+		while (tokenizer.next()) {
+			if (!tokenizer.startsWith('_')) {
+				tokenizer.pushBack();
+				break;
+			}
+			String key = tokenizer.getString();
+			int pos = key.indexOf('.');
+			if (pos < 0) {
+				category = key;
+				logger.debug("Found category without attribute: {}", category);
+				continue;
+			}
+			category = key.substring(0, pos);
+			loopFields.add(key.substring(pos + 1));
+		}
+
+		int n = loopFields.size();
+		boolean required = category != null && n > 0 && isRequiredCategory(category);
+
+		if (!required) {
+			// skip all values without creating Strings
+			while (tokenizer.next()) {
+				if (isLoopEnd(tokenizer)) {
+					tokenizer.pushBack();
+					break;
+				}
+			}
+			return;
+		}
+
+		Set<String> columns = requiredCategories.get(category);
+		boolean[] projection = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			String field = loopFields.get(i);
+			projection[i] = columns == null || columns.contains(field);
+			if (projection[i])
+				fields.add(field);
+		}
+
+		int col = 0;
+		while (tokenizer.next()) {
+			if (isLoopEnd(tokenizer)) {
+				tokenizer.pushBack();
+				break;
+			}
+			if (projection[col])
+				values.add(tokenizer.getString());
+
+			if (++col == n) {
+				if (!fields.isEmpty())
+					endLineChecks(category, fields, values, warnings);
+				values.clear();
+				col = 0;
+			}
+		}
+
+		if (col != 0) {
+			logger.warn("Expected {} data fields, but found only {} in the last row of loop {}", n, col, category);
+		}
+	}
+
+	private static boolean isLoopEnd(MMcifTokenizer tokenizer) {
+		return tokenizer.startsWith('_') ||
+				tokenizer.startsWithIgnoreCase(LOOP_START) ||
+				tokenizer.startsWithIgnoreCase(MMCIF_TOP_HEADER);
+	}
+
+	/**
+	 * Passes the data of a category on to {@link #endLineChecks(String, List, List, Set)},
+	 * applying the restrictions of {@link #addRequiredCategory(String, String...)}.
+	 */
+	private void processCategory(String category, List<String> loopFields, List<String> lineData, Set<String> loopWarnings) throws IOException {
+
+		if (requiredCategories.isEmpty()) {
+			endLineChecks(category, loopFields, lineData, loopWarnings);
+			return;
+		}
+
+		if (!requiredCategories.containsKey(category))
+			return;
+
+		Set<String> columns = requiredCategories.get(category);
+		if (columns == null || loopFields.size() != lineData.size()) {
+			endLineChecks(category, loopFields, lineData, loopWarnings);
+			return;
+		}
+
+		List<String> fields = new ArrayList<String>(columns.size());
+		List<String> data = new ArrayList<String>(columns.size());
+		for (int i = 0; i < loopFields.size(); i++) {
+			if (columns.contains(loopFields.get(i))) {
+				fields.add(loopFields.get(i));
+				data.add(lineData.get(i));
+			}
+		}
+		if (!fields.isEmpty())
+			endLineChecks(category, fields, data, loopWarnings);
+	}
+
 	@Override
 	public void parse(BufferedReader buf)
 			throws IOException {
@@ -318,7 +638,7 @@ public class SimpleMMcifParser implements MMcifParser {
 
 					}
 
-					endLineChecks(category, loopFields, lineData, loopWarnings);
+					processCategory(category, loopFields, lineData, loopWarnings);
 
 					lineData.clear();
 
@@ -330,7 +650,7 @@ public class SimpleMMcifParser implements MMcifParser {
 
 				if ( line.startsWith(LOOP_START)){
 					if ( category != null)
-						endLineChecks(category, loopFields, lineData, loopWarnings);
+						processCategory(category, loopFields, lineData, loopWarnings);
 
 					resetBuffers(loopFields, lineData, loopWarnings);
 					category = null;
@@ -368,7 +688,7 @@ public class SimpleMMcifParser implements MMcifParser {
 
 					if (category!=null && !key.substring(0,pos).equals(category)) {
 						// we've changed category: need to flush the previous one
-						endLineChecks(category, loopFields, lineData, loopWarnings);
+						processCategory(category, loopFields, lineData, loopWarnings);
 						resetBuffers(loopFields, lineData, loopWarnings);
 					}
 
@@ -386,7 +706,7 @@ public class SimpleMMcifParser implements MMcifParser {
 
 		if (category!=null && lineData.size()>0 && lineData.size()==loopFields.size()) {
 			// the last category in the file will still be missing, we add it now
-			endLineChecks(category, loopFields, lineData, loopWarnings);
+			processCategory(category, loopFields, lineData, loopWarnings);
 			resetBuffers(loopFields, lineData, loopWarnings);
 		}
 
@@ -917,94 +1237,130 @@ public class SimpleMMcifParser implements MMcifParser {
 	 */
 	private Object buildObject(String className, List<String> loopFields, List<String> lineData, Set<String> warnings) {
 
+		BeanSetters bean = getBeanSetters(className);
+		if (bean == null) {
+			return null;
+		}
+
+		Class<?> c = bean.type;
 		Object o = null;
-		Class<?> c = null;
 
 		try {
 			// build up the Entity object from the line data...
-			c = Class.forName(className);
-
 			o = c.newInstance();
 
-		} catch (InstantiationException|ClassNotFoundException|IllegalAccessException e){
+		} catch (InstantiationException|IllegalAccessException e){
 			logger.error( "Error while constructing {}: {}", className, e.getMessage());
 			return null;
-		} 
-
-		// these methods get the fields but also looking at the IgnoreField and CIFLabel annotations 
-		Field[] fields = MMCIFFileTools.getFields(c);
-		String[] names = MMCIFFileTools.getFieldNames(fields);
-
-		// let's build a map of all methods so that we can look up the setter methods later
-		Method[] methods = c.getMethods();
-
-		Map<String,Method> methodMap = new HashMap<String, Method>();
-		for (Method m : methods) {
-			methodMap.put(m.getName(),m);
 		}
 
-		// and a map of all the fields so that we can lookup them up later
-		Map<String, Field> names2fields = new HashMap<>();
-		for (int i=0;i<fields.length;i++) {
-			names2fields.put(names[i], fields[i]);
-		}
-		
 		int pos = -1 ;
 		for (String key: loopFields){
 			pos++;
 
 			String val = lineData.get(pos);
-			
-			// we first start looking up the field which can be annotated with a CIFLabel if they 
-			// need alternative names (e.g. for field _symmetry.space_group_name_H-M, since hyphen is not allowed in var names in java)
-			Field field = names2fields.get(key);
-			
-			if (field == null) {
-				produceWarning(key, val, c, warnings);
-				continue;
-			}
-			// now we need to find the corresponding setter
-			// note that we can't use the field directly and then call Field.set() because many setters 
-			// have more functionality than just setting the value (e.g. some setters in ChemComp)
 
-			// building up the setter method name: need to upper case the first letter, leave the rest untouched
-			String setterMethodName = "set" + field.getName().substring(0,1).toUpperCase() + field.getName().substring(1, field.getName().length());
+			// note that we can't use the field directly and then call Field.set() because many setters
+			// have more functionality than just setting the value (e.g. some setters in ChemComp)
+			Method setter = bean.setters.get(key);
 
-			Method setter = methodMap.get(setterMethodName);
-			
 			if (setter==null) {
 				produceWarning(key, val, c, warnings);
 				continue;
 			}
-			
-			
 
-			// now we populate the object with the values by invoking the corresponding setter method,			
+			// now we populate the object with the values by invoking the corresponding setter method,
 			// note that all of the mmCif container classes have only one argument (they are beans)
-			Class<?>[] pType  = setter.getParameterTypes();
-			
-
 			try {
-				if ( pType[0].getName().equals(Integer.class.getName())) {
+				if ( bean.integerFields.contains(key)) {
 					if ( val != null && ! val.equals("?") && !val.equals(".")) {
 
 						Integer intVal = Integer.parseInt(val);
 						setter.invoke(o, intVal);
-						
+
 					}
 				} else {
-					// default val is a String					
+					// default val is a String
 					setter.invoke(o, val);
 				}
 			} catch (IllegalAccessException|InvocationTargetException e) {
-				logger.error("Could not invoke setter {} with value {} for class {}", setterMethodName, val, className);
-			} 
+				logger.error("Could not invoke setter {} with value {} for class {}", setter.getName(), val, className);
+			}
 
 		}
 
 		return o;
 	}
-	
+
+	/**
+	 * Returns the setters of the given mmCIF model bean, keyed by CIF field name.
+	 * The reflection lookups are done only once per class.
+	 * @param className
+	 * @return the setters or null if the class can't be loaded
+	 */
+	private static BeanSetters getBeanSetters(String className) {
+
+		BeanSetters bean = beanSetters.get(className);
+		if (bean != null) {
+			return bean;
+		}
+
+		Class<?> c;
+		try {
+			c = Class.forName(className);
+		} catch (ClassNotFoundException e) {
+			logger.error( "Error while constructing {}: {}", className, e.getMessage());
+			return null;
+		}
+
+		// these methods get the fields but also looking at the IgnoreField and CIFLabel annotations
+		Field[] fields = MMCIFFileTools.getFields(c);
+		String[] names = MMCIFFileTools.getFieldNames(fields);
+
+		// let's build a map of all methods so that we can look up the setter methods later
+		Map<String,Method> methodMap = new HashMap<String, Method>();
+		for (Method m : c.getMethods()) {
+			methodMap.put(m.getName(),m);
+		}
+
+		bean = new BeanSetters(c);
+		for (int i=0;i<fields.length;i++) {
+			// the field can be annotated with a CIFLabel if it needs an alternative name
+			// (e.g. for field _symmetry.space_group_name_H-M, since hyphen is not allowed in var names in java)
+			String fieldName = fields[i].getName();
+
+			// building up the setter method name: need to upper case the first letter, leave the rest untouched
+			String setterMethodName = "set" + fieldName.substring(0,1).toUpperCase() + fieldName.substring(1, fieldName.length());
+
+			Method setter = methodMap.get(setterMethodName);
+			if (setter == null) {
+				continue;
+			}
+			bean.setters.put(names[i], setter);
+			if (setter.getParameterTypes()[0].getName().equals(Integer.class.getName())) {
+				bean.integerFields.add(names[i]);
+			}
+		}
+
+		beanSetters.put(className, bean);
+		return bean;
+	}
+
+	/**
+	 * The reflection data needed to populate one mmCIF model bean class
+	 */
+	private static class BeanSetters {
+		private final Class<?> type;
+		private final Map<String,Method> setters;
+		private final Set<String> integerFields;
+
+		public BeanSetters(Class<?> type) {
+			this.type = type;
+			this.setters = new HashMap<String, Method>();
+			this.integerFields = new HashSet<String>();
+		}
+	}
+
 	private void produceWarning(String key, String val, Class<?> c, Set<String> warnings) {
 
 		String warning = "Trying to set field " + key + " in "+ c.getName() +" found in file, but no corresponding field could be found in model class (value:" + val + ")";
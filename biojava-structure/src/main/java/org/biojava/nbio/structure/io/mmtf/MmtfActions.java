@@ -6,6 +6,7 @@ import java.io.OutputStream;
 import java.nio.file.Path;
 
 import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.io.FileParsingParameters;
 import org.rcsb.mmtf.decoder.GenericDecoder;
 import org.rcsb.mmtf.decoder.StructureDataToAdapter;
 import org.rcsb.mmtf.decoder.ReaderUtils;
@@ -87,8 +88,18 @@ public class MmtfActions {
 	 * @return the parsed {@link Structure}
 	 */
 	public static Structure readFromInputStream(InputStream inStream) {
+		return readFromInputStream(inStream, new FileParsingParameters());
+	}
+
+	/**
+	 * Read a Biojava structure from an {@link InputStream}
+	 * @param inStream the {@link InputStream} to read from
+	 * @param params the parsing parameters
+	 * @return the parsed {@link Structure}
+	 */
+	public static Structure readFromInputStream(InputStream inStream, FileParsingParameters params) {
 		// Get the reader - this is the bit that people need to implement.
-		MmtfStructureReader mmtfStructureReader = new MmtfStructureReader();
+		MmtfStructureReader mmtfStructureReader = new MmtfStructureReader(params);
 		// Do the inflation
 		new StructureDataToAdapter(new GenericDecoder(ReaderUtils.getDataFromInputStream(inStream)), mmtfStructureReader);
 		// Get the structue
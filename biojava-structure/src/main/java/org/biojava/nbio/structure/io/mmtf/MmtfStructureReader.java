@@ -18,6 +18,7 @@ import org.biojava.nbio.structure.AtomImpl;
 import org.biojava.nbio.structure.BondImpl;
 import org.biojava.nbio.structure.Chain;
 import org.biojava.nbio.structure.ChainImpl;
+import org.biojava.nbio.structure.CompactAtomStore;
 import org.biojava.nbio.structure.Element;
 import org.biojava.nbio.structure.EntityInfo;
 import org.biojava.nbio.structure.EntityType;
@@ -29,6 +30,7 @@ import org.biojava.nbio.structure.PDBHeader;
 import org.biojava.nbio.structure.Structure;
 import org.biojava.nbio.structure.StructureImpl;
 import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.io.FileParsingParameters;
 import org.biojava.nbio.structure.io.mmcif.chem.PolymerType;
 import org.biojava.nbio.structure.io.mmcif.chem.ResidueType;
 import org.biojava.nbio.structure.io.mmcif.model.ChemComp;
@@ -90,10 +92,27 @@ public class MmtfStructureReader implements StructureAdapterInterface, Serializa
 
 	private Map<String,String> chainSequenceMap;
 
+	/** The parsing parameters */
+	private FileParsingParameters params;
+
+	/** The store backing the atoms, null unless compact atom storage was requested */
+	private CompactAtomStore atomStore;
+
 	/**
 	 * Instantiates a new bio java structure decoder.
 	 */
 	public MmtfStructureReader() {
+		this(new FileParsingParameters());
+	}
+
+	/**
+	 * Instantiates a new bio java structure decoder with the given parameters.
+	 * Currently only {@link FileParsingParameters#isUseCompactAtomStore()} and
+	 * {@link FileParsingParameters#isCompactAtomStoreOffHeap()} are taken into account.
+	 * @param params the parsing parameters
+	 */
+	public MmtfStructureReader(FileParsingParameters params) {
+		this.params = params;
 		structure = new StructureImpl();
 		modelNumber = 0;
 		entityInfoList = new ArrayList<>();
@@ -140,6 +159,7 @@ public class MmtfStructureReader implements StructureAdapterInterface, Serializa
 			int totalNumChains, int totalNumModels, String modelId) {
 		structure.setPDBCode(modelId);
 		allAtoms = new Atom[totalNumAtoms];
+		atomStore = params.createCompactAtomStore(totalNumAtoms);
 	}
 
 
@@ -253,7 +273,12 @@ public class MmtfStructureReader implements StructureAdapterInterface, Serializa
 			float y, float z, float occupancy,
 			float temperatureFactor,
 			String element, int charge) {
-		Atom atom = new AtomImpl();
+		Atom atom;
+		if (atomStore == null) {
+			atom = new AtomImpl();
+		} else {
+			atom = atomStore.newAtom();
+		}
 		Group altGroup = null;
 		atom.setPDBserial(serialNumber);
 		atom.setName(atomName.trim());
@@ -77,12 +77,17 @@ public class MmtfStructureWriter {
 					if(insCode==null || insCode.equals(' ')){
 						insCode=MmtfStructure.UNAVAILABLE_CHAR_VALUE;
 					}
+					// chemical components without a definition (e.g. from the ReducedChemCompProvider) have no type
+					String chemCompType = chemComp.getType();
+					if (chemCompType==null) {
+						chemCompType = "NON-POLYMER";
+					}
 					char singleLetterCode = 'X';
 					if (chemComp.getOne_letter_code().length()==1){
 						singleLetterCode = chemComp.getOne_letter_code().charAt(0);
 					}
 					mmtfDecoderInterface.setGroupInfo(group.getPDBName(), group.getResidueNumber().getSeqNum(), insCode.charValue(), 
-							chemComp.getType().toUpperCase(), atomsInGroup.size(), MmtfUtils.getNumBondsInGroup(atomsInGroup), singleLetterCode,
+							chemCompType.toUpperCase(), atomsInGroup.size(), MmtfUtils.getNumBondsInGroup(atomsInGroup), singleLetterCode,
 							sequenceGroups.indexOf(group), MmtfUtils.getSecStructType(group));
 					for (Atom atom : atomsInGroup){
 						char altLoc = MmtfStructure.UNAVAILABLE_CHAR_VALUE;
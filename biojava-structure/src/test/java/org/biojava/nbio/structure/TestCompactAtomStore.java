@@ -0,0 +1,162 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import javax.vecmath.AxisAngle4d;
+import javax.vecmath.Matrix4d;
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import org.biojava.nbio.structure.geometry.CalcPoint;
+import org.biojava.nbio.structure.geometry.SuperPositionQCP;
+import org.biojava.nbio.structure.io.FileParsingParameters;
+import org.biojava.nbio.structure.io.PDBFileParser;
+import org.junit.Test;
+
+public class TestCompactAtomStore {
+
+	@Test
+	public void testStoreAndGrow() {
+		for (boolean offHeap : new boolean[] {false, true}) {
+			CompactAtomStore store = new CompactAtomStore(2, offHeap);
+			assertEquals(offHeap, store.isOffHeap());
+
+			for (int i = 0; i < 100; i++) {
+				Atom a = store.newAtom();
+				a.setName(i % 2 == 0 ? "CA" : "CB");
+				a.setPDBserial(i + 1);
+				a.setElement(Element.C);
+				a.setCoords(new double[] {i, 2 * i, 3 * i});
+				a.setOccupancy(0.5f);
+				a.setTempFactor(i);
+				a.setAltLoc('A');
+				a.setCharge((short) -1);
+			}
+			store.trimToSize();
+
+			assertEquals(100, store.size());
+			assertEquals(2, store.getNumberOfNames());
+			assertEquals("CB", store.getName(99));
+			assertEquals(100, store.getPDBserial(99));
+			assertEquals(Element.C, store.getElement(50));
+			assertEquals(3 * 99, store.getZ(99), 0.0);
+			assertEquals(99.0f, store.getTempFactor(99), 0.0f);
+			assertEquals(0.5f, store.getOccupancy(0), 0.0f);
+			assertEquals('A', store.getAltLoc(10));
+			assertEquals(-1, store.getCharge(10));
+
+			double[] coords = store.getCoordinates();
+			assertEquals(300, coords.length);
+			assertEquals(2 * 42, coords[3 * 42 + 1], 0.0);
+		}
+	}
+
+	@Test
+	public void testDefaults() {
+		CompactAtomStore store = new CompactAtomStore();
+		CompactAtom a = store.newAtom();
+		AtomImpl b = new AtomImpl();
+
+		assertEquals(b.getElement(), a.getElement());
+		assertEquals(b.getAltLoc(), a.getAltLoc());
+		assertEquals(b.getName(), a.getName());
+		assertEquals(b.getOccupancy(), a.getOccupancy(), 0.0f);
+		assertNull(a.getBonds());
+
+		a.setX(1.5);
+		Atom clone = (Atom) a.clone();
+		assertTrue(clone instanceof AtomImpl);
+		assertEquals(1.5, clone.getX(), 0.0);
+		clone.setX(3);
+		assertEquals(1.5, a.getX(), 0.0);
+	}
+
+	@Test
+	public void testCalcAndSuperposition() {
+		CompactAtomStore store = new CompactAtomStore();
+		Point3d[] points = new Point3d[20];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = new Point3d(Math.sin(i) * 10, Math.cos(i) * 7, i * 1.5);
+			Atom a = store.newAtom();
+			a.setCoords(new double[] {points[i].x, points[i].y, points[i].z});
+		}
+
+		Point3d centroid = Calc.getCentroid(store);
+		assertTrue(centroid.epsilonEquals(CalcPoint.centroid(points), 1e-9));
+
+		double[] fixed = store.getCoordinates();
+
+		Matrix4d transform = new Matrix4d();
+		transform.set(new AxisAngle4d(0.440, 0.302, 0.845, 1.570));
+		transform.setTranslation(new Vector3d(0.345, 2.453, 5.324));
+		Calc.transform(store, transform);
+
+		Point3d[] moved = CalcPoint.clonePoint3dArray(points);
+		CalcPoint.transform(transform, moved);
+		for (int i = 0; i < moved.length; i++) {
+			assertTrue(moved[i].epsilonEquals(store.getPoint3d(i), 1e-9));
+		}
+
+		double[] movedCoords = store.getCoordinates();
+		SuperPositionQCP qcp = new SuperPositionQCP(false);
+		assertEquals(qcp.getRmsd(points, moved), qcp.getRmsd(fixed, movedCoords), 1e-9);
+		assertEquals(0.0, qcp.getRmsd(fixed, movedCoords), 1e-6);
+
+		Matrix4d superposition = qcp.superpose(fixed, movedCoords);
+		Calc.transform(store, superposition);
+		assertEquals(0.0, Calc.rmsd(fixed, store.getCoordinates()), 1e-6);
+	}
+
+	@Test
+	public void testParsePdb() throws IOException {
+		FileParsingParameters params = new FileParsingParameters();
+		params.setUseCompactAtomStore(true);
+
+		PDBFileParser parser = new PDBFileParser();
+		parser.setFileParsingParameters(params);
+		Structure compact = parser.parsePDBFile(getStream());
+
+		Structure regular = new PDBFileParser().parsePDBFile(getStream());
+
+		Atom[] compactAtoms = StructureTools.getAllAtomArray(compact);
+		Atom[] regularAtoms = StructureTools.getAllAtomArray(regular);
+		assertEquals(regularAtoms.length, compactAtoms.length);
+
+		for (int i = 0; i < regularAtoms.length; i++) {
+			assertEquals(regularAtoms[i].getName(), compactAtoms[i].getName());
+			assertEquals(regularAtoms[i].getElement(), compactAtoms[i].getElement());
+			assertEquals(regularAtoms[i].getPDBserial(), compactAtoms[i].getPDBserial());
+			assertEquals(regularAtoms[i].getTempFactor(), compactAtoms[i].getTempFactor(), 0.0f);
+			assertTrue(regularAtoms[i].getCoordsAsPoint3d().epsilonEquals(compactAtoms[i].getCoordsAsPoint3d(), 0.0));
+		}
+		assertTrue(compactAtoms[0] instanceof CompactAtom);
+	}
+
+	private InputStream getStream() throws IOException {
+		return new GZIPInputStream(this.getClass().getResourceAsStream("/4hhb.pdb.gz"));
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.align.ce.CeMain;
+import org.biojava.nbio.structure.align.util.AtomCache;
+import org.biojava.nbio.structure.io.PDBFileParser;
+import org.junit.Test;
+
+public class LocalDBSearchTest {
+
+	@Test
+	public void testSearch() throws IOException {
+		InputStream inStream = new GZIPInputStream(this.getClass().getResourceAsStream("/4hhb.pdb.gz"));
+		Structure hhb = new PDBFileParser().parsePDBFile(inStream);
+		Structure cdl = new PDBFileParser().parsePDBFile(this.getClass().getResourceAsStream("/3cdl.pdb"));
+
+		Map<String, Atom[]> structures = new LinkedHashMap<String, Atom[]>();
+		for (String chain : new String[] { "A", "B", "C", "D" }) {
+			structures.put("4hhb." + chain, StructureTools.getRepresentativeAtomArray(hhb.getPolyChainByPDB(chain)));
+		}
+		structures.put("3cdl.A", StructureTools.getRepresentativeAtomArray(cdl.getPolyChainByPDB("A")));
+
+		Map<String, Atom[]> queries = new LinkedHashMap<String, Atom[]>();
+		queries.put("4hhb.A", structures.get("4hhb.A"));
+		queries.put("4hhb.B", structures.get("4hhb.B"));
+
+		LocalDBSearch search = new LocalDBSearch(new AtomCache(), CeMain.algorithmName);
+		search.setNrCPUs(2);
+		search.setTileSize(1);
+		search.setTopK(2);
+		search.setMinScore(0.5);
+		Map<String, List<LocalDBSearch.Hit>> results = search.run(queries, structures);
+
+		assertEquals(2, results.size());
+		// the alpha chains are identical, then come the beta chains
+		List<LocalDBSearch.Hit> hits = results.get("4hhb.A");
+		assertEquals(2, hits.size());
+		assertEquals("4hhb.C", hits.get(0).getTarget());
+		assertTrue(hits.get(0).getScore() > 0.95);
+		assertTrue(hits.get(1).getTarget().equals("4hhb.B") || hits.get(1).getTarget().equals("4hhb.D"));
+		assertEquals("4hhb.A", hits.get(0).getAFPChain().getName1());
+
+		hits = results.get("4hhb.B");
+		assertEquals("4hhb.D", hits.get(0).getTarget());
+		assertTrue(hits.get(0).getScore() >= hits.get(1).getScore());
+
+		// nothing is aligned with itself
+		assertEquals(2 * 4, search.getNrAligned() + search.getNrSkipped());
+	}
+}
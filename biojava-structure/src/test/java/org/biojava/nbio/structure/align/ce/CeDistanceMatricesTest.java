@@ -0,0 +1,96 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.ce;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.AtomImpl;
+import org.biojava.nbio.structure.Calc;
+import org.junit.Test;
+
+public class CeDistanceMatricesTest {
+
+	@Test
+	public void testCaDistances() {
+		Atom[] ca = makeRandomCA(new Random(1), 57);
+		double[][] dist = CeDistanceMatrices.getCaDistances(ca);
+		for (int i = 0; i < ca.length; i++) {
+			for (int j = 0; j < ca.length; j++) {
+				assertEquals(Double.doubleToLongBits(Calc.getDistance(ca[i], ca[j])),
+						Double.doubleToLongBits(dist[i][j]));
+			}
+		}
+	}
+
+	@Test
+	public void testSumOfDistances() {
+		Random random = new Random(2);
+		int[][] sizes = { { 60, 45 }, { 8, 30 }, { 5, 5 }, { 3, 20 } };
+		for (int[] size : sizes) {
+			double[][] dist1 = CeDistanceMatrices.getCaDistances(makeRandomCA(random, size[0]));
+			double[][] dist2 = CeDistanceMatrices.getCaDistances(makeRandomCA(random, size[1]));
+			int winSize = 8;
+			int winSizeComb1 = (winSize - 1) * (winSize - 2) / 2;
+			double[][] expected = sumOfDistances(dist1, dist2, size[0], size[1], winSize, winSizeComb1);
+			for (boolean parallel : new boolean[] { false, true }) {
+				double[][] mat = CeDistanceMatrices.getSumOfDistances(dist1, dist2, size[0], size[1],
+						winSize, winSizeComb1, parallel);
+				for (int i = 0; i < size[0]; i++) {
+					for (int j = 0; j < size[1]; j++) {
+						assertEquals(Double.doubleToLongBits(expected[i][j]), Double.doubleToLongBits(mat[i][j]));
+					}
+				}
+			}
+		}
+	}
+
+	// the loops of CECalculator.initSumOfDistances before they were flattened
+	private static double[][] sumOfDistances(double[][] dist1, double[][] dist2, int nse1, int nse2,
+			int winSize, int winSizeComb1) {
+		double[][] mat = new double[nse1][nse2];
+		for (int ise1 = 0; ise1 < nse1; ise1++) {
+			for (int ise2 = 0; ise2 < nse2; ise2++) {
+				mat[ise1][ise2] = -1.0;
+				if (ise1 > nse1 - winSize || ise2 > nse2 - winSize) continue;
+				double d = 0.0;
+				for (int is1 = 0; is1 < winSize - 2; is1++)
+					for (int is2 = is1 + 2; is2 < winSize; is2++)
+						d += Math.abs(dist1[ise1 + is1][ise1 + is2] - dist2[ise2 + is1][ise2 + is2]);
+				mat[ise1][ise2] = d / winSizeComb1;
+			}
+		}
+		return mat;
+	}
+
+	private static Atom[] makeRandomCA(Random random, int length) {
+		Atom[] ca = new Atom[length];
+		for (int i = 0; i < length; i++) {
+			ca[i] = new AtomImpl();
+			ca[i].setName("CA");
+			ca[i].setCoords(new double[] { random.nextDouble() * 30, random.nextDouble() * 30,
+					random.nextDouble() * 30 });
+		}
+		return ca;
+	}
+}
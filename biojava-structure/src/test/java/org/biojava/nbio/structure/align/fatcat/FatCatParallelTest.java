@@ -0,0 +1,77 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.fatcat;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureException;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.align.fatcat.calc.FatCatParameters;
+import org.biojava.nbio.structure.align.model.AFPChain;
+import org.biojava.nbio.structure.align.xml.AFPChainXMLConverter;
+import org.biojava.nbio.structure.io.PDBFileParser;
+import org.junit.Test;
+
+public class FatCatParallelTest {
+
+	@Test
+	public void testParallelAndShared() throws IOException, StructureException {
+		Structure hhb = new PDBFileParser().parsePDBFile(
+				new GZIPInputStream(this.getClass().getResourceAsStream("/4hhb.pdb.gz")));
+		Atom[] ca1 = StructureTools.getRepresentativeAtomArray(hhb.getPolyChainByPDB("A"));
+		Atom[] ca2 = StructureTools.getRepresentativeAtomArray(hhb.getPolyChainByPDB("B"));
+
+		AFPChain rigid = new FatCatRigid().align(ca1, ca2);
+		AFPChain flexible = new FatCatFlexible().align(ca1, ca2);
+
+		FatCatParameters params = new FatCatParameters();
+		params.setParallel(true);
+		AFPChain[] both = new FatCat().alignRigidAndFlexible(ca1, ca2, params);
+		assertEquals(FatCatRigid.algorithmName, both[0].getAlgorithmName());
+		assertEquals(FatCatFlexible.algorithmName, both[1].getAlgorithmName());
+		// the parameters are not changed to rigid
+		assertEquals(5, params.getMaxTra().intValue());
+
+		// bitwise identical
+		assertEquals(toXML(rigid, ca1, ca2), toXML(both[0], ca1, ca2));
+		assertEquals(toXML(flexible, ca1, ca2), toXML(both[1], ca1, ca2));
+		assertEquals(rigid.getAlignScore(), both[0].getAlignScore(), 0.0);
+		assertEquals(flexible.getProbability(), both[1].getProbability(), 0.0);
+
+		// QCP finds the same fragment pairs, up to rounding
+		params = new FatCatParameters();
+		params.setDeterministic(false);
+		AFPChain qcp = new FatCatFlexible().align(ca1, ca2, params);
+		assertEquals(flexible.getAfpSet().size(), qcp.getAfpSet().size());
+		assertEquals(flexible.getOptLength(), qcp.getOptLength());
+		assertEquals(flexible.getAlignScore(), qcp.getAlignScore(), 1e-6);
+	}
+
+	private static String toXML(AFPChain afpChain, Atom[] ca1, Atom[] ca2) throws IOException {
+		afpChain.setCalculationTime(0);
+		return AFPChainXMLConverter.toXML(afpChain, ca1, ca2);
+	}
+}
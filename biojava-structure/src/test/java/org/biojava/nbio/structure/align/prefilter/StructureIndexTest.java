@@ -0,0 +1,84 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.align.prefilter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.io.PDBFileParser;
+import org.junit.Test;
+
+public class StructureIndexTest {
+
+	@Test
+	public void testQuery() throws IOException {
+		StructureIndex index = new StructureIndex();
+		index.addStructure("4hhb", new PDBFileParser().parsePDBFile(
+				new GZIPInputStream(this.getClass().getResourceAsStream("/4hhb.pdb.gz"))), 20);
+		for (String id : new String[] { "3cdl", "2gox", "3cfy" }) {
+			Structure s = new PDBFileParser().parsePDBFile(this.getClass().getResourceAsStream("/" + id + ".pdb"));
+			index.addStructure(id, s, 20);
+		}
+		assertTrue(index.size() > 4);
+
+		ChainDescriptor alpha = index.get(0);
+		assertEquals("4hhb.A", alpha.getName());
+		assertEquals(141, alpha.getLength());
+		float[] v = alpha.getValues();
+		// globins are mostly helical
+		assertTrue(v[0] > 0.5);
+		double sum = 0;
+		for (int b = 0; b < ChainDescriptor.BINS; b++) {
+			sum += v[ChainDescriptor.SSE_VALUES + b];
+		}
+		assertEquals(1.0, sum, 1e-5);
+
+		// the other globin chains are nearest
+		List<StructureIndex.Candidate> candidates = index.query(alpha, 4);
+		assertEquals(4, candidates.size());
+		assertEquals("4hhb.A", candidates.get(0).getName());
+		assertEquals(0.0, candidates.get(0).getDistance(), 0.0);
+		for (StructureIndex.Candidate c : candidates) {
+			assertTrue(c.getName(), c.getName().startsWith("4hhb."));
+		}
+		assertEquals(1.0, StructureIndex.getRecall(Arrays.asList("4hhb.B", "4hhb.C", "4hhb.D"), candidates), 0.0);
+		assertEquals(0.5, StructureIndex.getRecall(Arrays.asList("4hhb.C", "3cdl.A"), candidates), 0.0);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		index.write(out);
+		StructureIndex read = StructureIndex.read(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(index.size(), read.size());
+		assertEquals(candidates.toString(), read.query(alpha, 4).toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testQueryNothing() {
+		StructureIndex index = new StructureIndex();
+		index.query(new ChainDescriptor("x", 10, new float[ChainDescriptor.SIZE]), 0);
+	}
+}
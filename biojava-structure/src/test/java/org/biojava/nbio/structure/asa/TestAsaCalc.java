@@ -24,8 +24,12 @@ import junit.framework.TestCase;
 import org.biojava.nbio.structure.Structure;
 import org.biojava.nbio.structure.StructureException;
 import org.biojava.nbio.structure.StructureIO;
+import org.biojava.nbio.structure.io.PDBFileParser;
 
+import javax.vecmath.Point3d;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Testing of Accessible Surface Area calculations
@@ -69,4 +73,37 @@ public class TestAsaCalc extends TestCase {
 		assertEquals(17462.0, totAtoms, 1.0);
 
 	}
+
+	public void testAsaParallelIdentical() throws IOException {
+
+		Structure structure = new PDBFileParser().parsePDBFile(
+				new GZIPInputStream(this.getClass().getResourceAsStream("/4hhb.pdb.gz")));
+
+		double[] asas1 = new AsaCalculator(structure,
+				AsaCalculator.DEFAULT_PROBE_SIZE, 100, 1, false).calculateAsas();
+
+		double[] asas4 = new AsaCalculator(structure,
+				AsaCalculator.DEFAULT_PROBE_SIZE, 100, 4, false).calculateAsas();
+
+		assertTrue(asas1.length > 0);
+		assertTrue(Arrays.equals(asas1, asas4));
+	}
+
+	public void testAsaIsolatedPoints() {
+
+		// two points far apart: both fully exposed. Two overlapping points: both partially buried
+		Point3d[] coords = new Point3d[] {
+				new Point3d(0, 0, 0), new Point3d(50, 0, 0),
+				new Point3d(100, 0, 0), new Point3d(101, 0, 0) };
+
+		AsaCalculator asaCalc = new AsaCalculator(coords, AsaCalculator.DEFAULT_PROBE_SIZE, 1000, 1, 1.5);
+		double[] asas = asaCalc.calculateAsas();
+
+		double radius = 1.5 + AsaCalculator.DEFAULT_PROBE_SIZE;
+		double sphere = 4.0 * Math.PI * radius * radius;
+		assertEquals(sphere, asas[0], 0.000001);
+		assertEquals(sphere, asas[1], 0.000001);
+		assertTrue(asas[2] < sphere);
+		assertEquals(asas[2], asas[3], 1.0);
+	}
 }
@@ -0,0 +1,159 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.geometry;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import javax.vecmath.AxisAngle4d;
+import javax.vecmath.Matrix4d;
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import org.junit.Test;
+
+/**
+ * Test the batch superposition of windows of interleaved coordinate arrays.
+ *
+ * @since 5.0.0
+ */
+public class TestSuperPositionBatch {
+
+	private static final int POINTS = 200;
+	private static final int LENGTH = 8;
+
+	private final Random random = new Random(42);
+
+	/**
+	 * The RMSDs of the windows are those of the superposition of point arrays,
+	 * and do not depend on the parallel mode.
+	 */
+	@Test
+	public void testRmsd() {
+		double[] fixed = randomChain();
+		double[] moved = randomChain();
+
+		int count = 500;
+		int[] fixedOffsets = new int[count];
+		int[] movedOffsets = new int[count];
+		for (int i = 0; i < count; i++) {
+			fixedOffsets[i] = random.nextInt(POINTS - LENGTH + 1);
+			movedOffsets[i] = random.nextInt(POINTS - LENGTH + 1);
+		}
+
+		double[] rmsds = new double[count];
+		SuperPositionBatch.superpose(fixed, fixedOffsets, moved, movedOffsets, LENGTH, count, rmsds, null, false);
+
+		SuperPosition quat = new SuperPositionQuat(false);
+		for (int i = 0; i < count; i++) {
+			double expected = quat.getRmsd(toPoints(fixed, fixedOffsets[i], LENGTH),
+					toPoints(moved, movedOffsets[i], LENGTH));
+			assertEquals(expected, rmsds[i], 1e-6);
+		}
+
+		double[] parallel = new double[count];
+		SuperPositionBatch.superpose(fixed, fixedOffsets, moved, movedOffsets, LENGTH, count, parallel, null, true);
+		assertArrayEquals(rmsds, parallel, 0.0);
+	}
+
+	/**
+	 * The rotation of a window of a transformed copy superposes it back onto
+	 * the original window.
+	 */
+	@Test
+	public void testRotation() {
+		double[] fixed = randomChain();
+		Point3d[] points = toPoints(fixed, 0, POINTS);
+		Matrix4d transform = new Matrix4d();
+		transform.set(new AxisAngle4d(0.440, 0.302, 0.845, 1.570));
+		transform.setTranslation(new Vector3d(0.345, 2.453, 5.324));
+		CalcPoint.transform(transform, points);
+		double[] moved = new double[3 * POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			moved[3 * i] = points[i].x;
+			moved[3 * i + 1] = points[i].y;
+			moved[3 * i + 2] = points[i].z;
+		}
+
+		int count = 3;
+		int[] offsets = { 0, 50, 150 };
+		int[] lengths = { POINTS, 20, LENGTH };
+		double[] rmsds = new double[count];
+		double[] rotations = new double[9 * count];
+		SuperPositionBatch.superpose(fixed, offsets, moved, offsets, lengths, count, rmsds, rotations, false);
+
+		for (int i = 0; i < count; i++) {
+			assertEquals(0.0, rmsds[i], 1e-6);
+
+			Point3d[] x = toPoints(fixed, offsets[i], lengths[i]);
+			Point3d[] y = toPoints(moved, offsets[i], lengths[i]);
+			CalcPoint.center(x);
+			CalcPoint.center(y);
+			double[] r = rotations;
+			int o = 9 * i;
+			for (int k = 0; k < lengths[i]; k++) {
+				Point3d p = y[k];
+				assertEquals(x[k].x, r[o] * p.x + r[o + 1] * p.y + r[o + 2] * p.z, 1e-6);
+				assertEquals(x[k].y, r[o + 3] * p.x + r[o + 4] * p.y + r[o + 5] * p.z, 1e-6);
+				assertEquals(x[k].z, r[o + 6] * p.x + r[o + 7] * p.y + r[o + 8] * p.z, 1e-6);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWindowOutOfBounds() {
+		double[] fixed = randomChain();
+		SuperPositionBatch.superpose(fixed, new int[] { POINTS - 1 }, fixed, new int[] { 0 }, LENGTH, 1,
+				new double[1], null, false);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyWindow() {
+		double[] fixed = randomChain();
+		SuperPositionBatch.superpose(fixed, new int[] { 0, 0 }, fixed, new int[] { 0, 0 }, new int[] { LENGTH, 0 }, 2,
+				new double[2], null, false);
+	}
+
+	// a random walk with steps of 3.8 A, like the CA atoms of a protein
+	private double[] randomChain() {
+		double[] xyz = new double[3 * POINTS];
+		for (int i = 1; i < POINTS; i++) {
+			double x = random.nextGaussian();
+			double y = random.nextGaussian();
+			double z = random.nextGaussian();
+			double scale = 3.8 / Math.sqrt(x * x + y * y + z * z);
+			xyz[3 * i] = xyz[3 * i - 3] + x * scale;
+			xyz[3 * i + 1] = xyz[3 * i - 2] + y * scale;
+			xyz[3 * i + 2] = xyz[3 * i - 1] + z * scale;
+		}
+		return xyz;
+	}
+
+	private static Point3d[] toPoints(double[] xyz, int offset, int length) {
+		Point3d[] points = new Point3d[length];
+		for (int i = 0; i < length; i++) {
+			int j = 3 * (offset + i);
+			points[i] = new Point3d(xyz[j], xyz[j + 1], xyz[j + 2]);
+		}
+		return points;
+	}
+}
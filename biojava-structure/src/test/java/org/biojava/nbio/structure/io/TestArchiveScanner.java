@@ -0,0 +1,175 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.StructureTools;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestArchiveScanner {
+
+	@Rule
+	public TemporaryFolder testFolder = new TemporaryFolder();
+
+	private PDBFileReader reader;
+
+	@Before
+	public void setUp() throws IOException {
+		File root = testFolder.getRoot();
+		byte[] hhb = getBytes("/4hhb.pdb.gz");
+
+		// split layout
+		write(hhb, new File(root, "data/structures/divided/pdb/hh/pdb4hhb.ent.gz"));
+		write(hhb, new File(root, "data/structures/divided/pdb/hh/pdb1hhb.ent.gz"));
+		// a truncated file
+		write(Arrays.copyOf(hhb, 100), new File(root, "data/structures/divided/pdb/ba/pdb9bad.ent.gz"));
+		// flat layout
+		write(hhb, new File(root, "2hhb.pdb.gz"));
+		write(hhb, new File(root, "notes.txt"));
+
+		reader = new PDBFileReader(root.getAbsolutePath());
+	}
+
+	@Test
+	public void testLocalFiles() {
+		List<String> ids = new ArrayList<String>();
+		for (File f : reader.getLocalFiles()) {
+			ids.add(reader.getPdbId(f));
+		}
+		Collections.sort(ids);
+		assertEquals(Arrays.asList("1hhb", "2hhb", "4hhb", "9bad"), ids);
+	}
+
+	@Test
+	public void testScan() throws InterruptedException {
+		ArchiveScanner scanner = new ArchiveScanner(reader);
+		scanner.setParserThreads(2);
+		scanner.setQueueCapacity(1);
+
+		final List<ArchiveScanner.Result> results = new ArrayList<ArchiveScanner.Result>();
+		ArchiveScanner.Statistics stats = scanner.scan(r -> results.add(r));
+
+		assertEquals(4, results.size());
+		for (ArchiveScanner.Result r : results) {
+			if (r.getPdbId().equals("9bad")) {
+				assertFalse(r.isSuccess());
+				assertNotNull(r.getException());
+				assertNull(r.getStructure());
+			} else {
+				assertTrue(r.isSuccess());
+				assertEquals(4779, StructureTools.getAllAtomArray(r.getStructure()).length);
+			}
+		}
+
+		assertTrue(stats.isFinished());
+		assertEquals(4, stats.getEntries());
+		assertEquals(1, stats.getFailures());
+		assertTrue(stats.getUncompressedBytes() > stats.getCompressedBytes());
+		assertSame(stats, scanner.getStatistics());
+	}
+
+	@Test
+	public void testStream() {
+		ArchiveScanner scanner = new ArchiveScanner(reader);
+
+		List<String> ids;
+		try (Stream<ArchiveScanner.Result> results = scanner.stream()) {
+			ids = results.filter(ArchiveScanner.Result::isSuccess)
+					.map(ArchiveScanner.Result::getPdbId)
+					.sorted()
+					.collect(Collectors.toList());
+		}
+		assertEquals(Arrays.asList("1hhb", "2hhb", "4hhb"), ids);
+
+		// an early close cancels the remaining work
+		try (Stream<ArchiveScanner.Result> results = scanner.stream()) {
+			assertTrue(results.findAny().isPresent());
+		}
+		assertTrue(scanner.getStatistics().isFinished());
+	}
+
+	@Test
+	public void testConcurrentMmcif() throws IOException, InterruptedException {
+		// distinct entries parsed concurrently by one reader
+		File root = testFolder.newFolder("mmcif");
+		String[] resources = { "/4hhb.cif.gz", "/org/biojava/nbio/structure/io/4a10_short.cif.gz" };
+		MMCIFFileReader cifReader = new MMCIFFileReader(root.getAbsolutePath());
+		int[] atoms = new int[resources.length];
+		for (int i = 0; i < resources.length; i++) {
+			byte[] data = getBytes(resources[i]);
+			atoms[i] = StructureTools.getAllAtomArray(cifReader.getStructure(
+					new GZIPInputStream(new ByteArrayInputStream(data)))).length;
+			for (int j = 0; j < 20; j++) {
+				write(data, new File(root, "e" + i + "x" + j + ".cif.gz"));
+			}
+		}
+		assertNotEquals(atoms[0], atoms[1]);
+
+		ArchiveScanner scanner = new ArchiveScanner(cifReader);
+		scanner.setParserThreads(8);
+		final List<ArchiveScanner.Result> results = Collections.synchronizedList(new ArrayList<ArchiveScanner.Result>());
+		scanner.scan(r -> results.add(r));
+
+		assertEquals(40, results.size());
+		for (ArchiveScanner.Result r : results) {
+			assertTrue(r.getPdbId(), r.isSuccess());
+			int entry = r.getPdbId().charAt(1) - '0';
+			assertEquals(r.getPdbId(), atoms[entry], StructureTools.getAllAtomArray(r.getStructure()).length);
+		}
+	}
+
+	private static void write(byte[] data, File f) throws IOException {
+		f.getParentFile().mkdirs();
+		try (FileOutputStream out = new FileOutputStream(f)) {
+			out.write(data);
+		}
+	}
+
+	private byte[] getBytes(String resource) throws IOException {
+		try (InputStream in = this.getClass().getResourceAsStream(resource)) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[8192];
+			int n;
+			while ((n = in.read(buf)) != -1) {
+				out.write(buf, 0, n);
+			}
+			return out.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava.nbio.structure.io.mmcif;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.biojava.nbio.structure.Atom;
+import org.biojava.nbio.structure.Structure;
+import org.biojava.nbio.structure.StructureTools;
+import org.biojava.nbio.structure.io.FileParsingParameters;
+import org.biojava.nbio.structure.io.mmcif.model.AtomSite;
+import org.biojava.nbio.structure.io.mmcif.model.Entity;
+import org.junit.Test;
+
+/**
+ * Tests for {@link MMcifTokenizer} and the buffer based parsing of
+ * {@link SimpleMMcifParser}.
+ */
+public class TestMMcifTokenizer {
+
+	@Test
+	public void testTokens() {
+		String cif = "data_TEST\r\n" +
+				"# a comment\n" +
+				"_a.b   'it''s quoted'  _a.c \"  x y \" # trailing comment\n" +
+				"_a.d\n" +
+				";first line\n" +
+				"second line\n" +
+				";\n" +
+				"loop_ _b.x ?\t.\n";
+
+		MMcifTokenizer tokenizer = new MMcifTokenizer(ByteBuffer.wrap(cif.getBytes(StandardCharsets.UTF_8)));
+		List<String> tokens = new ArrayList<String>();
+		List<Boolean> quoted = new ArrayList<Boolean>();
+		while (tokenizer.next()) {
+			tokens.add(tokenizer.getString());
+			quoted.add(tokenizer.isQuoted());
+		}
+
+		assertEquals(11, tokens.size());
+		assertEquals("data_TEST", tokens.get(0));
+		assertEquals("_a.b", tokens.get(1));
+		assertEquals("it''s quoted", tokens.get(2));
+		assertEquals("x y", tokens.get(4));
+		assertTrue(quoted.get(4));
+		assertEquals("_a.d", tokens.get(5));
+		assertEquals("first linesecond line", tokens.get(6));
+		assertTrue(quoted.get(6));
+		assertEquals("loop_", tokens.get(7));
+		assertFalse(quoted.get(7));
+		assertEquals("?", tokens.get(9));
+		assertEquals(".", tokens.get(10));
+	}
+
+	@Test
+	public void testSameStructureAsLineParser() throws IOException {
+		byte[] data = getData();
+
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer();
+		consumer.setFileParsingParameters(new FileParsingParameters());
+		parser.addMMcifConsumer(consumer);
+		parser.parse(new ByteArrayInputStream(data));
+		Structure lineParsed = consumer.getStructure();
+
+		parser = new SimpleMMcifParser();
+		consumer = new SimpleMMcifConsumer();
+		consumer.setFileParsingParameters(new FileParsingParameters());
+		parser.addMMcifConsumer(consumer);
+		parser.parse(ByteBuffer.wrap(data));
+		Structure bufferParsed = consumer.getStructure();
+
+		assertEquals(lineParsed.getPDBHeader().getTitle(), bufferParsed.getPDBHeader().getTitle());
+		assertEquals(lineParsed.getEntityInfos().size(), bufferParsed.getEntityInfos().size());
+		assertEquals(lineParsed.getChains().size(), bufferParsed.getChains().size());
+
+		Atom[] lineAtoms = StructureTools.getAllAtomArray(lineParsed);
+		Atom[] bufferAtoms = StructureTools.getAllAtomArray(bufferParsed);
+		assertEquals(lineAtoms.length, bufferAtoms.length);
+		for (int i = 0; i < lineAtoms.length; i++) {
+			assertEquals(lineAtoms[i].getName(), bufferAtoms[i].getName());
+			assertEquals(lineAtoms[i].getGroup().getResidueNumber(), bufferAtoms[i].getGroup().getResidueNumber());
+			assertTrue(lineAtoms[i].getCoordsAsPoint3d().epsilonEquals(bufferAtoms[i].getCoordsAsPoint3d(), 0.0));
+		}
+	}
+
+	@Test
+	public void testColumnProjection() throws IOException {
+		byte[] data = getData();
+
+		for (boolean buffer : new boolean[] {false, true}) {
+			SimpleMMcifParser parser = new SimpleMMcifParser();
+			parser.addRequiredCategory("atom_site", "id", "Cartn_x", "Cartn_y", "Cartn_z");
+
+			final List<AtomSite> atoms = new ArrayList<AtomSite>();
+			final List<Entity> entities = new ArrayList<Entity>();
+			parser.addMMcifConsumer(new SimpleMMcifConsumer() {
+				@Override
+				public void newAtomSite(AtomSite atom) {
+					atoms.add(atom);
+				}
+				@Override
+				public void newEntity(Entity entity) {
+					entities.add(entity);
+				}
+			});
+
+			if (buffer)
+				parser.parse(ByteBuffer.wrap(data));
+			else
+				parser.parse(new ByteArrayInputStream(data));
+
+			assertTrue(entities.isEmpty());
+			// 4hhb has 4779 atom_site records
+			assertEquals(4779, atoms.size());
+			AtomSite first = atoms.get(0);
+			assertEquals("1", first.getId());
+			assertNotNull(first.getCartn_x());
+			assertNull(first.getLabel_atom_id());
+			assertNull(first.getGroup_PDB());
+		}
+	}
+
+	private byte[] getData() throws IOException {
+		try (InputStream in = new GZIPInputStream(this.getClass().getResourceAsStream("/4hhb.cif.gz"))) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[8192];
+			int n;
+			while ((n = in.read(buf)) != -1) {
+				out.write(buf, 0, n);
+			}
+			return out.toByteArray();
+		}
+	}
+}